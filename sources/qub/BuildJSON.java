@@ -6,6 +6,17 @@ public class BuildJSON extends JSONObjectWrapperBase
     private static final String javacVersionPropertyName = "javacVersion";
     private static final String sourceFilesPropertyName = "sourceFiles";
 
+    /**
+     * The source files in the order that they appear in the JSON, or null if they haven't been
+     * read from the JSON yet.
+     */
+    private List<BuildJSONSourceFile> sourceFiles;
+    /**
+     * The source files indexed by their relative paths, or null if they haven't been read from the
+     * JSON yet.
+     */
+    private java.util.HashMap<String,BuildJSONSourceFile> sourceFileIndex;
+
     private BuildJSON(JSONObject json)
     {
         super(json);
@@ -110,27 +121,47 @@ public class BuildJSON extends JSONObjectWrapperBase
         PreCondition.assertNotNull(sourceFiles, "sourceFiles");
 
         final JSONObject sourceFilesJson = JSONObject.create();
+        final java.util.HashMap<String,BuildJSONSourceFile> sourceFileIndex = new java.util.HashMap<>();
         if (!Iterable.isNullOrEmpty(sourceFiles))
         {
             for (final BuildJSONSourceFile sourceFile : sourceFiles)
             {
                 sourceFilesJson.set(sourceFile.toJsonProperty());
+                sourceFileIndex.put(sourceFile.getRelativePath().toString(), sourceFile);
             }
         }
         this.json.setObject(BuildJSON.sourceFilesPropertyName, sourceFilesJson);
 
+        // Keep the objects that were provided so that changes made through them and through the
+        // objects returned by getSourceFile() are the same changes.
+        this.sourceFiles = sourceFilesJson.getProperties()
+            .map((JSONProperty property) -> sourceFileIndex.get(Path.parse(property.getName()).toString()))
+            .toList();
+        this.sourceFileIndex = sourceFileIndex;
+
         return this;
     }
 
     public Iterable<BuildJSONSourceFile> getSourceFiles()
     {
-        final JSONObject sourceFilesJson = json.getObject(BuildJSON.sourceFilesPropertyName)
-            .catchError(() -> JSONObject.create())
-            .await();
-        return sourceFilesJson.getProperties()
-            .where(property -> !property.getName().equals(BuildJSON.projectJsonPropertyName))
-            .map((JSONProperty property) -> BuildJSONSourceFile.parse(property).await())
-            .toList();
+        if (this.sourceFiles == null)
+        {
+            final JSONObject sourceFilesJson = json.getObject(BuildJSON.sourceFilesPropertyName)
+                .catchError(() -> JSONObject.create())
+                .await();
+            final List<BuildJSONSourceFile> sourceFiles = sourceFilesJson.getProperties()
+                .where(property -> !property.getName().equals(BuildJSON.projectJsonPropertyName))
+                .map((JSONProperty property) -> BuildJSONSourceFile.parse(property).await())
+                .toList();
+            final java.util.HashMap<String,BuildJSONSourceFile> sourceFileIndex = new java.util.HashMap<>();
+            for (final BuildJSONSourceFile sourceFile : sourceFiles)
+            {
+                sourceFileIndex.put(sourceFile.getRelativePath().toString(), sourceFile);
+            }
+            this.sourceFiles = sourceFiles;
+            this.sourceFileIndex = sourceFileIndex;
+        }
+        return this.sourceFiles;
     }
 
     /**
@@ -161,12 +192,8 @@ public class BuildJSON extends JSONObjectWrapperBase
 
         return Result.create(() ->
         {
-            BuildJSONSourceFile result = null;
-            final Iterable<BuildJSONSourceFile> sourceFiles = this.getSourceFiles();
-            if (!Iterable.isNullOrEmpty(sourceFiles))
-            {
-                result = sourceFiles.first((BuildJSONSourceFile sourceFile) -> sourceFile.getRelativePath().equals(relativePath));
-            }
+            this.getSourceFiles();
+            final BuildJSONSourceFile result = this.sourceFileIndex.get(relativePath.toString());
             if (result == null)
             {
                 throw new NotFoundException("No source file found in the BuildJSON object with the path " + Strings.escapeAndQuote(relativePath.toString()) + ".");
@@ -174,4 +201,77 @@ public class BuildJSON extends JSONObjectWrapperBase
             return result;
         });
     }
+
+    /**
+     * Write this BuildJSON to the provided stream one source file at a time. The written text is
+     * the same as the text that toString(JSONFormat) returns, but the whole document is never held
+     * in memory as a single String.
+     * @param writeStream The stream to write to.
+     * @param format The format to write with.
+     * @return The result of writing this BuildJSON.
+     */
+    public Result<Void> write(CharacterWriteStream writeStream, JSONFormat format)
+    {
+        PreCondition.assertNotNull(writeStream, "writeStream");
+        PreCondition.assertNotNull(format, "format");
+
+        return Result.create(() ->
+        {
+            if (!this.json.getProperties().any())
+            {
+                writeStream.write(this.json.toString(format)).await();
+            }
+            else
+            {
+                final String newLine = format.getNewLine();
+                final String indent = format.getSingleIndent();
+                final String nameSeparator = ":" + format.getAfterPropertySeparator();
+
+                writeStream.write("{").await();
+                boolean firstProperty = true;
+                for (final JSONProperty property : this.json.getProperties())
+                {
+                    if (!firstProperty)
+                    {
+                        writeStream.write(",").await();
+                    }
+                    firstProperty = false;
+                    writeStream.write(newLine + indent + Strings.escapeAndQuote(property.getName()) + nameSeparator).await();
+
+                    final JSONObject sourceFilesJson = !property.getName().equals(BuildJSON.sourceFilesPropertyName)
+                        ? null
+                        : property.getObjectValue().catchError().await();
+                    if (sourceFilesJson == null || !sourceFilesJson.getProperties().any())
+                    {
+                        writeStream.write(BuildJSON.indent(property.getValue().toString(format), newLine, indent)).await();
+                    }
+                    else
+                    {
+                        writeStream.write("{").await();
+                        boolean firstSourceFile = true;
+                        for (final JSONProperty sourceFileProperty : sourceFilesJson.getProperties())
+                        {
+                            if (!firstSourceFile)
+                            {
+                                writeStream.write(",").await();
+                            }
+                            firstSourceFile = false;
+                            writeStream.write(newLine + indent + indent + Strings.escapeAndQuote(sourceFileProperty.getName()) + nameSeparator).await();
+                            writeStream.write(BuildJSON.indent(sourceFileProperty.getValue().toString(format), newLine, indent + indent)).await();
+                        }
+                        writeStream.write(newLine + indent + "}").await();
+                    }
+                }
+                writeStream.write(newLine + "}").await();
+            }
+        });
+    }
+
+    /**
+     * Indent every line after the first line of the provided text.
+     */
+    private static String indent(String text, String newLine, String indent)
+    {
+        return newLine.isEmpty() ? text : text.replace(newLine, newLine + indent);
+    }
 }
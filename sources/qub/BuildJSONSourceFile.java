@@ -6,10 +6,28 @@ package qub;
 public class BuildJSONSourceFile
 {
     private static final String lastModifiedPropertyName = "lastModified";
+    private static final String sizePropertyName = "size";
+    private static final String contentHashPropertyName = "contentHash";
+    private static final String apiFingerprintPropertyName = "apiFingerprint";
+    private static final String packagePropertyName = "package";
+    private static final String typesPropertyName = "types";
+    private static final String importsPropertyName = "imports";
+    private static final String referencesPropertyName = "references";
+    private static final String externalClassesPropertyName = "externalClasses";
+    private static final String classFilesPropertyName = "classFiles";
     private static final String dependenciesPropertyName = "dependencies";
     private static final String issuesPropertyName = "issues";
 
     private final JSONProperty jsonProperty;
+    private final Path relativePath;
+
+    // The values that have been decoded from the JSON. They are decoded the first time that they
+    // are read and are cleared whenever their JSON values change.
+    private DateTime lastModified;
+    private boolean lastModifiedDecoded;
+    private Iterable<Path> dependencies;
+    private boolean dependenciesDecoded;
+    private Iterable<JavaCompilerIssue> issues;
 
     private BuildJSONSourceFile(JSONProperty jsonProperty)
     {
@@ -17,6 +35,7 @@ public class BuildJSONSourceFile
         PreCondition.assertInstanceOf(jsonProperty.getValue(), JSONObject.class, "jsonProperty.getValue()");
 
         this.jsonProperty = jsonProperty;
+        this.relativePath = Path.parse(jsonProperty.getName());
     }
 
     public static BuildJSONSourceFile create(String sourceFileRelativePath)
@@ -56,7 +75,7 @@ public class BuildJSONSourceFile
      */
     public Path getRelativePath()
     {
-        return Path.parse(this.jsonProperty.getName());
+        return this.relativePath;
     }
 
     private JSONObject getPropertyValue()
@@ -70,12 +89,17 @@ public class BuildJSONSourceFile
      */
     public DateTime getLastModified()
     {
-        final String lastModifiedString = this.getPropertyValue().getString(BuildJSONSourceFile.lastModifiedPropertyName)
-            .catchError()
-            .await();
-        return Strings.isNullOrEmpty(lastModifiedString)
-            ? null
-            : DateTime.parse(lastModifiedString).catchError().await();
+        if (!this.lastModifiedDecoded)
+        {
+            final String lastModifiedString = this.getPropertyValue().getString(BuildJSONSourceFile.lastModifiedPropertyName)
+                .catchError()
+                .await();
+            this.lastModified = Strings.isNullOrEmpty(lastModifiedString)
+                ? null
+                : DateTime.parse(lastModifiedString).catchError().await();
+            this.lastModifiedDecoded = true;
+        }
+        return this.lastModified;
     }
 
     /**
@@ -87,6 +111,329 @@ public class BuildJSONSourceFile
         PreCondition.assertNotNull(lastModified, "lastModified");
 
         this.getPropertyValue().setString(BuildJSONSourceFile.lastModifiedPropertyName, lastModified.toString());
+        this.lastModified = null;
+        this.lastModifiedDecoded = false;
+        return this;
+    }
+
+    /**
+     * Get the size in bytes of the source file's contents when it was last built.
+     * @return The size in bytes of the source file's contents when it was last built, or null if
+     * the size wasn't recorded.
+     */
+    public Long getSize()
+    {
+        final Double size = this.getPropertyValue().getNumber(BuildJSONSourceFile.sizePropertyName)
+            .catchError()
+            .await();
+        return size == null ? null : size.longValue();
+    }
+
+    /**
+     * Set the size in bytes of the source file's contents.
+     * @param size The size in bytes of the source file's contents.
+     */
+    public BuildJSONSourceFile setSize(long size)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        this.getPropertyValue().setNumber(BuildJSONSourceFile.sizePropertyName, size);
+        return this;
+    }
+
+    /**
+     * Get the hash of the source file's contents when it was last built.
+     * @return The hash of the source file's contents when it was last built, or null if the hash
+     * wasn't recorded.
+     */
+    public String getContentHash()
+    {
+        return this.getPropertyValue().getString(BuildJSONSourceFile.contentHashPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the hash of the source file's contents.
+     * @param contentHash The hash of the source file's contents.
+     */
+    public BuildJSONSourceFile setContentHash(String contentHash)
+    {
+        PreCondition.assertNotNullAndNotEmpty(contentHash, "contentHash");
+
+        this.getPropertyValue().setString(BuildJSONSourceFile.contentHashPropertyName, contentHash);
+        return this;
+    }
+
+    /**
+     * Record the size and content hash of the provided source file contents.
+     * @param sourceFileContents The contents of the source file.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setSizeAndContentHash(byte[] sourceFileContents)
+    {
+        PreCondition.assertNotNull(sourceFileContents, "sourceFileContents");
+
+        return this.setSize(sourceFileContents.length)
+            .setContentHash(BuildJSONSourceFile.getContentHash(sourceFileContents));
+    }
+
+    /**
+     * Get whether or not the provided source file contents have the same size and content hash
+     * that were recorded for this source file. If no size or content hash was recorded, then the
+     * contents are not considered to be the same.
+     * @param sourceFileContents The current contents of the source file.
+     * @return Whether or not the provided source file contents have the same size and content
+     * hash that were recorded for this source file.
+     */
+    public boolean hasSameContents(byte[] sourceFileContents)
+    {
+        PreCondition.assertNotNull(sourceFileContents, "sourceFileContents");
+
+        final Long size = this.getSize();
+        final String contentHash = this.getContentHash();
+        return size != null &&
+            contentHash != null &&
+            size == sourceFileContents.length &&
+            contentHash.equals(BuildJSONSourceFile.getContentHash(sourceFileContents));
+    }
+
+    /**
+     * Get the 64-bit FNV-1a hash of the provided bytes as a 16 character hexadecimal string.
+     * @param bytes The bytes to hash.
+     * @return The hash of the provided bytes.
+     */
+    public static String getContentHash(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : bytes)
+        {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        final String hexHash = Long.toHexString(hash);
+        final String result = Strings.repeat('0', 16 - hexHash.length()) + hexHash;
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the fingerprint of the API of the class files that were compiled from the source file.
+     * @return The fingerprint of the API of the class files that were compiled from the source
+     * file, or null if the fingerprint wasn't recorded.
+     */
+    public String getApiFingerprint()
+    {
+        return this.getPropertyValue().getString(BuildJSONSourceFile.apiFingerprintPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the fingerprint of the API of the class files that were compiled from the source file.
+     * @param apiFingerprint The fingerprint of the API of the class files that were compiled from
+     *                       the source file.
+     */
+    public BuildJSONSourceFile setApiFingerprint(String apiFingerprint)
+    {
+        PreCondition.assertNotNullAndNotEmpty(apiFingerprint, "apiFingerprint");
+
+        this.getPropertyValue().setString(BuildJSONSourceFile.apiFingerprintPropertyName, apiFingerprint);
+        return this;
+    }
+
+    /**
+     * Get the package that the source file declares.
+     * @return The package that the source file declares, or null if the source file is in the
+     * default package or its package wasn't recorded.
+     */
+    public String getPackageName()
+    {
+        return this.getPropertyValue().getString(BuildJSONSourceFile.packagePropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the package that the source file declares.
+     * @param packageName The package that the source file declares.
+     */
+    public BuildJSONSourceFile setPackageName(String packageName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+
+        this.getPropertyValue().setString(BuildJSONSourceFile.packagePropertyName, packageName);
+        return this;
+    }
+
+    /**
+     * Get the names of the types other than the file's own type that the source file declares.
+     * @return The names of the types other than the file's own type that the source file
+     * declares, or null if there are none or they weren't recorded.
+     */
+    public Iterable<String> getTypes()
+    {
+        final JSONArray typesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.typesPropertyName)
+            .catchError()
+            .await();
+        return typesArray == null
+            ? null
+            : typesArray
+                .instanceOf(JSONString.class)
+                .map(JSONString::getValue)
+                .toList();
+    }
+
+    /**
+     * Set the names of the types other than the file's own type that the source file declares.
+     * These are the secondary top-level types and the nested types that other source files can
+     * refer to.
+     * @param types The names of the types other than the file's own type that the source file
+     *              declares.
+     */
+    public BuildJSONSourceFile setTypes(Iterable<String> types)
+    {
+        PreCondition.assertNotNull(types, "types");
+
+        this.getPropertyValue().setArray(BuildJSONSourceFile.typesPropertyName,
+            JSONArray.create(types.map(JSONString::get)));
+        return this;
+    }
+
+    /**
+     * Get the names that the source file imports.
+     * @return The names that the source file imports, or null if they weren't recorded.
+     */
+    public Iterable<String> getImports()
+    {
+        final JSONArray importsArray = this.getPropertyValue().getArray(BuildJSONSourceFile.importsPropertyName)
+            .catchError()
+            .await();
+        return importsArray == null
+            ? null
+            : importsArray
+                .instanceOf(JSONString.class)
+                .map(JSONString::getValue)
+                .toList();
+    }
+
+    /**
+     * Set the names that the source file imports. Static imports don't include the "static"
+     * modifier and on-demand imports end with ".*".
+     * @param imports The names that the source file imports.
+     */
+    public BuildJSONSourceFile setImports(Iterable<String> imports)
+    {
+        PreCondition.assertNotNull(imports, "imports");
+
+        this.getPropertyValue().setArray(BuildJSONSourceFile.importsPropertyName,
+            JSONArray.create(imports.map(JSONString::get)));
+        return this;
+    }
+
+    /**
+     * Get the identifiers that appear in the source file's code.
+     * @return The identifiers that appear in the source file's code, or null if they weren't
+     * recorded.
+     */
+    public Iterable<String> getReferences()
+    {
+        final JSONArray referencesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.referencesPropertyName)
+            .catchError()
+            .await();
+        return referencesArray == null
+            ? null
+            : referencesArray
+                .instanceOf(JSONString.class)
+                .map(JSONString::getValue)
+                .toList();
+    }
+
+    /**
+     * Set the identifiers that appear in the source file's code, outside of its package and
+     * import declarations. These are recorded so that the source files that may refer to a type
+     * that was added can be found without reading them again.
+     * @param references The identifiers that appear in the source file's code.
+     */
+    public BuildJSONSourceFile setReferences(Iterable<String> references)
+    {
+        PreCondition.assertNotNull(references, "references");
+
+        this.getPropertyValue().setArray(BuildJSONSourceFile.referencesPropertyName,
+            JSONArray.create(references.map(JSONString::get)));
+        return this;
+    }
+
+    /**
+     * Get the names of the classes outside of the project that the class files that were
+     * compiled from the source file refer to.
+     * @return The names of the classes outside of the project that the source file's class files
+     * refer to, or null if they weren't recorded.
+     */
+    public Iterable<String> getExternalClasses()
+    {
+        final JSONArray externalClassesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.externalClassesPropertyName)
+            .catchError()
+            .await();
+        return externalClassesArray == null
+            ? null
+            : externalClassesArray
+                .instanceOf(JSONString.class)
+                .map(JSONString::getValue)
+                .toList();
+    }
+
+    /**
+     * Set the names of the classes outside of the project that the class files that were
+     * compiled from the source file refer to.
+     * @param externalClasses The names of the classes outside of the project that the source
+     *                        file's class files refer to.
+     */
+    public BuildJSONSourceFile setExternalClasses(Iterable<String> externalClasses)
+    {
+        PreCondition.assertNotNull(externalClasses, "externalClasses");
+
+        this.getPropertyValue().setArray(BuildJSONSourceFile.externalClassesPropertyName,
+            JSONArray.create(externalClasses.map(JSONString::get)));
+        return this;
+    }
+
+    /**
+     * Get the paths, relative to the outputs folder, of the class files that were compiled from
+     * the source file.
+     * @return The relative paths of the class files that were compiled from the source file, or
+     * null if they weren't recorded.
+     */
+    public Iterable<Path> getClassFiles()
+    {
+        final JSONArray classFilesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.classFilesPropertyName)
+            .catchError()
+            .await();
+        return classFilesArray == null
+            ? null
+            : classFilesArray
+                .instanceOf(JSONString.class)
+                .map((JSONString classFile) -> Path.parse(classFile.getValue()))
+                .toList();
+    }
+
+    /**
+     * Set the paths, relative to the outputs folder, of the class files that were compiled from
+     * the source file.
+     * @param classFiles The relative paths of the class files that were compiled from the source
+     *                   file.
+     * @return This object for method chaining.
+     */
+    public BuildJSONSourceFile setClassFiles(Iterable<Path> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        this.getPropertyValue().setArray(BuildJSONSourceFile.classFilesPropertyName,
+            JSONArray.create(classFiles.map(Path::toString).map(JSONString::get)));
         return this;
     }
 
@@ -96,22 +443,27 @@ public class BuildJSONSourceFile
      */
     public Iterable<Path> getDependencies()
     {
-        final JSONArray dependenciesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.dependenciesPropertyName)
-            .catchError()
-            .await();
-        List<Path> result = null;
-        if (dependenciesArray != null)
+        if (!this.dependenciesDecoded)
         {
-            result = List.create();
-            for (final JSONSegment dependencySegment : dependenciesArray)
+            final JSONArray dependenciesArray = this.getPropertyValue().getArray(BuildJSONSourceFile.dependenciesPropertyName)
+                .catchError()
+                .await();
+            List<Path> dependencies = null;
+            if (dependenciesArray != null)
             {
-                final JSONString dependency = (JSONString)dependencySegment;
-                final String dependencyPathString = dependency.getValue();
-                final Path dependencyPath = Path.parse(dependencyPathString);
-                result.add(dependencyPath);
+                dependencies = List.create();
+                for (final JSONSegment dependencySegment : dependenciesArray)
+                {
+                    final JSONString dependency = (JSONString)dependencySegment;
+                    final String dependencyPathString = dependency.getValue();
+                    final Path dependencyPath = Path.parse(dependencyPathString);
+                    dependencies.add(dependencyPath);
+                }
             }
+            this.dependencies = dependencies;
+            this.dependenciesDecoded = true;
         }
-        return result;
+        return this.dependencies;
     }
 
     /**
@@ -124,6 +476,8 @@ public class BuildJSONSourceFile
 
         this.getPropertyValue().setArray(BuildJSONSourceFile.dependenciesPropertyName,
             JSONArray.create(dependencies.map(Path::toString).map(JSONString::get)));
+        this.dependencies = null;
+        this.dependenciesDecoded = false;
         return this;
     }
 
@@ -146,6 +500,7 @@ public class BuildJSONSourceFile
             propertyValue.setArray(BuildJSONSourceFile.issuesPropertyName, issuesArray);
         }
         issuesArray.add(issue.toJson());
+        this.issues = null;
 
         return this;
     }
@@ -156,6 +511,7 @@ public class BuildJSONSourceFile
 
         final JSONObject propertyValue = this.getPropertyValue();
         propertyValue.setArray(BuildJSONSourceFile.issuesPropertyName, JSONArray.create(issues.map(JavaCompilerIssue::toJson)));
+        this.issues = null;
 
         return this;
     }
@@ -166,16 +522,20 @@ public class BuildJSONSourceFile
      */
     public Iterable<JavaCompilerIssue> getIssues()
     {
-        final JSONObject propertyValue = this.getPropertyValue();
-        final JSONArray issuesArray = propertyValue.getArray(BuildJSONSourceFile.issuesPropertyName)
-            .catchError()
-            .await();
-        final Iterable<JavaCompilerIssue> result = issuesArray == null
-            ? Iterable.create()
-            : issuesArray
-                .instanceOf(JSONObject.class)
-                .map((JSONObject issueJson) -> JavaCompilerIssue.parse(issueJson).await())
-                .toList();
+        if (this.issues == null)
+        {
+            final JSONObject propertyValue = this.getPropertyValue();
+            final JSONArray issuesArray = propertyValue.getArray(BuildJSONSourceFile.issuesPropertyName)
+                .catchError()
+                .await();
+            this.issues = issuesArray == null
+                ? Iterable.create()
+                : issuesArray
+                    .instanceOf(JSONObject.class)
+                    .map((JSONObject issueJson) -> JavaCompilerIssue.parse(issueJson).await())
+                    .toList();
+        }
+        final Iterable<JavaCompilerIssue> result = this.issues;
 
         PostCondition.assertNotNull(result, "result");
 
@@ -193,6 +553,15 @@ public class BuildJSONSourceFile
         return rhs != null &&
             Comparer.equal(this.getRelativePath().toString(), rhs.getRelativePath().toString()) &&
             Comparer.equal(this.getLastModified(), rhs.getLastModified()) &&
+            Comparer.equal(this.getSize(), rhs.getSize()) &&
+            Comparer.equal(this.getContentHash(), rhs.getContentHash()) &&
+            Comparer.equal(this.getApiFingerprint(), rhs.getApiFingerprint()) &&
+            Comparer.equal(this.getPackageName(), rhs.getPackageName()) &&
+            Comparer.equal(this.getTypes(), rhs.getTypes()) &&
+            Comparer.equal(this.getImports(), rhs.getImports()) &&
+            Comparer.equal(this.getReferences(), rhs.getReferences()) &&
+            Comparer.equal(this.getExternalClasses(), rhs.getExternalClasses()) &&
+            Comparer.equal(this.getClassFiles(), rhs.getClassFiles()) &&
             Comparer.equal(this.getDependencies(), rhs.getDependencies()) &&
             Comparer.equal(this.getIssues(), rhs.getIssues());
     }
@@ -224,6 +593,60 @@ public class BuildJSONSourceFile
             result.setString(BuildJSONSourceFile.lastModifiedPropertyName, lastModified.toString());
         }
 
+        final Long size = this.getSize();
+        if (size != null)
+        {
+            result.setNumber(BuildJSONSourceFile.sizePropertyName, size);
+        }
+
+        final String contentHash = this.getContentHash();
+        if (!Strings.isNullOrEmpty(contentHash))
+        {
+            result.setString(BuildJSONSourceFile.contentHashPropertyName, contentHash);
+        }
+
+        final String apiFingerprint = this.getApiFingerprint();
+        if (!Strings.isNullOrEmpty(apiFingerprint))
+        {
+            result.setString(BuildJSONSourceFile.apiFingerprintPropertyName, apiFingerprint);
+        }
+
+        final String packageName = this.getPackageName();
+        if (!Strings.isNullOrEmpty(packageName))
+        {
+            result.setString(BuildJSONSourceFile.packagePropertyName, packageName);
+        }
+
+        final Iterable<String> types = this.getTypes();
+        if (!Iterable.isNullOrEmpty(types))
+        {
+            result.set(BuildJSONSourceFile.typesPropertyName, JSONArray.create(types.map(JSONString::get)));
+        }
+
+        final Iterable<String> imports = this.getImports();
+        if (imports != null)
+        {
+            result.set(BuildJSONSourceFile.importsPropertyName, JSONArray.create(imports.map(JSONString::get)));
+        }
+
+        final Iterable<String> references = this.getReferences();
+        if (references != null)
+        {
+            result.set(BuildJSONSourceFile.referencesPropertyName, JSONArray.create(references.map(JSONString::get)));
+        }
+
+        final Iterable<String> externalClasses = this.getExternalClasses();
+        if (!Iterable.isNullOrEmpty(externalClasses))
+        {
+            result.set(BuildJSONSourceFile.externalClassesPropertyName, JSONArray.create(externalClasses.map(JSONString::get)));
+        }
+
+        final Iterable<Path> classFiles = this.getClassFiles();
+        if (!Iterable.isNullOrEmpty(classFiles))
+        {
+            result.set(BuildJSONSourceFile.classFilesPropertyName, JSONArray.create(classFiles.map(Path::toString).map(JSONString::get)));
+        }
+
         final Iterable<Path> dependencies = this.getDependencies();
         if (!Iterable.isNullOrEmpty(dependencies))
         {
@@ -258,8 +681,9 @@ public class BuildJSONSourceFile
         PreCondition.assertNotNull(sourceFiles, "sourceFiles");
         PreCondition.assertNotNull(rootFolder, "rootFolder");
 
+        final JavaDependencyResolver dependencyResolver = JavaDependencyResolver.create(rootFolder, sourceFiles);
         final Iterable<BuildJSONSourceFile> result = sourceFiles
-            .map((File sourceFile) -> BuildJSONSourceFile.create(sourceFile, rootFolder, sourceFiles))
+            .map((File sourceFile) -> BuildJSONSourceFile.create(sourceFile, sourceFile.getLastModified().await(), dependencyResolver))
             .toList();
 
         PostCondition.assertNotNull(result, "result");
@@ -277,28 +701,41 @@ public class BuildJSONSourceFile
     public static BuildJSONSourceFile create(File sourceFile, Folder rootFolder, Iterable<File> sourceFiles)
     {
         PreCondition.assertNotNull(sourceFile, "sourceFile");
-        PreCondition.assertNotNull(rootFolder, "rootFolder");
 
-        final Path sourceFileRelativePath = sourceFile.relativeTo(rootFolder);
+        return BuildJSONSourceFile.create(sourceFile, sourceFile.getLastModified().await(), JavaDependencyResolver.create(rootFolder, sourceFiles));
+    }
+
+    /**
+     * Create a new BuildJSONSourceFile based on the provided sourceFile.
+     * @param sourceFile The source file to create a BuildJSONSourceFile from.
+     * @param sourceFileLastModified The last modified time of the source file.
+     * @param dependencyResolver The resolver that finds the source files that the sourceFile
+     *                           depends on.
+     * @return The created BuildJSONSourceFile from the provided source file.
+     */
+    public static BuildJSONSourceFile create(File sourceFile, DateTime sourceFileLastModified, JavaDependencyResolver dependencyResolver)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+        PreCondition.assertNotNull(sourceFileLastModified, "sourceFileLastModified");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+
+        final Path sourceFileRelativePath = sourceFile.relativeTo(dependencyResolver.getRootFolder());
         final BuildJSONSourceFile result = BuildJSONSourceFile.create(sourceFileRelativePath);
-        result.setLastModified(sourceFile.getLastModified().await());
+        result.setLastModified(sourceFileLastModified);
 
-        final String sourceFileContents = sourceFile.getContentsAsString().await();
-        final Iterable<String> sourceFileWords = Strings.getWords(sourceFileContents);
+        final String packageName = dependencyResolver.getSymbols(sourceFile).getPackageName();
+        if (!packageName.isEmpty())
+        {
+            result.setPackageName(packageName);
+        }
 
-        final List<Path> sourceFileDependencyPaths = List.create();
-        for (final File otherSourceFile : sourceFiles)
+        final Iterable<String> otherTypeNames = dependencyResolver.getOtherTypeNames(sourceFile);
+        if (otherTypeNames.any())
         {
-            if (sourceFile != otherSourceFile)
-            {
-                final String otherSourceFileClassName = otherSourceFile.getNameWithoutFileExtension();
-                if (sourceFileWords.contains(otherSourceFileClassName))
-                {
-                    final Path otherSourceFilePath = otherSourceFile.relativeTo(rootFolder);
-                    sourceFileDependencyPaths.add(otherSourceFilePath);
-                }
-            }
+            result.setTypes(otherTypeNames);
         }
+
+        final Iterable<Path> sourceFileDependencyPaths = dependencyResolver.getDependencies(sourceFile);
         if (sourceFileDependencyPaths.any())
         {
             result.setDependencies(sourceFileDependencyPaths);
@@ -0,0 +1,470 @@
+package qub;
+
+/**
+ * A compact binary alternative to the build.json file. Each path is stored once in a path table.
+ * Each source file is stored as a fixed-width record of its last modified time, size, and content
+ * hash. Its dependencies are stored as indexes into the path table. The properties that don't have
+ * fixed widths (such as issues and types) are stored as JSON text that is only parsed when its
+ * source file is read.
+ * <p>
+ * The file starts with a header, followed by the path table, the records, the dependency indexes,
+ * and the JSON text:
+ * <pre>
+ * int magic, int version, string javacVersion, string projectJson,
+ * int pathCount, string[pathCount] paths,
+ * int sourceFileCount, int dependencyIndexCount, int extrasByteCount,
+ * record[sourceFileCount] records, int[dependencyIndexCount] dependencyIndexes,
+ * byte[extrasByteCount] extras
+ * </pre>
+ * Strings are stored as an int byte count followed by their UTF-8 bytes. The record at index i is
+ * for the source file whose path is at index i of the path table.
+ */
+public class BuildStateFile
+{
+    private static final int magic = 0x51425354; // "QBST"
+    private static final int version = 1;
+
+    /**
+     * The number of bytes in each source file record: lastModified (double milliseconds since the
+     * epoch), size (long), contentHash (long), flags (int), dependenciesStart (int),
+     * dependenciesCount (int), extrasStart (int), and extrasLength (int).
+     */
+    private static final int recordByteCount = 8 + 8 + 8 + 4 + 4 + 4 + 4 + 4;
+
+    private static final int hasLastModifiedFlag = 1;
+    private static final int hasSizeFlag = 2;
+    private static final int hasContentHashFlag = 4;
+
+    private static final String lastModifiedPropertyName = "lastModified";
+    private static final String sizePropertyName = "size";
+    private static final String contentHashPropertyName = "contentHash";
+    private static final String dependenciesPropertyName = "dependencies";
+
+    private final java.nio.ByteBuffer buffer;
+    private final String javacVersion;
+    private final String projectJson;
+    private final String[] paths;
+    private final java.util.HashMap<String,Integer> sourceFileIndexes;
+    private final int sourceFileCount;
+    private final int recordsOffset;
+    private final int dependencyIndexesOffset;
+    private final int extrasOffset;
+
+    private BuildStateFile(java.nio.ByteBuffer buffer)
+    {
+        PreCondition.assertNotNull(buffer, "buffer");
+
+        this.buffer = buffer;
+        if (buffer.remaining() < 8 || buffer.getInt() != BuildStateFile.magic)
+        {
+            throw new ParseException("Expected the build state file to start with its magic number.");
+        }
+        final int fileVersion = buffer.getInt();
+        if (fileVersion != BuildStateFile.version)
+        {
+            throw new ParseException("Unsupported build state file version: " + fileVersion);
+        }
+        this.javacVersion = BuildStateFile.readString(buffer);
+        this.projectJson = BuildStateFile.readString(buffer);
+
+        this.paths = new String[buffer.getInt()];
+        for (int i = 0; i < this.paths.length; ++i)
+        {
+            this.paths[i] = BuildStateFile.readString(buffer);
+        }
+
+        this.sourceFileCount = buffer.getInt();
+        final int dependencyIndexCount = buffer.getInt();
+        buffer.getInt(); // extrasByteCount
+        this.recordsOffset = buffer.position();
+        this.dependencyIndexesOffset = this.recordsOffset + (this.sourceFileCount * BuildStateFile.recordByteCount);
+        this.extrasOffset = this.dependencyIndexesOffset + (dependencyIndexCount * 4);
+
+        this.sourceFileIndexes = new java.util.HashMap<>();
+        for (int i = 0; i < this.sourceFileCount; ++i)
+        {
+            this.sourceFileIndexes.put(this.paths[i], i);
+        }
+    }
+
+    /**
+     * Read the build state file at the provided file. Files on the real file system are memory
+     * mapped so that only the records that are read are decoded.
+     * @param file The build state file to read.
+     * @return The build state file.
+     */
+    public static Result<BuildStateFile> read(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create(() ->
+        {
+            java.nio.ByteBuffer buffer;
+            if (file.getFileSystem() instanceof JavaFileSystem)
+            {
+                final java.nio.file.Path filePath = java.nio.file.Paths.get(file.getPath().toString());
+                try (final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(filePath, java.nio.file.StandardOpenOption.READ))
+                {
+                    buffer = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                catch (java.nio.file.NoSuchFileException e)
+                {
+                    throw new FileNotFoundException(file);
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            else
+            {
+                buffer = java.nio.ByteBuffer.wrap(file.getContents().await());
+            }
+
+            try
+            {
+                return new BuildStateFile(buffer);
+            }
+            catch (java.nio.BufferUnderflowException | IndexOutOfBoundsException e)
+            {
+                throw new ParseException("The build state file ended unexpectedly.");
+            }
+        });
+    }
+
+    /**
+     * Write the provided BuildJSON to the provided file in the build state format.
+     * @param file The file to write to.
+     * @param buildJson The BuildJSON to write.
+     * @return The result of writing the file.
+     */
+    public static Result<Void> write(File file, BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        return Result.create(() ->
+        {
+            file.setContents(BuildStateFile.toBytes(buildJson)).await();
+        });
+    }
+
+    /**
+     * Encode the provided BuildJSON in the build state format.
+     * @param buildJson The BuildJSON to encode.
+     * @return The encoded bytes.
+     */
+    static byte[] toBytes(BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        final Iterable<BuildJSONSourceFile> sourceFiles = buildJson.getSourceFiles();
+
+        // Source file paths come first in the path table so that a record's index is also the
+        // index of its path.
+        final List<String> paths = List.create();
+        final java.util.HashMap<String,Integer> pathIndexes = new java.util.HashMap<>();
+        for (final BuildJSONSourceFile sourceFile : sourceFiles)
+        {
+            BuildStateFile.internPath(sourceFile.getRelativePath().toString(), paths, pathIndexes);
+        }
+
+        final java.io.ByteArrayOutputStream records = new java.io.ByteArrayOutputStream();
+        final java.io.ByteArrayOutputStream dependencyIndexes = new java.io.ByteArrayOutputStream();
+        final java.io.ByteArrayOutputStream extras = new java.io.ByteArrayOutputStream();
+        int dependencyIndexCount = 0;
+        try
+        {
+            final java.io.DataOutputStream recordsStream = new java.io.DataOutputStream(records);
+            final java.io.DataOutputStream dependencyIndexesStream = new java.io.DataOutputStream(dependencyIndexes);
+            for (final BuildJSONSourceFile sourceFile : sourceFiles)
+            {
+                int flags = 0;
+
+                // A last modified time that doesn't survive the trip through milliseconds since the
+                // epoch is left in the JSON text instead.
+                final DateTime lastModified = sourceFile.getLastModified();
+                double lastModifiedMilliseconds = 0;
+                boolean hasFixedWidthLastModified = false;
+                if (lastModified != null)
+                {
+                    lastModifiedMilliseconds = lastModified.getDurationSinceEpoch().toMilliseconds().getValue();
+                    hasFixedWidthLastModified = lastModified.equals(DateTime.createFromDurationSinceEpoch(Duration.milliseconds(lastModifiedMilliseconds)));
+                    if (hasFixedWidthLastModified)
+                    {
+                        flags |= BuildStateFile.hasLastModifiedFlag;
+                    }
+                }
+
+                final Long size = sourceFile.getSize();
+                if (size != null)
+                {
+                    flags |= BuildStateFile.hasSizeFlag;
+                }
+
+                final String contentHash = sourceFile.getContentHash();
+                final boolean hasFixedWidthContentHash = BuildStateFile.isFixedWidthContentHash(contentHash);
+                if (hasFixedWidthContentHash)
+                {
+                    flags |= BuildStateFile.hasContentHashFlag;
+                }
+
+                final int dependenciesStart = dependencyIndexCount;
+                final Iterable<Path> dependencies = sourceFile.getDependencies();
+                if (dependencies != null)
+                {
+                    for (final Path dependency : dependencies)
+                    {
+                        dependencyIndexesStream.writeInt(BuildStateFile.internPath(dependency.toString(), paths, pathIndexes));
+                        ++dependencyIndexCount;
+                    }
+                }
+
+                // A source file without a dependencies property is stored with a count of -1 so
+                // that it can be told apart from a source file with no dependencies.
+                final int dependenciesCount = dependencies == null ? -1 : dependencyIndexCount - dependenciesStart;
+
+                final JSONObject extrasJson = JSONObject.create();
+                for (final JSONProperty property : sourceFile.toJson().getProperties())
+                {
+                    final String propertyName = property.getName();
+                    if (!(hasFixedWidthLastModified && propertyName.equals(BuildStateFile.lastModifiedPropertyName)) &&
+                        !propertyName.equals(BuildStateFile.sizePropertyName) &&
+                        !(hasFixedWidthContentHash && propertyName.equals(BuildStateFile.contentHashPropertyName)) &&
+                        !propertyName.equals(BuildStateFile.dependenciesPropertyName))
+                    {
+                        extrasJson.set(property);
+                    }
+                }
+                final int extrasStart = extras.size();
+                if (extrasJson.getProperties().any())
+                {
+                    extras.write(extrasJson.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                }
+
+                recordsStream.writeDouble(lastModifiedMilliseconds);
+                recordsStream.writeLong(size == null ? 0 : size);
+                recordsStream.writeLong(hasFixedWidthContentHash ? Long.parseUnsignedLong(contentHash, 16) : 0);
+                recordsStream.writeInt(flags);
+                recordsStream.writeInt(dependenciesStart);
+                recordsStream.writeInt(dependenciesCount);
+                recordsStream.writeInt(extrasStart);
+                recordsStream.writeInt(extras.size() - extrasStart);
+            }
+
+            final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+            final java.io.DataOutputStream resultStream = new java.io.DataOutputStream(result);
+            resultStream.writeInt(BuildStateFile.magic);
+            resultStream.writeInt(BuildStateFile.version);
+
+            final VersionNumber javacVersion = buildJson.getJavacVersion();
+            BuildStateFile.writeString(resultStream, javacVersion == null ? "" : javacVersion.toString());
+            final ProjectJSON projectJson = buildJson.getProjectJson();
+            BuildStateFile.writeString(resultStream, projectJson == null ? "" : projectJson.toJson().toString());
+
+            resultStream.writeInt(paths.getCount());
+            for (final String path : paths)
+            {
+                BuildStateFile.writeString(resultStream, path);
+            }
+
+            resultStream.writeInt(sourceFiles.getCount());
+            resultStream.writeInt(dependencyIndexCount);
+            resultStream.writeInt(extras.size());
+            records.writeTo(resultStream);
+            dependencyIndexes.writeTo(resultStream);
+            extras.writeTo(resultStream);
+            resultStream.flush();
+
+            return result.toByteArray();
+        }
+        catch (java.io.IOException e)
+        {
+            throw Exceptions.asRuntime(e);
+        }
+    }
+
+    private static int internPath(String path, List<String> paths, java.util.HashMap<String,Integer> pathIndexes)
+    {
+        Integer result = pathIndexes.get(path);
+        if (result == null)
+        {
+            result = paths.getCount();
+            paths.add(path);
+            pathIndexes.put(path, result);
+        }
+        return result;
+    }
+
+    private static boolean isFixedWidthContentHash(String contentHash)
+    {
+        boolean result = contentHash != null && contentHash.length() == 16;
+        for (int i = 0; result && i < contentHash.length(); ++i)
+        {
+            result = Character.digit(contentHash.charAt(i), 16) != -1 && !Character.isUpperCase(contentHash.charAt(i));
+        }
+        return result;
+    }
+
+    private static void writeString(java.io.DataOutputStream stream, String value) throws java.io.IOException
+    {
+        final byte[] bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static String readString(java.nio.ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the version of javac that the project was built with.
+     * @return The version of javac that the project was built with, or null if it wasn't
+     * recorded.
+     */
+    public VersionNumber getJavacVersion()
+    {
+        return Strings.isNullOrEmpty(this.javacVersion)
+            ? null
+            : VersionNumber.parse(this.javacVersion).await();
+    }
+
+    /**
+     * Get the project.json that the project was built with.
+     * @return The project.json that the project was built with, or null if it wasn't recorded.
+     */
+    public ProjectJSON getProjectJson()
+    {
+        return Strings.isNullOrEmpty(this.projectJson)
+            ? null
+            : ProjectJSON.create(JSON.parseObject(this.projectJson).await());
+    }
+
+    /**
+     * Get the number of source files in this build state file.
+     * @return The number of source files in this build state file.
+     */
+    public int getSourceFileCount()
+    {
+        return this.sourceFileCount;
+    }
+
+    /**
+     * Get the source file with the provided relative path. Only that source file's record is
+     * decoded.
+     * @param relativePath The path to the source file, relative to the project folder.
+     * @return The source file with the provided relative path.
+     */
+    public Result<BuildJSONSourceFile> getSourceFile(Path relativePath)
+    {
+        PreCondition.assertNotNull(relativePath, "relativePath");
+        PreCondition.assertFalse(relativePath.isRooted(), "relativePath.isRooted()");
+
+        return Result.create(() ->
+        {
+            final Integer sourceFileIndex = this.sourceFileIndexes.get(relativePath.toString());
+            if (sourceFileIndex == null)
+            {
+                throw new NotFoundException("No source file found in the build state file with the path " + Strings.escapeAndQuote(relativePath.toString()) + ".");
+            }
+            return this.getSourceFile(sourceFileIndex);
+        });
+    }
+
+    /**
+     * Decode the source file record at the provided index.
+     */
+    private BuildJSONSourceFile getSourceFile(int sourceFileIndex)
+    {
+        final int recordOffset = this.recordsOffset + (sourceFileIndex * BuildStateFile.recordByteCount);
+        final double lastModifiedMilliseconds = this.buffer.getDouble(recordOffset);
+        final long size = this.buffer.getLong(recordOffset + 8);
+        final long contentHash = this.buffer.getLong(recordOffset + 16);
+        final int flags = this.buffer.getInt(recordOffset + 24);
+        final int dependenciesStart = this.buffer.getInt(recordOffset + 28);
+        final int dependenciesCount = this.buffer.getInt(recordOffset + 32);
+        final int extrasStart = this.buffer.getInt(recordOffset + 36);
+        final int extrasLength = this.buffer.getInt(recordOffset + 40);
+
+        final JSONObject sourceFileJson = JSONObject.create();
+        if ((flags & BuildStateFile.hasLastModifiedFlag) != 0)
+        {
+            sourceFileJson.setString(BuildStateFile.lastModifiedPropertyName,
+                DateTime.createFromDurationSinceEpoch(Duration.milliseconds(lastModifiedMilliseconds)).toString());
+        }
+        if ((flags & BuildStateFile.hasSizeFlag) != 0)
+        {
+            sourceFileJson.setNumber(BuildStateFile.sizePropertyName, size);
+        }
+        if ((flags & BuildStateFile.hasContentHashFlag) != 0)
+        {
+            final String hexHash = Long.toHexString(contentHash);
+            sourceFileJson.setString(BuildStateFile.contentHashPropertyName, Strings.repeat('0', 16 - hexHash.length()) + hexHash);
+        }
+        if (extrasLength > 0)
+        {
+            final byte[] extrasBytes = new byte[extrasLength];
+            for (int i = 0; i < extrasLength; ++i)
+            {
+                extrasBytes[i] = this.buffer.get(this.extrasOffset + extrasStart + i);
+            }
+            final JSONObject extrasJson = JSON.parseObject(new String(extrasBytes, java.nio.charset.StandardCharsets.UTF_8)).await();
+            for (final JSONProperty property : extrasJson.getProperties())
+            {
+                sourceFileJson.set(property);
+            }
+        }
+        if (dependenciesCount >= 0)
+        {
+            final List<JSONSegment> dependencies = List.create();
+            for (int i = 0; i < dependenciesCount; ++i)
+            {
+                final int pathIndex = this.buffer.getInt(this.dependencyIndexesOffset + ((dependenciesStart + i) * 4));
+                dependencies.add(JSONString.get(this.paths[pathIndex]));
+            }
+            sourceFileJson.setArray(BuildStateFile.dependenciesPropertyName, JSONArray.create(dependencies));
+        }
+
+        return BuildJSONSourceFile.parse(JSONProperty.create(this.paths[sourceFileIndex], sourceFileJson)).await();
+    }
+
+    /**
+     * Decode every source file in this build state file.
+     * @return The source files in this build state file.
+     */
+    public Iterable<BuildJSONSourceFile> getSourceFiles()
+    {
+        final List<BuildJSONSourceFile> result = List.create();
+        for (int i = 0; i < this.sourceFileCount; ++i)
+        {
+            result.add(this.getSourceFile(i));
+        }
+        return result;
+    }
+
+    /**
+     * Decode this build state file into a BuildJSON object.
+     * @return The BuildJSON object that this build state file stores.
+     */
+    public BuildJSON toBuildJson()
+    {
+        final BuildJSON result = BuildJSON.create();
+        if (!Strings.isNullOrEmpty(this.javacVersion))
+        {
+            result.setJavacVersion(this.javacVersion);
+        }
+        final ProjectJSON projectJson = this.getProjectJson();
+        if (projectJson != null)
+        {
+            result.setProjectJson(projectJson);
+        }
+        if (this.sourceFileCount > 0)
+        {
+            result.setSourceFiles(this.getSourceFiles());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,319 @@
+package qub;
+
+/**
+ * An append-only log of the changes that builds made to a build state snapshot (a build.json or
+ * build.state file). Each line of the journal is a compact JSON record that contains the javac
+ * version and project.json that the build used, the source file entries that changed, and the
+ * paths of the source file entries that were removed. Reading the build state means reading the
+ * snapshot and then replaying the journal's records over it in order.
+ */
+public class BuildStateJournal
+{
+    private static final String javacVersionPropertyName = "javacVersion";
+    private static final String projectJsonPropertyName = "project.json";
+    private static final String sourceFilesPropertyName = "sourceFiles";
+    private static final String removedSourceFilesPropertyName = "removedSourceFiles";
+
+    /**
+     * The journal is compacted into a new snapshot once it is larger than this fraction of the
+     * snapshot's size.
+     */
+    static final double compactionRatio = 0.5;
+
+    private BuildStateJournal()
+    {
+    }
+
+    /**
+     * Get the text of each source file entry in the provided BuildJSON, indexed by the entry's
+     * relative path. This is captured before a build changes the entries so that the entries that
+     * changed can be found when the build finishes.
+     * @param buildJson The BuildJSON to get the source file entry texts of.
+     * @return The text of each source file entry, indexed by the entry's relative path.
+     */
+    public static java.util.HashMap<String,String> getSourceFileTexts(BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        final java.util.HashMap<String,String> result = new java.util.HashMap<>();
+        for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+        {
+            result.put(sourceFile.getRelativePath().toString(), sourceFile.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Create the journal record that turns the build state with the provided source file entry
+     * texts into the provided BuildJSON.
+     * @param previousSourceFileTexts The source file entry texts of the previous build state.
+     * @param buildJson The updated build state.
+     * @return The journal record.
+     */
+    public static JSONObject createRecord(java.util.HashMap<String,String> previousSourceFileTexts, BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(previousSourceFileTexts, "previousSourceFileTexts");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        final JSONObject result = JSONObject.create();
+
+        final VersionNumber javacVersion = buildJson.getJavacVersion();
+        if (javacVersion != null)
+        {
+            result.setString(BuildStateJournal.javacVersionPropertyName, javacVersion.toString());
+        }
+
+        final ProjectJSON projectJson = buildJson.getProjectJson();
+        if (projectJson != null)
+        {
+            result.setObject(BuildStateJournal.projectJsonPropertyName, projectJson.toJson());
+        }
+
+        final JSONObject changedSourceFilesJson = JSONObject.create();
+        final java.util.HashSet<String> sourceFilePaths = new java.util.HashSet<>();
+        for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+        {
+            final String sourceFilePath = sourceFile.getRelativePath().toString();
+            sourceFilePaths.add(sourceFilePath);
+            if (!sourceFile.toString().equals(previousSourceFileTexts.get(sourceFilePath)))
+            {
+                changedSourceFilesJson.set(sourceFile.toJsonProperty());
+            }
+        }
+        if (changedSourceFilesJson.getProperties().any())
+        {
+            result.setObject(BuildStateJournal.sourceFilesPropertyName, changedSourceFilesJson);
+        }
+
+        final List<String> removedSourceFilePaths = List.create();
+        for (final String previousSourceFilePath : previousSourceFileTexts.keySet())
+        {
+            if (!sourceFilePaths.contains(previousSourceFilePath))
+            {
+                removedSourceFilePaths.add(previousSourceFilePath);
+            }
+        }
+        if (removedSourceFilePaths.any())
+        {
+            final Iterable<String> orderedRemovedSourceFilePaths = removedSourceFilePaths.order((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+            result.set(BuildStateJournal.removedSourceFilesPropertyName, JSONArray.create(orderedRemovedSourceFilePaths.map(JSONString::get)));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Replay the records in the provided journal file over the provided BuildJSON. A record that
+     * can't be parsed (such as a record that was only partially written when a build was
+     * interrupted) ends the replay.
+     * @param journalFile The journal file to replay.
+     * @param buildJson The build state snapshot to replay the journal's records over.
+     * @return The number of records that were replayed.
+     */
+    public static Result<Integer> replay(File journalFile, BuildJSON buildJson)
+    {
+        PreCondition.assertNotNull(journalFile, "journalFile");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        return Result.create(() ->
+        {
+            int result = 0;
+
+            final String journalText = journalFile.getContentsAsString()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(journalText))
+            {
+                final java.util.LinkedHashMap<String,BuildJSONSourceFile> sourceFiles = new java.util.LinkedHashMap<>();
+                for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+                {
+                    sourceFiles.put(sourceFile.getRelativePath().toString(), sourceFile);
+                }
+
+                for (final String line : Strings.getLines(journalText))
+                {
+                    if (!Strings.isNullOrEmpty(line))
+                    {
+                        final JSONObject record = JSON.parseObject(line)
+                            .catchError()
+                            .await();
+                        if (record == null)
+                        {
+                            break;
+                        }
+
+                        final String javacVersion = record.getString(BuildStateJournal.javacVersionPropertyName)
+                            .catchError()
+                            .await();
+                        if (!Strings.isNullOrEmpty(javacVersion))
+                        {
+                            buildJson.setJavacVersion(javacVersion);
+                        }
+
+                        final JSONObject projectJson = record.getObject(BuildStateJournal.projectJsonPropertyName)
+                            .catchError()
+                            .await();
+                        if (projectJson != null)
+                        {
+                            buildJson.setProjectJson(ProjectJSON.create(projectJson));
+                        }
+
+                        final JSONObject changedSourceFilesJson = record.getObject(BuildStateJournal.sourceFilesPropertyName)
+                            .catchError()
+                            .await();
+                        if (changedSourceFilesJson != null)
+                        {
+                            for (final JSONProperty sourceFileProperty : changedSourceFilesJson.getProperties())
+                            {
+                                final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.parse(sourceFileProperty).await();
+                                sourceFiles.put(sourceFile.getRelativePath().toString(), sourceFile);
+                            }
+                        }
+
+                        final JSONArray removedSourceFilesJson = record.getArray(BuildStateJournal.removedSourceFilesPropertyName)
+                            .catchError()
+                            .await();
+                        if (removedSourceFilesJson != null)
+                        {
+                            for (final JSONSegment removedSourceFileSegment : removedSourceFilesJson)
+                            {
+                                final JSONString removedSourceFile = (JSONString)removedSourceFileSegment;
+                                sourceFiles.remove(Path.parse(removedSourceFile.getValue()).toString());
+                            }
+                        }
+
+                        ++result;
+                    }
+                }
+
+                if (result > 0)
+                {
+                    final List<BuildJSONSourceFile> replayedSourceFiles = List.create();
+                    for (final BuildJSONSourceFile sourceFile : sourceFiles.values())
+                    {
+                        replayedSourceFiles.add(sourceFile);
+                    }
+                    buildJson.setSourceFiles(replayedSourceFiles);
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Append the provided record to the end of the provided journal file.
+     * @param journalFile The journal file to append to.
+     * @param record The record to append.
+     * @return The result of appending the record.
+     */
+    public static Result<Void> append(File journalFile, JSONObject record)
+    {
+        PreCondition.assertNotNull(journalFile, "journalFile");
+        PreCondition.assertNotNull(record, "record");
+
+        return Result.create(() ->
+        {
+            final byte[] recordBytes = (record.toString(JSONFormat.consise) + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            if (journalFile.getFileSystem() instanceof JavaFileSystem)
+            {
+                try
+                {
+                    java.nio.file.Files.write(java.nio.file.Paths.get(journalFile.getPath().toString()), recordBytes,
+                        java.nio.file.StandardOpenOption.CREATE,
+                        java.nio.file.StandardOpenOption.APPEND);
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            else
+            {
+                final String journalText = journalFile.getContentsAsString()
+                    .catchError(FileNotFoundException.class)
+                    .await();
+                journalFile.setContentsAsString((journalText == null ? "" : journalText) + new String(recordBytes, java.nio.charset.StandardCharsets.UTF_8)).await();
+            }
+        });
+    }
+
+    /**
+     * Get whether or not the provided journal file should be compacted into a new snapshot
+     * instead of having another record appended to it.
+     * @param journalFile The journal file.
+     * @param snapshotFile The build state snapshot file that the journal's records apply to.
+     * @param record The record that would be appended.
+     * @return Whether or not the journal should be compacted.
+     */
+    public static boolean shouldCompact(File journalFile, File snapshotFile, JSONObject record)
+    {
+        PreCondition.assertNotNull(journalFile, "journalFile");
+        PreCondition.assertNotNull(snapshotFile, "snapshotFile");
+        PreCondition.assertNotNull(record, "record");
+
+        final long snapshotSize = BuildStateJournal.getSize(snapshotFile);
+        final long journalSize = BuildStateJournal.getSize(journalFile) + record.toString(JSONFormat.consise).length() + 1;
+        return snapshotSize == 0 || journalSize > snapshotSize * BuildStateJournal.compactionRatio;
+    }
+
+    /**
+     * Get the last modified time of the build state that is made up of the provided snapshot file
+     * and journal file. Records are only appended to a journal after its snapshot is written, so
+     * the journal's last modified time is used when the journal exists.
+     * @param snapshotFile The build state snapshot file.
+     * @param journalFile The journal file whose records apply to the snapshot file.
+     * @return The last modified time of the build state, or null if the snapshot file doesn't
+     * exist.
+     */
+    public static DateTime getLastModified(File snapshotFile, File journalFile)
+    {
+        PreCondition.assertNotNull(snapshotFile, "snapshotFile");
+        PreCondition.assertNotNull(journalFile, "journalFile");
+
+        DateTime result = snapshotFile.getLastModified()
+            .catchError(FileNotFoundException.class)
+            .await();
+        if (result != null)
+        {
+            final DateTime journalLastModified = journalFile.getLastModified()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (journalLastModified != null)
+            {
+                result = journalLastModified;
+            }
+        }
+        return result;
+    }
+
+    private static long getSize(File file)
+    {
+        long result;
+        if (file.getFileSystem() instanceof JavaFileSystem)
+        {
+            try
+            {
+                result = java.nio.file.Files.size(java.nio.file.Paths.get(file.getPath().toString()));
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                result = 0;
+            }
+            catch (java.io.IOException e)
+            {
+                throw Exceptions.asRuntime(e);
+            }
+        }
+        else
+        {
+            final byte[] contents = file.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            result = contents == null ? 0 : contents.length;
+        }
+        return result;
+    }
+}
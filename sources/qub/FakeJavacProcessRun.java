@@ -4,6 +4,7 @@ public class FakeJavacProcessRun extends FakeProcessRunDecorator<FakeJavacProces
 {
     private final List<Path> sourceFilePaths;
     private final List<JavaCompilerIssue> issues;
+    private final List<Path> argumentsFilePaths;
     private Path outputFolderPath;
     private FileSystem fileSystem;
 
@@ -12,6 +13,7 @@ public class FakeJavacProcessRun extends FakeProcessRunDecorator<FakeJavacProces
         super(new BasicFakeProcessRun(JavacProcessBuilder.executablePath));
         this.sourceFilePaths = List.create();
         this.issues = List.create();
+        this.argumentsFilePaths = List.create();
     }
 
     @Override
@@ -56,11 +58,32 @@ public class FakeJavacProcessRun extends FakeProcessRunDecorator<FakeJavacProces
 
             final Path workingFolderPath = this.getWorkingFolderPath();
 
-            final Path outputFolderPath = this.outputFolderPath.isRooted()
-                ? this.outputFolderPath
-                : workingFolderPath.resolve(this.outputFolderPath).await();
+            Path outputFolderRelativePath = this.outputFolderPath;
+            final List<Path> sourceFilePaths = List.create(this.sourceFilePaths);
+            for (final Path argumentsFilePath : this.argumentsFilePaths)
+            {
+                final File argumentsFile = this.fileSystem.getFile(workingFolderPath.resolve(argumentsFilePath).await()).await();
+                final Iterable<String> arguments = JavacArguments.parseArgumentsFileContents(argumentsFile.getContentsAsString().await());
+                final Iterator<String> argumentIterator = arguments.iterate();
+                while (argumentIterator.next())
+                {
+                    final String argument = argumentIterator.getCurrent();
+                    if (argument.equals("-d") && argumentIterator.next())
+                    {
+                        outputFolderRelativePath = Path.parse(argumentIterator.getCurrent());
+                    }
+                    else if (argument.endsWith(".java"))
+                    {
+                        sourceFilePaths.add(Path.parse(argument));
+                    }
+                }
+            }
+
+            final Path outputFolderPath = outputFolderRelativePath.isRooted()
+                ? outputFolderRelativePath
+                : workingFolderPath.resolve(outputFolderRelativePath).await();
             final Folder outputsFolder = this.fileSystem.getFolder(outputFolderPath).await();
-            for (final Path sourceFilePath : this.sourceFilePaths)
+            for (final Path sourceFilePath : sourceFilePaths)
             {
                 if (!errorSourceFilePaths.contains(sourceFilePath))
                 {
@@ -170,6 +193,42 @@ public class FakeJavacProcessRun extends FakeProcessRunDecorator<FakeJavacProces
         return JavacArguments.super.addSourceFile(sourceFile);
     }
 
+    /**
+     * Add an argument that makes javac read more arguments from the provided arguments file. The
+     * automatically generated function will read the output folder and source files from the
+     * arguments file when it is run.
+     * @param argumentsFile The file that contains the arguments.
+     * @return This object for method chaining.
+     */
+    public FakeJavacProcessRun addArgumentsFile(File argumentsFile)
+    {
+        PreCondition.assertNotNull(argumentsFile, "argumentsFile");
+        PreCondition.assertTrue(this.fileSystem == null || this.fileSystem == argumentsFile.getFileSystem(), "this.fileSystem == null || this.fileSystem == argumentsFile.getFileSystem()");
+
+        this.fileSystem = argumentsFile.getFileSystem();
+
+        return JavacArguments.super.addArgumentsFile(argumentsFile);
+    }
+
+    /**
+     * Add an argument that makes javac read more arguments from the provided arguments file.
+     * @param argumentsFilePath The path to the file that contains the arguments.
+     * @return This object for method chaining.
+     */
+    public FakeJavacProcessRun addArgumentsFile(Path argumentsFilePath)
+    {
+        PreCondition.assertNotNull(argumentsFilePath, "argumentsFilePath");
+
+        final Path workingFolderPath = this.getWorkingFolderPath();
+        if (workingFolderPath != null && argumentsFilePath.isRooted())
+        {
+            argumentsFilePath = argumentsFilePath.relativeTo(workingFolderPath);
+        }
+        this.argumentsFilePaths.add(argumentsFilePath);
+
+        return JavacArguments.super.addArgumentsFile(argumentsFilePath);
+    }
+
     /**
      * Add the following issues to the automatically generated function.
      * @param issues The issues to add to the automatically generated function.
@@ -0,0 +1,232 @@
+package qub;
+
+/**
+ * The attributes of a project's source files and the files in its outputs folder, captured once
+ * at the start of a build. Every decision about which source files need to be compiled reads from
+ * the snapshot instead of asking the file system about each file again.
+ */
+public class FileSnapshot
+{
+    private final Map<Path,DateTime> lastModifiedTimes;
+    private final Map<Path,Long> sizes;
+    private final Map<Path,List<File>> outputFolderFiles;
+    private Folder outputsFolder;
+    private boolean outputsFolderExists;
+
+    private FileSnapshot()
+    {
+        this.lastModifiedTimes = Map.create();
+        this.sizes = Map.create();
+        this.outputFolderFiles = Map.create();
+    }
+
+    /**
+     * Capture the attributes of the provided source files and of the files in the provided outputs
+     * folder. When the files are on the real file system, each source file's attributes are read
+     * with a single call and the outputs folder is read with a single walk of its file tree.
+     * @param sourceFiles The source files to capture the attributes of.
+     * @param outputsFolder The outputs folder to capture the files of.
+     * @return The captured FileSnapshot.
+     */
+    public static Result<FileSnapshot> create(Iterable<File> sourceFiles, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        return Result.create(() ->
+        {
+            final FileSnapshot result = new FileSnapshot();
+            result.outputsFolder = outputsFolder;
+            if (FileSnapshot.isJavaFileSystem(outputsFolder))
+            {
+                try
+                {
+                    for (final File sourceFile : sourceFiles)
+                    {
+                        final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(
+                            FileSnapshot.toJavaPath(sourceFile.getPath()),
+                            java.nio.file.attribute.BasicFileAttributes.class);
+                        result.lastModifiedTimes.set(sourceFile.getPath(), FileSnapshot.toDateTime(attributes.lastModifiedTime()));
+                        result.sizes.set(sourceFile.getPath(), attributes.size());
+                    }
+
+                    final java.nio.file.Path outputsFolderPath = FileSnapshot.toJavaPath(outputsFolder.getPath());
+                    result.outputsFolderExists = java.nio.file.Files.isDirectory(outputsFolderPath);
+                    if (result.outputsFolderExists)
+                    {
+                        java.nio.file.Files.walkFileTree(outputsFolderPath, new java.nio.file.SimpleFileVisitor<java.nio.file.Path>()
+                        {
+                            @Override
+                            public java.nio.file.FileVisitResult visitFile(java.nio.file.Path file, java.nio.file.attribute.BasicFileAttributes attributes)
+                            {
+                                final String relativePath = outputsFolderPath.relativize(file).toString().replace('\\', '/');
+                                final File outputFile = outputsFolder.getFile(relativePath).await();
+                                result.addOutputFile(outputFile);
+                                result.lastModifiedTimes.set(outputFile.getPath(), FileSnapshot.toDateTime(attributes.lastModifiedTime()));
+                                return java.nio.file.FileVisitResult.CONTINUE;
+                            }
+                        });
+                    }
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            else
+            {
+                for (final File sourceFile : sourceFiles)
+                {
+                    result.lastModifiedTimes.set(sourceFile.getPath(), sourceFile.getLastModified().await());
+                }
+
+                result.outputsFolderExists = outputsFolder.exists().await();
+                if (result.outputsFolderExists)
+                {
+                    for (final File outputFile : outputsFolder.iterateFilesRecursively())
+                    {
+                        result.addOutputFile(outputFile);
+                    }
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    private static boolean isJavaFileSystem(Folder folder)
+    {
+        return folder.getFileSystem() instanceof JavaFileSystem;
+    }
+
+    private static java.nio.file.Path toJavaPath(Path path)
+    {
+        return java.nio.file.Paths.get(path.toString());
+    }
+
+    private static DateTime toDateTime(java.nio.file.attribute.FileTime fileTime)
+    {
+        return DateTime.createFromDurationSinceEpoch(Duration.milliseconds(fileTime.toMillis()));
+    }
+
+    private void addOutputFile(File outputFile)
+    {
+        final Path folderPath = outputFile.getParentFolder().await().getPath();
+        List<File> folderFiles = this.outputFolderFiles.get(folderPath)
+            .catchError(NotFoundException.class)
+            .await();
+        if (folderFiles == null)
+        {
+            folderFiles = List.create();
+            this.outputFolderFiles.set(folderPath, folderFiles);
+        }
+        folderFiles.add(outputFile);
+    }
+
+    /**
+     * Get the last modified time of the provided file. Files that weren't captured in this
+     * snapshot are read from the file system.
+     * @param file The file to get the last modified time of.
+     * @return The last modified time of the provided file.
+     */
+    public DateTime getLastModified(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        DateTime result = this.lastModifiedTimes.get(file.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            result = file.getLastModified().await();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the size in bytes of the provided source file, or null if its size wasn't captured.
+     * @param file The source file to get the size of.
+     * @return The size in bytes of the provided source file, or null if its size wasn't captured.
+     */
+    public Long getSize(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return this.sizes.get(file.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+    }
+
+    /**
+     * Get whether or not the outputs folder existed when this snapshot was captured.
+     * @return Whether or not the outputs folder existed when this snapshot was captured.
+     */
+    public boolean outputsFolderExists()
+    {
+        return this.outputsFolderExists;
+    }
+
+    /**
+     * Get whether or not the provided file existed in the outputs folder when this snapshot was
+     * captured.
+     * @param outputFile The file in the outputs folder to check.
+     * @return Whether or not the provided file existed when this snapshot was captured.
+     */
+    public boolean outputFileExists(File outputFile)
+    {
+        PreCondition.assertNotNull(outputFile, "outputFile");
+
+        return this.getOutputFolderFiles(outputFile.getParentFolder().await())
+            .contains(outputFile);
+    }
+
+    /**
+     * Get the files that were in the provided folder of the outputs folder when this snapshot was
+     * captured.
+     * @param folder The folder in the outputs folder to get the files of.
+     * @return The files that were in the provided folder when this snapshot was captured.
+     */
+    public Iterable<File> getOutputFolderFiles(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        final List<File> result = this.outputFolderFiles.get(folder.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+        return result == null ? Iterable.create() : result;
+    }
+
+    /**
+     * Find the class files in the outputs folder that were created from the provided source file
+     * when this snapshot was captured.
+     * @param sourceFile The source file that was compiled into the resulting class files.
+     * @param rootFolder The root project folder that contains the source folder and the output
+     *                   folder.
+     * @return The class files that were created from the provided source file.
+     */
+    public Iterable<File> getExistingClassFiles(File sourceFile, Folder rootFolder)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+
+        final File classFile = QubBuildCompile.getClassFile(sourceFile, rootFolder, this.outputsFolder);
+        final String nestedClassFilePrefix = classFile.getNameWithoutFileExtension() + "$";
+        final Iterable<File> folderFiles = this.getOutputFolderFiles(classFile.getParentFolder().await());
+        final List<File> result = folderFiles
+            .where((File file) -> file.getName().startsWith(nestedClassFilePrefix))
+            .toList();
+        if (folderFiles.contains(classFile))
+        {
+            result.add(classFile);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
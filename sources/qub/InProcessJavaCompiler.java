@@ -0,0 +1,435 @@
+package qub;
+
+/**
+ * A JavaCompiler that runs the javax.tools Java compiler inside of the current JVM instead of
+ * starting a separate javac process.
+ */
+public class InProcessJavaCompiler implements JavaCompiler<InProcessJavaCompiler>
+{
+    private final Path workingFolderPath;
+    private final List<String> arguments;
+
+    private InProcessJavaCompiler(Path workingFolderPath)
+    {
+        PreCondition.assertNotNull(workingFolderPath, "workingFolderPath");
+        PreCondition.assertTrue(workingFolderPath.isRooted(), "workingFolderPath.isRooted()");
+
+        this.workingFolderPath = workingFolderPath;
+        this.arguments = List.create();
+    }
+
+    /**
+     * Create a new InProcessJavaCompiler that will resolve relative paths against the provided
+     * working folder.
+     * @param workingFolder The folder that relative paths will be resolved against.
+     * @return The new InProcessJavaCompiler.
+     */
+    public static InProcessJavaCompiler create(Folder workingFolder)
+    {
+        PreCondition.assertNotNull(workingFolder, "workingFolder");
+
+        return InProcessJavaCompiler.create(workingFolder.getPath());
+    }
+
+    /**
+     * Create a new InProcessJavaCompiler that will resolve relative paths against the provided
+     * working folder path.
+     * @param workingFolderPath The folder path that relative paths will be resolved against.
+     * @return The new InProcessJavaCompiler.
+     */
+    public static InProcessJavaCompiler create(Path workingFolderPath)
+    {
+        return new InProcessJavaCompiler(workingFolderPath);
+    }
+
+    @Override
+    public Path getWorkingFolderPath()
+    {
+        return this.workingFolderPath;
+    }
+
+    /**
+     * Get the arguments that will be passed to the compiler.
+     * @return The arguments that will be passed to the compiler.
+     */
+    public Iterable<String> getArguments()
+    {
+        return this.arguments;
+    }
+
+    @Override
+    public InProcessJavaCompiler addArguments(String... arguments)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+
+        this.arguments.addAll(arguments);
+
+        return this;
+    }
+
+    /**
+     * Set the folder that the compiler will write its output files to. The in-process compiler
+     * doesn't run in the working folder, so relative paths are made rooted before they are
+     * added.
+     * @param outputFolderPath The folder path that the compiler will write its output files to.
+     * @return This object for method chaining.
+     */
+    @Override
+    public InProcessJavaCompiler addOutputFolder(Path outputFolderPath)
+    {
+        PreCondition.assertNotNull(outputFolderPath, "outputFolder");
+
+        return this.addArguments("-d", this.getRootedPath(outputFolderPath).toString());
+    }
+
+    /**
+     * Add a source file to compile. The in-process compiler doesn't run in the working folder, so
+     * relative paths are made rooted before they are added.
+     * @param sourceFilePath The path to the source file to compile.
+     * @return This object for method chaining.
+     */
+    @Override
+    public InProcessJavaCompiler addSourceFile(Path sourceFilePath)
+    {
+        PreCondition.assertNotNull(sourceFilePath, "sourceFilePath");
+
+        return this.addArguments(this.getRootedPath(sourceFilePath).toString());
+    }
+
+    private Path getRootedPath(Path path)
+    {
+        return path.isRooted()
+            ? path
+            : this.workingFolderPath.resolve(path).await();
+    }
+
+    /**
+     * Get the javax.tools compiler that is available in the current JVM.
+     * @return The javax.tools compiler that is available in the current JVM.
+     */
+    static Result<javax.tools.JavaCompiler> getSystemJavaCompiler()
+    {
+        return Result.create(() ->
+        {
+            final javax.tools.JavaCompiler result = javax.tools.ToolProvider.getSystemJavaCompiler();
+            if (result == null)
+            {
+                throw new NotFoundException("No in-process Java compiler is available. Make sure that qub-build is running on a JDK instead of a JRE.");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * The in-process compiler reports issues with the rooted source file paths that it was given,
+     * so make them relative to the working folder again to match the javac process.
+     * @param issue The issue to make relative.
+     * @return The issue with a source file path that is relative to the working folder.
+     */
+    private JavaCompilerIssue makeRelative(JavaCompilerIssue issue)
+    {
+        JavaCompilerIssue result = issue;
+        final Path sourceFilePath = Path.parse(issue.sourceFilePath);
+        if (sourceFilePath.isRooted())
+        {
+            result = new JavaCompilerIssue(sourceFilePath.relativeTo(this.workingFolderPath), issue.lineNumber, issue.columnNumber, issue.type, issue.message);
+        }
+        return result;
+    }
+
+    @Override
+    public Result<VersionNumber> getVersion(CharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        return Result.create(() ->
+        {
+            InProcessJavaCompiler.getSystemJavaCompiler().await();
+
+            final String versionString = System.getProperty("java.version");
+            verbose.writeLine("In-process javac " + versionString).await();
+            final VersionNumber result = VersionNumber.parse(versionString).await();
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    @Override
+    public Result<JavaCompilationResult> compile(Warnings warnings, int maximumErrors, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertGreaterThanOrEqualTo(maximumErrors, 0, "maximumErrors");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(onIssue, "onIssue");
+
+        return Result.create(() ->
+        {
+            final javax.tools.JavaCompiler compiler = InProcessJavaCompiler.getSystemJavaCompiler().await();
+
+            verbose.writeLine("Running in-process javac " + Strings.join(' ', this.arguments) + "...").await();
+
+            final List<JavaCompilerIssue> issues = List.create();
+            final StringBuilder errorText = new StringBuilder();
+            final boolean[] stopped = new boolean[1];
+            final int[] errorCount = new int[1];
+            final javax.tools.DiagnosticListener<javax.tools.JavaFileObject> diagnosticListener = (javax.tools.Diagnostic<? extends javax.tools.JavaFileObject> diagnostic) ->
+            {
+                if (!stopped[0])
+                {
+                    final JavaCompilerIssue issue = this.toIssue(diagnostic, warnings);
+                    if (issue == null)
+                    {
+                        final String diagnosticText = diagnostic.getKind() == javax.tools.Diagnostic.Kind.NOTE
+                            ? "Note: " + diagnostic.getMessage(null)
+                            : diagnostic.getKind().toString().toLowerCase() + ": " + diagnostic.getMessage(null);
+                        verbose.writeLine(diagnosticText).await();
+                        errorText.append(diagnosticText).append('\n');
+                    }
+                    else
+                    {
+                        verbose.writeLine(issue.sourceFilePath + ":" + issue.lineNumber + ":" + issue.columnNumber + ": " + issue.type.toString().toLowerCase() + ": " + issue.message).await();
+                        issues.add(issue);
+                        onIssue.run(issue);
+                        if (issue.type == Issue.Type.Error)
+                        {
+                            ++errorCount[0];
+                        }
+
+                        if (maximumErrors > 0 && errorCount[0] >= maximumErrors)
+                        {
+                            stopped[0] = true;
+
+                            // Throwing from the listener stops the compiler in the middle of its
+                            // current compilation phase.
+                            throw new StopCompilerException();
+                        }
+                    }
+                }
+            };
+            final LineOutputStream stderr = new LineOutputStream((String errorLine) ->
+            {
+                verbose.writeLine(errorLine).await();
+                errorText.append(errorLine).append('\n');
+            });
+            final java.io.PrintWriter stderrWriter = new java.io.PrintWriter(new java.io.OutputStreamWriter(stderr), true);
+
+            // The task API doesn't accept source files as options, so split them from the rest of
+            // the arguments.
+            final List<String> options = List.create();
+            final List<String> sourceFilePaths = List.create();
+            for (final String argument : this.arguments)
+            {
+                if (!argument.startsWith("-") && argument.endsWith(".java"))
+                {
+                    sourceFilePaths.add(argument);
+                }
+                else
+                {
+                    options.add(argument);
+                }
+            }
+
+            final javax.tools.StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+            final UnchangedClassFileSkipper fileManager = new UnchangedClassFileSkipper(standardFileManager);
+            int exitCode;
+            try
+            {
+                final javax.tools.JavaCompiler.CompilationTask task = compiler.getTask(
+                    stderrWriter,
+                    fileManager,
+                    diagnosticListener,
+                    options,
+                    null,
+                    standardFileManager.getJavaFileObjectsFromStrings(sourceFilePaths));
+                exitCode = task.call() ? 0 : 1;
+            }
+            catch (RuntimeException e)
+            {
+                // The task API wraps exceptions that are thrown from the diagnostic listener.
+                if (!stopped[0])
+                {
+                    throw e;
+                }
+                exitCode = 1;
+            }
+            finally
+            {
+                try
+                {
+                    fileManager.close();
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+
+            stderrWriter.flush();
+            stderr.close();
+            if (stopped[0])
+            {
+                verbose.writeLine("Reached " + maximumErrors + " error" + (maximumErrors == 1 ? "" : "s") + ". Stopped in-process javac.").await();
+                exitCode = Math.max(exitCode, 1);
+            }
+
+            final int writtenClassFileCount = fileManager.getWrittenClassFileCount();
+            final int skippedClassFileCount = fileManager.getSkippedClassFileCount();
+            verbose.writeLine("Wrote " + writtenClassFileCount + " class file" + (writtenClassFileCount == 1 ? "" : "s") + " and skipped " + skippedClassFileCount + " unchanged class file" + (skippedClassFileCount == 1 ? "" : "s") + ".").await();
+
+            return new JavaCompilationResult(
+                exitCode,
+                "",
+                errorText.toString(),
+                issues,
+                stopped[0]);
+        });
+    }
+
+    /**
+     * A JavaFileManager that holds each class file that the compiler writes in memory until the
+     * compiler closes it, and then only writes the class file to disk if its bytes are different
+     * from the class file that is already there. This keeps the last modified times of unchanged
+     * class files from changing.
+     */
+    private static class UnchangedClassFileSkipper extends javax.tools.ForwardingJavaFileManager<javax.tools.StandardJavaFileManager>
+    {
+        private int writtenClassFileCount;
+        private int skippedClassFileCount;
+
+        UnchangedClassFileSkipper(javax.tools.StandardJavaFileManager fileManager)
+        {
+            super(fileManager);
+        }
+
+        int getWrittenClassFileCount()
+        {
+            return this.writtenClassFileCount;
+        }
+
+        int getSkippedClassFileCount()
+        {
+            return this.skippedClassFileCount;
+        }
+
+        @Override
+        public javax.tools.JavaFileObject getJavaFileForOutput(javax.tools.JavaFileManager.Location location, String className, javax.tools.JavaFileObject.Kind kind, javax.tools.FileObject sibling) throws java.io.IOException
+        {
+            final javax.tools.JavaFileObject fileObject = super.getJavaFileForOutput(location, className, kind, sibling);
+
+            javax.tools.JavaFileObject result = fileObject;
+            if (kind == javax.tools.JavaFileObject.Kind.CLASS && "file".equals(fileObject.toUri().getScheme()))
+            {
+                result = new javax.tools.ForwardingJavaFileObject<javax.tools.JavaFileObject>(fileObject)
+                {
+                    @Override
+                    public java.io.OutputStream openOutputStream()
+                    {
+                        return new java.io.ByteArrayOutputStream()
+                        {
+                            @Override
+                            public void close() throws java.io.IOException
+                            {
+                                final byte[] classFileBytes = this.toByteArray();
+                                final java.nio.file.Path classFilePath = java.nio.file.Paths.get(fileObject.toUri());
+                                if (java.nio.file.Files.exists(classFilePath) &&
+                                    java.util.Arrays.equals(classFileBytes, java.nio.file.Files.readAllBytes(classFilePath)))
+                                {
+                                    ++UnchangedClassFileSkipper.this.skippedClassFileCount;
+                                }
+                                else
+                                {
+                                    try (final java.io.OutputStream classFileStream = fileObject.openOutputStream())
+                                    {
+                                        classFileStream.write(classFileBytes);
+                                    }
+                                    ++UnchangedClassFileSkipper.this.writtenClassFileCount;
+                                }
+                            }
+                        };
+                    }
+                };
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Convert the provided compiler diagnostic into a JavaCompilerIssue.
+     * @param diagnostic The diagnostic that the compiler reported.
+     * @param warnings How warnings should be treated.
+     * @return The issue, or null if the diagnostic isn't an error or warning about a source file.
+     */
+    private JavaCompilerIssue toIssue(javax.tools.Diagnostic<? extends javax.tools.JavaFileObject> diagnostic, Warnings warnings)
+    {
+        JavaCompilerIssue result = null;
+
+        final javax.tools.JavaFileObject source = diagnostic.getSource();
+        final javax.tools.Diagnostic.Kind kind = diagnostic.getKind();
+        if (source != null && diagnostic.getLineNumber() != javax.tools.Diagnostic.NOPOS && kind != javax.tools.Diagnostic.Kind.NOTE && kind != javax.tools.Diagnostic.Kind.OTHER)
+        {
+            final Path sourceFilePath = Path.parse(java.nio.file.Paths.get(source.toUri()).toString()).normalize();
+            final Issue.Type type = (kind == javax.tools.Diagnostic.Kind.ERROR || warnings == Warnings.Error)
+                ? Issue.Type.Error
+                : Issue.Type.Warning;
+            final String message = JavacIssueParser.joinMessageLines(Strings.getLines(diagnostic.getMessage(null)));
+            result = this.makeRelative(new JavaCompilerIssue(sourceFilePath.toString(), (int)diagnostic.getLineNumber(), (int)diagnostic.getColumnNumber(), type, message));
+        }
+
+        return result;
+    }
+
+    /**
+     * The exception that is thrown from the compiler's diagnostic listener to stop the compiler
+     * once it has reported its maximum number of errors.
+     */
+    private static class StopCompilerException extends RuntimeException
+    {
+    }
+
+    /**
+     * An OutputStream that passes each line that is written to it to an action as soon as the
+     * line is complete.
+     */
+    private static class LineOutputStream extends java.io.OutputStream
+    {
+        private final Action1<String> onLine;
+        private final java.io.ByteArrayOutputStream currentLine;
+
+        LineOutputStream(Action1<String> onLine)
+        {
+            this.onLine = onLine;
+            this.currentLine = new java.io.ByteArrayOutputStream();
+        }
+
+        @Override
+        public void write(int b)
+        {
+            if (b == '\n')
+            {
+                this.flushLine();
+            }
+            else if (b != '\r')
+            {
+                this.currentLine.write(b);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            if (this.currentLine.size() > 0)
+            {
+                this.flushLine();
+            }
+        }
+
+        private void flushLine()
+        {
+            final String line = this.currentLine.toString();
+            this.currentLine.reset();
+            this.onLine.run(line);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package qub;
+
+/**
+ * A collection of functions that read the API of a compiled class file. The API of a class file
+ * is everything that another source file can depend on: the class's non-private signatures,
+ * constants, supertypes and annotations. Method bodies, private members, and local or anonymous
+ * classes are not part of a class file's API.
+ */
+public interface JavaClassFileApi
+{
+    int accessPrivate = 0x0002;
+    int accessSuper = 0x0020;
+    int accessSynthetic = 0x1000;
+
+    /**
+     * Get the fingerprint of the API of the provided class files. Two sets of class files have the
+     * same fingerprint if source files that depend on them don't need to be compiled again.
+     * @param classFiles The class files that were compiled from a single source file.
+     * @return The fingerprint of the API of the provided class files.
+     */
+    static Result<String> getFingerprint(Iterable<File> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        return Result.create(() ->
+        {
+            final List<String> apis = List.create();
+            for (final File classFile : classFiles)
+            {
+                final String api = JavaClassFileApi.getApi(classFile.getContents().await()).await();
+                if (api != null)
+                {
+                    apis.add(api);
+                }
+            }
+            apis.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+
+            final String result = BuildJSONSourceFile.getContentHash(Strings.join('\n', apis).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+            PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get a textual description of the API of the provided class file bytes.
+     * @param classFileBytes The bytes of a compiled class file.
+     * @return The textual description of the class file's API, or null if the class file is a
+     * private, local, or anonymous class that other source files can't depend on.
+     */
+    static Result<String> getApi(byte[] classFileBytes)
+    {
+        PreCondition.assertNotNull(classFileBytes, "classFileBytes");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                final java.io.DataInputStream input = new java.io.DataInputStream(new java.io.ByteArrayInputStream(classFileBytes));
+                if (input.readInt() != 0xCAFEBABE)
+                {
+                    throw new ParseException("Expected the class file to start with 0xCAFEBABE.");
+                }
+                input.readUnsignedShort(); // minor_version
+                input.readUnsignedShort(); // major_version
+
+                final Object[] constantPool = JavaClassFileApi.readConstantPool(input);
+
+                final int accessFlags = input.readUnsignedShort() & ~JavaClassFileApi.accessSuper;
+                final String className = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+                final String superClassName = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+                final List<String> interfaceNames = List.create();
+                final int interfaceCount = input.readUnsignedShort();
+                for (int i = 0; i < interfaceCount; ++i)
+                {
+                    interfaceNames.add(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()));
+                }
+
+                final List<String> memberApis = List.create();
+                final int fieldCount = input.readUnsignedShort();
+                for (int i = 0; i < fieldCount; ++i)
+                {
+                    final String fieldApi = JavaClassFileApi.readMemberApi("field", input, constantPool);
+                    if (fieldApi != null)
+                    {
+                        memberApis.add(fieldApi);
+                    }
+                }
+                final int methodCount = input.readUnsignedShort();
+                for (int i = 0; i < methodCount; ++i)
+                {
+                    final String methodApi = JavaClassFileApi.readMemberApi("method", input, constantPool);
+                    if (methodApi != null)
+                    {
+                        memberApis.add(methodApi);
+                    }
+                }
+                memberApis.sort((String lhs, String rhs) -> lhs.compareTo(rhs) < 0);
+
+                final StringBuilder classApi = new StringBuilder();
+                classApi.append("class ").append(accessFlags).append(' ').append(className)
+                    .append(" extends ").append(superClassName)
+                    .append(" implements ").append(Strings.join(',', interfaceNames));
+
+                boolean isApi = true;
+                final int attributeCount = input.readUnsignedShort();
+                for (int i = 0; i < attributeCount; ++i)
+                {
+                    final String attributeName = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+                    final int attributeLength = input.readInt();
+                    if (attributeName.equals("InnerClasses"))
+                    {
+                        final int innerClassCount = input.readUnsignedShort();
+                        for (int j = 0; j < innerClassCount; ++j)
+                        {
+                            final String innerClassName = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+                            final int outerClassIndex = input.readUnsignedShort();
+                            input.readUnsignedShort(); // inner_name_index
+                            final int innerClassAccessFlags = input.readUnsignedShort();
+                            if (className.equals(innerClassName))
+                            {
+                                // A class without an outer class is a local or anonymous class.
+                                if (outerClassIndex == 0 || (innerClassAccessFlags & JavaClassFileApi.accessPrivate) != 0)
+                                {
+                                    isApi = false;
+                                }
+                                classApi.append("\ninner ").append(innerClassAccessFlags);
+                            }
+                        }
+                    }
+                    else if (!JavaClassFileApi.readApiAttribute(attributeName, input, constantPool, classApi))
+                    {
+                        input.skipBytes(attributeLength);
+                    }
+                }
+
+                String result = null;
+                if (isApi)
+                {
+                    for (final String memberApi : memberApis)
+                    {
+                        classApi.append('\n').append(memberApi);
+                    }
+                    result = classApi.toString();
+                }
+                return result;
+            }
+            catch (java.io.IOException e)
+            {
+                throw new ParseException("Could not read the class file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Read the constant pool of a class file. Utf8 constants are stored as Strings, numeric
+     * constants are stored as their boxed values, and constants that refer to other constants
+     * are stored as the index of the constant that they refer to.
+     */
+    static Object[] readConstantPool(java.io.DataInputStream input) throws java.io.IOException
+    {
+        final int constantPoolCount = input.readUnsignedShort();
+        final Object[] result = new Object[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; ++i)
+        {
+            final int tag = input.readUnsignedByte();
+            switch (tag)
+            {
+                case 1: // Utf8
+                    result[i] = input.readUTF();
+                    break;
+
+                case 3: // Integer
+                    result[i] = input.readInt();
+                    break;
+
+                case 4: // Float
+                    result[i] = input.readFloat();
+                    break;
+
+                case 5: // Long
+                    result[i] = input.readLong();
+                    ++i;
+                    break;
+
+                case 6: // Double
+                    result[i] = input.readDouble();
+                    ++i;
+                    break;
+
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    result[i] = new int[] { input.readUnsignedShort() };
+                    break;
+
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    input.readUnsignedShort();
+                    input.readUnsignedShort();
+                    break;
+
+                case 15: // MethodHandle
+                    input.readUnsignedByte();
+                    input.readUnsignedShort();
+                    break;
+
+                default:
+                    throw new ParseException("Unrecognized constant pool tag: " + tag);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the String representation of the constant at the provided index. Class and String
+     * constants are resolved to the Utf8 constant that they refer to.
+     */
+    static String getConstant(Object[] constantPool, int index)
+    {
+        String result = null;
+        if (0 < index && index < constantPool.length)
+        {
+            Object constant = constantPool[index];
+            if (constant instanceof int[])
+            {
+                constant = constantPool[((int[])constant)[0]];
+            }
+            result = constant == null ? null : constant.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Read a field or method from the provided input.
+     * @return The API of the field or method, or null if the field or method is private or
+     * synthetic.
+     */
+    static String readMemberApi(String memberType, java.io.DataInputStream input, Object[] constantPool) throws java.io.IOException
+    {
+        final int accessFlags = input.readUnsignedShort();
+        final String name = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+        final String descriptor = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+
+        final StringBuilder memberApi = new StringBuilder();
+        memberApi.append(memberType).append(' ').append(accessFlags).append(' ').append(name).append(' ').append(descriptor);
+
+        final int attributeCount = input.readUnsignedShort();
+        for (int i = 0; i < attributeCount; ++i)
+        {
+            final String attributeName = JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort());
+            final int attributeLength = input.readInt();
+            if (!JavaClassFileApi.readApiAttribute(attributeName, input, constantPool, memberApi))
+            {
+                input.skipBytes(attributeLength);
+            }
+        }
+
+        final boolean isApi = (accessFlags & (JavaClassFileApi.accessPrivate | JavaClassFileApi.accessSynthetic)) == 0 &&
+            !name.equals("<clinit>");
+        return isApi ? memberApi.toString().replace('\n', ' ') : null;
+    }
+
+    /**
+     * Read the provided attribute if it is part of a class's API.
+     * @return Whether or not the attribute was read.
+     */
+    static boolean readApiAttribute(String attributeName, java.io.DataInputStream input, Object[] constantPool, StringBuilder api) throws java.io.IOException
+    {
+        boolean result = true;
+        switch (attributeName)
+        {
+            case "ConstantValue":
+            case "Signature":
+                api.append('\n').append(attributeName).append(' ').append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()));
+                break;
+
+            case "Exceptions":
+                api.append("\nthrows");
+                final int exceptionCount = input.readUnsignedShort();
+                for (int i = 0; i < exceptionCount; ++i)
+                {
+                    api.append(' ').append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()));
+                }
+                break;
+
+            case "RuntimeVisibleAnnotations":
+            case "RuntimeInvisibleAnnotations":
+                api.append('\n').append(attributeName);
+                JavaClassFileApi.readAnnotations(input, constantPool, api);
+                break;
+
+            case "RuntimeVisibleParameterAnnotations":
+            case "RuntimeInvisibleParameterAnnotations":
+                api.append('\n').append(attributeName);
+                final int parameterCount = input.readUnsignedByte();
+                for (int i = 0; i < parameterCount; ++i)
+                {
+                    api.append(" (");
+                    JavaClassFileApi.readAnnotations(input, constantPool, api);
+                    api.append(')');
+                }
+                break;
+
+            case "AnnotationDefault":
+                api.append('\n').append(attributeName).append(' ');
+                JavaClassFileApi.readElementValue(input, constantPool, api);
+                break;
+
+            default:
+                result = false;
+                break;
+        }
+        return result;
+    }
+
+    static void readAnnotations(java.io.DataInputStream input, Object[] constantPool, StringBuilder api) throws java.io.IOException
+    {
+        final int annotationCount = input.readUnsignedShort();
+        for (int i = 0; i < annotationCount; ++i)
+        {
+            api.append(' ');
+            JavaClassFileApi.readAnnotation(input, constantPool, api);
+        }
+    }
+
+    static void readAnnotation(java.io.DataInputStream input, Object[] constantPool, StringBuilder api) throws java.io.IOException
+    {
+        api.append('@').append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort())).append('(');
+        final int elementValuePairCount = input.readUnsignedShort();
+        for (int i = 0; i < elementValuePairCount; ++i)
+        {
+            if (i > 0)
+            {
+                api.append(',');
+            }
+            api.append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort())).append('=');
+            JavaClassFileApi.readElementValue(input, constantPool, api);
+        }
+        api.append(')');
+    }
+
+    static void readElementValue(java.io.DataInputStream input, Object[] constantPool, StringBuilder api) throws java.io.IOException
+    {
+        final char tag = (char)input.readUnsignedByte();
+        switch (tag)
+        {
+            case 'e':
+                api.append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()))
+                    .append('.')
+                    .append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()));
+                break;
+
+            case '@':
+                JavaClassFileApi.readAnnotation(input, constantPool, api);
+                break;
+
+            case '[':
+                api.append('{');
+                final int valueCount = input.readUnsignedShort();
+                for (int i = 0; i < valueCount; ++i)
+                {
+                    if (i > 0)
+                    {
+                        api.append(',');
+                    }
+                    JavaClassFileApi.readElementValue(input, constantPool, api);
+                }
+                api.append('}');
+                break;
+
+            default:
+                // Constant values and class literals refer to a single constant.
+                api.append(tag).append(JavaClassFileApi.getConstant(constantPool, input.readUnsignedShort()));
+                break;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package qub;
+
+/**
+ * The classes that a compiled class file refers to, read from the class file's constant pool.
+ * Because these are the references that the compiler actually wrote, they are exactly the classes
+ * that the class file needs at runtime.
+ */
+public class JavaClassFileReferences
+{
+    private final String className;
+    private final Set<String> referencedClassNames;
+    private boolean declaresConstants;
+
+    private JavaClassFileReferences(String className)
+    {
+        PreCondition.assertNotNullAndNotEmpty(className, "className");
+
+        this.className = className;
+        this.referencedClassNames = Set.create();
+    }
+
+    /**
+     * Read the classes that the provided class file bytes refer to.
+     * @param classFileBytes The bytes of a compiled class file.
+     * @return The classes that the provided class file refers to.
+     */
+    public static Result<JavaClassFileReferences> parse(byte[] classFileBytes)
+    {
+        PreCondition.assertNotNull(classFileBytes, "classFileBytes");
+
+        return Result.create(() ->
+        {
+            try
+            {
+                final java.io.DataInputStream input = new java.io.DataInputStream(new java.io.ByteArrayInputStream(classFileBytes));
+                if (input.readInt() != 0xCAFEBABE)
+                {
+                    throw new ParseException("Expected the class file to start with 0xCAFEBABE.");
+                }
+                input.readUnsignedShort(); // minor_version
+                input.readUnsignedShort(); // major_version
+
+                final int constantPoolCount = input.readUnsignedShort();
+                final String[] utf8Constants = new String[constantPoolCount];
+                final int[] classNameIndexes = new int[constantPoolCount];
+                for (int i = 1; i < constantPoolCount; ++i)
+                {
+                    final int tag = input.readUnsignedByte();
+                    switch (tag)
+                    {
+                        case 1: // Utf8
+                            utf8Constants[i] = input.readUTF();
+                            break;
+
+                        case 7: // Class
+                            classNameIndexes[i] = input.readUnsignedShort();
+                            break;
+
+                        case 3: // Integer
+                        case 4: // Float
+                            input.readInt();
+                            break;
+
+                        case 5: // Long
+                        case 6: // Double
+                            input.readLong();
+                            ++i;
+                            break;
+
+                        case 8: // String
+                        case 16: // MethodType
+                        case 19: // Module
+                        case 20: // Package
+                            input.readUnsignedShort();
+                            break;
+
+                        case 9: // Fieldref
+                        case 10: // Methodref
+                        case 11: // InterfaceMethodref
+                        case 12: // NameAndType
+                        case 17: // Dynamic
+                        case 18: // InvokeDynamic
+                            input.readInt();
+                            break;
+
+                        case 15: // MethodHandle
+                            input.readUnsignedByte();
+                            input.readUnsignedShort();
+                            break;
+
+                        default:
+                            throw new ParseException("Unrecognized constant pool tag: " + tag);
+                    }
+                }
+
+                input.readUnsignedShort(); // access_flags
+                final String className = utf8Constants[classNameIndexes[input.readUnsignedShort()]];
+                if (Strings.isNullOrEmpty(className))
+                {
+                    throw new ParseException("Expected the class file to declare a class name.");
+                }
+                final JavaClassFileReferences result = new JavaClassFileReferences(className);
+
+                for (int i = 1; i < constantPoolCount; ++i)
+                {
+                    if (classNameIndexes[i] != 0 && utf8Constants[classNameIndexes[i]] != null)
+                    {
+                        result.addClassName(utf8Constants[classNameIndexes[i]]);
+                    }
+                    else if (utf8Constants[i] != null)
+                    {
+                        // Field, method, and generic signatures and annotation types only appear
+                        // in descriptors.
+                        result.addDescriptorClassNames(utf8Constants[i]);
+                    }
+                }
+
+                input.readUnsignedShort(); // super_class
+                input.skipBytes(input.readUnsignedShort() * 2); // interfaces
+                final int fieldCount = input.readUnsignedShort();
+                for (int i = 0; i < fieldCount; ++i)
+                {
+                    input.skipBytes(6); // access_flags, name_index, descriptor_index
+                    final int attributeCount = input.readUnsignedShort();
+                    for (int j = 0; j < attributeCount; ++j)
+                    {
+                        final String attributeName = utf8Constants[input.readUnsignedShort()];
+                        final int attributeLength = input.readInt();
+                        if ("ConstantValue".equals(attributeName))
+                        {
+                            result.declaresConstants = true;
+                        }
+                        input.skipBytes(attributeLength);
+                    }
+                }
+
+                PostCondition.assertNotNull(result, "result");
+
+                return result;
+            }
+            catch (java.io.IOException e)
+            {
+                throw new ParseException("Could not read the class file: " + e.getMessage());
+            }
+        });
+    }
+
+    private void addClassName(String className)
+    {
+        if (className.startsWith("["))
+        {
+            this.addDescriptorClassNames(className);
+        }
+        else if (!className.equals(this.className))
+        {
+            this.referencedClassNames.add(className);
+        }
+    }
+
+    /**
+     * Add the class names that appear in the provided field, method, or generic signature
+     * descriptor. Class names in descriptors look like "Lpackage/Name;".
+     */
+    private void addDescriptorClassNames(String descriptor)
+    {
+        final int length = descriptor.length();
+        int i = 0;
+        while (i < length)
+        {
+            int classNameEnd = -1;
+            if (descriptor.charAt(i) == 'L' && (i == 0 || "([;<>:)^+-".indexOf(descriptor.charAt(i - 1)) != -1))
+            {
+                for (int j = i + 1; j < length; ++j)
+                {
+                    final char c = descriptor.charAt(j);
+                    if (c == ';' || c == '<')
+                    {
+                        classNameEnd = j;
+                        break;
+                    }
+                    else if (c == '.' || c == '(' || c == ')' || c == '[' || Character.isWhitespace(c))
+                    {
+                        break;
+                    }
+                }
+            }
+
+            if (classNameEnd > i + 1)
+            {
+                this.addClassName(descriptor.substring(i + 1, classNameEnd));
+                i = classNameEnd;
+            }
+            else
+            {
+                ++i;
+            }
+        }
+    }
+
+    /**
+     * Get the internal name (such as "qub/BuildJSON") of the class that the class file declares.
+     * @return The internal name of the class that the class file declares.
+     */
+    public String getClassName()
+    {
+        return this.className;
+    }
+
+    /**
+     * Get the internal names of the other classes that the class file refers to.
+     * @return The internal names of the other classes that the class file refers to.
+     */
+    public Iterable<String> getReferencedClassNames()
+    {
+        return this.referencedClassNames;
+    }
+
+    /**
+     * Get whether or not the class file declares constant fields. The compiler copies the values
+     * of constant fields into the class files that use them, so those class files don't refer to
+     * the class that declares the constant.
+     * @return Whether or not the class file declares constant fields.
+     */
+    public boolean declaresConstants()
+    {
+        return this.declaresConstants;
+    }
+
+    /**
+     * Get the internal name of the top-level class that contains the provided class.
+     * @param className The internal name of a top-level or nested class.
+     * @return The internal name of the top-level class that contains the provided class.
+     */
+    public static String getTopLevelClassName(String className)
+    {
+        PreCondition.assertNotNullAndNotEmpty(className, "className");
+
+        final int lastSlashIndex = className.lastIndexOf('/');
+        final int dollarSignIndex = className.indexOf('$', lastSlashIndex + 1);
+        return dollarSignIndex <= lastSlashIndex + 1 ? className : className.substring(0, dollarSignIndex);
+    }
+}
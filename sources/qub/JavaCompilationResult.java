@@ -21,6 +21,11 @@ public class JavaCompilationResult
      * The errors and warnings that were emitted during compilation.
      */
     public final Iterable<JavaCompilerIssue> issues;
+    /**
+     * Whether or not the compilation was stopped before it finished because it reached its
+     * maximum number of errors.
+     */
+    public final boolean stopped;
 
     /**
      * Create a new JavaCompilationResult object.
@@ -30,10 +35,25 @@ public class JavaCompilationResult
      * @param issues The errors and warnings that were emitted during compilation.
      */
     public JavaCompilationResult(int exitCode, String output, String error, Iterable<JavaCompilerIssue> issues)
+    {
+        this(exitCode, output, error, issues, false);
+    }
+
+    /**
+     * Create a new JavaCompilationResult object.
+     * @param exitCode The exit code that was returned from the compilation process.
+     * @param output The text that was written to the standard output stream.
+     * @param error The text that was written to the standard error stream.
+     * @param issues The errors and warnings that were emitted during compilation.
+     * @param stopped Whether or not the compilation was stopped before it finished because it
+     *                reached its maximum number of errors.
+     */
+    public JavaCompilationResult(int exitCode, String output, String error, Iterable<JavaCompilerIssue> issues, boolean stopped)
     {
         this.exitCode = exitCode;
         this.output = output;
         this.error = error;
         this.issues = issues;
+        this.stopped = stopped;
     }
 }
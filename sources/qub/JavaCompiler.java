@@ -0,0 +1,58 @@
+package qub;
+
+/**
+ * A type that can compile Java source code files.
+ * @param <T> The type of the compiler, used for method chaining.
+ */
+public interface JavaCompiler<T> extends JavacArguments<T>
+{
+    /**
+     * Get the arguments that have been added to this compiler.
+     * @return The arguments that have been added to this compiler.
+     */
+    Iterable<String> getArguments();
+
+    /**
+     * Get the version of javac that this compiler runs.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The version of javac that this compiler runs.
+     */
+    Result<VersionNumber> getVersion(CharacterToByteWriteStream verbose);
+
+    /**
+     * Compile the source files that have been added to this compiler.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @return The parsed result of compiling the source files.
+     */
+    default Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose)
+    {
+        return this.compile(warnings, verbose, (JavaCompilerIssue issue) -> {});
+    }
+
+    /**
+     * Compile the source files that have been added to this compiler.
+     * @param warnings How compilation warnings should be handled.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param onIssue The action that will be run for each issue as soon as the compiler reports
+     *                it.
+     * @return The parsed result of compiling the source files.
+     */
+    default Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
+    {
+        return this.compile(warnings, 0, verbose, onIssue);
+    }
+
+    /**
+     * Compile the source files that have been added to this compiler, but stop the compiler as
+     * soon as it has reported the provided number of errors.
+     * @param warnings How compilation warnings should be handled.
+     * @param maximumErrors The number of errors that the compiler can report before it is
+     *                      stopped, or 0 if the compiler should always run to completion.
+     * @param verbose The stream that verbose logs should be written to.
+     * @param onIssue The action that will be run for each issue as soon as the compiler reports
+     *                it. Issues that are reported after the compiler has been stopped are ignored.
+     * @return The parsed result of compiling the source files.
+     */
+    Result<JavaCompilationResult> compile(Warnings warnings, int maximumErrors, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue);
+}
@@ -0,0 +1,7 @@
+package qub;
+
+public enum JavaCompilerType
+{
+    Process,
+    InProcess,
+}
@@ -0,0 +1,234 @@
+package qub;
+
+/**
+ * Finds the source files that a Java source file depends on. Each source file is read and parsed
+ * at most once, and source files whose declared types are already known aren't read at all.
+ */
+public class JavaDependencyResolver
+{
+    private final Folder rootFolder;
+    private final Iterable<File> sourceFiles;
+    private final Map<Path,JavaSourceFileSymbols> symbols;
+    private final Map<Path,String> packageNames;
+    private final Map<Path,Iterable<String>> declaredTypeNames;
+
+    private JavaDependencyResolver(Folder rootFolder, Iterable<File> sourceFiles)
+    {
+        PreCondition.assertNotNull(rootFolder, "rootFolder");
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+
+        this.rootFolder = rootFolder;
+        this.sourceFiles = sourceFiles;
+        this.symbols = Map.create();
+        this.packageNames = Map.create();
+        this.declaredTypeNames = Map.create();
+    }
+
+    /**
+     * Create a new JavaDependencyResolver.
+     * @param rootFolder The folder that dependency paths are relative to.
+     * @param sourceFiles The source files that can be depended on.
+     * @return The new JavaDependencyResolver.
+     */
+    public static JavaDependencyResolver create(Folder rootFolder, Iterable<File> sourceFiles)
+    {
+        return new JavaDependencyResolver(rootFolder, sourceFiles);
+    }
+
+    /**
+     * Get the folder that dependency paths are relative to.
+     * @return The folder that dependency paths are relative to.
+     */
+    public Folder getRootFolder()
+    {
+        return this.rootFolder;
+    }
+
+    /**
+     * Get the name of the type that the provided source file is named after.
+     * @param sourceFile The source file.
+     * @return The name of the type that the provided source file is named after.
+     */
+    public static String getFileTypeName(File sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        return sourceFile.getNameWithoutFileExtension();
+    }
+
+    /**
+     * Set the package and the names of the types other than the file's own type that the provided
+     * source file declares. This is used for source files that haven't changed since their
+     * declarations were recorded, so that they don't need to be read again.
+     * @param sourceFile The source file.
+     * @param packageName The package that the source file declares, or null if it wasn't
+     *                    recorded.
+     * @param otherTypeNames The names of the other types that the source file declares, or null
+     *                       if the source file only declares its own type.
+     * @return This object for method chaining.
+     */
+    public JavaDependencyResolver setDeclarations(File sourceFile, String packageName, Iterable<String> otherTypeNames)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        if (packageName != null)
+        {
+            this.packageNames.set(sourceFile.getPath(), packageName);
+        }
+
+        final List<String> typeNames = List.create(JavaDependencyResolver.getFileTypeName(sourceFile));
+        if (otherTypeNames != null)
+        {
+            typeNames.addAll(otherTypeNames);
+        }
+        this.declaredTypeNames.set(sourceFile.getPath(), typeNames);
+        return this;
+    }
+
+    /**
+     * Get the names of the types other than the file's own type that the provided source file
+     * declares.
+     * @param sourceFile The source file.
+     * @return The names of the other types that the provided source file declares.
+     */
+    public Iterable<String> getOtherTypeNames(File sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        final String fileTypeName = JavaDependencyResolver.getFileTypeName(sourceFile);
+        return this.getDeclaredTypeNames(sourceFile)
+            .where((String typeName) -> !typeName.equals(fileTypeName))
+            .toList();
+    }
+
+    /**
+     * Get the names and references of the provided source file. The source file is only read
+     * the first time that this is called for it.
+     * @param sourceFile The source file.
+     * @return The names and references of the provided source file.
+     */
+    public JavaSourceFileSymbols getSymbols(File sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        JavaSourceFileSymbols result = this.symbols.get(sourceFile.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            result = JavaSourceFileSymbols.parse(sourceFile.getContentsAsString().await());
+            this.symbols.set(sourceFile.getPath(), result);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the names of the types that the provided source file declares.
+     * @param sourceFile The source file.
+     * @return The names of the types that the provided source file declares.
+     */
+    private Iterable<String> getDeclaredTypeNames(File sourceFile)
+    {
+        Iterable<String> result = this.declaredTypeNames.get(sourceFile.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            final List<String> typeNames = List.create(JavaDependencyResolver.getFileTypeName(sourceFile));
+            for (final String declaredTypeName : this.getSymbols(sourceFile).getDeclaredTypeNames())
+            {
+                if (!typeNames.contains(declaredTypeName))
+                {
+                    typeNames.add(declaredTypeName);
+                }
+            }
+            result = typeNames;
+            this.declaredTypeNames.set(sourceFile.getPath(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the package of the provided source file. The package of a source file whose package
+     * wasn't recorded and that hasn't been read is assumed to match its folder within its source
+     * folder.
+     * @param sourceFile The source file.
+     * @return The package of the provided source file.
+     */
+    public String getPackageName(File sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        String result = this.packageNames.get(sourceFile.getPath())
+            .catchError(NotFoundException.class)
+            .await();
+        if (result == null)
+        {
+            final JavaSourceFileSymbols sourceFileSymbols = this.symbols.get(sourceFile.getPath())
+                .catchError(NotFoundException.class)
+                .await();
+            if (sourceFileSymbols != null)
+            {
+                result = sourceFileSymbols.getPackageName();
+            }
+            else
+            {
+                final Iterable<String> segments = sourceFile.relativeTo(this.rootFolder).getSegments();
+                final int segmentCount = segments.getCount();
+                final StringBuilder packageName = new StringBuilder();
+                int segmentIndex = 0;
+                for (final String segment : segments)
+                {
+                    // Skip the source folder and the file name.
+                    if (0 < segmentIndex && segmentIndex < segmentCount - 1)
+                    {
+                        if (packageName.length() > 0)
+                        {
+                            packageName.append('.');
+                        }
+                        packageName.append(segment);
+                    }
+                    ++segmentIndex;
+                }
+                result = packageName.toString();
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the relative paths to the source files that the provided source file depends on.
+     * @param sourceFile The source file.
+     * @return The relative paths to the source files that the provided source file depends on.
+     */
+    public Iterable<Path> getDependencies(File sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        final JavaSourceFileSymbols sourceFileSymbols = this.getSymbols(sourceFile);
+        final List<Path> result = List.create();
+        for (final File otherSourceFile : this.sourceFiles)
+        {
+            if (!otherSourceFile.equals(sourceFile))
+            {
+                // Get the declared types first, since that may read the other source file's
+                // package declaration.
+                final Iterable<String> otherTypeNames = this.getDeclaredTypeNames(otherSourceFile);
+                if (sourceFileSymbols.refersTo(this.getPackageName(otherSourceFile), otherTypeNames))
+                {
+                    result.add(otherSourceFile.relativeTo(this.rootFolder));
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
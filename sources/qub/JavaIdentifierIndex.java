@@ -0,0 +1,118 @@
+package qub;
+
+/**
+ * An inverted index from identifiers to the source files that refer to them. The index is built
+ * from the imports and references that were recorded for each source file, so the source files
+ * that may refer to a type can be found without reading them.
+ */
+public class JavaIdentifierIndex
+{
+    private final Map<String,List<BuildJSONSourceFile>> sourceFiles;
+
+    private JavaIdentifierIndex()
+    {
+        this.sourceFiles = Map.create();
+    }
+
+    /**
+     * Create a new empty JavaIdentifierIndex.
+     * @return The new JavaIdentifierIndex.
+     */
+    public static JavaIdentifierIndex create()
+    {
+        return new JavaIdentifierIndex();
+    }
+
+    /**
+     * Add the provided source file to this index. Source files whose imports and references
+     * weren't recorded can't be added.
+     * @param sourceFile The source file to add.
+     * @return Whether or not the source file was added.
+     */
+    public boolean add(BuildJSONSourceFile sourceFile)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+
+        final Iterable<String> imports = sourceFile.getImports();
+        final Iterable<String> references = sourceFile.getReferences();
+        final boolean result = imports != null && references != null;
+        if (result)
+        {
+            // A type can also be referred to by an import that names it or one of its members
+            // without its name appearing in the code, so each segment of each import is indexed.
+            final Set<String> identifiers = Set.create();
+            identifiers.addAll(references);
+            for (final String importedName : imports)
+            {
+                for (final String importedNameSegment : importedName.split("\\."))
+                {
+                    if (!importedNameSegment.equals("*"))
+                    {
+                        identifiers.add(importedNameSegment);
+                    }
+                }
+            }
+
+            for (final String identifier : identifiers)
+            {
+                List<BuildJSONSourceFile> identifierSourceFiles = this.sourceFiles.get(identifier)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (identifierSourceFiles == null)
+                {
+                    identifierSourceFiles = List.create();
+                    this.sourceFiles.set(identifier, identifierSourceFiles);
+                }
+                identifierSourceFiles.add(sourceFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the source files in this index that may refer to one of the provided types that are
+     * declared in the provided package.
+     * @param packageName The package that the types are declared in.
+     * @param typeNames The names of the types.
+     * @return The source files in this index that may refer to one of the provided types.
+     */
+    public Iterable<BuildJSONSourceFile> getSourceFilesThatReferTo(String packageName, Iterable<String> typeNames)
+    {
+        PreCondition.assertNotNull(packageName, "packageName");
+        PreCondition.assertNotNull(typeNames, "typeNames");
+
+        final List<BuildJSONSourceFile> result = List.create();
+        final Set<String> checkedSourceFilePaths = Set.create();
+        for (final String typeName : typeNames)
+        {
+            final Iterable<BuildJSONSourceFile> candidateSourceFiles = this.sourceFiles.get(typeName)
+                .catchError(NotFoundException.class)
+                .await();
+            if (candidateSourceFiles != null)
+            {
+                for (final BuildJSONSourceFile candidateSourceFile : candidateSourceFiles)
+                {
+                    final String candidateSourceFilePath = candidateSourceFile.getRelativePath().toString();
+                    if (!checkedSourceFilePaths.contains(candidateSourceFilePath))
+                    {
+                        checkedSourceFilePaths.add(candidateSourceFilePath);
+
+                        final String candidatePackageName = candidateSourceFile.getPackageName();
+                        final JavaSourceFileSymbols candidateSymbols = JavaSourceFileSymbols.create(
+                            candidatePackageName == null ? "" : candidatePackageName,
+                            candidateSourceFile.getImports(),
+                            candidateSourceFile.getReferences());
+                        if (candidateSymbols.refersTo(packageName, typeNames))
+                        {
+                            result.add(candidateSourceFile);
+                        }
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
@@ -0,0 +1,251 @@
+package qub;
+
+/**
+ * Decides which files in a project folder are the project's Java source files, and which folders
+ * can't contain any of the project's Java source files so that they don't need to be searched.
+ */
+public class JavaSourceFileMatcher
+{
+    private final Folder projectFolder;
+    private final Iterable<PathPattern> sourceFilePatterns;
+    private final Set<String> excludedFolderNames;
+    private final Path outputsFolderRelativePath;
+    private final PrefixNode sourceFilePatternPrefixes;
+
+    private JavaSourceFileMatcher(Folder projectFolder, ProjectJSONJava projectJsonJava)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+
+        this.projectFolder = projectFolder;
+        this.sourceFilePatterns = projectJsonJava.getSourceFiles();
+
+        this.excludedFolderNames = Set.create(".git", "node_modules");
+        this.outputsFolderRelativePath = QubBuild.getJavaOutputsFolder(projectFolder, projectJsonJava).await().getPath().relativeTo(projectFolder);
+
+        if (Iterable.isNullOrEmpty(this.sourceFilePatterns))
+        {
+            this.sourceFilePatternPrefixes = null;
+        }
+        else
+        {
+            this.sourceFilePatternPrefixes = new PrefixNode();
+            for (final PathPattern sourceFilePattern : this.sourceFilePatterns)
+            {
+                this.sourceFilePatternPrefixes.add(JavaSourceFileMatcher.getLiteralPrefixSegments(sourceFilePattern.toString()));
+            }
+        }
+    }
+
+    /**
+     * Create a new JavaSourceFileMatcher for the project in the provided projectFolder.
+     * @param projectFolder The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @return The new JavaSourceFileMatcher.
+     */
+    public static JavaSourceFileMatcher create(Folder projectFolder, ProjectJSONJava projectJsonJava)
+    {
+        return new JavaSourceFileMatcher(projectFolder, projectJsonJava);
+    }
+
+    /**
+     * Get the segments at the start of the provided path pattern that don't contain any wildcard
+     * characters. A folder can only contain files that match the pattern if its path and these
+     * segments start the same way.
+     * @param pathPattern The text of the path pattern.
+     * @return The literal segments at the start of the provided path pattern.
+     */
+    static Iterable<String> getLiteralPrefixSegments(String pathPattern)
+    {
+        PreCondition.assertNotNull(pathPattern, "pathPattern");
+
+        final List<String> result = List.create();
+        final String[] segments = pathPattern.replace('\\', '/').split("/", -1);
+        // The last segment is the file name pattern, so it can't be a folder prefix.
+        for (int i = 0; i < segments.length - 1; ++i)
+        {
+            final String segment = segments[i];
+            if (segment.isEmpty() || segment.equals("."))
+            {
+                continue;
+            }
+            if (segment.contains("*") || segment.contains("?") || segment.contains("[") || segment.contains("{"))
+            {
+                break;
+            }
+            result.add(segment);
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided file is one of the project's Java source files.
+     * @param file The file to check.
+     * @return Whether or not the provided file is one of the project's Java source files.
+     */
+    public boolean isMatch(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        boolean result;
+        if (Iterable.isNullOrEmpty(this.sourceFilePatterns))
+        {
+            result = ".java".equalsIgnoreCase(file.getFileExtension());
+        }
+        else
+        {
+            final Path relativePath = file.getPath().relativeTo(this.projectFolder);
+            result = this.sourceFilePatterns.contains((PathPattern pattern) -> pattern.isMatch(relativePath));
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided folder can contain any of the project's Java source files.
+     * The outputs folder, .git folders, and node_modules folders never contain source files.
+     * @param folder The folder to check.
+     * @return Whether or not the provided folder needs to be searched for Java source files.
+     */
+    public boolean canContainMatches(Folder folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+
+        final Path relativePath = folder.getPath().relativeTo(this.projectFolder);
+        boolean result = !this.excludedFolderNames.contains(folder.getName()) &&
+            !relativePath.equals(this.outputsFolderRelativePath);
+        if (result && this.sourceFilePatternPrefixes != null)
+        {
+            result = this.sourceFilePatternPrefixes.isPrefixOrContinuation(relativePath.getSegments());
+        }
+        return result;
+    }
+
+    /**
+     * Search the project folder for the project's Java source files. Each folder is searched by
+     * its own fork/join task so that the folders can be listed in parallel. The results are in the
+     * same order as a sequential depth-first search.
+     * @return The project's Java source files.
+     */
+    public Iterable<File> findMatches()
+    {
+        // List the project folder on the calling thread so that a missing project folder is
+        // reported with its original exception.
+        final Iterable<File> projectFiles = this.projectFolder.iterateFiles().toList();
+        final Iterable<Folder> projectSubfolders = this.projectFolder.iterateFolders().toList();
+        return java.util.concurrent.ForkJoinPool.commonPool().invoke(new FolderSearch(this, projectFiles, projectSubfolders));
+    }
+
+    /**
+     * A node in a trie of the literal folder prefixes of the source file patterns.
+     */
+    private static class PrefixNode
+    {
+        private final Map<String,PrefixNode> children = Map.create();
+        private boolean isEnd;
+
+        void add(Iterable<String> segments)
+        {
+            PrefixNode node = this;
+            for (final String segment : segments)
+            {
+                PrefixNode child = node.children.get(segment)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (child == null)
+                {
+                    child = new PrefixNode();
+                    node.children.set(segment, child);
+                }
+                node = child;
+            }
+            node.isEnd = true;
+        }
+
+        /**
+         * Get whether or not the provided folder segments are either the start of a prefix (the
+         * folder is an ancestor of where a pattern starts) or continue past the end of a prefix
+         * (the folder is inside where a pattern starts).
+         */
+        boolean isPrefixOrContinuation(Iterable<String> folderSegments)
+        {
+            PrefixNode node = this;
+            for (final String segment : folderSegments)
+            {
+                if (node.isEnd)
+                {
+                    break;
+                }
+                node = node.children.get(segment)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (node == null)
+                {
+                    break;
+                }
+            }
+            return node != null;
+        }
+    }
+
+    /**
+     * The fork/join task that searches a single folder and forks a task for each of its
+     * subfolders that can contain Java source files.
+     */
+    private static class FolderSearch extends java.util.concurrent.RecursiveTask<Iterable<File>>
+    {
+        private final JavaSourceFileMatcher matcher;
+        private final Folder folder;
+        private final Iterable<File> files;
+        private final Iterable<Folder> subfolders;
+
+        FolderSearch(JavaSourceFileMatcher matcher, Folder folder)
+        {
+            this.matcher = matcher;
+            this.folder = folder;
+            this.files = null;
+            this.subfolders = null;
+        }
+
+        FolderSearch(JavaSourceFileMatcher matcher, Iterable<File> files, Iterable<Folder> subfolders)
+        {
+            this.matcher = matcher;
+            this.folder = null;
+            this.files = files;
+            this.subfolders = subfolders;
+        }
+
+        @Override
+        protected Iterable<File> compute()
+        {
+            final Iterable<File> folderFiles = this.files != null ? this.files : this.folder.iterateFiles().toList();
+            final Iterable<Folder> folderSubfolders = this.subfolders != null ? this.subfolders : this.folder.iterateFolders().toList();
+
+            final List<FolderSearch> subfolderSearches = List.create();
+            for (final Folder subfolder : folderSubfolders)
+            {
+                if (this.matcher.canContainMatches(subfolder))
+                {
+                    subfolderSearches.add(new FolderSearch(this.matcher, subfolder));
+                }
+            }
+            for (final FolderSearch subfolderSearch : subfolderSearches)
+            {
+                subfolderSearch.fork();
+            }
+
+            final List<File> result = List.create();
+            for (final File file : folderFiles)
+            {
+                if (this.matcher.isMatch(file))
+                {
+                    result.add(file);
+                }
+            }
+            for (final FolderSearch subfolderSearch : subfolderSearches)
+            {
+                result.addAll(subfolderSearch.join());
+            }
+            return result;
+        }
+    }
+}
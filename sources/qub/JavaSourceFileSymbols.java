@@ -0,0 +1,406 @@
+package qub;
+
+/**
+ * The names that a Java source file declares and refers to. The names are found by a lexer that
+ * skips comments, string literals, and character literals, so words in those don't look like
+ * references to other types.
+ */
+public class JavaSourceFileSymbols
+{
+    private String packageName;
+    private final List<String> imports;
+    private final Set<String> declaredTypeNames;
+    private final Set<String> referencedNames;
+
+    private JavaSourceFileSymbols()
+    {
+        this.packageName = "";
+        this.imports = List.create();
+        this.declaredTypeNames = Set.create();
+        this.referencedNames = Set.create();
+    }
+
+    /**
+     * Create the symbols of a source file from the package, imports, and referenced names that
+     * were recorded for it, without reading the source file. The declared type names aren't
+     * recorded, so they are empty.
+     * @param packageName The name of the package that the source file declares, or an empty
+     *                    string if the source file is in the default package.
+     * @param imports The names that the source file imports.
+     * @param referencedNames The identifiers that appear in the source file's code.
+     * @return The symbols of the source file.
+     */
+    public static JavaSourceFileSymbols create(String packageName, Iterable<String> imports, Iterable<String> referencedNames)
+    {
+        PreCondition.assertNotNull(packageName, "packageName");
+        PreCondition.assertNotNull(imports, "imports");
+        PreCondition.assertNotNull(referencedNames, "referencedNames");
+
+        final JavaSourceFileSymbols result = new JavaSourceFileSymbols();
+        result.packageName = packageName;
+        result.imports.addAll(imports);
+        result.referencedNames.addAll(referencedNames);
+        return result;
+    }
+
+    /**
+     * Find the names that the provided Java source code declares and refers to.
+     * @param sourceCode The Java source code to parse.
+     * @return The names that the provided Java source code declares and refers to.
+     */
+    public static JavaSourceFileSymbols parse(String sourceCode)
+    {
+        PreCondition.assertNotNull(sourceCode, "sourceCode");
+
+        final JavaSourceFileSymbols result = new JavaSourceFileSymbols();
+        final Lexer lexer = new Lexer(sourceCode);
+
+        // Whether each open brace is the body of a type declaration. Types that are declared
+        // inside of method bodies or initializers can't be referenced from other source files.
+        final java.util.BitSet typeBodies = new java.util.BitSet();
+        int braceDepth = 0;
+        boolean nextBraceIsTypeBody = false;
+        boolean previousWasDot = false;
+        String pendingRecordName = null;
+
+        int token = lexer.next();
+        while (token != Lexer.endOfFile)
+        {
+            if (pendingRecordName != null)
+            {
+                // "record" is only a keyword when it is followed by a name and a component list.
+                if (token == '(' || token == '<')
+                {
+                    result.addDeclaredTypeName(pendingRecordName, braceDepth, typeBodies);
+                    nextBraceIsTypeBody = true;
+                }
+                pendingRecordName = null;
+            }
+
+            if (token == Lexer.identifier)
+            {
+                final String identifier = lexer.getIdentifier();
+                if (braceDepth == 0 && !previousWasDot && (identifier.equals("package") || identifier.equals("import")))
+                {
+                    final String name = JavaSourceFileSymbols.readQualifiedName(lexer);
+                    if (identifier.equals("package"))
+                    {
+                        result.packageName = name;
+                    }
+                    else if (!name.isEmpty())
+                    {
+                        result.imports.add(name);
+                    }
+                    previousWasDot = false;
+                    token = lexer.next();
+                    continue;
+                }
+
+                result.referencedNames.add(identifier);
+                if (!previousWasDot && (identifier.equals("class") || identifier.equals("interface") || identifier.equals("enum")))
+                {
+                    token = lexer.next();
+                    if (token == Lexer.identifier)
+                    {
+                        final String typeName = lexer.getIdentifier();
+                        result.referencedNames.add(typeName);
+                        result.addDeclaredTypeName(typeName, braceDepth, typeBodies);
+                        nextBraceIsTypeBody = true;
+                        previousWasDot = false;
+                        token = lexer.next();
+                    }
+                    continue;
+                }
+                else if (!previousWasDot && identifier.equals("record"))
+                {
+                    token = lexer.next();
+                    if (token == Lexer.identifier)
+                    {
+                        pendingRecordName = lexer.getIdentifier();
+                        result.referencedNames.add(pendingRecordName);
+                        previousWasDot = false;
+                        token = lexer.next();
+                    }
+                    continue;
+                }
+            }
+            else if (token == '{')
+            {
+                typeBodies.set(braceDepth, nextBraceIsTypeBody);
+                ++braceDepth;
+                nextBraceIsTypeBody = false;
+            }
+            else if (token == '}')
+            {
+                if (braceDepth > 0)
+                {
+                    --braceDepth;
+                }
+            }
+            else if (token == ';')
+            {
+                nextBraceIsTypeBody = false;
+            }
+
+            previousWasDot = (token == '.');
+            token = lexer.next();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Read the dotted name of a package or import declaration up to its terminating semicolon.
+     * Static imports drop the "static" modifier and on-demand imports keep their ".*" suffix.
+     */
+    private static String readQualifiedName(Lexer lexer)
+    {
+        final StringBuilder name = new StringBuilder();
+        int token = lexer.next();
+        while (token != Lexer.endOfFile && token != ';')
+        {
+            if (token == Lexer.identifier)
+            {
+                final String identifier = lexer.getIdentifier();
+                if (name.length() > 0 || !identifier.equals("static"))
+                {
+                    name.append(identifier);
+                }
+            }
+            else if (token == '.' || token == '*')
+            {
+                name.append((char)token);
+            }
+            token = lexer.next();
+        }
+        return name.toString();
+    }
+
+    private void addDeclaredTypeName(String typeName, int braceDepth, java.util.BitSet typeBodies)
+    {
+        if (braceDepth == 0 || typeBodies.get(braceDepth - 1))
+        {
+            this.declaredTypeNames.add(typeName);
+        }
+    }
+
+    /**
+     * Get the name of the package that the source file declares, or an empty string if the
+     * source file is in the default package.
+     * @return The name of the package that the source file declares.
+     */
+    public String getPackageName()
+    {
+        return this.packageName;
+    }
+
+    /**
+     * Get the names that the source file imports. Static imports don't include the "static"
+     * modifier and on-demand imports end with ".*".
+     * @return The names that the source file imports.
+     */
+    public Iterable<String> getImports()
+    {
+        return this.imports;
+    }
+
+    /**
+     * Get the names of the top-level and nested types that the source file declares.
+     * @return The names of the top-level and nested types that the source file declares.
+     */
+    public Iterable<String> getDeclaredTypeNames()
+    {
+        return this.declaredTypeNames;
+    }
+
+    /**
+     * Get the identifiers that appear in the source file's code, outside of its package and
+     * import declarations.
+     * @return The identifiers that appear in the source file's code.
+     */
+    public Iterable<String> getReferencedNames()
+    {
+        return this.referencedNames;
+    }
+
+    /**
+     * Get whether or not the source file may refer to one of the provided types that are declared
+     * in the provided package.
+     * @param packageName The package that the types are declared in.
+     * @param typeNames The names of the types.
+     * @return Whether or not the source file may refer to one of the provided types.
+     */
+    public boolean refersTo(String packageName, Iterable<String> typeNames)
+    {
+        PreCondition.assertNotNull(packageName, "packageName");
+        PreCondition.assertNotNull(typeNames, "typeNames");
+
+        final String packagePrefix = packageName.isEmpty() ? "" : packageName + ".";
+        final String packageFirstSegment = packageName.isEmpty() ? "" : packageName.split("\\.", 2)[0];
+        boolean result = false;
+        for (final String typeName : typeNames)
+        {
+            final String qualifiedTypeName = packagePrefix + typeName;
+            final boolean isReferenced = this.referencedNames.contains(typeName);
+            if (isReferenced && packageName.equals(this.packageName))
+            {
+                result = true;
+            }
+            else if (isReferenced && !packageName.isEmpty() && this.referencedNames.contains(packageFirstSegment))
+            {
+                // The type may be referred to by its fully qualified name.
+                result = true;
+            }
+            else
+            {
+                for (final String importedName : this.imports)
+                {
+                    if (importedName.equals(qualifiedTypeName) ||
+                        importedName.startsWith(qualifiedTypeName + ".") ||
+                        (isReferenced && importedName.equals(packagePrefix + "*")))
+                    {
+                        result = true;
+                        break;
+                    }
+                }
+            }
+
+            if (result)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A lexer that splits Java source code into identifiers and single punctuation characters.
+     * Whitespace, comments, string literals, text blocks, character literals, and number literals
+     * are skipped.
+     */
+    private static class Lexer
+    {
+        static final int endOfFile = -1;
+        static final int identifier = -2;
+
+        private final String text;
+        private final int length;
+        private int index;
+        private int identifierStart;
+        private int identifierEnd;
+
+        Lexer(String text)
+        {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        String getIdentifier()
+        {
+            return this.text.substring(this.identifierStart, this.identifierEnd);
+        }
+
+        /**
+         * Move to the next token.
+         * @return The next token: identifier, endOfFile, or the punctuation character.
+         */
+        int next()
+        {
+            while (this.index < this.length)
+            {
+                final char c = this.text.charAt(this.index);
+                if (Character.isWhitespace(c))
+                {
+                    ++this.index;
+                }
+                else if (c == '/' && this.peek(1) == '/')
+                {
+                    this.index += 2;
+                    while (this.index < this.length && this.text.charAt(this.index) != '\n' && this.text.charAt(this.index) != '\r')
+                    {
+                        ++this.index;
+                    }
+                }
+                else if (c == '/' && this.peek(1) == '*')
+                {
+                    final int commentEnd = this.text.indexOf("*/", this.index + 2);
+                    this.index = commentEnd == -1 ? this.length : commentEnd + 2;
+                }
+                else if (c == '"' && this.peek(1) == '"' && this.peek(2) == '"')
+                {
+                    this.index += 3;
+                    while (this.index < this.length && !(this.text.charAt(this.index) == '"' && this.peek(1) == '"' && this.peek(2) == '"'))
+                    {
+                        this.index += (this.text.charAt(this.index) == '\\' ? 2 : 1);
+                    }
+                    this.index = Math.min(this.length, this.index + 3);
+                }
+                else if (c == '"' || c == '\'')
+                {
+                    ++this.index;
+                    while (this.index < this.length)
+                    {
+                        final char literalCharacter = this.text.charAt(this.index);
+                        if (literalCharacter == '\\')
+                        {
+                            this.index += 2;
+                        }
+                        else
+                        {
+                            ++this.index;
+                            if (literalCharacter == c || literalCharacter == '\n')
+                            {
+                                break;
+                            }
+                        }
+                    }
+                }
+                else if (Character.isDigit(c) || (c == '.' && Character.isDigit(this.peek(1))))
+                {
+                    ++this.index;
+                    while (this.index < this.length)
+                    {
+                        final char numberCharacter = this.text.charAt(this.index);
+                        if (Character.isJavaIdentifierPart(numberCharacter) || numberCharacter == '.')
+                        {
+                            ++this.index;
+                        }
+                        else if ((numberCharacter == '+' || numberCharacter == '-') && "eEpP".indexOf(this.text.charAt(this.index - 1)) != -1)
+                        {
+                            ++this.index;
+                        }
+                        else
+                        {
+                            break;
+                        }
+                    }
+                }
+                else if (Character.isJavaIdentifierStart(c))
+                {
+                    this.identifierStart = this.index;
+                    ++this.index;
+                    while (this.index < this.length && Character.isJavaIdentifierPart(this.text.charAt(this.index)))
+                    {
+                        ++this.index;
+                    }
+                    this.identifierEnd = this.index;
+                    return Lexer.identifier;
+                }
+                else
+                {
+                    ++this.index;
+                    return c;
+                }
+            }
+            return Lexer.endOfFile;
+        }
+
+        private char peek(int offset)
+        {
+            final int peekIndex = this.index + offset;
+            return peekIndex < this.length ? this.text.charAt(peekIndex) : '\0';
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package qub;
+
+/**
+ * An installed JDK or JRE that was discovered next to the JAVA_HOME folder.
+ */
+public class JavaToolchainJSON extends JSONObjectWrapperBase
+{
+    private static final String folderPathPropertyName = "folderPath";
+    private static final String versionPropertyName = "version";
+    private static final String bootClasspathPropertyName = "bootClasspath";
+
+    private JavaToolchainJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static JavaToolchainJSON create()
+    {
+        return new JavaToolchainJSON(JSONObject.create());
+    }
+
+    public static Result<JavaToolchainJSON> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create(() ->
+        {
+            return new JavaToolchainJSON(json);
+        });
+    }
+
+    /**
+     * Inspect the provided JDK or JRE folder. The version is read from the folder's release file
+     * if it has one, and otherwise from the folder's name.
+     * @param toolchainFolder The JDK or JRE folder to inspect.
+     * @return The discovered toolchain, or null if the folder's version couldn't be determined.
+     */
+    public static Result<JavaToolchainJSON> discover(Folder toolchainFolder)
+    {
+        PreCondition.assertNotNull(toolchainFolder, "toolchainFolder");
+
+        return Result.create(() ->
+        {
+            String version = null;
+            final String releaseFileContents = toolchainFolder.getFile("release").await()
+                .getContentsAsString()
+                .catchError()
+                .await();
+            if (!Strings.isNullOrEmpty(releaseFileContents))
+            {
+                for (final String releaseFileLine : Strings.getLines(releaseFileContents))
+                {
+                    if (releaseFileLine.startsWith("JAVA_VERSION="))
+                    {
+                        version = releaseFileLine.substring("JAVA_VERSION=".length()).replace("\"", "").trim();
+                        break;
+                    }
+                }
+            }
+            if (Strings.isNullOrEmpty(version))
+            {
+                final String folderName = toolchainFolder.getName();
+                for (final String prefix : Iterable.create("jdk-", "jre-", "jdk", "jre"))
+                {
+                    if (folderName.startsWith(prefix))
+                    {
+                        version = folderName.substring(prefix.length());
+                        break;
+                    }
+                }
+            }
+
+            JavaToolchainJSON result = null;
+            if (JavaToolchainJSON.getMajorVersion(version) > 0)
+            {
+                result = JavaToolchainJSON.create()
+                    .setFolderPath(toolchainFolder.getPath())
+                    .setVersion(version);
+
+                // Java 8 and older don't support --release, so they need their runtime jar to be
+                // used as the boot classpath.
+                if (result.getMajorVersion() <= 8)
+                {
+                    final Folder jreFolder = toolchainFolder.getFolder("jre").await();
+                    final Folder runtimeFolder = jreFolder.exists().await() ? jreFolder : toolchainFolder;
+                    result.setBootClasspath(runtimeFolder.getFile("lib/rt.jar").await().getPath());
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the major version number from the provided Java version string. Versions that start
+     * with "1." (such as "1.8.0_192") use their second number as their major version.
+     * @param javaVersion The Java version string.
+     * @return The major version number, or 0 if the major version couldn't be parsed.
+     */
+    public static int getMajorVersion(String javaVersion)
+    {
+        int result = 0;
+        if (!Strings.isNullOrEmpty(javaVersion))
+        {
+            String majorVersionString = javaVersion.startsWith("1.") ? javaVersion.substring(2) : javaVersion;
+            int endIndex = 0;
+            while (endIndex < majorVersionString.length() && Character.isDigit(majorVersionString.charAt(endIndex)))
+            {
+                ++endIndex;
+            }
+            majorVersionString = majorVersionString.substring(0, endIndex);
+            if (!majorVersionString.isEmpty())
+            {
+                final Integer majorVersion = Integers.parse(majorVersionString)
+                    .catchError(NumberFormatException.class)
+                    .await();
+                result = majorVersion == null ? 0 : majorVersion;
+            }
+        }
+        return result;
+    }
+
+    public JavaToolchainJSON setFolderPath(Path folderPath)
+    {
+        PreCondition.assertNotNull(folderPath, "folderPath");
+
+        this.json.setString(JavaToolchainJSON.folderPathPropertyName, folderPath.toString());
+        return this;
+    }
+
+    public Path getFolderPath()
+    {
+        final String folderPathString = this.json.getString(JavaToolchainJSON.folderPathPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(folderPathString) ? null : Path.parse(folderPathString);
+    }
+
+    public JavaToolchainJSON setVersion(String version)
+    {
+        PreCondition.assertNotNullAndNotEmpty(version, "version");
+
+        this.json.setString(JavaToolchainJSON.versionPropertyName, version);
+        return this;
+    }
+
+    public String getVersion()
+    {
+        return this.json.getString(JavaToolchainJSON.versionPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get the major version number of this toolchain.
+     * @return The major version number of this toolchain, or 0 if it couldn't be parsed.
+     */
+    public int getMajorVersion()
+    {
+        return JavaToolchainJSON.getMajorVersion(this.getVersion());
+    }
+
+    public JavaToolchainJSON setBootClasspath(Path bootClasspath)
+    {
+        PreCondition.assertNotNull(bootClasspath, "bootClasspath");
+
+        this.json.setString(JavaToolchainJSON.bootClasspathPropertyName, bootClasspath.toString());
+        return this;
+    }
+
+    /**
+     * Get the runtime jar that should be used as the boot classpath when compiling for this
+     * toolchain's version.
+     * @return The runtime jar of this toolchain, or null if this toolchain's version supports
+     * --release instead.
+     */
+    public Path getBootClasspath()
+    {
+        final String bootClasspathString = this.json.getString(JavaToolchainJSON.bootClasspathPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(bootClasspathString) ? null : Path.parse(bootClasspathString);
+    }
+}
@@ -0,0 +1,176 @@
+package qub;
+
+/**
+ * The cached registry of the JDKs and JREs that are installed in the folder that contains the
+ * JAVA_HOME folder. The cached registry is only valid while the names of the folders in that
+ * folder haven't changed, so the individual JDK and JRE folders only need to be inspected again
+ * when a JDK or JRE is installed or removed.
+ */
+public class JavaToolchainsJSON extends JSONObjectWrapperBase
+{
+    private static final String javaFolderPathPropertyName = "javaFolderPath";
+    private static final String javaFolderEntriesPropertyName = "javaFolderEntries";
+    private static final String toolchainsPropertyName = "toolchains";
+
+    private JavaToolchainsJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static JavaToolchainsJSON create()
+    {
+        return new JavaToolchainsJSON(JSONObject.create());
+    }
+
+    public static Result<JavaToolchainsJSON> parse(File parseJSONFile)
+    {
+        PreCondition.assertNotNull(parseJSONFile, "parseJSONFile");
+
+        return Result.create(() ->
+        {
+            return JavaToolchainsJSON.parse(JSON.parseObject(parseJSONFile).await()).await();
+        });
+    }
+
+    public static Result<JavaToolchainsJSON> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create(() ->
+        {
+            return new JavaToolchainsJSON(json);
+        });
+    }
+
+    /**
+     * Inspect each of the folders in the provided Java folder and create a registry of the JDKs
+     * and JREs that were found.
+     * @param javaFolder The folder that contains the installed JDKs and JREs.
+     * @param javaFolderEntries The names of the folders in the Java folder.
+     * @return The registry of the JDKs and JREs that were found.
+     */
+    public static Result<JavaToolchainsJSON> discover(Folder javaFolder, Iterable<String> javaFolderEntries)
+    {
+        PreCondition.assertNotNull(javaFolder, "javaFolder");
+        PreCondition.assertNotNull(javaFolderEntries, "javaFolderEntries");
+
+        return Result.create(() ->
+        {
+            final List<JavaToolchainJSON> toolchains = List.create();
+            for (final String javaFolderEntry : javaFolderEntries)
+            {
+                final JavaToolchainJSON toolchain = JavaToolchainJSON.discover(javaFolder.getFolder(javaFolderEntry).await()).await();
+                if (toolchain != null)
+                {
+                    toolchains.add(toolchain);
+                }
+            }
+
+            return JavaToolchainsJSON.create()
+                .setJavaFolderPath(javaFolder.getPath())
+                .setJavaFolderEntries(javaFolderEntries)
+                .setToolchains(toolchains);
+        });
+    }
+
+    public JavaToolchainsJSON setJavaFolderPath(Path javaFolderPath)
+    {
+        PreCondition.assertNotNull(javaFolderPath, "javaFolderPath");
+
+        this.json.setString(JavaToolchainsJSON.javaFolderPathPropertyName, javaFolderPath.toString());
+        return this;
+    }
+
+    public Path getJavaFolderPath()
+    {
+        final String javaFolderPathString = this.json.getString(JavaToolchainsJSON.javaFolderPathPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(javaFolderPathString) ? null : Path.parse(javaFolderPathString);
+    }
+
+    public JavaToolchainsJSON setJavaFolderEntries(Iterable<String> javaFolderEntries)
+    {
+        PreCondition.assertNotNull(javaFolderEntries, "javaFolderEntries");
+
+        this.json.setArray(JavaToolchainsJSON.javaFolderEntriesPropertyName,
+            JSONArray.create(javaFolderEntries.map(JSONString::get)));
+        return this;
+    }
+
+    public Iterable<String> getJavaFolderEntries()
+    {
+        final JSONArray javaFolderEntriesArray = this.json.getArray(JavaToolchainsJSON.javaFolderEntriesPropertyName)
+            .catchError()
+            .await();
+        final List<String> result = List.create();
+        if (javaFolderEntriesArray != null)
+        {
+            for (final JSONSegment javaFolderEntrySegment : javaFolderEntriesArray)
+            {
+                result.add(((JSONString)javaFolderEntrySegment).getValue());
+            }
+        }
+        return result;
+    }
+
+    public JavaToolchainsJSON setToolchains(Iterable<JavaToolchainJSON> toolchains)
+    {
+        PreCondition.assertNotNull(toolchains, "toolchains");
+
+        this.json.setArray(JavaToolchainsJSON.toolchainsPropertyName,
+            JSONArray.create(toolchains.map(JavaToolchainJSON::toJson)));
+        return this;
+    }
+
+    public Iterable<JavaToolchainJSON> getToolchains()
+    {
+        final JSONArray toolchainsArray = this.json.getArray(JavaToolchainsJSON.toolchainsPropertyName)
+            .catchError()
+            .await();
+        final List<JavaToolchainJSON> result = List.create();
+        if (toolchainsArray != null)
+        {
+            for (final JSONSegment toolchainSegment : toolchainsArray)
+            {
+                result.add(JavaToolchainJSON.parse((JSONObject)toolchainSegment).await());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not this cached registry was discovered from the provided Java folder.
+     * @param javaFolderPath The path to the folder that contains the installed JDKs and JREs.
+     * @param javaFolderEntries The current names of the folders in the Java folder.
+     * @return Whether or not this cached registry was discovered from the provided Java folder.
+     */
+    public boolean matches(Path javaFolderPath, Iterable<String> javaFolderEntries)
+    {
+        PreCondition.assertNotNull(javaFolderPath, "javaFolderPath");
+        PreCondition.assertNotNull(javaFolderEntries, "javaFolderEntries");
+
+        return javaFolderPath.equals(this.getJavaFolderPath()) &&
+            javaFolderEntries.toSet().equals(this.getJavaFolderEntries().toSet());
+    }
+
+    /**
+     * Find the installed toolchain that has the runtime jar for the provided Java version. If more
+     * than one toolchain matches, then the toolchain with the greatest folder name is returned.
+     * @param javaVersion The Java version to compile for.
+     * @return The matching toolchain, or null if no installed toolchain matches.
+     */
+    public JavaToolchainJSON findBootClasspathToolchain(String javaVersion)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javaVersion, "javaVersion");
+
+        final int majorVersion = JavaToolchainJSON.getMajorVersion(javaVersion);
+        final Iterable<JavaToolchainJSON> matchingToolchains = this.getToolchains()
+            .where((JavaToolchainJSON toolchain) -> toolchain.getMajorVersion() == majorVersion && toolchain.getBootClasspath() != null)
+            .toList();
+        return !matchingToolchains.any()
+            ? null
+            : matchingToolchains.maximum((JavaToolchainJSON lhs, JavaToolchainJSON rhs) ->
+                Comparison.create(lhs.getFolderPath().getSegments().last().compareTo(rhs.getFolderPath().getSegments().last())));
+    }
+}
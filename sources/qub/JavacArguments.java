@@ -335,6 +335,148 @@ public interface JavacArguments<T>
         return result;
     }
 
+    /**
+     * Add an argument that makes javac read more arguments from the provided arguments file.
+     * @param argumentsFilePath The path to the file that contains the arguments.
+     * @return This object for method chaining.
+     */
+    default T addArgumentsFile(Path argumentsFilePath)
+    {
+        PreCondition.assertNotNull(argumentsFilePath, "argumentsFilePath");
+
+        final Path workingFolderPath = this.getWorkingFolderPath();
+        if (workingFolderPath != null && argumentsFilePath.isRooted())
+        {
+            argumentsFilePath = argumentsFilePath.relativeTo(workingFolderPath);
+        }
+        return this.addArguments("@" + argumentsFilePath.toString());
+    }
+
+    /**
+     * Add an argument that makes javac read more arguments from the provided arguments file.
+     * @param argumentsFile The file that contains the arguments.
+     * @return This object for method chaining.
+     */
+    default T addArgumentsFile(File argumentsFile)
+    {
+        PreCondition.assertNotNull(argumentsFile, "argumentsFile");
+
+        return this.addArgumentsFile(argumentsFile.getPath());
+    }
+
+    /**
+     * Get the contents of a javac arguments file that contains the provided arguments. Each
+     * argument is written on its own line, and arguments that contain whitespace, quotes,
+     * backslashes, or comment characters are quoted.
+     * @param arguments The arguments to write.
+     * @return The contents of the arguments file.
+     */
+    static String getArgumentsFileContents(Iterable<String> arguments)
+    {
+        PreCondition.assertNotNull(arguments, "arguments");
+
+        final StringBuilder builder = new StringBuilder();
+        for (final String argument : arguments)
+        {
+            boolean quote = argument.isEmpty();
+            for (int i = 0; !quote && i < argument.length(); ++i)
+            {
+                final char c = argument.charAt(i);
+                quote = Character.isWhitespace(c) || c == '"' || c == '\\' || c == '#' || c == '\'';
+            }
+
+            if (!quote)
+            {
+                builder.append(argument);
+            }
+            else
+            {
+                builder.append('"');
+                for (int i = 0; i < argument.length(); ++i)
+                {
+                    final char c = argument.charAt(i);
+                    if (c == '"' || c == '\\')
+                    {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+                builder.append('"');
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parse the arguments from the contents of a javac arguments file.
+     * @param argumentsFileContents The contents of the arguments file.
+     * @return The arguments in the arguments file.
+     */
+    static Iterable<String> parseArgumentsFileContents(String argumentsFileContents)
+    {
+        PreCondition.assertNotNull(argumentsFileContents, "argumentsFileContents");
+
+        final List<String> result = List.create();
+        final StringBuilder argument = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        final int length = argumentsFileContents.length();
+        for (int i = 0; i < length; ++i)
+        {
+            final char c = argumentsFileContents.charAt(i);
+            if (quote != 0)
+            {
+                if (c == quote)
+                {
+                    quote = 0;
+                }
+                else if (c == '\\' && i + 1 < length)
+                {
+                    argument.append(argumentsFileContents.charAt(++i));
+                }
+                else
+                {
+                    argument.append(c);
+                }
+            }
+            else if (c == '"' || c == '\'')
+            {
+                quote = c;
+                inArgument = true;
+            }
+            else if (c == '#' && !inArgument)
+            {
+                while (i + 1 < length && argumentsFileContents.charAt(i + 1) != '\n')
+                {
+                    ++i;
+                }
+            }
+            else if (Character.isWhitespace(c))
+            {
+                if (inArgument)
+                {
+                    result.add(argument.toString());
+                    argument.setLength(0);
+                    inArgument = false;
+                }
+            }
+            else
+            {
+                argument.append(c);
+                inArgument = true;
+            }
+        }
+        if (inArgument)
+        {
+            result.add(argument.toString());
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
     /**
      * Add the --version argument to the new process.
      * @return This object for method chaining.
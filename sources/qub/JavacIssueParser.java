@@ -0,0 +1,189 @@
+package qub;
+
+/**
+ * A parser that turns the lines that javac writes to its error stream into JavaCompilerIssues
+ * one line at a time, so that issues can be reported while javac is still running. Lines that
+ * are part of a parsed issue are not kept in memory. An issue is reported once the line after
+ * its indented detail lines (such as "symbol:" and "location:") arrives, or once the parser is
+ * finished.
+ */
+public class JavacIssueParser
+{
+    private final Warnings warnings;
+    private final Action1<JavaCompilerIssue> onIssue;
+    private final StringBuilder nonIssueText;
+    private JavaCompilerIssue pendingIssue;
+    private final List<String> pendingIssueMessageLines;
+    private String sourceFilePath;
+    private int lineNumber;
+    private Issue.Type issueType;
+    private String message;
+    private boolean expectingSourceCodeLine;
+    private boolean expectingCaretLine;
+
+    private JavacIssueParser(Warnings warnings, Action1<JavaCompilerIssue> onIssue)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertNotNull(onIssue, "onIssue");
+
+        this.warnings = warnings;
+        this.onIssue = onIssue;
+        this.nonIssueText = new StringBuilder();
+        this.pendingIssueMessageLines = List.create();
+    }
+
+    /**
+     * Create a new JavacIssueParser.
+     * @param warnings How warnings should be treated.
+     * @param onIssue The action that will be run for each issue as soon as it has been parsed.
+     * @return The new JavacIssueParser.
+     */
+    public static JavacIssueParser create(Warnings warnings, Action1<JavaCompilerIssue> onIssue)
+    {
+        return new JavacIssueParser(warnings, onIssue);
+    }
+
+    /**
+     * Get the lines that were added to this parser that weren't part of an issue.
+     * @return The lines that were added to this parser that weren't part of an issue.
+     */
+    public String getNonIssueText()
+    {
+        return this.nonIssueText.toString();
+    }
+
+    /**
+     * Add the provided error stream line to this parser. If the line shows that the previous issue
+     * has no more detail lines, then that issue will be passed to this parser's issue action
+     * before this method returns.
+     * @param line The line to add. The line may end with a newline sequence.
+     * @return This object for method chaining.
+     */
+    public JavacIssueParser addLine(String line)
+    {
+        PreCondition.assertNotNull(line, "line");
+
+        final String trimmedLine = JavacIssueParser.trimNewLine(line);
+        if (this.expectingSourceCodeLine)
+        {
+            this.expectingSourceCodeLine = false;
+            this.expectingCaretLine = true;
+        }
+        else if (this.expectingCaretLine)
+        {
+            this.expectingCaretLine = false;
+
+            final int caretIndex = trimmedLine.indexOf('^');
+            final int columnNumber = caretIndex + 1;
+            final String normalizedSourceFilePath = Path.parse(this.sourceFilePath).normalize().toString();
+            this.pendingIssue = new JavaCompilerIssue(normalizedSourceFilePath, this.lineNumber, columnNumber, this.issueType, this.message);
+            this.pendingIssueMessageLines.add(this.message);
+        }
+        else if (this.pendingIssue != null && !trimmedLine.isEmpty() && Character.isWhitespace(trimmedLine.charAt(0)))
+        {
+            // Indented lines after an issue (such as "symbol:" and "location:") belong to that
+            // issue.
+            this.pendingIssueMessageLines.add(trimmedLine);
+        }
+        else
+        {
+            // An indented line that arrives after its issue has already been reported can't be
+            // added to that issue anymore, so it is kept as non-issue text instead of being
+            // dropped.
+            this.finish();
+            if (!this.parseIssueHeader(trimmedLine))
+            {
+                this.nonIssueText.append(trimmedLine).append('\n');
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Report the issue that is waiting for more detail lines, if there is one. This should be
+     * called after the last line has been added to this parser.
+     * @return This object for method chaining.
+     */
+    public JavacIssueParser finish()
+    {
+        if (this.pendingIssue != null)
+        {
+            final JavaCompilerIssue issue = this.pendingIssue;
+            final String message = JavacIssueParser.joinMessageLines(this.pendingIssueMessageLines);
+            this.pendingIssue = null;
+            this.pendingIssueMessageLines.clear();
+
+            this.onIssue.run(new JavaCompilerIssue(issue.sourceFilePath, issue.lineNumber, issue.columnNumber, issue.type, message));
+        }
+        return this;
+    }
+
+    /**
+     * Join the lines of a multiple-line javac message into a single line. The first line is the
+     * summary of the message, and each following line is a detail such as "symbol:   class Foo".
+     * @param messageLines The lines of the message.
+     * @return The message as a single line.
+     */
+    public static String joinMessageLines(Iterable<String> messageLines)
+    {
+        PreCondition.assertNotNull(messageLines, "messageLines");
+
+        final StringBuilder result = new StringBuilder();
+        for (final String messageLine : messageLines)
+        {
+            final String detail = messageLine.trim().replaceAll("\\s+", " ");
+            if (!detail.isEmpty())
+            {
+                if (result.length() > 0)
+                {
+                    result.append("; ");
+                }
+                result.append(detail);
+            }
+        }
+        return result.toString();
+    }
+
+    private boolean parseIssueHeader(String line)
+    {
+        boolean result = false;
+
+        final int firstColon = line.indexOf(':');
+        if (firstColon >= 0)
+        {
+            final int secondColon = line.indexOf(':', firstColon + 1);
+            if (secondColon >= 0)
+            {
+                final Integer lineNumber = Integers.parse(line.substring(firstColon + 1, secondColon))
+                    .catchError(NumberFormatException.class)
+                    .await();
+                final int thirdColon = line.indexOf(':', secondColon + 1);
+                if (lineNumber != null && thirdColon >= 0)
+                {
+                    final String issueTypeString = line.substring(secondColon + 1, thirdColon).trim();
+                    this.sourceFilePath = line.substring(0, firstColon);
+                    this.lineNumber = lineNumber;
+                    this.issueType = (this.warnings == Warnings.Error || issueTypeString.equalsIgnoreCase(Issue.Type.Error.toString()))
+                        ? Issue.Type.Error
+                        : Issue.Type.Warning;
+                    this.message = line.substring(thirdColon + 1).trim();
+                    this.expectingSourceCodeLine = true;
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static String trimNewLine(String line)
+    {
+        int endIndex = line.length();
+        while (endIndex > 0 && (line.charAt(endIndex - 1) == '\n' || line.charAt(endIndex - 1) == '\r'))
+        {
+            --endIndex;
+        }
+        return line.substring(0, endIndex);
+    }
+}
@@ -3,7 +3,7 @@ package qub;
 /**
  * A ProcessBuilder that is specific to the javac application.
  */
-public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBuilder> implements JavacArguments<JavacProcessBuilder>
+public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBuilder> implements JavaCompiler<JavacProcessBuilder>
 {
     public static final String executablePathString = "javac";
     public static final Path executablePath = Path.parse(JavacProcessBuilder.executablePathString);
@@ -91,13 +91,19 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
     /**
      * Run the javac process that this builder has constructed.
      * @param warnings How compilation warnings should be handled.
+     * @param maximumErrors The number of errors that javac can write before the javac process is
+     *                      killed, or 0 if the javac process should always run to completion.
      * @param verbose The stream that verbose logs should be written to.
+     * @param onIssue The action that will be run for each issue as soon as javac writes it.
      * @return The parsed result of running the javac process.
      */
-    public Result<JavaCompilationResult> compile(Warnings warnings, CharacterToByteWriteStream verbose)
+    @Override
+    public Result<JavaCompilationResult> compile(Warnings warnings, int maximumErrors, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
     {
         PreCondition.assertNotNull(warnings, "warnings");
+        PreCondition.assertGreaterThanOrEqualTo(maximumErrors, 0, "maximumErrors");
         PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(onIssue, "onIssue");
 
         return Result.create(() ->
         {
@@ -109,24 +115,75 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
                 verboseMutex.criticalSection(() -> verbose.write(outputLine).await()).await();
             });
 
-            final InMemoryCharacterToByteStream stderr = InMemoryCharacterToByteStream.create();
+            final List<JavaCompilerIssue> issues = List.create();
+            final ChildProcess[] childProcess = new ChildProcess[1];
+            final boolean[] stopped = new boolean[1];
+            final int[] errorCount = new int[1];
+            final JavacIssueParser issueParser = JavacIssueParser.create(warnings, (JavaCompilerIssue issue) ->
+            {
+                if (!stopped[0])
+                {
+                    issues.add(issue);
+                    onIssue.run(issue);
+                    if (issue.type == Issue.Type.Error)
+                    {
+                        ++errorCount[0];
+                    }
+
+                    if (maximumErrors > 0 && errorCount[0] >= maximumErrors)
+                    {
+                        stopped[0] = true;
+                        if (childProcess[0] != null)
+                        {
+                            verbose.writeLine("Reached " + maximumErrors + " error" + (maximumErrors == 1 ? "" : "s") + ". Killing javac...").await();
+                            childProcess[0].kill().await();
+                        }
+                    }
+                }
+            });
             this.redirectErrorLines((String errorLine) ->
             {
-                stderr.write(errorLine).await();
-                verboseMutex.criticalSection(() -> verbose.write(errorLine).await()).await();
+                verboseMutex.criticalSection(() ->
+                {
+                    verbose.write(errorLine).await();
+                    issueParser.addLine(errorLine);
+                }).await();
             });
 
             verbose.writeLine("Running " + this.getCommand() + "...").await();
-            final Integer exitCode = this.run().await();
+            final Integer exitCode;
+            if (maximumErrors == 0)
+            {
+                exitCode = this.run().await();
+            }
+            else
+            {
+                verboseMutex.criticalSection(() ->
+                {
+                    childProcess[0] = this.start().await();
+
+                    // The error stream may have reached the maximum number of errors before the
+                    // process was assigned, so it couldn't be killed yet.
+                    if (stopped[0])
+                    {
+                        verbose.writeLine("Reached " + maximumErrors + " error" + (maximumErrors == 1 ? "" : "s") + ". Killing javac...").await();
+                        childProcess[0].kill().await();
+                    }
+                }).await();
+                exitCode = childProcess[0].await();
+            }
             final String outputText = stdout.getText().await();
-            final String errorText = stderr.getText().await();
-            final Iterable<JavaCompilerIssue> issues = JavacProcessBuilder.parseIssues(errorText, warnings);
+            final String errorText = verboseMutex.criticalSection(() ->
+            {
+                return issueParser.finish().getNonIssueText();
+            }).await();
 
             return new JavaCompilationResult(
-                exitCode,
+                stopped[0] && exitCode == 0 ? 1 : exitCode,
                 outputText,
                 errorText,
-                issues);
+                issues,
+                stopped[0]);
         });
     }
 
@@ -142,54 +199,12 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
         PreCondition.assertNotNull(warnings, "warnings");
 
         final List<JavaCompilerIssue> result = List.create();
-
-        if (!Strings.isNullOrEmpty(errorText))
+        final JavacIssueParser issueParser = JavacIssueParser.create(warnings, result::add);
+        for (final String errorLine : Strings.getLines(errorText))
         {
-            final Iterator<String> errorLines = Strings.getLines(errorText).iterate();
-            errorLines.next();
-            while (errorLines.hasCurrent())
-            {
-                final String errorLine = errorLines.takeCurrent();
-                final int firstColon = errorLine.indexOf(':');
-                if (firstColon >= 0)
-                {
-                    final String sourceFilePath = errorLine.substring(0, firstColon);
-                    final int secondColon = errorLine.indexOf(':', firstColon + 1);
-                    if (secondColon >= 0)
-                    {
-                        final String lineNumberString = errorLine.substring(firstColon + 1, secondColon);
-                        final Integer lineNumber = Integers.parse(lineNumberString)
-                            .catchError(NumberFormatException.class)
-                            .await();
-                        if (lineNumber != null)
-                        {
-                            final int thirdColon = errorLine.indexOf(':', secondColon + 1);
-                            final String issueTypeString = errorLine.substring(secondColon + 1, thirdColon).trim();
-                            final Issue.Type issueType = (warnings == Warnings.Error || issueTypeString.equalsIgnoreCase(Issue.Type.Error.toString()))
-                                ? Issue.Type.Error
-                                : Issue.Type.Warning;
-                            final String message = errorLine.substring(thirdColon + 1).trim();
-
-                            if (errorLines.hasCurrent())
-                            {
-                                // Take source code line.
-                                errorLines.takeCurrent();
-
-                                if (errorLines.hasCurrent())
-                                {
-                                    final String caretLine = errorLines.takeCurrent();
-                                    final int caretIndex = caretLine.indexOf('^');
-                                    final int columnNumber = caretIndex + 1;
-
-                                    final String normalizedSourceFilePath = Path.parse(sourceFilePath).normalize().toString();
-                                    result.add(new JavaCompilerIssue(normalizedSourceFilePath, lineNumber, columnNumber, issueType, message));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            issueParser.addLine(errorLine);
         }
+        issueParser.finish();
 
         PostCondition.assertNotNull(result, "result");
 
@@ -198,7 +213,9 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
 
     /**
      * Find the boot classpath runtime jar file that should be used during compilation. If this
-     * function returns a null File, then that means that there is no boot classpath to add.
+     * function returns a null File, then that means that there is no boot classpath to add because
+     * the Java version can be compiled with --release. This inspects every installed JRE and JDK,
+     * so builds should use the cached registry from QubBuildCompile.getJavaToolchains() instead.
      * @param javaVersion The version of java to find the boot classpath for.
      * @param javaHomeFolder The folder that is specified in the environment variables JAVA_HOME
      *                       value.
@@ -212,29 +229,78 @@ public class JavacProcessBuilder extends ProcessBuilderDecorator<JavacProcessBui
 
         return Result.create(() ->
         {
-            File result;
-            if (QubBuildCompile.isJava8(javaVersion))
+            File result = null;
+            final int majorVersion = JavaToolchainJSON.getMajorVersion(javaVersion);
+            if (majorVersion <= 0)
+            {
+                throw new NotFoundException("No bootclasspath runtime jar file could be found for Java version " + Strings.escapeAndQuote(javaVersion) + ".");
+            }
+            else if (majorVersion <= 8)
             {
                 final Folder javaFolder = javaHomeFolder.getParentFolder().await();
-                final Iterator<Folder> jreAndJdkFolders = javaFolder.iterateFolders();
-                final Iterator<Folder> jre18Folders = jreAndJdkFolders.where((Folder jreOrJdkFolder) -> jreOrJdkFolder.getName().startsWith("jre1.8.0_"));
-                if (!jre18Folders.any())
+                final Iterable<String> javaFolderEntries = javaFolder.iterateFolders()
+                    .map(Folder::getName)
+                    .toList();
+                final JavaToolchainJSON toolchain = JavaToolchainsJSON.discover(javaFolder, javaFolderEntries).await()
+                    .findBootClasspathToolchain(javaVersion);
+                if (toolchain == null)
                 {
                     throw new NotFoundException("No installed JREs found for Java version " + Strings.escapeAndQuote(javaVersion) + ".");
                 }
-                else
-                {
-                    final Folder jre18Folder = jre18Folders.maximum((Folder lhs, Folder rhs) -> Comparison.create(lhs.getName().compareTo(rhs.getName())));
-                    result = jre18Folder.getFile("lib/rt.jar").await();
-                }
-            }
-            else if (QubBuildCompile.isJava11(javaVersion))
-            {
-                result = null;
+                result = javaHomeFolder.getFileSystem().getFile(toolchain.getBootClasspath()).await();
             }
-            else
+
+            return result;
+        });
+    }
+
+    /**
+     * Find the javac executable file that will be run when javac is invoked with the provided
+     * environment variables. If no javac executable file can be found in the folders of the PATH
+     * environment variable, then a null File will be returned.
+     * @param environmentVariables The environment variables that javac will be invoked with.
+     * @param fileSystem The FileSystem to search for the javac executable file in.
+     * @return The javac executable file, or null if it couldn't be found.
+     */
+    public static Result<File> findExecutableFile(EnvironmentVariables environmentVariables, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        return Result.create(() ->
+        {
+            File result = null;
+
+            final String pathVariable = environmentVariables.get("PATH")
+                .catchError(NotFoundException.class)
+                .await();
+            if (!Strings.isNullOrEmpty(pathVariable))
             {
-                throw new NotFoundException("No bootclasspath runtime jar file could be found for Java version " + Strings.escapeAndQuote(javaVersion) + ".");
+                for (final String pathFolderString : pathVariable.split(java.util.regex.Pattern.quote(java.io.File.pathSeparator)))
+                {
+                    if (!Strings.isNullOrEmpty(pathFolderString))
+                    {
+                        final Path pathFolderPath = Path.parse(pathFolderString);
+                        if (pathFolderPath.isRooted())
+                        {
+                            final Folder pathFolder = fileSystem.getFolder(pathFolderPath).await();
+                            for (final String executableName : Iterable.create(JavacProcessBuilder.executablePathString, JavacProcessBuilder.executablePathString + ".exe"))
+                            {
+                                final File executableFile = pathFolder.getFile(executableName).await();
+                                if (executableFile.exists().await())
+                                {
+                                    result = executableFile;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+
+                    if (result != null)
+                    {
+                        break;
+                    }
+                }
             }
 
             return result;
@@ -0,0 +1,130 @@
+package qub;
+
+/**
+ * The cached result of probing a javac executable for its version. The cached version is only
+ * valid while the javac executable's path, last modified time, and size haven't changed.
+ */
+public class JavacVersionJSON extends JSONObjectWrapperBase
+{
+    private static final String javacPathPropertyName = "javacPath";
+    private static final String javacLastModifiedPropertyName = "javacLastModified";
+    private static final String javacSizePropertyName = "javacSize";
+    private static final String javacVersionPropertyName = "javacVersion";
+
+    private JavacVersionJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static JavacVersionJSON create()
+    {
+        return new JavacVersionJSON(JSONObject.create());
+    }
+
+    public static Result<JavacVersionJSON> parse(File parseJSONFile)
+    {
+        PreCondition.assertNotNull(parseJSONFile, "parseJSONFile");
+
+        return Result.create(() ->
+        {
+            return JavacVersionJSON.parse(JSON.parseObject(parseJSONFile).await()).await();
+        });
+    }
+
+    public static Result<JavacVersionJSON> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create(() ->
+        {
+            return new JavacVersionJSON(json);
+        });
+    }
+
+    public JavacVersionJSON setJavacPath(Path javacPath)
+    {
+        PreCondition.assertNotNull(javacPath, "javacPath");
+
+        this.json.setString(JavacVersionJSON.javacPathPropertyName, javacPath.toString());
+        return this;
+    }
+
+    public Path getJavacPath()
+    {
+        final String javacPathString = this.json.getString(JavacVersionJSON.javacPathPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(javacPathString) ? null : Path.parse(javacPathString);
+    }
+
+    public JavacVersionJSON setJavacLastModified(DateTime javacLastModified)
+    {
+        PreCondition.assertNotNull(javacLastModified, "javacLastModified");
+
+        this.json.setString(JavacVersionJSON.javacLastModifiedPropertyName, javacLastModified.toString());
+        return this;
+    }
+
+    public DateTime getJavacLastModified()
+    {
+        final String javacLastModifiedString = this.json.getString(JavacVersionJSON.javacLastModifiedPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(javacLastModifiedString)
+            ? null
+            : DateTime.parse(javacLastModifiedString).catchError().await();
+    }
+
+    public JavacVersionJSON setJavacSize(long javacSize)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(javacSize, 0, "javacSize");
+
+        this.json.setNumber(JavacVersionJSON.javacSizePropertyName, javacSize);
+        return this;
+    }
+
+    public Long getJavacSize()
+    {
+        final Double javacSize = this.json.getNumber(JavacVersionJSON.javacSizePropertyName)
+            .catchError()
+            .await();
+        return javacSize == null ? null : javacSize.longValue();
+    }
+
+    public JavacVersionJSON setJavacVersion(VersionNumber javacVersion)
+    {
+        PreCondition.assertNotNull(javacVersion, "javacVersion");
+
+        this.json.setString(JavacVersionJSON.javacVersionPropertyName, javacVersion.toString());
+        return this;
+    }
+
+    public VersionNumber getJavacVersion()
+    {
+        final String javacVersionString = this.json.getString(JavacVersionJSON.javacVersionPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(javacVersionString)
+            ? null
+            : VersionNumber.parse(javacVersionString).catchError().await();
+    }
+
+    /**
+     * Get whether or not this cached version was probed from the provided javac executable.
+     * @param javacPath The path to the javac executable.
+     * @param javacLastModified The current last modified time of the javac executable.
+     * @param javacSize The current size in bytes of the javac executable.
+     * @return Whether or not this cached version was probed from the provided javac executable.
+     */
+    public boolean matches(Path javacPath, DateTime javacLastModified, long javacSize)
+    {
+        PreCondition.assertNotNull(javacPath, "javacPath");
+        PreCondition.assertNotNull(javacLastModified, "javacLastModified");
+
+        final Long cachedJavacSize = this.getJavacSize();
+        return javacPath.equals(this.getJavacPath()) &&
+            javacLastModified.equals(this.getJavacLastModified()) &&
+            cachedJavacSize != null && cachedJavacSize == javacSize &&
+            this.getJavacVersion() != null;
+    }
+}
@@ -15,7 +15,9 @@ public interface QubBuild
             .setApplicationName("qub-build")
             .setApplicationDescription("Used to compile source code projects.")
             .addAction(QubBuildCompile::addAction)
+            .addAction(QubBuildDaemon::addAction)
             .addAction(CommandLineLogsAction::addAction)
+            .addAction(QubBuildWatch::addAction)
             .run();
     }
 
@@ -31,19 +33,58 @@ public interface QubBuild
         PreCondition.assertNotNull(projectFolder, "projectFolder");
         PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
 
-        Function1<File,Boolean> sourceFileMatcher;
-        final Iterable<PathPattern> sourceFilePatterns = projectJsonJava.getSourceFiles();
-        if (!Iterable.isNullOrEmpty(sourceFilePatterns))
-        {
-            sourceFileMatcher = (File file) -> sourceFilePatterns.contains((PathPattern pattern) -> pattern.isMatch(file.getPath().relativeTo(projectFolder)));
-        }
-        else
+        return JavaSourceFileMatcher.create(projectFolder, projectJsonJava)
+            .findMatches()
+            .iterate();
+    }
+
+    /**
+     * Get whether or not the provided file is a Java source file of the project in the provided
+     * projectFolder.
+     * @param projectFolder The root folder of the project.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @param file The file to check.
+     * @return Whether or not the provided file is a Java source file of the project.
+     */
+    static boolean isJavaSourceFile(Folder projectFolder, ProjectJSONJava projectJsonJava, File file)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+        PreCondition.assertNotNull(file, "file");
+
+        return JavaSourceFileMatcher.create(projectFolder, projectJsonJava).isMatch(file);
+    }
+
+    /**
+     * Get the paths to the source folders that contain the provided Java source files. The first
+     * folder in each source file's path relative to the project folder is its source folder,
+     * which matches how class file paths are found in the outputs folder.
+     * @param javaSourceFiles The Java source files of the project.
+     * @param projectFolder The root folder of the project.
+     * @return The distinct source folder paths, relative to the project folder.
+     */
+    static Iterable<String> getSourceFolderPaths(Iterable<File> javaSourceFiles, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final List<String> result = List.create();
+        for (final File javaSourceFile : javaSourceFiles)
         {
-            sourceFileMatcher = (File file) -> ".java".equalsIgnoreCase(file.getFileExtension());
+            final Iterable<String> segments = javaSourceFile.relativeTo(projectFolder).getSegments();
+            if (segments.getCount() > 1)
+            {
+                final String sourceFolderPath = segments.first();
+                if (!result.contains(sourceFolderPath))
+                {
+                    result.add(sourceFolderPath);
+                }
+            }
         }
 
-        return projectFolder.iterateFilesRecursively()
-            .where(sourceFileMatcher);
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
     }
 
     /**
@@ -2,6 +2,13 @@ package qub;
 
 public interface QubBuildCompile
 {
+    /**
+     * The name of the file in the qub-build data folder that the probed javac version is cached
+     * in.
+     */
+    String javacVersionJsonFileName = "javac-version.json";
+    String javaToolchainsJsonFileName = "java-toolchains.json";
+
     static void addAction(CommandLineActions actions)
     {
         PreCondition.assertNotNull(actions, "actions");
@@ -38,6 +45,105 @@ public interface QubBuildCompile
             .setDescription("Whether or not to read and write a build.json file. Defaults to true.");
     }
 
+    static CommandLineParameter<JavaCompilerType> addCompilerParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addEnum("compiler", QubBuildCompileParameters.getCompilerTypeDefault())
+            .setValueName("<process|inprocess>")
+            .setDescription("The Java compiler to use. Can be either \"process\" or \"inprocess\". Defaults to \"process\".");
+    }
+
+    static CommandLineParameterBoolean addDaemonParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("daemon", QubBuildCompileParameters.getDaemonDefault())
+            .setDescription("Whether or not to send the compilation to a running qub-build daemon. Defaults to false.");
+    }
+
+    static CommandLineParameter<Integer> addJobsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addInteger("jobs", QubBuildCompileParameters.getJobsDefault())
+            .setValueName("<count>")
+            .setDescription("The number of compilers that can compile independent source files at the same time. Defaults to 1.");
+    }
+
+    static CommandLineParameterBoolean addLiveIssuesParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("liveissues", QubBuildCompileParameters.getLiveIssuesDefault())
+            .setDescription("Whether or not to show issues while the compiler is still running. Defaults to false.");
+    }
+
+    static CommandLineParameter<Integer> addFailFastParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addInteger("failfast", QubBuildCompileParameters.getFailFastDefault())
+            .setValueName("<errors>")
+            .setDescription("The number of errors that stop the compiler before it finishes. Defaults to 0, which never stops the compiler.");
+    }
+
+    static CommandLineParameterBoolean addSourcepathParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("sourcepath", QubBuildCompileParameters.getSourcepathDefault())
+            .setDescription("Whether or not to let javac find the unmodified source files that it needs in the project's source folders. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addFileHashesParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("filehashes", QubBuildCompileParameters.getFileHashesDefault())
+            .setDescription("Whether or not to record the size and content hash of each source file so that a source file whose last modified time changed is only compiled if its contents changed. Defaults to true.");
+    }
+
+    static CommandLineParameterBoolean addAbiParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("abi", QubBuildCompileParameters.getAbiDefault())
+            .setDescription("Whether or not to only compile the dependents of a compiled source file when the API of its class files changed. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addStateFileParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("statefile", QubBuildCompileParameters.getStateFileDefault())
+            .setDescription("Whether or not to keep the build state in a compact binary build.state file instead of in a build.json file. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addPrettyJsonParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("prettyjson", QubBuildCompileParameters.getPrettyJsonDefault())
+            .setDescription("Whether or not to pretty print the build.json file. Defaults to true.");
+    }
+
+    static CommandLineParameterBoolean addJournalParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("journal", QubBuildCompileParameters.getJournalDefault())
+            .setDescription("Whether or not to append the changes that each build makes to a build.journal file instead of rewriting the whole build state. Defaults to false.");
+    }
+
+    static CommandLineParameterBoolean addRefIndexParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("refindex", QubBuildCompileParameters.getRefIndexDefault())
+            .setDescription("Whether or not to record the identifiers that each source file refers to so that the unmodified source files that refer to an added type are found without reading them. Defaults to false.");
+    }
+
     static QubBuildCompileParameters getParameters(DesktopProcess process, CommandLineAction action)
     {
         PreCondition.assertNotNull(process, "process");
@@ -47,6 +153,18 @@ public interface QubBuildCompile
         final CommandLineParameter<Folder> folderToBuildParameter = QubBuildCompile.addFolderToBuildParameter(parameters, process);
         final CommandLineParameter<Warnings> warningsParameter = QubBuildCompile.addWarningsParameter(parameters);
         final CommandLineParameterBoolean buildJsonParameter = QubBuildCompile.addBuildJsonParameter(parameters);
+        final CommandLineParameter<JavaCompilerType> compilerParameter = QubBuildCompile.addCompilerParameter(parameters);
+        final CommandLineParameterBoolean daemonParameter = QubBuildCompile.addDaemonParameter(parameters);
+        final CommandLineParameter<Integer> jobsParameter = QubBuildCompile.addJobsParameter(parameters);
+        final CommandLineParameterBoolean liveIssuesParameter = QubBuildCompile.addLiveIssuesParameter(parameters);
+        final CommandLineParameter<Integer> failFastParameter = QubBuildCompile.addFailFastParameter(parameters);
+        final CommandLineParameterBoolean sourcepathParameter = QubBuildCompile.addSourcepathParameter(parameters);
+        final CommandLineParameterBoolean fileHashesParameter = QubBuildCompile.addFileHashesParameter(parameters);
+        final CommandLineParameterBoolean abiParameter = QubBuildCompile.addAbiParameter(parameters);
+        final CommandLineParameterBoolean stateFileParameter = QubBuildCompile.addStateFileParameter(parameters);
+        final CommandLineParameterBoolean prettyJsonParameter = QubBuildCompile.addPrettyJsonParameter(parameters);
+        final CommandLineParameterBoolean journalParameter = QubBuildCompile.addJournalParameter(parameters);
+        final CommandLineParameterBoolean refIndexParameter = QubBuildCompile.addRefIndexParameter(parameters);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubBuild.class);
         final CommandLineParameterHelp help = parameters.addHelp();
@@ -62,12 +180,37 @@ public interface QubBuildCompile
             final ProcessFactory processFactory = process.getProcessFactory();
             final Warnings warnings = warningsParameter.getValue().await();
             final Boolean buildJson = buildJsonParameter.getValue().await();
+            final JavaCompilerType compilerType = compilerParameter.getValue().await();
+            final Boolean daemon = daemonParameter.getValue().await();
+            final Integer jobs = jobsParameter.getValue().await();
+            final Boolean liveIssues = liveIssuesParameter.getValue().await();
+            final Integer failFast = failFastParameter.getValue().await();
+            final Boolean sourcepath = sourcepathParameter.getValue().await();
+            final Boolean fileHashes = fileHashesParameter.getValue().await();
+            final Boolean abi = abiParameter.getValue().await();
+            final Boolean stateFile = stateFileParameter.getValue().await();
+            final Boolean prettyJson = prettyJsonParameter.getValue().await();
+            final Boolean journal = journalParameter.getValue().await();
+            final Boolean refIndex = refIndexParameter.getValue().await();
             final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
             final QubFolder qubFolder = process.getQubFolder().await();
             final Folder projectDataFolder = process.getQubProjectDataFolder().await();
             result = new QubBuildCompileParameters(output, folderToBuild, environmentVariables, processFactory, qubFolder, projectDataFolder)
                 .setWarnings(warnings)
                 .setBuildJson(buildJson)
+                .setCompilerType(compilerType)
+                .setDaemon(daemon)
+                .setJobs(jobs)
+                .setLiveIssues(liveIssues)
+                .setFailFast(failFast)
+                .setSourcepath(sourcepath)
+                .setFileHashes(fileHashes)
+                .setAbi(abi)
+                .setStateFile(stateFile)
+                .setPrettyJson(prettyJson)
+                .setJournal(journal)
+                .setRefIndex(refIndex)
+                .setNetwork(process.getNetwork())
                 .setVerbose(verbose);
         }
 
@@ -79,11 +222,28 @@ public interface QubBuildCompile
         PreCondition.assertNotNull(parameters, "parameters");
 
         final Folder folderToBuild = parameters.getFolderToBuild();
-        final EnvironmentVariables environmentVariables = parameters.getEnvironmentVariables();
         final Warnings warnings = parameters.getWarnings();
         final boolean useBuildJson = parameters.getBuildJson();
+        final boolean fileHashes = parameters.getFileHashes();
+        final boolean abi = useBuildJson && parameters.getAbi();
+        final boolean useStateFile = useBuildJson && parameters.getStateFile();
+        final JSONFormat buildJsonFormat = parameters.getPrettyJson() ? JSONFormat.pretty : JSONFormat.consise;
+        final boolean useJournal = useBuildJson && parameters.getJournal();
+        final boolean refIndex = useBuildJson && parameters.getRefIndex();
         final QubFolder qubFolder = parameters.getQubFolder();
         final Folder qubBuildDataFolder = parameters.getQubBuildDataFolder();
+        final QubBuildProjectStateCache projectStateCache = parameters.getProjectStateCache();
+
+        if (parameters.getDaemon())
+        {
+            final Integer daemonExitCode = QubBuildDaemon.compile(parameters)
+                .catchError((Throwable error) -> parameters.getVerbose().writeLine("Compiling without the qub-build daemon: " + Exceptions.unwrap(error).getMessage()).await())
+                .await();
+            if (daemonExitCode != null)
+            {
+                return daemonExitCode;
+            }
+        }
 
         int exitCode = 0;
         try (final LogStreams logStreams = CommandLineLogsAction.getLogStreamsFromDataFolder(qubBuildDataFolder, parameters.getOutputWriteStream(), parameters.getVerbose()))
@@ -93,10 +253,9 @@ public interface QubBuildCompile
 
             try
             {
-                final JavacProcessBuilder javac = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
+                final JavaCompiler<?> javac = QubBuildCompile.createJavaCompiler(parameters).await();
 
                 final File projectJsonFile = folderToBuild.getFile("project.json").await();
-                final FileSystem fileSystem = folderToBuild.getFileSystem();
 
                 verbose.writeLine("Parsing " + projectJsonFile.relativeTo(folderToBuild).toString() + "...").await();
                 final ProjectJSON projectJson = ProjectJSON.parse(projectJsonFile).await();
@@ -115,21 +274,7 @@ public interface QubBuildCompile
                 final String javaVersion = projectJsonJava.getVersion();
                 if (!Strings.isNullOrEmpty(javaVersion))
                 {
-                    final String javaHomeFolderPathString = environmentVariables.get("JAVA_HOME")
-                        .catchError(NotFoundException.class)
-                        .await();
-                    if (Strings.isNullOrEmpty(javaHomeFolderPathString))
-                    {
-                        throw new NotFoundException("Can't compile for a specific Java version if the JAVA_HOME environment variable is not specified.");
-                    }
-                    final Folder javaHomeFolder = fileSystem.getFolder(javaHomeFolderPathString).await();
-                    final File bootClasspath = JavacProcessBuilder.findBootClasspathFromJavaHomeFolder(javaVersion, javaHomeFolder).await();
-                    if (bootClasspath != null)
-                    {
-                        javac.addJavaSourceVersion(javaVersion);
-                        javac.addJavaTargetVersion(javaVersion);
-                        javac.addBootClasspath(bootClasspath);
-                    }
+                    QubBuildCompile.addJavaVersion(parameters, javac, javaVersion).await();
                 }
 
                 final Integer maximumErrors = projectJsonJava.getMaximumErrors();
@@ -144,93 +289,40 @@ public interface QubBuildCompile
                     javac.addMaximumWarnings(maximumWarnings);
                 }
 
-                final List<String> classPaths = List.create();
-                classPaths.add(outputsFolder.toString());
-                Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
-                if (!Iterable.isNullOrEmpty(dependencies))
+                final QubBuildProjectState projectState = projectStateCache == null ? null : projectStateCache.getOrCreate(folderToBuild.getPath());
+                Iterable<String> classPaths = projectState == null ? null : projectState.getClasspaths(projectJson);
+                if (classPaths == null)
                 {
-                    final Map<ProjectSignature, Iterable<ProjectSignature>> dependencyMap = projectJsonJava.getTransitiveDependencyPaths(qubFolder);
-                    dependencies = dependencyMap.getKeys();
-
-                    final Set<ProjectSignature> errorDependencies = Set.create();
-                    for (final ProjectSignature dependency : dependencies)
-                    {
-                        if (!errorDependencies.contains(dependency))
-                        {
-                            final Iterable<ProjectSignature> matchingDependencies = dependencies.where(dependency::equalsIgnoreVersion).toList();
-                            if (matchingDependencies.getCount() > 1)
-                            {
-                                errorDependencies.addAll(matchingDependencies);
-                                final InMemoryCharacterToByteStream errorMessage = InMemoryCharacterToByteStream.create();
-                                final IndentedCharacterWriteStream indentedErrorMessage = IndentedCharacterWriteStream.create(errorMessage)
-                                    .setSingleIndent(" ");
-                                indentedErrorMessage.writeLine("Found more than one required version for package " + dependency.toStringIgnoreVersion() + ":").await();
-                                int number = 0;
-                                for (final ProjectSignature matchingProjectSignature : matchingDependencies)
-                                {
-                                    ++number;
-                                    final String numberString = number + ". ";
-                                    indentedErrorMessage.setCurrentIndent("");
-                                    errorMessage.writeLine(numberString + matchingProjectSignature).await();
-                                    indentedErrorMessage.setCurrentIndent(Strings.repeat(' ', numberString.length()));
-                                    final Iterable<ProjectSignature> path = dependencyMap.get(matchingProjectSignature).await();
-                                    for (final ProjectSignature pathProjectSignature : path)
-                                    {
-                                        indentedErrorMessage.increaseIndent();
-                                        indentedErrorMessage.writeLine("from " + pathProjectSignature).await();
-                                    }
-                                }
-                                throw new RuntimeException(errorMessage.getText().await());
-                            }
-                        }
-                    }
-
-                    for (final ProjectSignature dependency : dependencies)
+                    classPaths = QubBuildCompile.getClasspaths(projectJsonJava, outputsFolder, qubFolder).await();
+                    if (projectState != null)
                     {
-                        final QubPublisherFolder publisherFolder = qubFolder.getPublisherFolder(dependency.getPublisher()).await();
-                        if (!publisherFolder.exists().await())
-                        {
-                            throw new NotFoundException("No publisher folder named " + Strings.escapeAndQuote(dependency.getPublisher()) + " found in the Qub folder (" + qubFolder + ").");
-                        }
-                        else
-                        {
-                            final QubProjectFolder projectFolder = publisherFolder.getProjectFolder(dependency.getProject()).await();
-                            if (!projectFolder.exists().await())
-                            {
-                                throw new NotFoundException("No project folder named " + Strings.escapeAndQuote(dependency.getProject()) + " found in the " + Strings.escapeAndQuote(dependency.getPublisher()) + " publisher folder (" + publisherFolder + ").");
-                            }
-                            else
-                            {
-                                QubProjectVersionFolder versionFolder = projectFolder.getProjectVersionFolder(dependency.getVersion()).await();
-                                if (!versionFolder.exists().await())
-                                {
-                                    throw new NotFoundException("No version folder named " + Strings.escapeAndQuote(dependency.getVersion()) + " found in the " + Strings.escapeAndQuote(dependency.getProject()) + " project folder (" + projectFolder + ").");
-                                }
-                                else
-                                {
-                                    final File dependencyFile = versionFolder.getCompiledSourcesFile().await();
-                                    if (!dependencyFile.exists().await())
-                                    {
-                                        throw new NotFoundException("No dependency file named " + Strings.escapeAndQuote(dependencyFile.getName()) + " found in the " + Strings.escapeAndQuote(dependency.getVersion()) + " version folder (" + versionFolder + ").");
-                                    }
-                                    else
-                                    {
-                                        classPaths.add(dependencyFile.toString());
-                                    }
-                                }
-                            }
-                        }
+                        projectState.setClasspaths(projectJson, classPaths);
                     }
                 }
                 javac.addClasspath(classPaths);
 
-                final Iterable<File> javaSourceFiles = QubBuild.iterateJavaSourceFiles(folderToBuild, projectJsonJava).toList();
+                final Iterable<File> watchedJavaSourceFiles = projectState == null ? null : projectState.getJavaSourceFiles();
+                final Iterable<File> javaSourceFiles = watchedJavaSourceFiles != null
+                    ? watchedJavaSourceFiles
+                    : QubBuild.iterateJavaSourceFiles(folderToBuild, projectJsonJava).toList();
+                final Iterable<File> changedJavaSourceFiles = projectState == null ? null : projectState.getChangedJavaSourceFiles();
                 if (!javaSourceFiles.any())
                 {
                     throw new NotFoundException("No java source files found in " + folderToBuild + ".");
                 }
 
+                if (parameters.getSourcepath())
+                {
+                    final Iterable<String> sourceFolderPaths = QubBuild.getSourceFolderPaths(javaSourceFiles, folderToBuild);
+                    javac.addArguments("-sourcepath", Strings.join(java.io.File.pathSeparatorChar, sourceFolderPaths));
+                    javac.addArguments("-implicit:class");
+                }
+
                 final File buildJsonFile = outputsFolder.getFile("build.json").await();
+                final File buildStateFile = outputsFolder.getFile("build.state").await();
+                final File stateFile = useStateFile ? buildStateFile : buildJsonFile;
+                final File otherStateFile = useStateFile ? buildJsonFile : buildStateFile;
+                final File journalFile = outputsFolder.getFile("build.journal").await();
                 final List<File> newJavaSourceFiles = List.create();
                 final List<File> deletedJavaSourceFiles = List.create();
                 final List<File> modifiedJavaSourceFiles = List.create();
@@ -238,9 +330,14 @@ public interface QubBuildCompile
                 final List<File> javaSourceFilesWithErrors = List.create();
                 final List<JavaCompilerIssue> nonModifiedJavaSourceFileWarnings = List.create();
                 final List<BuildJSONSourceFile> buildJsonSourceFiles = List.create();
+                final Map<Path,String> previousApiFingerprints = Map.create();
+                final Map<Path,Iterable<Path>> previousClassFiles = Map.create();
                 boolean compileEverything;
                 final BuildJSON updatedBuildJson = BuildJSON.create();
                 boolean updateBuildJsonFile = false;
+                java.util.HashMap<String,String> previousSourceFileTexts = null;
+                FileSnapshot fileSnapshot = null;
+                final JavaDependencyResolver dependencyResolver = JavaDependencyResolver.create(folderToBuild, javaSourceFiles);
                 if (!useBuildJson)
                 {
                     compileEverything = true;
@@ -253,36 +350,100 @@ public interface QubBuildCompile
                 {
                     verbose.writeLine("Getting javac version...").await();
 
-                    final JavacProcessBuilder javacVersionProcessBuilder = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
-                    final VersionNumber javacVersion = javacVersionProcessBuilder.getVersion(verbose).await();
+                    final VersionNumber javacVersion = QubBuildCompile.getJavacVersion(parameters, verbose).await();
                     updatedBuildJson.setJavacVersion(javacVersion);
 
-                    if (!outputsFolder.exists().await())
+                    fileSnapshot = FileSnapshot.create(javaSourceFiles, outputsFolder).await();
+
+                    if (!fileSnapshot.outputsFolderExists())
                     {
                         compileEverything = true;
                         newJavaSourceFiles.addAll(javaSourceFiles);
-                        buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild));
+                        buildJsonSourceFiles.addAll(QubBuildCompile.createBuildJsonSourceFiles(javaSourceFiles, dependencyResolver, fileSnapshot, fileHashes));
                     }
                     else
                     {
-                        verbose.writeLine("Parsing " + buildJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                        BuildJSON buildJson = null;
+                        DateTime buildJsonLastModified = null;
+                        boolean importedOtherStateFile = false;
+                        if (projectState != null)
+                        {
+                            buildJsonLastModified = BuildStateJournal.getLastModified(stateFile, journalFile);
+                            buildJson = projectState.getBuildJson(buildJsonLastModified);
+                        }
 
-                        final BuildJSON buildJson = BuildJSON.parse(buildJsonFile)
-                            .catchError(FileNotFoundException.class)
-                            .await();
+                        if (buildJson != null)
+                        {
+                            verbose.writeLine("Using cached " + stateFile.relativeTo(folderToBuild).toString() + "...").await();
+                        }
+                        else
+                        {
+                            verbose.writeLine("Parsing " + stateFile.relativeTo(folderToBuild).toString() + "...").await();
+
+                            buildJson = QubBuildCompile.readBuildState(stateFile);
+                            if (buildJson == null)
+                            {
+                                // The build state may have been written by a build that kept it
+                                // in the other format.
+                                buildJson = QubBuildCompile.readBuildState(otherStateFile);
+                                if (buildJson != null)
+                                {
+                                    verbose.writeLine("Imported " + otherStateFile.relativeTo(folderToBuild).toString() + ".").await();
+                                    buildJsonLastModified = null;
+                                    importedOtherStateFile = true;
+                                }
+                            }
+                            if (buildJson != null)
+                            {
+                                final int replayedRecordCount = BuildStateJournal.replay(journalFile, buildJson).await();
+                                if (replayedRecordCount > 0)
+                                {
+                                    verbose.writeLine("Replayed " + replayedRecordCount + " record(s) from " + journalFile.relativeTo(folderToBuild).toString() + ".").await();
+                                }
+                            }
+                            if (buildJson != null && projectState != null && buildJsonLastModified != null)
+                            {
+                                projectState.setBuildJson(buildJson, buildJsonLastModified);
+                            }
+                        }
 
                         if (buildJson == null || !javacVersion.equals(buildJson.getJavacVersion()))
                         {
                             compileEverything = true;
                             newJavaSourceFiles.addAll(javaSourceFiles);
-                            buildJsonSourceFiles.addAll(BuildJSONSourceFile.create(javaSourceFiles, folderToBuild));
+                            buildJsonSourceFiles.addAll(QubBuildCompile.createBuildJsonSourceFiles(javaSourceFiles, dependencyResolver, fileSnapshot, fileHashes));
                         }
                         else
                         {
+                            if (useJournal && !importedOtherStateFile)
+                            {
+                                // Capture the source file entries before this build changes them so
+                                // that only the entries that changed are appended to the journal.
+                                previousSourceFileTexts = BuildStateJournal.getSourceFileTexts(buildJson);
+                            }
+
                             final ProjectJSON buildJsonProjectJson = buildJson.getProjectJson();
-                            updateBuildJsonFile = !Comparer.equal(buildJsonProjectJson, projectJson);
+                            updateBuildJsonFile = importedOtherStateFile || !Comparer.equal(buildJsonProjectJson, projectJson);
                             compileEverything = QubBuildCompile.shouldCompileEverything(buildJson.getProjectJson(), projectJson);
 
+                            // Source files that haven't changed since the last build still declare
+                            // the package and types that were recorded for them, so they don't
+                            // need to be read to find the source files that depend on them.
+                            for (final File javaSourceFile : javaSourceFiles)
+                            {
+                                final BuildJSONSourceFile buildJsonSource = buildJson.getSourceFile(javaSourceFile.relativeTo(folderToBuild))
+                                    .catchError(NotFoundException.class)
+                                    .await();
+                                if (buildJsonSource != null &&
+                                    buildJsonSource.getLastModified() != null &&
+                                    (changedJavaSourceFiles != null
+                                        ? !changedJavaSourceFiles.contains(javaSourceFile)
+                                        : fileSnapshot.getLastModified(javaSourceFile).equals(buildJsonSource.getLastModified())))
+                                {
+                                    dependencyResolver.setDeclarations(javaSourceFile, buildJsonSource.getPackageName(), buildJsonSource.getTypes());
+                                }
+                            }
+
                             for (final File javaSourceFile : javaSourceFiles)
                             {
                                 final Path javaSourceFileRelativePath = javaSourceFile.relativeTo(folderToBuild);
@@ -290,19 +451,50 @@ public interface QubBuildCompile
                                 final BuildJSONSourceFile buildJsonSource = buildJson.getSourceFile(javaSourceFileRelativePath)
                                     .catchError(NotFoundException.class)
                                     .await();
+                                if (buildJsonSource != null && buildJsonSource.getApiFingerprint() != null)
+                                {
+                                    previousApiFingerprints.set(javaSourceFileRelativePath, buildJsonSource.getApiFingerprint());
+                                }
+                                if (buildJsonSource != null && buildJsonSource.getClassFiles() != null)
+                                {
+                                    previousClassFiles.set(javaSourceFileRelativePath, buildJsonSource.getClassFiles());
+                                }
+                                // A file watcher has already told us which source files changed, so
+                                // the other source files don't need to be checked.
+                                final boolean watchedAsUnchanged = changedJavaSourceFiles != null &&
+                                    !changedJavaSourceFiles.contains(javaSourceFile) &&
+                                    buildJsonSource != null &&
+                                    buildJsonSource.getLastModified() != null;
+                                if (fileHashes && !watchedAsUnchanged && buildJsonSource != null && buildJsonSource.getLastModified() != null)
+                                {
+                                    // A source file whose last modified time changed but whose size and
+                                    // content hash didn't (such as after a checkout or a touch) doesn't
+                                    // need to be compiled again.
+                                    final DateTime javaSourceFileLastModified = fileSnapshot.getLastModified(javaSourceFile);
+                                    final Long javaSourceFileSize = fileSnapshot.getSize(javaSourceFile);
+                                    if (!javaSourceFileLastModified.equals(buildJsonSource.getLastModified()) &&
+                                        (javaSourceFileSize == null || javaSourceFileSize.equals(buildJsonSource.getSize())) &&
+                                        buildJsonSource.hasSameContents(javaSourceFile.getContents().await()))
+                                    {
+                                        verbose.writeLine(javaSourceFile + " - Last modified changed, but contents didn't").await();
+                                        buildJsonSource.setLastModified(javaSourceFileLastModified);
+                                        updateBuildJsonFile = true;
+                                    }
+                                }
+
                                 if (buildJsonSource == null || buildJsonSource.getLastModified() == null)
                                 {
                                     verbose.writeLine(javaSourceFile + " - New file").await();
                                     newJavaSourceFiles.add(javaSourceFile);
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    buildJsonSourceFiles.add(QubBuildCompile.createBuildJsonSourceFile(javaSourceFile, dependencyResolver, fileSnapshot, fileHashes));
                                 }
-                                else if (!javaSourceFile.getLastModified().await().equals(buildJsonSource.getLastModified()))
+                                else if (!watchedAsUnchanged && !fileSnapshot.getLastModified(javaSourceFile).equals(buildJsonSource.getLastModified()))
                                 {
-                                    verbose.writeLine(javaSourceFile + " - Last modified: " + javaSourceFile.getLastModified().await()).await();
+                                    verbose.writeLine(javaSourceFile + " - Last modified: " + fileSnapshot.getLastModified(javaSourceFile)).await();
                                     verbose.writeLine(Strings.repeat(' ', javaSourceFile.toString().length()) + " - Last built:    " + buildJsonSource.getLastModified()).await();
 
                                     modifiedJavaSourceFiles.add(javaSourceFile);
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    buildJsonSourceFiles.add(QubBuildCompile.createBuildJsonSourceFile(javaSourceFile, dependencyResolver, fileSnapshot, fileHashes));
                                 }
                                 else if (!Iterable.isNullOrEmpty(buildJsonSource.getIssues()))
                                 {
@@ -320,13 +512,27 @@ public interface QubBuildCompile
                                         nonModifiedJavaSourceFileWarnings.addAll(sourceWarnings);
                                     }
 
-                                    buildJsonSourceFiles.add(BuildJSONSourceFile.create(javaSourceFile, folderToBuild, javaSourceFiles));
+                                    final BuildJSONSourceFile updatedBuildJsonSource = QubBuildCompile.createBuildJsonSourceFile(javaSourceFile, dependencyResolver, fileSnapshot, fileHashes);
+                                    if (buildJsonSource.getApiFingerprint() != null)
+                                    {
+                                        updatedBuildJsonSource.setApiFingerprint(buildJsonSource.getApiFingerprint());
+                                    }
+                                    if (buildJsonSource.getClassFiles() != null)
+                                    {
+                                        updatedBuildJsonSource.setClassFiles(buildJsonSource.getClassFiles());
+                                    }
+                                    buildJsonSourceFiles.add(updatedBuildJsonSource);
                                 }
                                 else
                                 {
                                     verbose.writeLine(javaSourceFile + " - No changes or issues").await();
 
                                     nonModifiedJavaSourceFiles.add(javaSourceFile);
+                                    if (fileHashes && buildJsonSource.getContentHash() == null)
+                                    {
+                                        buildJsonSource.setSizeAndContentHash(javaSourceFile.getContents().await());
+                                        updateBuildJsonFile = true;
+                                    }
                                     buildJsonSourceFiles.add(buildJsonSource);
                                 }
                             }
@@ -342,22 +548,25 @@ public interface QubBuildCompile
                             }
 
                             writeFileList(verbose, deletedJavaSourceFiles, "Deleted source files").await();
+                            final List<File> classFilesToDelete = List.create();
                             for (final File deletedSourceFile : deletedJavaSourceFiles)
                             {
-                                final Iterable<File> classFilesToDelete = QubBuildCompile.getExistingClassFiles(deletedSourceFile, folderToBuild, outputsFolder);
-                                for (final File classFileToDelete : classFilesToDelete)
-                                {
-                                    classFileToDelete.delete().await();
-                                }
+                                final Iterable<Path> recordedClassFiles = buildJson.getSourceFile(deletedSourceFile.relativeTo(folderToBuild)).await().getClassFiles();
+                                classFilesToDelete.addAll(QubBuildCompile.getRecordedClassFiles(deletedSourceFile, recordedClassFiles, fileSnapshot, folderToBuild, outputsFolder));
                             }
+                            QubBuildCompile.deleteClassFiles(classFilesToDelete);
                         }
                     }
 
-                    verbose.writeLine("Updating " + buildJsonFile.relativeTo(folderToBuild).toString() + "...").await();
+                    verbose.writeLine("Updating " + stateFile.relativeTo(folderToBuild).toString() + "...").await();
                     verbose.writeLine("Setting project.json...").await();
                     updatedBuildJson.setProjectJson(projectJson);
                     verbose.writeLine("Setting source files...").await();
                     updatedBuildJson.setSourceFiles(buildJsonSourceFiles);
+                    if (refIndex)
+                    {
+                        QubBuildCompile.recordReferences(javaSourceFiles, updatedBuildJson, dependencyResolver);
+                    }
                 }
 
                 verbose.writeLine("Detecting java source files to compile...").await();
@@ -378,65 +587,46 @@ public interface QubBuildCompile
                     QubBuildCompile.writeFileList(verbose, javaSourceFilesWithErrors, "Source files that previously contained errors").await();
                     javaSourceFilesToCompile.addAll(javaSourceFilesWithErrors);
 
-                    final List<File> javaSourceFilesWithDeletedDependencies = List.create();
-                    for (final File nonModifiedJavaSourceFile : nonModifiedJavaSourceFiles)
+                    if (refIndex)
                     {
-                        final Path relativePath = nonModifiedJavaSourceFile.relativeTo(folderToBuild);
-                        final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(relativePath).await();
-                        final Iterable<Path> sourceFileProjectSignaturePaths = sourceFile.getDependencies();
-                        if (!Iterable.isNullOrEmpty(sourceFileProjectSignaturePaths))
-                        {
-                            final Iterable<File> sourceFileProjectSignatureFiles = sourceFileProjectSignaturePaths
-                                .map((Path sourceFileProjectSignaturePath) -> folderToBuild.getFile(sourceFileProjectSignaturePath).await());
-                            for (final File sourceFileProjectSignatureFile : sourceFileProjectSignatureFiles)
-                            {
-                                if (deletedJavaSourceFiles.contains(sourceFileProjectSignatureFile))
-                                {
-                                    javaSourceFilesWithDeletedDependencies.add(nonModifiedJavaSourceFile);
-                                    javaSourceFilesToCompile.add(nonModifiedJavaSourceFile);
-                                    break;
-                                }
-                            }
-                        }
+                        final List<File> changedJavaSourceFiles = List.create();
+                        changedJavaSourceFiles.addAll(newJavaSourceFiles);
+                        changedJavaSourceFiles.addAll(modifiedJavaSourceFiles);
+                        final Iterable<File> javaSourceFilesThatReferToAddedTypes = QubBuildCompile.addDependenciesOnAddedTypes(changedJavaSourceFiles, nonModifiedJavaSourceFiles, updatedBuildJson, folderToBuild);
+                        QubBuildCompile.writeFileList(verbose, javaSourceFilesThatReferToAddedTypes, "Source files that refer to added types").await();
+                        javaSourceFilesToCompile.addAll(javaSourceFilesThatReferToAddedTypes);
                     }
+
+                    final Iterable<File> javaSourceFilesWithDeletedDependencies = QubBuildCompile.getDependentsToCompile(
+                        deletedJavaSourceFiles.map((File deletedJavaSourceFile) -> deletedJavaSourceFile.relativeTo(folderToBuild)).toList(),
+                        nonModifiedJavaSourceFiles,
+                        false,
+                        updatedBuildJson,
+                        folderToBuild);
                     writeFileList(verbose, javaSourceFilesWithDeletedDependencies, "Source files with deleted dependencies").await();
+                    javaSourceFilesToCompile.addAll(javaSourceFilesWithDeletedDependencies);
 
-                    final List<File> javaSourceFilesWithModifiedDependencies = List.create();
-                    final List<File> filesToNotCompile = List.create(nonModifiedJavaSourceFiles);
-                    boolean filesToNotCompileChanged = true;
-                    while (filesToNotCompileChanged && filesToNotCompile.any())
+                    // When comparing APIs, the dependents of the compiled source files are only
+                    // found after the compiler has written their class files. Otherwise every
+                    // transitive dependent is compiled, even in sourcepath mode, since a change
+                    // can break a source file that only reaches it through another type.
+                    if (!abi)
                     {
-                        filesToNotCompileChanged = false;
-                        for (final File fileToNotCompile : List.create(filesToNotCompile))
-                        {
-                            final Path relativePath = fileToNotCompile.relativeTo(folderToBuild);
-                            final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(relativePath).await();
-                            final Iterable<Path> sourceFileProjectSignaturePaths = sourceFile.getDependencies();
-                            if (!Iterable.isNullOrEmpty(sourceFileProjectSignaturePaths))
-                            {
-                                final Iterable<File> sourceFileProjectSignatureFiles = sourceFileProjectSignaturePaths
-                                    .map((Path sourceFileProjectSignaturePath) -> folderToBuild.getFile(sourceFileProjectSignaturePath).await());
-                                for (final File dependencyFile : sourceFileProjectSignatureFiles)
-                                {
-                                    if (javaSourceFilesToCompile.contains(dependencyFile))
-                                    {
-                                        filesToNotCompileChanged = true;
-                                        javaSourceFilesWithModifiedDependencies.add(fileToNotCompile);
-                                        javaSourceFilesToCompile.add(fileToNotCompile);
-                                        filesToNotCompile.remove(fileToNotCompile);
-                                        break;
-                                    }
-                                }
-                            }
-                        }
+                        final Iterable<File> javaSourceFilesWithModifiedDependencies = QubBuildCompile.getDependentsToCompile(
+                            javaSourceFilesToCompile.map((File javaSourceFileToCompile) -> javaSourceFileToCompile.relativeTo(folderToBuild)).toList(),
+                            nonModifiedJavaSourceFiles.where((File nonModifiedJavaSourceFile) -> !javaSourceFilesToCompile.contains(nonModifiedJavaSourceFile)).toList(),
+                            true,
+                            updatedBuildJson,
+                            folderToBuild);
+                        writeFileList(verbose, javaSourceFilesWithModifiedDependencies, "Source files with modified dependencies").await();
+                        javaSourceFilesToCompile.addAll(javaSourceFilesWithModifiedDependencies);
                     }
-                    writeFileList(verbose, javaSourceFilesWithDeletedDependencies, "Source files with modified dependencies").await();
 
                     final List<File> javaSourceFilesWithMissingClassFiles = List.create();
                     for (final File nonModifiedJavaSourceFile : nonModifiedJavaSourceFiles)
                     {
                         final File classFile = QubBuildCompile.getClassFile(nonModifiedJavaSourceFile, folderToBuild, outputsFolder);
-                        if (!classFile.exists().await() && !javaSourceFilesToCompile.contains(nonModifiedJavaSourceFile))
+                        if (!fileSnapshot.outputFileExists(classFile) && !javaSourceFilesToCompile.contains(nonModifiedJavaSourceFile))
                         {
                             javaSourceFilesWithMissingClassFiles.add(nonModifiedJavaSourceFile);
                             javaSourceFilesToCompile.add(nonModifiedJavaSourceFile);
@@ -467,16 +657,59 @@ public interface QubBuildCompile
                 {
                     updateBuildJsonFile = true;
 
-                    javac.addSourceFilePaths(javaSourceFilesToCompile
-                        .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild)));
-
                     final int filesToCompileCount = javaSourceFilesToCompile.getCount();
                     output.writeLine("Compiling " + filesToCompileCount + " file" + (filesToCompileCount == 1 ? "" : "s") + "...").await();
-                    final JavaCompilationResult compilationResult = javac.compile(warnings, verbose).await();
+
+                    final Action1<JavaCompilerIssue> onIssue = QubBuildCompile.createLiveIssueWriter(parameters, output);
+                    final Iterable<String> compilerArguments = List.create(javac.getArguments());
+                    final Map<File,byte[]> previousClassFileContents = QubBuildCompile.readPreviousClassFiles(parameters, javaSourceFilesToCompile, previousClassFiles, fileSnapshot, outputsFolder);
+                    JavaCompilationResult compilationResult = null;
+                    if (useBuildJson && parameters.getJobs() > 1)
+                    {
+                        final Iterable<Iterable<Iterable<File>>> compilationBatches = QubBuildCompile.getCompilationBatches(javaSourceFilesToCompile, updatedBuildJson, folderToBuild, parameters.getJobs());
+                        if (compilationBatches.getCount() > 1 || compilationBatches.first().getCount() > 1)
+                        {
+                            compilationResult = QubBuildCompile.compileBatches(parameters, javac.getArguments(), compilationBatches, outputsFolder, output, verbose, onIssue).await();
+                        }
+                    }
+
+                    if (compilationResult == null)
+                    {
+                        javac.addSourceFilePaths(javaSourceFilesToCompile
+                            .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild)));
+                        final File argumentsFile = outputsFolder.getFile(QubBuildCompile.getArgumentsFileName(0)).await();
+                        compilationResult = QubBuildCompile.compile(parameters, javac, argumentsFile, verbose, onIssue).await();
+                    }
+                    if (abi)
+                    {
+                        compilationResult = QubBuildCompile.compileApiDependents(parameters, compilerArguments, compilationResult, javaSourceFilesToCompile, javaSourceFiles, updatedBuildJson, dependencyResolver, previousApiFingerprints, previousClassFiles, fileSnapshot, outputsFolder, verbose, onIssue).await();
+                    }
                     exitCode = compilationResult.exitCode;
 
+                    final int unchangedClassFileCount = QubBuildCompile.restoreUnchangedClassFiles(previousClassFileContents, fileSnapshot);
+                    if (unchangedClassFileCount > 0)
+                    {
+                        verbose.writeLine("Kept the last modified times of " + unchangedClassFileCount + " unchanged class file" + (unchangedClassFileCount == 1 ? "" : "s") + ".").await();
+                    }
+
                     verbose.writeLine("Compilation finished.").await();
 
+                    // When comparing APIs, the class files of each round of compiled source files
+                    // have already been recorded before their APIs were fingerprinted.
+                    if (useBuildJson && exitCode == 0 && !compilationResult.stopped && !abi)
+                    {
+                        QubBuildCompile.updateClassDependencies(javaSourceFilesToCompile, javaSourceFiles, updatedBuildJson, dependencyResolver, outputsFolder);
+                        QubBuildCompile.deleteStaleClassFiles(javaSourceFilesToCompile, updatedBuildJson, previousClassFiles, fileSnapshot, folderToBuild, outputsFolder);
+                    }
+
+                    // A failed compilation doesn't write any class files, so when comparing APIs
+                    // the source files without errors must be compiled again by the next build
+                    // to find out whether or not their APIs changed.
+                    if ((compilationResult.stopped || (abi && exitCode != 0)) && useBuildJson)
+                    {
+                        QubBuildCompile.forgetStoppedSourceFiles(updatedBuildJson, javaSourceFilesToCompile, compilationResult.issues, folderToBuild);
+                    }
+
                     final List<JavaCompilerIssue> nonModifiedNonCompiledJavaSourceFileWarnings = nonModifiedJavaSourceFileWarnings
                         .where((JavaCompilerIssue warning) -> !javaSourceFilesToCompile.contains((File fileToCompile) -> fileToCompile.relativeTo(folderToBuild).equals(Path.parse(warning.sourceFilePath))))
                         .toList();
@@ -496,6 +729,8 @@ public interface QubBuildCompile
 
                     if (!Iterable.isNullOrEmpty(compilationResult.issues))
                     {
+                        // Issues that were streamed as they were reported aren't listed again.
+                        final boolean liveIssues = parameters.getLiveIssues();
                         final Iterable<JavaCompilerIssue> sortedIssues = compilationResult.issues
                             .order((JavaCompilerIssue lhs, JavaCompilerIssue rhs) -> lhs.sourceFilePath.compareTo(rhs.sourceFilePath) < 0);
 
@@ -503,10 +738,13 @@ public interface QubBuildCompile
                         final int warningCount = warningIssues.getCount();
                         if (warningCount > 0 && warnings == Warnings.Show)
                         {
-                            output.writeLine(warningCount + " Warning" + (warningCount == 1 ? "" : "s") + ":").await();
+                            output.writeLine(warningCount + " Warning" + (warningCount == 1 ? "" : "s") + (liveIssues ? "" : ":")).await();
                             for (final JavaCompilerIssue warning : warningIssues)
                             {
-                                output.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
+                                if (!liveIssues)
+                                {
+                                    output.writeLine(warning.sourceFilePath + " (Line " + warning.lineNumber + "): " + warning.message).await();
+                                }
                                 final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(warning.sourceFilePath)).await();
                                 sourceFile.addIssue(warning);
                             }
@@ -516,10 +754,13 @@ public interface QubBuildCompile
                         final int errorCount = errors.getCount();
                         if (errorCount > 0)
                         {
-                            output.writeLine(errorCount + " Error" + (errorCount == 1 ? "" : "s") + ":").await();
+                            output.writeLine(errorCount + " Error" + (errorCount == 1 ? "" : "s") + (liveIssues ? "" : ":")).await();
                             for (final JavaCompilerIssue error : errors)
                             {
-                                output.writeLine(error.sourceFilePath + " (Line " + error.lineNumber + "): " + error.message).await();
+                                if (!liveIssues)
+                                {
+                                    output.writeLine(error.sourceFilePath + " (Line " + error.lineNumber + "): " + error.message).await();
+                                }
                                 final BuildJSONSourceFile sourceFile = updatedBuildJson.getSourceFile(Path.parse(error.sourceFilePath)).await();
 
                                 sourceFile.addIssue(error);
@@ -530,16 +771,70 @@ public interface QubBuildCompile
 
                 if (useBuildJson && updateBuildJsonFile)
                 {
-                    verbose.writeLine("Writing build.json file...").await();
-                    try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(buildJsonFile.getContentsByteWriteStream().await())))
+                    JSONObject journalRecord = null;
+                    if (previousSourceFileTexts != null)
+                    {
+                        journalRecord = BuildStateJournal.createRecord(previousSourceFileTexts, updatedBuildJson);
+                        if (BuildStateJournal.shouldCompact(journalFile, stateFile, journalRecord))
+                        {
+                            journalRecord = null;
+                        }
+                    }
+
+                    if (journalRecord != null)
+                    {
+                        verbose.writeLine("Appending to build.journal file...").await();
+                        BuildStateJournal.append(journalFile, journalRecord).await();
+                        verbose.writeLine("Done appending to build.journal file.").await();
+                    }
+                    else if (useStateFile)
+                    {
+                        verbose.writeLine("Writing build.state file...").await();
+                        QubBuildCompile.writeFileAtomically(buildStateFile, (File file) ->
+                        {
+                            BuildStateFile.write(file, updatedBuildJson).await();
+                        });
+                        verbose.writeLine("Done writing build.state file.").await();
+                    }
+                    else
+                    {
+                        verbose.writeLine("Writing build.json file...").await();
+                        QubBuildCompile.writeFileAtomically(buildJsonFile, (File file) ->
+                        {
+                            try (final CharacterWriteStream writeStream = CharacterWriteStream.create(ByteWriteStream.buffer(file.getContentsByteWriteStream().await())))
+                            {
+                                updatedBuildJson.write(writeStream, buildJsonFormat).await();
+                            }
+                        });
+                        verbose.writeLine("Done writing build.json file.").await();
+                    }
+
+                    if (journalRecord == null)
+                    {
+                        // Only one format is kept so that a later build can't read a stale copy of
+                        // the build state in the other format. The new snapshot already contains
+                        // the journal's changes.
+                        otherStateFile.delete()
+                            .catchError(FileNotFoundException.class)
+                            .await();
+                        journalFile.delete()
+                            .catchError(FileNotFoundException.class)
+                            .await();
+                    }
+
+                    if (projectState != null)
                     {
-                        writeStream.write(updatedBuildJson.toString(JSONFormat.pretty)).await();
+                        projectState.setBuildJson(updatedBuildJson, BuildStateJournal.getLastModified(stateFile, journalFile));
                     }
-                    verbose.writeLine("Done writing build.json file.").await();
                 }
             }
             catch (Throwable error)
             {
+                if (projectStateCache != null)
+                {
+                    projectStateCache.remove(folderToBuild.getPath());
+                }
+
                 final Throwable unwrappedError = Exceptions.unwrap(error);
                 if (Types.instanceOf(unwrappedError, Iterable.create(PreConditionFailure.class, PostConditionFailure.class, NullPointerException.class)))
                 {
@@ -554,36 +849,173 @@ public interface QubBuildCompile
         return exitCode;
     }
 
-    static Result<Void> writeFileList(CharacterWriteStream verbose, Iterable<File> files, String description)
+    /**
+     * Get the classpaths that the provided project needs in order to compile. This includes the
+     * project's outputs folder and the compiled sources files of all of its transitive
+     * dependencies.
+     * @param projectJsonJava The ProjectJSON Java configuration object.
+     * @param outputsFolder The folder that the project's class files are written to.
+     * @param qubFolder The Qub folder that the dependencies are installed in.
+     * @return The classpaths that the provided project needs in order to compile.
+     */
+    static Result<Iterable<String>> getClasspaths(ProjectJSONJava projectJsonJava, Folder outputsFolder, QubFolder qubFolder)
     {
+        PreCondition.assertNotNull(projectJsonJava, "projectJsonJava");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
         return Result.create(() ->
         {
-            if (!Iterable.isNullOrEmpty(files))
+            final List<String> classPaths = List.create();
+            classPaths.add(outputsFolder.toString());
+            Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
+            if (!Iterable.isNullOrEmpty(dependencies))
             {
-                verbose.writeLine(description + ":").await();
-                for (final File file : files)
+                final Map<ProjectSignature, Iterable<ProjectSignature>> dependencyMap = projectJsonJava.getTransitiveDependencyPaths(qubFolder);
+                dependencies = dependencyMap.getKeys();
+
+                final Set<ProjectSignature> errorDependencies = Set.create();
+                for (final ProjectSignature dependency : dependencies)
                 {
-                    verbose.writeLine(file.getPath().toString()).await();
+                    if (!errorDependencies.contains(dependency))
+                    {
+                        final Iterable<ProjectSignature> matchingDependencies = dependencies.where(dependency::equalsIgnoreVersion).toList();
+                        if (matchingDependencies.getCount() > 1)
+                        {
+                            errorDependencies.addAll(matchingDependencies);
+                            final InMemoryCharacterToByteStream errorMessage = InMemoryCharacterToByteStream.create();
+                            final IndentedCharacterWriteStream indentedErrorMessage = IndentedCharacterWriteStream.create(errorMessage)
+                                .setSingleIndent(" ");
+                            indentedErrorMessage.writeLine("Found more than one required version for package " + dependency.toStringIgnoreVersion() + ":").await();
+                            int number = 0;
+                            for (final ProjectSignature matchingProjectSignature : matchingDependencies)
+                            {
+                                ++number;
+                                final String numberString = number + ". ";
+                                indentedErrorMessage.setCurrentIndent("");
+                                errorMessage.writeLine(numberString + matchingProjectSignature).await();
+                                indentedErrorMessage.setCurrentIndent(Strings.repeat(' ', numberString.length()));
+                                final Iterable<ProjectSignature> path = dependencyMap.get(matchingProjectSignature).await();
+                                for (final ProjectSignature pathProjectSignature : path)
+                                {
+                                    indentedErrorMessage.increaseIndent();
+                                    indentedErrorMessage.writeLine("from " + pathProjectSignature).await();
+                                }
+                            }
+                            throw new RuntimeException(errorMessage.getText().await());
+                        }
+                    }
                 }
-            }
-        });
-    }
 
-    static boolean shouldCompileEverything(ProjectJSON oldProjectJson, ProjectJSON newProjectJson)
-    {
-        boolean result = false;
-
-        if (oldProjectJson != null && oldProjectJson.getJava() != null &&
-            newProjectJson != null && newProjectJson.getJava() != null)
-        {
-            final ProjectJSONJava oldProjectJsonJava = oldProjectJson.getJava();
+                for (final ProjectSignature dependency : dependencies)
+                {
+                    final QubPublisherFolder publisherFolder = qubFolder.getPublisherFolder(dependency.getPublisher()).await();
+                    if (!publisherFolder.exists().await())
+                    {
+                        throw new NotFoundException("No publisher folder named " + Strings.escapeAndQuote(dependency.getPublisher()) + " found in the Qub folder (" + qubFolder + ").");
+                    }
+                    else
+                    {
+                        final QubProjectFolder projectFolder = publisherFolder.getProjectFolder(dependency.getProject()).await();
+                        if (!projectFolder.exists().await())
+                        {
+                            throw new NotFoundException("No project folder named " + Strings.escapeAndQuote(dependency.getProject()) + " found in the " + Strings.escapeAndQuote(dependency.getPublisher()) + " publisher folder (" + publisherFolder + ").");
+                        }
+                        else
+                        {
+                            QubProjectVersionFolder versionFolder = projectFolder.getProjectVersionFolder(dependency.getVersion()).await();
+                            if (!versionFolder.exists().await())
+                            {
+                                throw new NotFoundException("No version folder named " + Strings.escapeAndQuote(dependency.getVersion()) + " found in the " + Strings.escapeAndQuote(dependency.getProject()) + " project folder (" + projectFolder + ").");
+                            }
+                            else
+                            {
+                                final File dependencyFile = versionFolder.getCompiledSourcesFile().await();
+                                if (!dependencyFile.exists().await())
+                                {
+                                    throw new NotFoundException("No dependency file named " + Strings.escapeAndQuote(dependencyFile.getName()) + " found in the " + Strings.escapeAndQuote(dependency.getVersion()) + " version folder (" + versionFolder + ").");
+                                }
+                                else
+                                {
+                                    classPaths.add(dependencyFile.toString());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            PostCondition.assertNotNull(classPaths, "classPaths");
+
+            return classPaths;
+        });
+    }
+
+    /**
+     * Create the JavaCompiler that matches the compiler type in the provided parameters.
+     * @param parameters The parameters that specify which type of compiler to create.
+     * @return The created JavaCompiler.
+     */
+    static Result<JavaCompiler<?>> createJavaCompiler(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return Result.create(() ->
+        {
+            JavaCompiler<?> result;
+            switch (parameters.getCompilerType())
+            {
+                case InProcess:
+                    result = InProcessJavaCompiler.create(parameters.getFolderToBuild());
+                    break;
+
+                default:
+                    // The process factory may belong to a daemon that runs in a different folder,
+                    // so run javac in the folder that the source file paths are relative to.
+                    final JavacProcessBuilder javacProcessBuilder = JavacProcessBuilder.get(parameters.getProcessFactory()).await();
+                    javacProcessBuilder.setWorkingFolder(parameters.getFolderToBuild());
+                    result = javacProcessBuilder;
+                    break;
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    static Result<Void> writeFileList(CharacterWriteStream verbose, Iterable<File> files, String description)
+    {
+        return Result.create(() ->
+        {
+            if (!Iterable.isNullOrEmpty(files))
+            {
+                verbose.writeLine(description + ":").await();
+                for (final File file : files)
+                {
+                    verbose.writeLine(file.getPath().toString()).await();
+                }
+            }
+        });
+    }
+
+    static boolean shouldCompileEverything(ProjectJSON oldProjectJson, ProjectJSON newProjectJson)
+    {
+        boolean result = false;
+
+        if (oldProjectJson != null && oldProjectJson.getJava() != null &&
+            newProjectJson != null && newProjectJson.getJava() != null)
+        {
+            final ProjectJSONJava oldProjectJsonJava = oldProjectJson.getJava();
             final ProjectJSONJava newProjectJsonJava = newProjectJson.getJava();
 
             final String oldProjectJsonJavaVersion = oldProjectJsonJava.getVersion();
             final String newProjectJsonJavaVersion = newProjectJsonJava.getVersion();
             if (!Comparer.equal(oldProjectJsonJavaVersion, newProjectJsonJavaVersion))
             {
-                result = !isJava8(oldProjectJsonJavaVersion) || !isJava8(newProjectJsonJavaVersion);
+                final int oldMajorVersion = JavaToolchainJSON.getMajorVersion(oldProjectJsonJavaVersion);
+                final int newMajorVersion = JavaToolchainJSON.getMajorVersion(newProjectJsonJavaVersion);
+                result = oldMajorVersion == 0 || oldMajorVersion != newMajorVersion;
             }
 
             if (!result)
@@ -602,14 +1034,1716 @@ public interface QubBuildCompile
         return result;
     }
 
-    static boolean isJava8(String javaVersion)
+    /**
+     * Add the arguments that make the provided compiler compile for the provided Java version.
+     * Java versions that support --release are compiled with --release. Older Java versions are
+     * compiled against the runtime jar of a matching installed JRE or JDK, which is found in the
+     * cached toolchain registry.
+     * @param parameters The parameters of the compilation.
+     * @param javac The compiler to add the arguments to.
+     * @param javaVersion The Java version to compile for.
+     * @return The result of adding the arguments.
+     */
+    static Result<Void> addJavaVersion(QubBuildCompileParameters parameters, JavaCompiler<?> javac, String javaVersion)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(javac, "javac");
+        PreCondition.assertNotNullAndNotEmpty(javaVersion, "javaVersion");
+
+        return Result.create(() ->
+        {
+            final int majorVersion = JavaToolchainJSON.getMajorVersion(javaVersion);
+            if (majorVersion <= 0)
+            {
+                throw new NotFoundException("No bootclasspath runtime jar file could be found for Java version " + Strings.escapeAndQuote(javaVersion) + ".");
+            }
+            else if (majorVersion >= 9)
+            {
+                javac.addArguments("--release", Integer.toString(majorVersion));
+            }
+            else
+            {
+                final String javaHomeFolderPathString = parameters.getEnvironmentVariables().get("JAVA_HOME")
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (Strings.isNullOrEmpty(javaHomeFolderPathString))
+                {
+                    throw new NotFoundException("Can't compile for a specific Java version if the JAVA_HOME environment variable is not specified.");
+                }
+                final FileSystem fileSystem = parameters.getFolderToBuild().getFileSystem();
+                final Folder javaFolder = fileSystem.getFolder(javaHomeFolderPathString).await().getParentFolder().await();
+                final JavaToolchainsJSON toolchains = QubBuildCompile.getJavaToolchains(parameters, javaFolder).await();
+                final JavaToolchainJSON toolchain = toolchains.findBootClasspathToolchain(javaVersion);
+                if (toolchain == null)
+                {
+                    throw new NotFoundException("No installed JREs found for Java version " + Strings.escapeAndQuote(javaVersion) + ".");
+                }
+                javac.addJavaSourceVersion(javaVersion);
+                javac.addJavaTargetVersion(javaVersion);
+                javac.addBootClasspath(fileSystem.getFile(toolchain.getBootClasspath()).await());
+            }
+        });
+    }
+
+    /**
+     * Get the registry of the JDKs and JREs that are installed in the provided Java folder. The
+     * registry is cached in the qub-build data folder and the installed JDKs and JREs are only
+     * inspected again when the names of the folders in the Java folder change.
+     * @param parameters The parameters of the compilation.
+     * @param javaFolder The folder that contains the installed JDKs and JREs.
+     * @return The registry of the JDKs and JREs that are installed in the provided Java folder.
+     */
+    static Result<JavaToolchainsJSON> getJavaToolchains(QubBuildCompileParameters parameters, Folder javaFolder)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(javaFolder, "javaFolder");
+
+        return Result.create(() ->
+        {
+            final Iterable<String> javaFolderEntries = javaFolder.iterateFolders()
+                .map(Folder::getName)
+                .toList();
+
+            final File javaToolchainsJsonFile = parameters.getQubBuildDataFolder().getFile(QubBuildCompile.javaToolchainsJsonFileName).await();
+            JavaToolchainsJSON result = JavaToolchainsJSON.parse(javaToolchainsJsonFile)
+                .catchError()
+                .await();
+            if (result == null || !result.matches(javaFolder.getPath(), javaFolderEntries))
+            {
+                result = JavaToolchainsJSON.discover(javaFolder, javaFolderEntries).await();
+                javaToolchainsJsonFile.setContentsAsString(result.toString(JSONFormat.pretty))
+                    .catchError()
+                    .await();
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the version of the javac that will compile the project. The version of an external javac
+     * executable is cached in the qub-build data folder and is only probed again when the javac
+     * executable's path, last modified time, or size changes.
+     * @param parameters The parameters of the compilation.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The version of the javac that will compile the project.
+     */
+    static Result<VersionNumber> getJavacVersion(QubBuildCompileParameters parameters, CharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        return Result.create(() ->
+        {
+            File javacFile = null;
+            DateTime javacLastModified = null;
+            Long javacSize = null;
+            if (parameters.getCompilerType() == JavaCompilerType.Process)
+            {
+                final FileSystem fileSystem = parameters.getFolderToBuild().getFileSystem();
+                javacFile = JavacProcessBuilder.findExecutableFile(parameters.getEnvironmentVariables(), fileSystem).await();
+                if (javacFile != null)
+                {
+                    javacLastModified = javacFile.getLastModified()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                    javacSize = QubBuildCompile.getFileSize(javacFile);
+                }
+            }
+
+            VersionNumber result = null;
+            final File javacVersionJsonFile = parameters.getQubBuildDataFolder().getFile(QubBuildCompile.javacVersionJsonFileName).await();
+            if (javacLastModified != null && javacSize != null)
+            {
+                final JavacVersionJSON javacVersionJson = JavacVersionJSON.parse(javacVersionJsonFile)
+                    .catchError()
+                    .await();
+                if (javacVersionJson != null && javacVersionJson.matches(javacFile.getPath(), javacLastModified, javacSize))
+                {
+                    result = javacVersionJson.getJavacVersion();
+                    verbose.writeLine("Using cached javac version " + result + " for " + javacFile + "...").await();
+                }
+            }
+
+            if (result == null)
+            {
+                final JavaCompiler<?> javacVersionCompiler = QubBuildCompile.createJavaCompiler(parameters).await();
+                result = javacVersionCompiler.getVersion(verbose).await();
+
+                if (javacLastModified != null && javacSize != null)
+                {
+                    final JavacVersionJSON javacVersionJson = JavacVersionJSON.create()
+                        .setJavacPath(javacFile.getPath())
+                        .setJavacLastModified(javacLastModified)
+                        .setJavacSize(javacSize)
+                        .setJavacVersion(result);
+                    javacVersionJsonFile.setContentsAsString(javacVersionJson.toString(JSONFormat.pretty))
+                        .catchError()
+                        .await();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the size in bytes of the provided file.
+     * @param file The file to get the size of.
+     * @return The size in bytes of the provided file, or null if the file doesn't exist.
+     */
+    static Long getFileSize(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        Long result;
+        if (file.getFileSystem() instanceof JavaFileSystem)
+        {
+            try
+            {
+                result = java.nio.file.Files.size(java.nio.file.Paths.get(file.getPath().toString()));
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                result = null;
+            }
+            catch (java.io.IOException e)
+            {
+                throw Exceptions.asRuntime(e);
+            }
+        }
+        else
+        {
+            final byte[] contents = file.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            result = contents == null ? null : (long)contents.length;
+        }
+        return result;
+    }
+
+    /**
+     * Group the provided source files into batches that can be compiled one after another. Source
+     * files that depend on each other are kept together in the same group, and every group in a
+     * batch only depends on groups in earlier batches, so the groups in a batch can be compiled at
+     * the same time. Each batch costs a compiler start, so a batch with only one group is merged
+     * into a neighbouring batch, and the smallest batches are merged into their neighbours until
+     * there are no more batches than jobs.
+     * @param javaSourceFilesToCompile The source files that need to be compiled.
+     * @param buildJson The build.json that contains the dependencies of the source files.
+     * @param folderToBuild The folder that the source file paths in the build.json are relative
+     *                      to.
+     * @param jobs The maximum number of batches to create.
+     * @return The batches of groups of source files in the order that they should be compiled.
+     */
+    static Iterable<Iterable<Iterable<File>>> getCompilationBatches(Iterable<File> javaSourceFilesToCompile, BuildJSON buildJson, Folder folderToBuild, int jobs)
     {
-        return Strings.isOneOf(javaVersion, Iterable.create("8", "1.8", "8.0"));
+        PreCondition.assertNotNullAndNotEmpty(javaSourceFilesToCompile, "javaSourceFilesToCompile");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertGreaterThanOrEqualTo(jobs, 1, "jobs");
+
+        final List<File> files = List.create(javaSourceFilesToCompile);
+        final int fileCount = files.getCount();
+        final Map<Path,Integer> fileIndexes = Map.create();
+        for (int i = 0; i < fileCount; ++i)
+        {
+            fileIndexes.set(files.get(i).relativeTo(folderToBuild), i);
+        }
+
+        final List<List<Integer>> dependencyIndexes = List.create();
+        for (final File file : files)
+        {
+            final List<Integer> fileDependencyIndexes = List.create();
+            final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(file.relativeTo(folderToBuild))
+                .catchError(NotFoundException.class)
+                .await();
+            final Iterable<Path> dependencies = buildJsonSourceFile == null ? null : buildJsonSourceFile.getDependencies();
+            if (!Iterable.isNullOrEmpty(dependencies))
+            {
+                for (final Path dependency : dependencies)
+                {
+                    final Integer dependencyIndex = fileIndexes.get(dependency)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (dependencyIndex != null)
+                    {
+                        fileDependencyIndexes.add(dependencyIndex);
+                    }
+                }
+            }
+            dependencyIndexes.add(fileDependencyIndexes);
+        }
+
+        // Find the strongly connected components with an iterative version of Tarjan's algorithm.
+        // A component is only completed after every component that it depends on, so the
+        // component numbers are already in dependency order.
+        final int[] visitIndexes = new int[fileCount];
+        final int[] lowLinks = new int[fileCount];
+        final int[] components = new int[fileCount];
+        final int[] nextDependencies = new int[fileCount];
+        final boolean[] onStack = new boolean[fileCount];
+        final int[] stack = new int[fileCount];
+        final int[] callStack = new int[fileCount];
+        for (int i = 0; i < fileCount; ++i)
+        {
+            visitIndexes[i] = -1;
+        }
+        int visitIndex = 0;
+        int stackCount = 0;
+        int componentCount = 0;
+        for (int root = 0; root < fileCount; ++root)
+        {
+            if (visitIndexes[root] == -1)
+            {
+                int callStackCount = 0;
+                visitIndexes[root] = lowLinks[root] = visitIndex++;
+                stack[stackCount++] = root;
+                onStack[root] = true;
+                callStack[callStackCount++] = root;
+
+                while (callStackCount > 0)
+                {
+                    final int file = callStack[callStackCount - 1];
+                    final List<Integer> fileDependencyIndexes = dependencyIndexes.get(file);
+                    if (nextDependencies[file] < fileDependencyIndexes.getCount())
+                    {
+                        final int dependency = fileDependencyIndexes.get(nextDependencies[file]++);
+                        if (visitIndexes[dependency] == -1)
+                        {
+                            visitIndexes[dependency] = lowLinks[dependency] = visitIndex++;
+                            stack[stackCount++] = dependency;
+                            onStack[dependency] = true;
+                            callStack[callStackCount++] = dependency;
+                        }
+                        else if (onStack[dependency])
+                        {
+                            lowLinks[file] = Math.min(lowLinks[file], visitIndexes[dependency]);
+                        }
+                    }
+                    else
+                    {
+                        --callStackCount;
+                        if (callStackCount > 0)
+                        {
+                            final int caller = callStack[callStackCount - 1];
+                            lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[file]);
+                        }
+
+                        if (lowLinks[file] == visitIndexes[file])
+                        {
+                            int componentFile;
+                            do
+                            {
+                                componentFile = stack[--stackCount];
+                                onStack[componentFile] = false;
+                                components[componentFile] = componentCount;
+                            }
+                            while (componentFile != file);
+                            ++componentCount;
+                        }
+                    }
+                }
+            }
+        }
+
+        final List<List<Integer>> componentFileIndexes = List.create();
+        final List<Set<Integer>> componentDependencies = List.create();
+        for (int i = 0; i < componentCount; ++i)
+        {
+            componentFileIndexes.add(List.create());
+            componentDependencies.add(Set.create());
+        }
+        for (int file = 0; file < fileCount; ++file)
+        {
+            componentFileIndexes.get(components[file]).add(file);
+            for (final Integer dependency : dependencyIndexes.get(file))
+            {
+                final int dependencyComponent = components[dependency];
+                if (dependencyComponent != components[file])
+                {
+                    componentDependencies.get(components[file]).add(dependencyComponent);
+                }
+            }
+        }
+
+        final int[] componentBatches = new int[componentCount];
+        int batchCount = 0;
+        for (int component = 0; component < componentCount; ++component)
+        {
+            int batch = 0;
+            for (final Integer dependencyComponent : componentDependencies.get(component))
+            {
+                batch = Math.max(batch, componentBatches[dependencyComponent] + 1);
+            }
+            componentBatches[component] = batch;
+            batchCount = Math.max(batchCount, batch + 1);
+        }
+
+        // Each batch is a list of groups, and each group is a list of components.
+        List<List<List<Integer>>> batches = List.create();
+        for (int batch = 0; batch < batchCount; ++batch)
+        {
+            final List<List<Integer>> batchGroups = List.create();
+            for (int component = 0; component < componentCount; ++component)
+            {
+                if (componentBatches[component] == batch)
+                {
+                    batchGroups.add(List.create(component));
+                }
+            }
+            batches.add(batchGroups);
+        }
+
+        while (batches.getCount() > 1)
+        {
+            int batchToMerge = -1;
+            int batchToMergeFileCount = 0;
+            for (int batch = 0; batch < batches.getCount(); ++batch)
+            {
+                if (batches.getCount() > jobs || batches.get(batch).getCount() == 1)
+                {
+                    final int batchFileCount = QubBuildCompile.getBatchFileCount(batches.get(batch), componentFileIndexes);
+                    if (batchToMerge == -1 || batchFileCount < batchToMergeFileCount)
+                    {
+                        batchToMerge = batch;
+                        batchToMergeFileCount = batchFileCount;
+                    }
+                }
+            }
+            if (batchToMerge == -1)
+            {
+                break;
+            }
+
+            // Merge the batch with whichever of its neighbours has fewer source files.
+            final int firstBatch;
+            if (batchToMerge == 0)
+            {
+                firstBatch = 0;
+            }
+            else if (batchToMerge == batches.getCount() - 1)
+            {
+                firstBatch = batchToMerge - 1;
+            }
+            else
+            {
+                final int previousBatchFileCount = QubBuildCompile.getBatchFileCount(batches.get(batchToMerge - 1), componentFileIndexes);
+                final int nextBatchFileCount = QubBuildCompile.getBatchFileCount(batches.get(batchToMerge + 1), componentFileIndexes);
+                firstBatch = previousBatchFileCount <= nextBatchFileCount ? batchToMerge - 1 : batchToMerge;
+            }
+
+            final List<List<List<Integer>>> mergedBatches = List.create();
+            for (int batch = 0; batch < batches.getCount(); ++batch)
+            {
+                if (batch == firstBatch)
+                {
+                    mergedBatches.add(QubBuildCompile.mergeBatches(batches.get(batch), batches.get(batch + 1), componentDependencies, componentCount));
+                    ++batch;
+                }
+                else
+                {
+                    mergedBatches.add(batches.get(batch));
+                }
+            }
+            batches = mergedBatches;
+        }
+
+        final List<Iterable<Iterable<File>>> result = List.create();
+        for (final List<List<Integer>> batch : batches)
+        {
+            final List<Iterable<File>> batchGroups = List.create();
+            for (final List<Integer> group : batch)
+            {
+                final List<File> groupFiles = List.create();
+                for (final Integer component : group)
+                {
+                    for (final Integer file : componentFileIndexes.get(component))
+                    {
+                        groupFiles.add(files.get(file));
+                    }
+                }
+                batchGroups.add(groupFiles);
+            }
+            result.add(batchGroups);
+        }
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
     }
 
-    static boolean isJava11(String javaVersion)
+    /**
+     * Get the number of source files in the provided batch of groups of components.
+     * @param batch The batch of groups of components.
+     * @param componentFileIndexes The indexes of the source files in each component.
+     * @return The number of source files in the provided batch.
+     */
+    static int getBatchFileCount(List<List<Integer>> batch, List<List<Integer>> componentFileIndexes)
     {
-        return Strings.isOneOf(javaVersion, Iterable.create("11", "11.0"));
+        int result = 0;
+        for (final List<Integer> group : batch)
+        {
+            for (final Integer component : group)
+            {
+                result += componentFileIndexes.get(component).getCount();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merge the provided batch into the batch before it. A group in the second batch is merged
+     * into every group in the first batch that it depends on, so the merged groups still don't
+     * depend on each other.
+     * @param firstBatch The groups of components in the first batch.
+     * @param secondBatch The groups of components in the batch that comes after the first batch.
+     * @param componentDependencies The components that each component depends on.
+     * @param componentCount The total number of components.
+     * @return The groups of components in the merged batch.
+     */
+    static List<List<Integer>> mergeBatches(List<List<Integer>> firstBatch, List<List<Integer>> secondBatch, List<Set<Integer>> componentDependencies, int componentCount)
+    {
+        final List<List<Integer>> mergedGroups = List.create();
+        final int[] componentMergedGroups = new int[componentCount];
+        for (int i = 0; i < componentCount; ++i)
+        {
+            componentMergedGroups[i] = -1;
+        }
+        for (final List<Integer> group : firstBatch)
+        {
+            final List<Integer> mergedGroup = List.create();
+            mergedGroup.addAll(group);
+            for (final Integer component : group)
+            {
+                componentMergedGroups[component] = mergedGroups.getCount();
+            }
+            mergedGroups.add(mergedGroup);
+        }
+
+        for (final List<Integer> group : secondBatch)
+        {
+            int targetGroup = -1;
+            for (final Integer component : group)
+            {
+                for (final Integer dependencyComponent : componentDependencies.get(component))
+                {
+                    final int dependencyGroup = componentMergedGroups[dependencyComponent];
+                    if (dependencyGroup != -1 && dependencyGroup != targetGroup)
+                    {
+                        if (targetGroup == -1)
+                        {
+                            targetGroup = dependencyGroup;
+                        }
+                        else
+                        {
+                            // This group joins two merged groups together, so move the later
+                            // merged group's components into the earlier one.
+                            final int keptGroup = Math.min(targetGroup, dependencyGroup);
+                            final int emptiedGroup = Math.max(targetGroup, dependencyGroup);
+                            for (final Integer movedComponent : mergedGroups.get(emptiedGroup))
+                            {
+                                componentMergedGroups[movedComponent] = keptGroup;
+                            }
+                            mergedGroups.get(keptGroup).addAll(mergedGroups.get(emptiedGroup));
+                            mergedGroups.set(emptiedGroup, List.create());
+                            targetGroup = keptGroup;
+                        }
+                    }
+                }
+            }
+
+            if (targetGroup == -1)
+            {
+                targetGroup = mergedGroups.getCount();
+                mergedGroups.add(List.create());
+            }
+            mergedGroups.get(targetGroup).addAll(group);
+            for (final Integer component : group)
+            {
+                componentMergedGroups[component] = targetGroup;
+            }
+        }
+
+        return mergedGroups.where((List<Integer> mergedGroup) -> mergedGroup.any()).toList();
+    }
+
+    /**
+     * Split the provided groups of source files into at most the provided number of lists of
+     * source files that have roughly the same number of source files.
+     * @param groups The groups of source files to split.
+     * @param maximumCount The maximum number of lists to create.
+     * @return The lists of source files.
+     */
+    static Iterable<Iterable<File>> balance(Iterable<Iterable<File>> groups, int maximumCount)
+    {
+        PreCondition.assertNotNull(groups, "groups");
+        PreCondition.assertGreaterThanOrEqualTo(maximumCount, 1, "maximumCount");
+
+        final int resultCount = Math.min(groups.getCount(), maximumCount);
+        final List<List<File>> lists = List.create();
+        for (int i = 0; i < resultCount; ++i)
+        {
+            lists.add(List.create());
+        }
+
+        final Iterable<Iterable<File>> largestGroupsFirst = groups.order((Iterable<File> lhs, Iterable<File> rhs) -> lhs.getCount() > rhs.getCount());
+        for (final Iterable<File> group : largestGroupsFirst)
+        {
+            lists.minimum((List<File> lhs, List<File> rhs) -> Comparison.create(Integer.compare(lhs.getCount(), rhs.getCount())))
+                .addAll(group);
+        }
+
+        final List<Iterable<File>> result = List.create();
+        result.addAll(lists);
+        return result;
+    }
+
+    /**
+     * Compile the provided batches of source files one batch after another. The groups of source
+     * files in each batch are split between the configured number of compilers, which all run
+     * at the same time. If a batch fails, then the batches after it aren't compiled and the
+     * result is marked as stopped so that their source files are compiled by the next build.
+     * @param parameters The parameters of the compilation.
+     * @param arguments The arguments that every compiler should be run with, except for the
+     *                  source files.
+     * @param compilationBatches The batches of groups of source files to compile.
+     * @param outputsFolder The folder that the compilers' arguments files will be written to.
+     * @param output The stream that a failed batch will be reported to.
+     * @param verbose The stream that verbose logs will be written to.
+     * @param onIssue The action that will be run for each issue as soon as a compiler reports it.
+     *                This action may be run by multiple compilers at the same time.
+     * @return The combined result of all of the compilations.
+     */
+    static Result<JavaCompilationResult> compileBatches(QubBuildCompileParameters parameters, Iterable<String> arguments, Iterable<Iterable<Iterable<File>>> compilationBatches, Folder outputsFolder, CharacterWriteStream output, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(arguments, "arguments");
+        PreCondition.assertNotNullAndNotEmpty(compilationBatches, "compilationBatches");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(onIssue, "onIssue");
+
+        return Result.create(() ->
+        {
+            final Folder folderToBuild = parameters.getFolderToBuild();
+            final Iterable<String> compilerArguments = List.create(arguments);
+
+            int exitCode = 0;
+            boolean stopped = false;
+            final StringBuilder compilerOutput = new StringBuilder();
+            final StringBuilder error = new StringBuilder();
+            final List<JavaCompilerIssue> issues = List.create();
+
+            final int batchCount = compilationBatches.getCount();
+            int batchNumber = 0;
+            for (final Iterable<Iterable<File>> compilationBatch : compilationBatches)
+            {
+                ++batchNumber;
+                final Iterable<Iterable<File>> workerFiles = QubBuildCompile.balance(compilationBatch, parameters.getJobs());
+                final int workerCount = workerFiles.getCount();
+                verbose.writeLine("Compiling batch " + batchNumber + " of " + batchCount + " with " + workerCount + " compiler" + (workerCount == 1 ? "" : "s") + "...").await();
+
+                final List<JavaCompiler<?>> workers = List.create();
+                for (final Iterable<File> files : workerFiles)
+                {
+                    final JavaCompiler<?> worker = QubBuildCompile.createJavaCompiler(parameters).await();
+                    for (final String argument : compilerArguments)
+                    {
+                        worker.addArguments(argument);
+                    }
+                    worker.addSourceFilePaths(files
+                        .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild)));
+                    workers.add(worker);
+                }
+
+                final JavaCompilationResult[] workerResults = new JavaCompilationResult[workerCount];
+                final Throwable[] workerErrors = new Throwable[workerCount];
+                final InMemoryCharacterToByteStream[] workerVerbose = new InMemoryCharacterToByteStream[workerCount];
+                final List<Thread> workerThreads = List.create();
+                for (int i = 0; i < workerCount; ++i)
+                {
+                    final int workerIndex = i;
+                    workerVerbose[workerIndex] = InMemoryCharacterToByteStream.create();
+                    final Thread workerThread = new Thread(() ->
+                    {
+                        try
+                        {
+                            final File argumentsFile = outputsFolder.getFile(QubBuildCompile.getArgumentsFileName(workerIndex)).await();
+                            workerResults[workerIndex] = QubBuildCompile.compile(parameters, workers.get(workerIndex), argumentsFile, workerVerbose[workerIndex], onIssue).await();
+                        }
+                        catch (Throwable workerError)
+                        {
+                            workerErrors[workerIndex] = workerError;
+                        }
+                    });
+                    workerThreads.add(workerThread);
+                    workerThread.start();
+                }
+                for (final Thread workerThread : workerThreads)
+                {
+                    try
+                    {
+                        workerThread.join();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        throw Exceptions.asRuntime(e);
+                    }
+                }
+
+                for (int i = 0; i < workerCount; ++i)
+                {
+                    verbose.write(workerVerbose[i].getText().await()).await();
+                    if (workerErrors[i] != null)
+                    {
+                        throw Exceptions.asRuntime(workerErrors[i]);
+                    }
+
+                    final JavaCompilationResult workerResult = workerResults[i];
+                    exitCode = Math.max(exitCode, workerResult.exitCode);
+                    stopped = stopped || workerResult.stopped;
+                    if (!Strings.isNullOrEmpty(workerResult.output))
+                    {
+                        compilerOutput.append(workerResult.output);
+                    }
+                    if (!Strings.isNullOrEmpty(workerResult.error))
+                    {
+                        error.append(workerResult.error);
+                    }
+                    if (workerResult.issues != null)
+                    {
+                        issues.addAll(workerResult.issues);
+                    }
+                }
+
+                if (exitCode != 0)
+                {
+                    // The batches after a failed batch depend on it, so compiling them would only
+                    // report errors that are caused by the failed batch.
+                    if (batchNumber < batchCount)
+                    {
+                        int remainingFileCount = 0;
+                        int remainingBatchNumber = 0;
+                        for (final Iterable<Iterable<File>> remainingBatch : compilationBatches)
+                        {
+                            ++remainingBatchNumber;
+                            if (remainingBatchNumber > batchNumber)
+                            {
+                                for (final Iterable<File> remainingGroup : remainingBatch)
+                                {
+                                    remainingFileCount += remainingGroup.getCount();
+                                }
+                            }
+                        }
+                        output.writeLine("Batch " + batchNumber + " of " + batchCount + " failed, so " + remainingFileCount + " file" + (remainingFileCount == 1 ? " wasn't" : "s weren't") + " compiled.").await();
+                        stopped = true;
+                    }
+                    break;
+                }
+            }
+
+            return new JavaCompilationResult(exitCode, compilerOutput.toString(), error.toString(), issues, stopped);
+        });
+    }
+
+    /**
+     * Record the API fingerprints of the compiled source files and compile the source files that
+     * depend on the compiled source files whose APIs changed. This repeats until no more APIs
+     * change or until a compilation fails.
+     * @param parameters The parameters for the compilation.
+     * @param arguments The compiler arguments without any source files.
+     * @param compilationResult The result of compiling the javaSourceFilesToCompile.
+     * @param javaSourceFilesToCompile The source files that have been compiled. The dependents that
+     *                                 get compiled will be added to this set.
+     * @param javaSourceFiles All of the source files in the project.
+     * @param buildJson The build.json object that will be written when the compilation finishes.
+     * @param dependencyResolver The resolver that knows the packages and the types that the source
+     *                           files declare.
+     * @param previousApiFingerprints The API fingerprints from the previous build.
+     * @param previousClassFiles The class files that were recorded for the source files before
+     *                           they were compiled.
+     * @param fileSnapshot The snapshot of the outputs folder from before the compilation.
+     * @param outputsFolder The folder where the class files are written.
+     * @param verbose The stream that verbose logs will be written to.
+     * @param onIssue The action that will be run for each issue as soon as it is reported.
+     * @return The combined result of all of the compilations.
+     */
+    static Result<JavaCompilationResult> compileApiDependents(QubBuildCompileParameters parameters, Iterable<String> arguments, JavaCompilationResult compilationResult, Set<File> javaSourceFilesToCompile, Iterable<File> javaSourceFiles, BuildJSON buildJson, JavaDependencyResolver dependencyResolver, Map<Path,String> previousApiFingerprints, Map<Path,Iterable<Path>> previousClassFiles, FileSnapshot fileSnapshot, Folder outputsFolder, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(arguments, "arguments");
+        PreCondition.assertNotNull(compilationResult, "compilationResult");
+        PreCondition.assertNotNull(javaSourceFilesToCompile, "javaSourceFilesToCompile");
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+        PreCondition.assertNotNull(previousApiFingerprints, "previousApiFingerprints");
+        PreCondition.assertNotNull(previousClassFiles, "previousClassFiles");
+        PreCondition.assertNotNull(fileSnapshot, "fileSnapshot");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(onIssue, "onIssue");
+
+        return Result.create(() ->
+        {
+            final Folder folderToBuild = parameters.getFolderToBuild();
+
+            int exitCode = compilationResult.exitCode;
+            boolean stopped = compilationResult.stopped;
+            final StringBuilder output = new StringBuilder(compilationResult.output == null ? "" : compilationResult.output);
+            final StringBuilder error = new StringBuilder(compilationResult.error == null ? "" : compilationResult.error);
+            final List<JavaCompilerIssue> issues = List.create();
+            if (compilationResult.issues != null)
+            {
+                issues.addAll(compilationResult.issues);
+            }
+
+            Iterable<File> compiledSourceFiles = List.create(javaSourceFilesToCompile);
+            while (exitCode == 0 && !stopped)
+            {
+                // The class files that are fingerprinted must be the ones that this compilation
+                // produced, so they are recorded and the stale ones deleted first.
+                QubBuildCompile.updateClassDependencies(compiledSourceFiles, javaSourceFiles, buildJson, dependencyResolver, outputsFolder);
+                QubBuildCompile.deleteStaleClassFiles(compiledSourceFiles, buildJson, previousClassFiles, fileSnapshot, folderToBuild, outputsFolder);
+
+                verbose.writeLine("Comparing the APIs of " + compiledSourceFiles.getCount() + " compiled source file" + (compiledSourceFiles.getCount() == 1 ? "" : "s") + "...").await();
+                final Set<Path> changedApiPaths = QubBuildCompile.updateApiFingerprints(compiledSourceFiles, buildJson, previousApiFingerprints, folderToBuild, outputsFolder).await();
+                final Iterable<File> apiDependents = QubBuildCompile.getApiDependents(javaSourceFiles, changedApiPaths, javaSourceFilesToCompile, buildJson, folderToBuild);
+                QubBuildCompile.writeFileList(verbose, apiDependents, "Source files with dependencies whose APIs changed").await();
+                if (!apiDependents.any())
+                {
+                    break;
+                }
+
+                javaSourceFilesToCompile.addAll(apiDependents);
+
+                final JavaCompiler<?> dependentsCompiler = QubBuildCompile.createJavaCompiler(parameters).await();
+                for (final String argument : arguments)
+                {
+                    dependentsCompiler.addArguments(argument);
+                }
+                dependentsCompiler.addSourceFilePaths(apiDependents
+                    .map((File javaSourceFile) -> javaSourceFile.getPath().relativeTo(folderToBuild)));
+                final File argumentsFile = outputsFolder.getFile(QubBuildCompile.getArgumentsFileName(0)).await();
+                final JavaCompilationResult dependentsResult = QubBuildCompile.compile(parameters, dependentsCompiler, argumentsFile, verbose, onIssue).await();
+
+                exitCode = dependentsResult.exitCode;
+                stopped = dependentsResult.stopped;
+                if (!Strings.isNullOrEmpty(dependentsResult.output))
+                {
+                    output.append(dependentsResult.output);
+                }
+                if (!Strings.isNullOrEmpty(dependentsResult.error))
+                {
+                    error.append(dependentsResult.error);
+                }
+                if (dependentsResult.issues != null)
+                {
+                    issues.addAll(dependentsResult.issues);
+                }
+
+                compiledSourceFiles = apiDependents;
+            }
+
+            return new JavaCompilationResult(exitCode, output.toString(), error.toString(), issues, stopped);
+        });
+    }
+
+    /**
+     * Record the API fingerprints of the class files that were compiled from the provided source
+     * files. The class files that were recorded for each source file are used. Source files whose
+     * class files couldn't be recorded fall back to the class files that are named after them.
+     * @param compiledSourceFiles The source files that were compiled.
+     * @param buildJson The build.json object to record the API fingerprints in.
+     * @param previousApiFingerprints The API fingerprints from the previous build.
+     * @param folderToBuild The folder that is being built.
+     * @param outputsFolder The folder where the class files are written.
+     * @return The relative paths of the compiled source files whose APIs changed.
+     */
+    static Result<Set<Path>> updateApiFingerprints(Iterable<File> compiledSourceFiles, BuildJSON buildJson, Map<Path,String> previousApiFingerprints, Folder folderToBuild, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(previousApiFingerprints, "previousApiFingerprints");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        return Result.create(() ->
+        {
+            final Set<Path> result = Set.create();
+            for (final File compiledSourceFile : compiledSourceFiles)
+            {
+                final Path relativePath = compiledSourceFile.relativeTo(folderToBuild);
+                final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(relativePath)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (buildJsonSourceFile != null)
+                {
+                    final Iterable<Path> classFilePaths = buildJsonSourceFile.getClassFiles();
+                    final Iterable<File> classFiles = classFilePaths == null
+                        ? QubBuildCompile.getExistingClassFiles(compiledSourceFile, folderToBuild, outputsFolder)
+                        : classFilePaths.map((Path classFilePath) -> outputsFolder.getFile(classFilePath).await()).toList();
+                    final String apiFingerprint = JavaClassFileApi.getFingerprint(classFiles).await();
+                    buildJsonSourceFile.setApiFingerprint(apiFingerprint);
+
+                    final String previousApiFingerprint = previousApiFingerprints.get(relativePath)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (!apiFingerprint.equals(previousApiFingerprint))
+                    {
+                        result.add(relativePath);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Record the class files that were compiled from each of the provided compiled source files,
+     * add the project classes that those class files refer to to their dependencies, and record
+     * the external classes that those class files refer to. The dependencies that were found in
+     * the source code are always kept.
+     * @param compiledSourceFiles The source files that were compiled.
+     * @param javaSourceFiles All of the source files in the project.
+     * @param buildJson The build.json object to record the dependencies in.
+     * @param dependencyResolver The resolver that knows the packages and the types that the source
+     *                           files declare.
+     * @param outputsFolder The folder where the class files are written.
+     */
+    static void updateClassDependencies(Iterable<File> compiledSourceFiles, Iterable<File> javaSourceFiles, BuildJSON buildJson, JavaDependencyResolver dependencyResolver, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        final Folder folderToBuild = dependencyResolver.getRootFolder();
+
+        // The internal names (such as "qub/BuildJSON") of the project's top-level classes. The
+        // file's own type is added last so that it wins over a nested type with the same name.
+        final Map<String,Path> classSourcePaths = Map.create();
+        for (final File javaSourceFile : javaSourceFiles)
+        {
+            final String packageName = dependencyResolver.getPackageName(javaSourceFile);
+            final String classNamePrefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+            final Path relativePath = javaSourceFile.relativeTo(folderToBuild);
+            for (final String typeName : dependencyResolver.getOtherTypeNames(javaSourceFile))
+            {
+                classSourcePaths.set(classNamePrefix + typeName, relativePath);
+            }
+            classSourcePaths.set(classNamePrefix + JavaDependencyResolver.getFileTypeName(javaSourceFile), relativePath);
+        }
+
+        final Map<Path,Iterable<JavaClassFileReferences>> compiledReferences = Map.create();
+        for (final File compiledSourceFile : compiledSourceFiles)
+        {
+            final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(compiledSourceFile.relativeTo(folderToBuild))
+                .catchError(NotFoundException.class)
+                .await();
+            if (buildJsonSourceFile != null)
+            {
+                // A source file's secondary top-level types are compiled to their own class files.
+                final Path compiledSourceFilePath = buildJsonSourceFile.getRelativePath();
+                final String packageName = dependencyResolver.getPackageName(compiledSourceFile);
+                final String classNamePrefix = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+                final List<String> classNames = List.create(classNamePrefix + JavaDependencyResolver.getFileTypeName(compiledSourceFile));
+                for (final String typeName : dependencyResolver.getOtherTypeNames(compiledSourceFile))
+                {
+                    final String className = classNamePrefix + typeName;
+                    if (compiledSourceFilePath.equals(classSourcePaths.get(className).catchError(NotFoundException.class).await()))
+                    {
+                        classNames.add(className);
+                    }
+                }
+
+                // Every nested class is referred to by the class that contains it, so following
+                // those references from the top-level classes finds exactly the class files that
+                // this compilation produced. Nested class files that are left over from an
+                // earlier version of the source file aren't referred to.
+                final List<File> classFiles = List.create();
+                final List<JavaClassFileReferences> references = List.create();
+                for (int i = 0; i < classNames.getCount(); ++i)
+                {
+                    final String className = classNames.get(i);
+                    final File classFile = outputsFolder.getFile(className + ".class").await();
+                    final byte[] classFileBytes = classFile.getContents()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                    if (classFileBytes != null)
+                    {
+                        final JavaClassFileReferences classFileReferences = JavaClassFileReferences.parse(classFileBytes)
+                            .catchError()
+                            .await();
+                        if (classFileReferences == null)
+                        {
+                            references.clear();
+                            break;
+                        }
+                        classFiles.add(classFile);
+                        references.add(classFileReferences);
+
+                        final String nestedClassNamePrefix = JavaClassFileReferences.getTopLevelClassName(className) + "$";
+                        for (final String referencedClassName : classFileReferences.getReferencedClassNames())
+                        {
+                            if (referencedClassName.startsWith(nestedClassNamePrefix) && !classNames.contains(referencedClassName))
+                            {
+                                classNames.add(referencedClassName);
+                            }
+                        }
+                    }
+                }
+
+                if (references.any())
+                {
+                    buildJsonSourceFile.setClassFiles(classFiles.map((File classFile) -> classFile.relativeTo(outputsFolder)).toList());
+                    compiledReferences.set(compiledSourceFilePath, references);
+                }
+            }
+        }
+
+        for (final Path compiledSourceFilePath : compiledReferences.getKeys())
+        {
+            final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(compiledSourceFilePath).await();
+
+            final Set<Path> dependencyPaths = Set.create();
+            final Set<String> externalClasses = Set.create();
+            for (final JavaClassFileReferences references : compiledReferences.get(compiledSourceFilePath).await())
+            {
+                for (final String referencedClassName : references.getReferencedClassNames())
+                {
+                    final String topLevelClassName = JavaClassFileReferences.getTopLevelClassName(referencedClassName);
+                    final Path dependencyPath = classSourcePaths.get(topLevelClassName)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (dependencyPath != null)
+                    {
+                        if (!dependencyPath.equals(compiledSourceFilePath))
+                        {
+                            dependencyPaths.add(dependencyPath);
+                        }
+                    }
+                    else if (QubBuildCompile.isExternalClassName(topLevelClassName))
+                    {
+                        externalClasses.add(topLevelClassName.replace('/', '.'));
+                    }
+                }
+            }
+
+            // The compiler copies the values of constants into the class files that use them and
+            // doesn't refer to a type whose only use was a constant, so the dependencies that
+            // were found in the source code are kept as well.
+            final Iterable<Path> sourceDependencyPaths = buildJsonSourceFile.getDependencies();
+            if (sourceDependencyPaths != null)
+            {
+                dependencyPaths.addAll(sourceDependencyPaths);
+            }
+
+            buildJsonSourceFile.setDependencies(javaSourceFiles
+                .map((File javaSourceFile) -> javaSourceFile.relativeTo(folderToBuild))
+                .where(dependencyPaths::contains)
+                .toList());
+            if (externalClasses.any())
+            {
+                buildJsonSourceFile.setExternalClasses(externalClasses.order((String lhs, String rhs) -> lhs.compareTo(rhs) < 0).toList());
+            }
+        }
+    }
+
+    /**
+     * Get the class files that were compiled from the provided source file the last time that it
+     * was compiled. Source files whose class files weren't recorded fall back to the class files
+     * that are named after the source file.
+     * @param sourceFile The source file.
+     * @param recordedClassFiles The class files that were recorded for the source file, or null if
+     *                           they weren't recorded.
+     * @param fileSnapshot The snapshot of the outputs folder from before the compilation.
+     * @param folderToBuild The root project folder.
+     * @param outputsFolder The folder where the class files are written.
+     * @return The class files that exist in the snapshot and were compiled from the source file.
+     */
+    static Iterable<File> getRecordedClassFiles(File sourceFile, Iterable<Path> recordedClassFiles, FileSnapshot fileSnapshot, Folder folderToBuild, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+        PreCondition.assertNotNull(fileSnapshot, "fileSnapshot");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        final Iterable<File> result = recordedClassFiles == null
+            ? fileSnapshot.getExistingClassFiles(sourceFile, folderToBuild)
+            : recordedClassFiles
+                .map((Path classFilePath) -> outputsFolder.getFile(classFilePath).await())
+                .where(fileSnapshot::outputFileExists)
+                .toList();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Read the class files that the provided source files were compiled to by an earlier build.
+     * The in-process compiler doesn't rewrite class files whose bytes didn't change, but javac
+     * in a separate process rewrites every class file that it produces. The returned contents are
+     * used to put back the last modified times of the class files that javac rewrote with the
+     * same bytes. Nothing is read for the in-process compiler or for class files that aren't on
+     * the real file system.
+     * @param parameters The parameters of the compilation.
+     * @param javaSourceFilesToCompile The source files that are about to be compiled.
+     * @param previousClassFiles The class files that were recorded for the source files before
+     *                           they were compiled.
+     * @param fileSnapshot The snapshot of the outputs folder from before the compilation, or null
+     *                     if no snapshot was captured.
+     * @param outputsFolder The folder where the class files are written.
+     * @return The contents of the class files that will be compiled again.
+     */
+    static Map<File,byte[]> readPreviousClassFiles(QubBuildCompileParameters parameters, Iterable<File> javaSourceFilesToCompile, Map<Path,Iterable<Path>> previousClassFiles, FileSnapshot fileSnapshot, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(javaSourceFilesToCompile, "javaSourceFilesToCompile");
+        PreCondition.assertNotNull(previousClassFiles, "previousClassFiles");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        final Map<File,byte[]> result = Map.create();
+        if (parameters.getCompilerType() == JavaCompilerType.Process && fileSnapshot != null && outputsFolder.getFileSystem() instanceof JavaFileSystem)
+        {
+            final Folder folderToBuild = parameters.getFolderToBuild();
+            for (final File javaSourceFile : javaSourceFilesToCompile)
+            {
+                final Iterable<Path> recordedClassFiles = previousClassFiles.get(javaSourceFile.relativeTo(folderToBuild))
+                    .catchError(NotFoundException.class)
+                    .await();
+                for (final File classFile : QubBuildCompile.getRecordedClassFiles(javaSourceFile, recordedClassFiles, fileSnapshot, folderToBuild, outputsFolder))
+                {
+                    final byte[] classFileContents = classFile.getContents()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                    if (classFileContents != null)
+                    {
+                        result.set(classFile, classFileContents);
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Put back the last modified times of the provided class files that were compiled again with
+     * the same bytes, so that tools that watch the outputs folder don't see them as changed.
+     * @param previousClassFileContents The contents of the class files from before they were
+     *                                  compiled again.
+     * @param fileSnapshot The snapshot of the outputs folder from before the compilation.
+     * @return The number of class files whose last modified times were put back.
+     */
+    static int restoreUnchangedClassFiles(Map<File,byte[]> previousClassFileContents, FileSnapshot fileSnapshot)
+    {
+        PreCondition.assertNotNull(previousClassFileContents, "previousClassFileContents");
+
+        int result = 0;
+        for (final File classFile : previousClassFileContents.getKeys())
+        {
+            final byte[] classFileContents = classFile.getContents()
+                .catchError(FileNotFoundException.class)
+                .await();
+            if (classFileContents != null && java.util.Arrays.equals(classFileContents, previousClassFileContents.get(classFile).await()))
+            {
+                final DateTime lastModified = fileSnapshot.getLastModified(classFile);
+                try
+                {
+                    java.nio.file.Files.setLastModifiedTime(
+                        java.nio.file.Paths.get(classFile.getPath().toString()),
+                        java.nio.file.attribute.FileTime.fromMillis((long)lastModified.getDurationSinceEpoch().toMilliseconds().getValue()));
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delete the class files that were compiled from the provided compiled source files by an
+     * earlier build but weren't produced by this build, such as the class files of nested classes
+     * that were removed from the source files.
+     * @param compiledSourceFiles The source files that were compiled.
+     * @param buildJson The build.json object that the produced class files were recorded in.
+     * @param previousClassFiles The class files that were recorded for the source files before
+     *                           they were compiled.
+     * @param fileSnapshot The snapshot of the outputs folder from before the compilation.
+     * @param folderToBuild The root project folder.
+     * @param outputsFolder The folder where the class files are written.
+     */
+    static void deleteStaleClassFiles(Iterable<File> compiledSourceFiles, BuildJSON buildJson, Map<Path,Iterable<Path>> previousClassFiles, FileSnapshot fileSnapshot, Folder folderToBuild, Folder outputsFolder)
+    {
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(previousClassFiles, "previousClassFiles");
+        PreCondition.assertNotNull(fileSnapshot, "fileSnapshot");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+        PreCondition.assertNotNull(outputsFolder, "outputsFolder");
+
+        final List<File> staleClassFiles = List.create();
+        for (final File compiledSourceFile : compiledSourceFiles)
+        {
+            final Path relativePath = compiledSourceFile.relativeTo(folderToBuild);
+            final BuildJSONSourceFile buildJsonSourceFile = buildJson.getSourceFile(relativePath)
+                .catchError(NotFoundException.class)
+                .await();
+            final Iterable<Path> classFilePaths = buildJsonSourceFile == null ? null : buildJsonSourceFile.getClassFiles();
+            if (classFilePaths != null)
+            {
+                final Set<File> classFiles = classFilePaths
+                    .map((Path classFilePath) -> outputsFolder.getFile(classFilePath).await())
+                    .toSet();
+                final Iterable<Path> previousClassFilePaths = previousClassFiles.get(relativePath)
+                    .catchError(NotFoundException.class)
+                    .await();
+                for (final File previousClassFile : QubBuildCompile.getRecordedClassFiles(compiledSourceFile, previousClassFilePaths, fileSnapshot, folderToBuild, outputsFolder))
+                {
+                    if (!classFiles.contains(previousClassFile) && !staleClassFiles.contains(previousClassFile))
+                    {
+                        staleClassFiles.add(previousClassFile);
+                    }
+                }
+            }
+        }
+        QubBuildCompile.deleteClassFiles(staleClassFiles);
+    }
+
+    /**
+     * Delete the provided class files. Class files that have already been deleted are ignored.
+     * @param classFiles The class files to delete.
+     */
+    static void deleteClassFiles(Iterable<File> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        for (final File classFile : classFiles)
+        {
+            classFile.delete()
+                .catchError(FileNotFoundException.class)
+                .await();
+        }
+    }
+
+    /**
+     * Get whether or not the provided internal class name belongs to a library rather than to the
+     * Java runtime. Names that don't have a package are ignored, since they may come from string
+     * constants that only look like descriptors.
+     */
+    static boolean isExternalClassName(String className)
+    {
+        return className.contains("/") &&
+            !className.startsWith("java/") &&
+            !className.startsWith("javax/") &&
+            !className.startsWith("jdk/") &&
+            !className.startsWith("sun/") &&
+            !className.startsWith("com/sun/");
+    }
+
+    /**
+     * Get the source files that haven't been compiled yet and that depend directly or indirectly
+     * on a source file whose API changed. Indirect dependents are included because a type can
+     * inherit members from a changed type without its own API changing, so a source file that
+     * only names the subtype can still be broken by the change. The search goes through source
+     * files that have already been compiled, since their APIs may hide a change the same way.
+     * @param javaSourceFiles All of the source files in the project.
+     * @param changedApiPaths The relative paths of the source files whose APIs changed.
+     * @param compiledSourceFiles The source files that have already been compiled.
+     * @param buildJson The build.json object that contains the source files' dependencies.
+     * @param folderToBuild The folder that is being built.
+     * @return The source files that need to be compiled because one of their dependencies' APIs
+     * changed.
+     */
+    static Iterable<File> getApiDependents(Iterable<File> javaSourceFiles, Set<Path> changedApiPaths, Set<File> compiledSourceFiles, BuildJSON buildJson, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(changedApiPaths, "changedApiPaths");
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        return QubBuildCompile.getDependentsToCompile(changedApiPaths, javaSourceFiles, true, buildJson, folderToBuild)
+            .where((File javaSourceFile) -> !compiledSourceFiles.contains(javaSourceFile))
+            .toList();
+    }
+
+    /**
+     * Get the candidate source files that depend on the changed source files. The dependents are
+     * found with a breadth-first search of the reverse dependency graph, which is built in a
+     * single pass over the build.json source files.
+     * @param changedSourceFilePaths The relative paths of the source files that changed.
+     * @param candidateSourceFiles The source files that aren't being compiled yet and that may
+     *                             depend on the changed source files.
+     * @param transitive Whether or not the dependents of dependents should also be returned.
+     * @param buildJson The build.json object that contains the source files' dependencies.
+     * @param folderToBuild The folder that is being built.
+     * @return The candidate source files that depend on the changed source files, in the order
+     * that they were found.
+     */
+    static Iterable<File> getDependentsToCompile(Iterable<Path> changedSourceFilePaths, Iterable<File> candidateSourceFiles, boolean transitive, BuildJSON buildJson, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(changedSourceFilePaths, "changedSourceFilePaths");
+        PreCondition.assertNotNull(candidateSourceFiles, "candidateSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        final List<File> result = List.create();
+        if (changedSourceFilePaths.any() && candidateSourceFiles.any())
+        {
+            final Map<Path,File> candidates = Map.create();
+            for (final File candidateSourceFile : candidateSourceFiles)
+            {
+                candidates.set(candidateSourceFile.relativeTo(folderToBuild), candidateSourceFile);
+            }
+
+            final Map<Path,List<Path>> dependents = Map.create();
+            for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+            {
+                final Path sourceFilePath = sourceFile.getRelativePath();
+                final Iterable<Path> dependencies = candidates.containsKey(sourceFilePath) ? sourceFile.getDependencies() : null;
+                if (!Iterable.isNullOrEmpty(dependencies))
+                {
+                    for (final Path dependency : dependencies)
+                    {
+                        List<Path> dependencyDependents = dependents.get(dependency)
+                            .catchError(NotFoundException.class)
+                            .await();
+                        if (dependencyDependents == null)
+                        {
+                            dependencyDependents = List.create();
+                            dependents.set(dependency, dependencyDependents);
+                        }
+                        dependencyDependents.add(sourceFilePath);
+                    }
+                }
+            }
+
+            final List<Path> pathsToVisit = List.create(changedSourceFilePaths);
+            int visitIndex = 0;
+            while (visitIndex < pathsToVisit.getCount())
+            {
+                final Path pathToVisit = pathsToVisit.get(visitIndex++);
+                final Iterable<Path> pathDependents = dependents.get(pathToVisit)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (pathDependents != null)
+                {
+                    for (final Path pathDependent : pathDependents)
+                    {
+                        final File dependentFile = candidates.get(pathDependent)
+                            .catchError(NotFoundException.class)
+                            .await();
+                        if (dependentFile != null)
+                        {
+                            candidates.remove(pathDependent).await();
+                            result.add(dependentFile);
+                            if (transitive)
+                            {
+                                pathsToVisit.add(pathDependent);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Write the provided file by writing to a temporary file next to it and then moving the
+     * temporary file over it, so that an interrupted write never leaves a truncated file behind.
+     * Files that aren't on the real file system are written directly.
+     * @param file The file to write.
+     * @param writeAction The action that writes the contents to the file that it is given.
+     */
+    static void writeFileAtomically(File file, Action1<File> writeAction)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(writeAction, "writeAction");
+
+        if (!(file.getFileSystem() instanceof JavaFileSystem))
+        {
+            writeAction.run(file);
+        }
+        else
+        {
+            final File tempFile = file.getParentFolder().await().getFile(file.getName() + ".tmp").await();
+            writeAction.run(tempFile);
+
+            final java.nio.file.Path tempFilePath = java.nio.file.Paths.get(tempFile.getPath().toString());
+            final java.nio.file.Path filePath = java.nio.file.Paths.get(file.getPath().toString());
+            try
+            {
+                try
+                {
+                    java.nio.file.Files.move(tempFilePath, filePath, java.nio.file.StandardCopyOption.ATOMIC_MOVE, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (java.nio.file.AtomicMoveNotSupportedException e)
+                {
+                    java.nio.file.Files.move(tempFilePath, filePath, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw Exceptions.asRuntime(e);
+            }
+        }
+    }
+
+    /**
+     * Read the build state from the provided build.json or build.state file.
+     * @param stateFile The build.json or build.state file to read.
+     * @return The build state, or null if the file doesn't exist or couldn't be parsed.
+     */
+    static BuildJSON readBuildState(File stateFile)
+    {
+        PreCondition.assertNotNull(stateFile, "stateFile");
+
+        BuildJSON result;
+        if (".state".equalsIgnoreCase(stateFile.getFileExtension()))
+        {
+            final BuildStateFile buildStateFile = BuildStateFile.read(stateFile)
+                .catchError(FileNotFoundException.class)
+                .catchError(ParseException.class)
+                .await();
+            result = buildStateFile == null ? null : buildStateFile.toBuildJson();
+        }
+        else
+        {
+            result = BuildJSON.parse(stateFile)
+                .catchError(FileNotFoundException.class)
+                .await();
+        }
+        return result;
+    }
+
+    /**
+     * Record the imports and references of the provided source files whose imports and
+     * references haven't been recorded yet. Source files that were already read to find their
+     * dependencies aren't read again.
+     * @param javaSourceFiles The source files to record the imports and references of.
+     * @param buildJson The build.json object to record the imports and references in.
+     * @param dependencyResolver The dependency resolver that has read the source files.
+     */
+    static void recordReferences(Iterable<File> javaSourceFiles, BuildJSON buildJson, JavaDependencyResolver dependencyResolver)
+    {
+        PreCondition.assertNotNull(javaSourceFiles, "javaSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+
+        for (final File javaSourceFile : javaSourceFiles)
+        {
+            final BuildJSONSourceFile sourceFile = buildJson.getSourceFile(javaSourceFile.relativeTo(dependencyResolver.getRootFolder()))
+                .catchError(NotFoundException.class)
+                .await();
+            if (sourceFile != null && (sourceFile.getImports() == null || sourceFile.getReferences() == null))
+            {
+                final JavaSourceFileSymbols symbols = dependencyResolver.getSymbols(javaSourceFile);
+                sourceFile.setImports(symbols.getImports());
+                sourceFile.setReferences(symbols.getReferencedNames().order((String lhs, String rhs) -> lhs.compareTo(rhs) < 0).toList());
+            }
+        }
+    }
+
+    /**
+     * Add a dependency on each of the provided changed source files to the unmodified source
+     * files that refer to a type that the changed source file declares but that don't depend on
+     * it yet, such as the source files that already referred to a type that was just added. The
+     * unmodified source files are found with the imports and references that were recorded for
+     * them, so they aren't read.
+     * @param changedSourceFiles The source files that were added or modified.
+     * @param unmodifiedSourceFiles The source files that weren't modified.
+     * @param buildJson The build.json object that contains the source files' dependencies.
+     * @param folderToBuild The folder that the source file paths in the build.json are relative
+     *                      to.
+     * @return The unmodified source files that gained a dependency.
+     */
+    static Iterable<File> addDependenciesOnAddedTypes(Iterable<File> changedSourceFiles, Iterable<File> unmodifiedSourceFiles, BuildJSON buildJson, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(changedSourceFiles, "changedSourceFiles");
+        PreCondition.assertNotNull(unmodifiedSourceFiles, "unmodifiedSourceFiles");
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        final List<File> result = List.create();
+        if (changedSourceFiles.any() && unmodifiedSourceFiles.any())
+        {
+            final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+            for (final File unmodifiedSourceFile : unmodifiedSourceFiles)
+            {
+                final BuildJSONSourceFile sourceFile = buildJson.getSourceFile(unmodifiedSourceFile.relativeTo(folderToBuild))
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (sourceFile != null)
+                {
+                    index.add(sourceFile);
+                }
+            }
+
+            for (final File changedSourceFile : changedSourceFiles)
+            {
+                final Path changedSourceFilePath = changedSourceFile.relativeTo(folderToBuild);
+                final BuildJSONSourceFile changedBuildJsonSourceFile = buildJson.getSourceFile(changedSourceFilePath).await();
+                final List<String> typeNames = List.create(JavaDependencyResolver.getFileTypeName(changedSourceFile));
+                final Iterable<String> otherTypeNames = changedBuildJsonSourceFile.getTypes();
+                if (otherTypeNames != null)
+                {
+                    typeNames.addAll(otherTypeNames);
+                }
+                final String packageName = changedBuildJsonSourceFile.getPackageName();
+
+                for (final BuildJSONSourceFile dependent : index.getSourceFilesThatReferTo(packageName == null ? "" : packageName, typeNames))
+                {
+                    final Iterable<Path> dependencies = dependent.getDependencies();
+                    if (dependencies == null || !dependencies.contains(changedSourceFilePath))
+                    {
+                        final List<Path> updatedDependencies = List.create();
+                        if (dependencies != null)
+                        {
+                            updatedDependencies.addAll(dependencies);
+                        }
+                        updatedDependencies.add(changedSourceFilePath);
+                        dependent.setDependencies(updatedDependencies);
+
+                        final File dependentFile = folderToBuild.getFile(dependent.getRelativePath()).await();
+                        if (!result.contains(dependentFile))
+                        {
+                            result.add(dependentFile);
+                        }
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Create the build.json entries for the provided source files.
+     * @param sourceFiles The source files to create build.json entries for.
+     * @param dependencyResolver The resolver that finds the source files that each source file
+     *                           depends on.
+     * @param fileSnapshot The snapshot that the source files' last modified times are read from.
+     * @param fileHashes Whether or not to record the size and content hash of each source file.
+     * @return The build.json entries for the provided source files.
+     */
+    static Iterable<BuildJSONSourceFile> createBuildJsonSourceFiles(Iterable<File> sourceFiles, JavaDependencyResolver dependencyResolver, FileSnapshot fileSnapshot, boolean fileHashes)
+    {
+        PreCondition.assertNotNull(sourceFiles, "sourceFiles");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+        PreCondition.assertNotNull(fileSnapshot, "fileSnapshot");
+
+        return sourceFiles
+            .map((File sourceFile) -> QubBuildCompile.createBuildJsonSourceFile(sourceFile, dependencyResolver, fileSnapshot, fileHashes))
+            .toList();
+    }
+
+    /**
+     * Create the build.json entry for the provided source file.
+     * @param sourceFile The source file to create a build.json entry for.
+     * @param dependencyResolver The resolver that finds the source files that the source file
+     *                           depends on.
+     * @param fileSnapshot The snapshot that the source file's last modified time is read from.
+     * @param fileHashes Whether or not to record the size and content hash of the source file.
+     * @return The build.json entry for the provided source file.
+     */
+    static BuildJSONSourceFile createBuildJsonSourceFile(File sourceFile, JavaDependencyResolver dependencyResolver, FileSnapshot fileSnapshot, boolean fileHashes)
+    {
+        PreCondition.assertNotNull(sourceFile, "sourceFile");
+        PreCondition.assertNotNull(dependencyResolver, "dependencyResolver");
+        PreCondition.assertNotNull(fileSnapshot, "fileSnapshot");
+
+        final BuildJSONSourceFile result = BuildJSONSourceFile.create(sourceFile, fileSnapshot.getLastModified(sourceFile), dependencyResolver);
+        if (fileHashes)
+        {
+            result.setSizeAndContentHash(sourceFile.getContents().await());
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * The compiler was stopped before it could write the class files for the source files that it
+     * was compiling, so remove the last modified times of the compiled source files that don't
+     * have errors. This makes the next build compile those source files again.
+     * @param buildJson The build.json object that will be written when the compilation finishes.
+     * @param compiledSourceFiles The source files that the stopped compiler was compiling.
+     * @param issues The issues that the compiler reported before it was stopped.
+     * @param folderToBuild The folder that is being built.
+     */
+    static void forgetStoppedSourceFiles(BuildJSON buildJson, Iterable<File> compiledSourceFiles, Iterable<JavaCompilerIssue> issues, Folder folderToBuild)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(compiledSourceFiles, "compiledSourceFiles");
+        PreCondition.assertNotNull(folderToBuild, "folderToBuild");
+
+        final Set<Path> sourceFilePathsWithErrors = Set.create();
+        if (issues != null)
+        {
+            sourceFilePathsWithErrors.addAll(issues
+                .where((JavaCompilerIssue issue) -> issue.type == Issue.Type.Error)
+                .map((JavaCompilerIssue issue) -> Path.parse(issue.sourceFilePath)));
+        }
+        final Set<Path> compiledSourceFilePaths = compiledSourceFiles
+            .map((File compiledSourceFile) -> compiledSourceFile.relativeTo(folderToBuild))
+            .toSet();
+
+        final List<BuildJSONSourceFile> sourceFiles = List.create();
+        for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+        {
+            final Path relativePath = sourceFile.getRelativePath();
+            if (!compiledSourceFilePaths.contains(relativePath) || sourceFilePathsWithErrors.contains(relativePath))
+            {
+                sourceFiles.add(sourceFile);
+            }
+            else
+            {
+                final BuildJSONSourceFile forgottenSourceFile = BuildJSONSourceFile.create(relativePath);
+                final Iterable<Path> dependencies = sourceFile.getDependencies();
+                if (dependencies != null)
+                {
+                    forgottenSourceFile.setDependencies(dependencies);
+                }
+                final Iterable<Path> classFiles = sourceFile.getClassFiles();
+                if (classFiles != null)
+                {
+                    forgottenSourceFile.setClassFiles(classFiles);
+                }
+                sourceFiles.add(forgottenSourceFile);
+            }
+        }
+        buildJson.setSourceFiles(sourceFiles);
+    }
+
+    /**
+     * Create the action that will be run for each issue as soon as a compiler reports it. If the
+     * parameters don't stream issues, then the action does nothing.
+     * @param parameters The parameters of the compilation.
+     * @param output The stream that streamed issues will be written to.
+     * @return The action that will be run for each issue.
+     */
+    static Action1<JavaCompilerIssue> createLiveIssueWriter(QubBuildCompileParameters parameters, CharacterWriteStream output)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(output, "output");
+
+        Action1<JavaCompilerIssue> result;
+        if (!parameters.getLiveIssues())
+        {
+            result = (JavaCompilerIssue issue) -> {};
+        }
+        else
+        {
+            final Warnings warnings = parameters.getWarnings();
+            final SpinMutex outputMutex = SpinMutex.create();
+            result = (JavaCompilerIssue issue) ->
+            {
+                if (issue.type == Issue.Type.Error || warnings == Warnings.Show)
+                {
+                    outputMutex.criticalSection(() ->
+                    {
+                        output.writeLine(issue.type + ": " + issue.sourceFilePath + " (Line " + issue.lineNumber + "): " + issue.message).await();
+                    }).await();
+                }
+            };
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the name of the arguments file that the compiler with the provided index will use.
+     * @param compilerIndex The index of the compiler.
+     * @return The name of the arguments file.
+     */
+    static String getArgumentsFileName(int compilerIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(compilerIndex, 0, "compilerIndex");
+
+        return compilerIndex == 0 ? "javac.args" : "javac-" + (compilerIndex + 1) + ".args";
+    }
+
+    /**
+     * Run the provided compiler. If the compiler runs javac in a separate process and its
+     * arguments are longer than the configured threshold, then the arguments are written to the
+     * provided arguments file and javac is run with only a reference to that file instead. The
+     * arguments file is deleted after the compilation finishes.
+     * @param parameters The parameters of the compilation.
+     * @param javac The compiler to run.
+     * @param argumentsFile The file to write the compiler's arguments to if they're too long.
+     * @param verbose The stream that verbose logs will be written to.
+     * @param onIssue The action that will be run for each issue as soon as the compiler reports
+     *                it.
+     * @return The result of the compilation.
+     */
+    static Result<JavaCompilationResult> compile(QubBuildCompileParameters parameters, JavaCompiler<?> javac, File argumentsFile, CharacterToByteWriteStream verbose, Action1<JavaCompilerIssue> onIssue)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(javac, "javac");
+        PreCondition.assertNotNull(argumentsFile, "argumentsFile");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(onIssue, "onIssue");
+
+        return Result.create(() ->
+        {
+            final Iterable<String> arguments = javac.getArguments();
+            int argumentsLength = 0;
+            for (final String argument : arguments)
+            {
+                argumentsLength += argument.length() + 1;
+            }
+
+            JavaCompilationResult result;
+            if (parameters.getCompilerType() != JavaCompilerType.Process || argumentsLength <= parameters.getArgumentsFileThreshold())
+            {
+                result = javac.compile(parameters.getWarnings(), parameters.getFailFast(), verbose, onIssue).await();
+            }
+            else
+            {
+                verbose.writeLine("Writing javac arguments to " + argumentsFile.relativeTo(parameters.getFolderToBuild()) + "...").await();
+                argumentsFile.setContentsAsString(JavacArguments.getArgumentsFileContents(arguments)).await();
+                try
+                {
+                    final JavaCompiler<?> argumentsFileJavac = QubBuildCompile.createJavaCompiler(parameters).await();
+                    argumentsFileJavac.addArgumentsFile(argumentsFile);
+                    result = argumentsFileJavac.compile(parameters.getWarnings(), parameters.getFailFast(), verbose, onIssue).await();
+                }
+                finally
+                {
+                    argumentsFile.delete()
+                        .catchError(FileNotFoundException.class)
+                        .await();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
     }
 
     /**
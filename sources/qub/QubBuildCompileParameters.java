@@ -10,7 +10,22 @@ public class QubBuildCompileParameters
     private final Folder qubBuildDataFolder;
     private Warnings warnings;
     private boolean buildJson;
+    private JavaCompilerType compilerType;
     private VerboseCharacterToByteWriteStream verbose;
+    private boolean daemon;
+    private Network network;
+    private QubBuildProjectStateCache projectStateCache;
+    private boolean abi;
+    private boolean stateFile;
+    private boolean prettyJson;
+    private boolean journal;
+    private boolean refIndex;
+    private boolean fileHashes;
+    private boolean sourcepath;
+    private int failFast;
+    private boolean liveIssues;
+    private int argumentsFileThreshold;
+    private int jobs;
 
     public QubBuildCompileParameters(CharacterToByteWriteStream outputWriteStream, Folder folderToBuild, EnvironmentVariables environmentVariables, ProcessFactory processFactory, QubFolder qubFolder, Folder qubBuildDataFolder)
     {
@@ -29,7 +44,20 @@ public class QubBuildCompileParameters
         this.qubBuildDataFolder = qubBuildDataFolder;
         this.warnings = QubBuildCompileParameters.getWarningsDefault();
         this.buildJson = QubBuildCompileParameters.getBuildJsonDefault();
+        this.compilerType = QubBuildCompileParameters.getCompilerTypeDefault();
         this.verbose = QubBuildCompileParameters.getVerboseDefault();
+        this.daemon = QubBuildCompileParameters.getDaemonDefault();
+        this.jobs = QubBuildCompileParameters.getJobsDefault();
+        this.argumentsFileThreshold = QubBuildCompileParameters.getArgumentsFileThresholdDefault();
+        this.liveIssues = QubBuildCompileParameters.getLiveIssuesDefault();
+        this.failFast = QubBuildCompileParameters.getFailFastDefault();
+        this.sourcepath = QubBuildCompileParameters.getSourcepathDefault();
+        this.fileHashes = QubBuildCompileParameters.getFileHashesDefault();
+        this.abi = QubBuildCompileParameters.getAbiDefault();
+        this.stateFile = QubBuildCompileParameters.getStateFileDefault();
+        this.prettyJson = QubBuildCompileParameters.getPrettyJsonDefault();
+        this.journal = QubBuildCompileParameters.getJournalDefault();
+        this.refIndex = QubBuildCompileParameters.getRefIndexDefault();
     }
 
     /**
@@ -128,6 +156,28 @@ public class QubBuildCompileParameters
         return this;
     }
 
+    /**
+     * Get the type of compiler that will be used to compile the source files.
+     * @return The type of compiler that will be used to compile the source files.
+     */
+    public JavaCompilerType getCompilerType()
+    {
+        return this.compilerType;
+    }
+
+    /**
+     * Set the type of compiler that will be used to compile the source files.
+     * @param compilerType The type of compiler that will be used to compile the source files.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setCompilerType(JavaCompilerType compilerType)
+    {
+        PreCondition.assertNotNull(compilerType, "compilerType");
+
+        this.compilerType = compilerType;
+        return this;
+    }
+
     /**
      * Get the VerboseCharacterWriteStream where verbose logs will be written to.
      * @return The VerboseCharacterWriteStream where verbose logs will be written to.
@@ -150,6 +200,333 @@ public class QubBuildCompileParameters
         return this;
     }
 
+    /**
+     * Get whether or not the compilation should be sent to a running qub-build daemon.
+     * @return Whether or not the compilation should be sent to a running qub-build daemon.
+     */
+    public boolean getDaemon()
+    {
+        return this.daemon;
+    }
+
+    /**
+     * Set whether or not the compilation should be sent to a running qub-build daemon.
+     * @param daemon Whether or not the compilation should be sent to a running qub-build daemon.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setDaemon(boolean daemon)
+    {
+        this.daemon = daemon;
+        return this;
+    }
+
+    /**
+     * Get the Network that will be used to connect to a running qub-build daemon.
+     * @return The Network that will be used to connect to a running qub-build daemon.
+     */
+    public Network getNetwork()
+    {
+        return this.network;
+    }
+
+    /**
+     * Set the Network that will be used to connect to a running qub-build daemon.
+     * @param network The Network that will be used to connect to a running qub-build daemon.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setNetwork(Network network)
+    {
+        PreCondition.assertNotNull(network, "network");
+
+        this.network = network;
+        return this;
+    }
+
+    /**
+     * Get the number of compilers that can run at the same time.
+     * @return The number of compilers that can run at the same time.
+     */
+    public int getJobs()
+    {
+        return this.jobs;
+    }
+
+    /**
+     * Set the number of compilers that can run at the same time.
+     * @param jobs The number of compilers that can run at the same time.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setJobs(int jobs)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(jobs, 1, "jobs");
+
+        this.jobs = jobs;
+        return this;
+    }
+
+    /**
+     * Get the number of characters that javac arguments can have before they are written to an
+     * arguments file.
+     * @return The number of characters that javac arguments can have before they are written to
+     * an arguments file.
+     */
+    public int getArgumentsFileThreshold()
+    {
+        return this.argumentsFileThreshold;
+    }
+
+    /**
+     * Set the number of characters that javac arguments can have before they are written to an
+     * arguments file.
+     * @param argumentsFileThreshold The number of characters that javac arguments can have before
+     *                               they are written to an arguments file.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setArgumentsFileThreshold(int argumentsFileThreshold)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(argumentsFileThreshold, 0, "argumentsFileThreshold");
+
+        this.argumentsFileThreshold = argumentsFileThreshold;
+        return this;
+    }
+
+    /**
+     * Get whether or not issues will be written to the output while the compiler is still
+     * running.
+     * @return Whether or not issues will be written to the output while the compiler is still
+     * running.
+     */
+    public boolean getLiveIssues()
+    {
+        return this.liveIssues;
+    }
+
+    /**
+     * Set whether or not issues will be written to the output while the compiler is still
+     * running.
+     * @param liveIssues Whether or not issues will be written to the output while the compiler
+     *                   is still running.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setLiveIssues(boolean liveIssues)
+    {
+        this.liveIssues = liveIssues;
+        return this;
+    }
+
+    /**
+     * Get the number of errors that the compiler can report before it is stopped, or 0 if the
+     * compiler should always run to completion.
+     * @return The number of errors that the compiler can report before it is stopped, or 0 if the
+     * compiler should always run to completion.
+     */
+    public int getFailFast()
+    {
+        return this.failFast;
+    }
+
+    /**
+     * Set the number of errors that the compiler can report before it is stopped, or 0 if the
+     * compiler should always run to completion.
+     * @param failFast The number of errors that the compiler can report before it is stopped, or 0
+     *                 if the compiler should always run to completion.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setFailFast(int failFast)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(failFast, 0, "failFast");
+
+        this.failFast = failFast;
+        return this;
+    }
+
+    /**
+     * Get whether or not javac should find the unmodified source files that it needs from the
+     * project source folders.
+     * @return Whether or not javac should find the unmodified source files that it needs from the
+     * project source folders.
+     */
+    public boolean getSourcepath()
+    {
+        return this.sourcepath;
+    }
+
+    /**
+     * Set whether or not javac should find the unmodified source files that it needs from the
+     * project source folders.
+     * @param sourcepath Whether or not javac should find the unmodified source files that it needs
+     *                   from the project source folders.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setSourcepath(boolean sourcepath)
+    {
+        this.sourcepath = sourcepath;
+        return this;
+    }
+
+    /**
+     * Get whether or not a source file whose last modified time changed should only be compiled
+     * if its size or content hash also changed.
+     * @return Whether or not a source file whose last modified time changed should only be
+     * compiled if its size or content hash also changed.
+     */
+    public boolean getFileHashes()
+    {
+        return this.fileHashes;
+    }
+
+    /**
+     * Set whether or not a source file whose last modified time changed should only be compiled
+     * if its size or content hash also changed.
+     * @param fileHashes Whether or not a source file whose last modified time changed should only
+     *                   be compiled if its size or content hash also changed.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setFileHashes(boolean fileHashes)
+    {
+        this.fileHashes = fileHashes;
+        return this;
+    }
+
+    /**
+     * Get whether or not the dependents of a compiled source file should only be compiled when the
+     * API of its class files changed.
+     * @return Whether or not the dependents of a compiled source file should only be compiled when
+     * the API of its class files changed.
+     */
+    public boolean getAbi()
+    {
+        return this.abi;
+    }
+
+    /**
+     * Set whether or not the dependents of a compiled source file should only be compiled when the
+     * API of its class files changed.
+     * @param abi Whether or not the dependents of a compiled source file should only be compiled
+     *            when the API of its class files changed.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setAbi(boolean abi)
+    {
+        this.abi = abi;
+        return this;
+    }
+
+    /**
+     * Get whether or not the build state should be kept in a compact binary build.state file
+     * instead of in a build.json file.
+     * @return Whether or not the build state should be kept in a build.state file.
+     */
+    public boolean getStateFile()
+    {
+        return this.stateFile;
+    }
+
+    /**
+     * Set whether or not the build state should be kept in a compact binary build.state file
+     * instead of in a build.json file.
+     * @param stateFile Whether or not the build state should be kept in a build.state file.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setStateFile(boolean stateFile)
+    {
+        this.stateFile = stateFile;
+        return this;
+    }
+
+    /**
+     * Get whether or not the build.json file should be pretty printed.
+     * @return Whether or not the build.json file should be pretty printed.
+     */
+    public boolean getPrettyJson()
+    {
+        return this.prettyJson;
+    }
+
+    /**
+     * Set whether or not the build.json file should be pretty printed.
+     * @param prettyJson Whether or not the build.json file should be pretty printed.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setPrettyJson(boolean prettyJson)
+    {
+        this.prettyJson = prettyJson;
+        return this;
+    }
+
+    /**
+     * Get whether or not the changes that each build makes to the build state should be appended
+     * to a build.journal file instead of rewriting the whole build state.
+     * @return Whether or not the changes that each build makes should be appended to a
+     * build.journal file.
+     */
+    public boolean getJournal()
+    {
+        return this.journal;
+    }
+
+    /**
+     * Set whether or not the changes that each build makes to the build state should be appended
+     * to a build.journal file instead of rewriting the whole build state.
+     * @param journal Whether or not the changes that each build makes should be appended to a
+     *                build.journal file.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setJournal(boolean journal)
+    {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * Get whether or not the identifiers that each source file refers to should be recorded so
+     * that the unmodified source files that refer to an added type can be found without reading
+     * them.
+     * @return Whether or not the identifiers that each source file refers to should be recorded.
+     */
+    public boolean getRefIndex()
+    {
+        return this.refIndex;
+    }
+
+    /**
+     * Set whether or not the identifiers that each source file refers to should be recorded so
+     * that the unmodified source files that refer to an added type can be found without reading
+     * them.
+     * @param refIndex Whether or not the identifiers that each source file refers to should be
+     *                 recorded.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setRefIndex(boolean refIndex)
+    {
+        this.refIndex = refIndex;
+        return this;
+    }
+
+    /**
+     * Get the cache of project states that are kept in memory between builds. If this is null,
+     * then no state will be kept between builds.
+     * @return The cache of project states that are kept in memory between builds.
+     */
+    public QubBuildProjectStateCache getProjectStateCache()
+    {
+        return this.projectStateCache;
+    }
+
+    /**
+     * Set the cache of project states that are kept in memory between builds.
+     * @param projectStateCache The cache of project states that are kept in memory between
+     *                          builds.
+     * @return This object for method chaining.
+     */
+    public QubBuildCompileParameters setProjectStateCache(QubBuildProjectStateCache projectStateCache)
+    {
+        PreCondition.assertNotNull(projectStateCache, "projectStateCache");
+
+        this.projectStateCache = projectStateCache;
+        return this;
+    }
+
     /**
      * Get the default value for the --warnings parameter.
      * @return The default value for the --warnings parameter.
@@ -168,6 +545,125 @@ public class QubBuildCompileParameters
         return true;
     }
 
+    /**
+     * Get the default value for the --compiler parameter.
+     * @return The default value for the --compiler parameter.
+     */
+    static JavaCompilerType getCompilerTypeDefault()
+    {
+        return JavaCompilerType.Process;
+    }
+
+    /**
+     * Get the default value for the --daemon parameter.
+     * @return The default value for the --daemon parameter.
+     */
+    static boolean getDaemonDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --jobs parameter.
+     * @return The default value for the --jobs parameter.
+     */
+    static int getJobsDefault()
+    {
+        return 1;
+    }
+
+    /**
+     * Get the default number of characters that javac arguments can have before they are written
+     * to an arguments file.
+     * @return The default number of characters that javac arguments can have before they are
+     * written to an arguments file.
+     */
+    static int getArgumentsFileThresholdDefault()
+    {
+        return 8000;
+    }
+
+    /**
+     * Get the default value for the --liveissues parameter.
+     * @return The default value for the --liveissues parameter.
+     */
+    static boolean getLiveIssuesDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --failfast parameter.
+     * @return The default value for the --failfast parameter.
+     */
+    static int getFailFastDefault()
+    {
+        return 0;
+    }
+
+    /**
+     * Get the default value for the --sourcepath parameter.
+     * @return The default value for the --sourcepath parameter.
+     */
+    static boolean getSourcepathDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --filehashes parameter.
+     * @return The default value for the --filehashes parameter.
+     */
+    static boolean getFileHashesDefault()
+    {
+        return true;
+    }
+
+    /**
+     * Get the default value for the --abi parameter.
+     * @return The default value for the --abi parameter.
+     */
+    static boolean getAbiDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --statefile parameter.
+     * @return The default value for the --statefile parameter.
+     */
+    static boolean getStateFileDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --prettyjson parameter.
+     * @return The default value for the --prettyjson parameter.
+     */
+    static boolean getPrettyJsonDefault()
+    {
+        return true;
+    }
+
+    /**
+     * Get the default value for the --journal parameter.
+     * @return The default value for the --journal parameter.
+     */
+    static boolean getJournalDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --refindex parameter.
+     * @return The default value for the --refindex parameter.
+     */
+    static boolean getRefIndexDefault()
+    {
+        return false;
+    }
+
     /**
      * Get the default value for the --verbose parameter.
      * @return The default value for the --verbose parameter.
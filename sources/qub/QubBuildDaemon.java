@@ -0,0 +1,388 @@
+package qub;
+
+/**
+ * A long-lived qub-build process that keeps the compiler, parsed build.json files, and resolved
+ * classpaths in memory so that repeated builds don't need to pay for them again.
+ */
+public interface QubBuildDaemon
+{
+    /**
+     * The name of the file in the qub-build data folder that a running daemon writes its port and
+     * token to.
+     */
+    String daemonJsonFileName = "daemon.json";
+
+    /**
+     * The prefix of the line that the daemon writes after a compilation finishes. The rest of the
+     * line is the compilation's exit code.
+     */
+    String exitCodeLinePrefix = "\u0000exitCode:";
+
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("daemon", QubBuildDaemon::getParameters, QubBuildDaemon::run)
+            .setDescription("Run a daemon that keeps build state in memory between compilations.");
+    }
+
+    static QubBuildDaemonParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<Integer> portParameter = parameters.addInteger("port", QubBuildDaemonParameters.getPortDefault())
+            .setValueName("<port>")
+            .setDescription("The loopback port that the daemon will listen on. Defaults to " + QubBuildDaemonParameters.getPortDefault() + ".");
+        final CommandLineParameter<Integer> idleTimeoutParameter = parameters.addInteger("idletimeout", QubBuildDaemonParameters.getIdleTimeoutMinutesDefault())
+            .setValueName("<minutes>")
+            .setDescription("The number of minutes without a compilation before the daemon stops. Defaults to " + QubBuildDaemonParameters.getIdleTimeoutMinutesDefault() + ".");
+        final CommandLineParameter<Integer> maximumProjectsParameter = parameters.addInteger("maximumprojects", QubBuildDaemonParameters.getMaximumProjectsDefault())
+            .setValueName("<count>")
+            .setDescription("The maximum number of projects to keep in memory. Defaults to " + QubBuildDaemonParameters.getMaximumProjectsDefault() + ".");
+        final CommandLineParameter<Integer> maximumMemoryParameter = parameters.addInteger("maximummemory", QubBuildDaemonParameters.getMaximumMemoryMegabytesDefault())
+            .setValueName("<megabytes>")
+            .setDescription("The memory that the daemon can use before it evicts projects. Defaults to " + QubBuildDaemonParameters.getMaximumMemoryMegabytesDefault() + ".");
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterProfiler profiler = parameters.addProfiler(process, QubBuild.class);
+        final CommandLineParameterHelp help = parameters.addHelp();
+
+        QubBuildDaemonParameters result = null;
+        if (!help.showApplicationHelpLines(process).await())
+        {
+            profiler.await();
+
+            final CharacterToByteWriteStream output = process.getOutputWriteStream();
+            final Network network = process.getNetwork();
+            final FileSystem fileSystem = process.getFileSystem();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final ProcessFactory processFactory = process.getProcessFactory();
+            final QubFolder qubFolder = process.getQubFolder().await();
+            final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            result = new QubBuildDaemonParameters(output, network, fileSystem, environmentVariables, processFactory, qubFolder, projectDataFolder)
+                .setPort(portParameter.getValue().await())
+                .setIdleTimeoutMinutes(idleTimeoutParameter.getValue().await())
+                .setMaximumProjects(maximumProjectsParameter.getValue().await())
+                .setMaximumMemoryMegabytes(maximumMemoryParameter.getValue().await())
+                .setVerbose(verbose);
+        }
+
+        return result;
+    }
+
+    static int run(QubBuildDaemonParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final int port = parameters.getPort();
+        final long idleTimeoutMilliseconds = parameters.getIdleTimeoutMinutes() * 60L * 1000L;
+        final QubBuildProjectStateCache projectStateCache = QubBuildProjectStateCache.create()
+            .setMaximumProjects(parameters.getMaximumProjects())
+            .setMaximumMemoryBytes(parameters.getMaximumMemoryMegabytes() * 1024L * 1024L);
+
+        int exitCode = 0;
+        final File daemonJsonFile = QubBuildDaemon.getDaemonJsonFile(parameters.getQubBuildDataFolder()).await();
+        try
+        {
+            final IPv4Address localhost = IPv4Address.parse("127.0.0.1").await();
+            try (final TCPServer server = parameters.getNetwork().createTCPServer(localhost, port).await())
+            {
+                // Any local user can connect to the loopback port, so only clients that can read
+                // the owner-only daemon.json file know the token that the daemon accepts.
+                final String token = QubBuildDaemon.createToken();
+                QubBuildDaemon.writeDaemonJsonFile(daemonJsonFile, port, token);
+                output.writeLine("Listening for compilations on port " + port + "...").await();
+
+                final long[] lastActivityMilliseconds = new long[] { System.currentTimeMillis() };
+                final boolean[] compiling = new boolean[] { false };
+                final Thread idleWatcher = new Thread(() ->
+                {
+                    while (!server.isDisposed())
+                    {
+                        try
+                        {
+                            Thread.sleep(1000);
+                        }
+                        catch (InterruptedException ignored)
+                        {
+                        }
+
+                        synchronized (compiling)
+                        {
+                            if (!compiling[0] && System.currentTimeMillis() - lastActivityMilliseconds[0] >= idleTimeoutMilliseconds)
+                            {
+                                server.dispose().await();
+                            }
+                        }
+                    }
+                });
+                idleWatcher.setDaemon(true);
+                idleWatcher.start();
+
+                while (!server.isDisposed())
+                {
+                    final TCPClient client = server.accept()
+                        .catchError()
+                        .await();
+                    if (client != null)
+                    {
+                        synchronized (compiling)
+                        {
+                            compiling[0] = true;
+                        }
+                        try (final TCPClient clientToHandle = client)
+                        {
+                            QubBuildDaemon.handleCompilation(clientToHandle, parameters, token, projectStateCache)
+                                .catchError((Throwable error) -> verbose.writeLine("Failed to handle compilation: " + Exceptions.unwrap(error).getMessage()).await())
+                                .await();
+                        }
+                        finally
+                        {
+                            synchronized (compiling)
+                            {
+                                compiling[0] = false;
+                                lastActivityMilliseconds[0] = System.currentTimeMillis();
+                            }
+                        }
+                    }
+                }
+
+                output.writeLine("Stopping after " + parameters.getIdleTimeoutMinutes() + " idle minute" + (parameters.getIdleTimeoutMinutes() == 1 ? "" : "s") + ".").await();
+            }
+        }
+        catch (Throwable error)
+        {
+            final Throwable unwrappedError = Exceptions.unwrap(error);
+            if (Types.instanceOf(unwrappedError, Iterable.create(PreConditionFailure.class, PostConditionFailure.class, NullPointerException.class)))
+            {
+                throw error;
+            }
+            output.writeLine("ERROR: " + unwrappedError.getMessage()).await();
+            ++exitCode;
+        }
+        finally
+        {
+            daemonJsonFile.delete()
+                .catchError(FileNotFoundException.class)
+                .await();
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Get the file in the provided qub-build data folder that a running daemon writes its port
+     * and token to.
+     * @param qubBuildDataFolder The qub-build data folder.
+     * @return The daemon.json file.
+     */
+    static Result<File> getDaemonJsonFile(Folder qubBuildDataFolder)
+    {
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+
+        return qubBuildDataFolder.getFile(QubBuildDaemon.daemonJsonFileName);
+    }
+
+    /**
+     * Create a random token that clients must send with their compilation requests.
+     * @return The created token as a 64 character hexadecimal string.
+     */
+    static String createToken()
+    {
+        final byte[] tokenBytes = new byte[32];
+        new java.security.SecureRandom().nextBytes(tokenBytes);
+
+        final StringBuilder builder = new StringBuilder();
+        for (final byte tokenByte : tokenBytes)
+        {
+            final String hexByte = Integer.toHexString(tokenByte & 0xff);
+            builder.append(Strings.repeat('0', 2 - hexByte.length())).append(hexByte);
+        }
+        final String result = builder.toString();
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Write the provided port and token to the provided daemon.json file. On the real file system
+     * the file is made readable and writable by only its owner before the token is written to it.
+     * @param daemonJsonFile The daemon.json file to write.
+     * @param port The port that the daemon is listening on.
+     * @param token The token that the daemon accepts.
+     */
+    static void writeDaemonJsonFile(File daemonJsonFile, int port, String token)
+    {
+        PreCondition.assertNotNull(daemonJsonFile, "daemonJsonFile");
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        if (daemonJsonFile.getFileSystem() instanceof JavaFileSystem)
+        {
+            daemonJsonFile.setContentsAsString("").await();
+
+            final java.nio.file.Path daemonJsonFilePath = java.nio.file.Paths.get(daemonJsonFile.getPath().toString());
+            try
+            {
+                java.nio.file.Files.setPosixFilePermissions(daemonJsonFilePath, java.nio.file.attribute.PosixFilePermissions.fromString("rw-------"));
+            }
+            catch (UnsupportedOperationException e)
+            {
+                // File systems without POSIX permissions (such as on Windows) already limit
+                // the files in a user's profile folder to that user.
+            }
+            catch (java.io.IOException e)
+            {
+                throw Exceptions.asRuntime(e);
+            }
+        }
+
+        daemonJsonFile.setContentsAsString(
+            JSONObject.create()
+                .setNumber("port", port)
+                .setString("token", token)
+                .toString())
+            .await();
+    }
+
+    /**
+     * Read a compilation request from the provided client, run the compilation, and stream the
+     * compilation's output back to the client. Requests that don't have the daemon's token are
+     * rejected without being compiled.
+     * @param client The client that sent the compilation request.
+     * @param parameters The parameters that the daemon was started with.
+     * @param token The token that the daemon wrote to its daemon.json file.
+     * @param projectStateCache The project states that are kept between compilations.
+     * @return The result of handling the compilation.
+     */
+    static Result<Void> handleCompilation(TCPClient client, QubBuildDaemonParameters parameters, String token, QubBuildProjectStateCache projectStateCache)
+    {
+        PreCondition.assertNotNull(client, "client");
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+        PreCondition.assertNotNull(projectStateCache, "projectStateCache");
+
+        return Result.create(() ->
+        {
+            final CharacterReadStream requestStream = CharacterReadStream.create(client);
+            final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse(requestStream.readLine().await()).await();
+            if (!request.hasToken(token))
+            {
+                throw new NotFoundException("The compilation request didn't have the daemon's token.");
+            }
+
+            final Path folderToBuildPath = request.getFolder();
+            if (folderToBuildPath == null)
+            {
+                throw new NotFoundException("The compilation request didn't specify a folder to build.");
+            }
+            parameters.getVerbose().writeLine("Compiling " + folderToBuildPath + "...").await();
+
+            final EnvironmentVariables environmentVariables = EnvironmentVariables.create();
+            final String javaHome = request.getJavaHome();
+            if (!Strings.isNullOrEmpty(javaHome))
+            {
+                environmentVariables.set("JAVA_HOME", javaHome);
+            }
+
+            final String path = request.getPathEnvironmentVariable();
+            if (!Strings.isNullOrEmpty(path))
+            {
+                environmentVariables.set("PATH", path);
+            }
+
+            final CharacterToByteWriteStream responseStream = CharacterToByteWriteStream.create(client);
+            final Folder folderToBuild = parameters.getFileSystem().getFolder(folderToBuildPath).await();
+            final QubBuildCompileParameters compileParameters = new QubBuildCompileParameters(responseStream, folderToBuild, environmentVariables, parameters.getProcessFactory(), parameters.getQubFolder(), parameters.getQubBuildDataFolder())
+                .setWarnings(request.getWarnings())
+                .setBuildJson(request.getBuildJson())
+                .setCompilerType(request.getCompilerType())
+                .setVerbose(VerboseCharacterToByteWriteStream.create(responseStream).setIsVerbose(request.getVerbose()))
+                .setJobs(request.getJobs())
+                .setArgumentsFileThreshold(request.getArgumentsFileThreshold())
+                .setLiveIssues(request.getLiveIssues())
+                .setFailFast(request.getFailFast())
+                .setSourcepath(request.getSourcepath())
+                .setFileHashes(request.getFileHashes())
+                .setAbi(request.getAbi())
+                .setStateFile(request.getStateFile())
+                .setPrettyJson(request.getPrettyJson())
+                .setJournal(request.getJournal())
+                .setRefIndex(request.getRefIndex())
+                .setProjectStateCache(projectStateCache);
+
+            final int exitCode = QubBuildCompile.run(compileParameters);
+            responseStream.writeLine(QubBuildDaemon.exitCodeLinePrefix + exitCode).await();
+        });
+    }
+
+    /**
+     * Send the compilation that is described by the provided parameters to a running qub-build
+     * daemon and write the daemon's output to the parameters' output stream. If no daemon is
+     * running, then a NotFoundException will be returned.
+     * @param parameters The parameters of the compilation.
+     * @return The exit code of the compilation.
+     */
+    static Result<Integer> compile(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return Result.create(() ->
+        {
+            final Network network = parameters.getNetwork();
+            if (network == null)
+            {
+                throw new NotFoundException("No network was provided to connect to the qub-build daemon.");
+            }
+
+            final File daemonJsonFile = QubBuildDaemon.getDaemonJsonFile(parameters.getQubBuildDataFolder()).await();
+            final JSONObject daemonJson = JSON.parseObject(daemonJsonFile)
+                .convertError(FileNotFoundException.class, () -> new NotFoundException("No qub-build daemon is running."))
+                .await();
+            final int port = daemonJson.getNumber("port").await().intValue();
+            final String token = daemonJson.getString("token")
+                .convertError(NotFoundException.class, () -> new NotFoundException("The qub-build daemon didn't write a token."))
+                .await();
+
+            Integer result = null;
+            final IPv4Address localhost = IPv4Address.parse("127.0.0.1").await();
+            try (final TCPClient client = network.createTCPClient(localhost, port).await())
+            {
+                final CharacterWriteStream requestStream = CharacterWriteStream.create(client);
+                requestStream.writeLine(QubBuildDaemonRequest.create(parameters).setToken(token).toString(JSONFormat.consise)).await();
+
+                final CharacterWriteStream output = parameters.getOutputWriteStream();
+                final CharacterReadStream responseStream = CharacterReadStream.create(client);
+                String responseLine = responseStream.readLine()
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                while (responseLine != null)
+                {
+                    if (responseLine.startsWith(QubBuildDaemon.exitCodeLinePrefix))
+                    {
+                        result = Integers.parse(responseLine.substring(QubBuildDaemon.exitCodeLinePrefix.length())).await();
+                    }
+                    else
+                    {
+                        output.writeLine(responseLine).await();
+                    }
+
+                    responseLine = responseStream.readLine()
+                        .catchError(EndOfStreamException.class)
+                        .await();
+                }
+            }
+
+            if (result == null)
+            {
+                throw new NotFoundException("The qub-build daemon stopped before the compilation finished.");
+            }
+
+            return result;
+        });
+    }
+}
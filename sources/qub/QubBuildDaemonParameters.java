@@ -0,0 +1,252 @@
+package qub;
+
+public class QubBuildDaemonParameters
+{
+    private final CharacterToByteWriteStream outputWriteStream;
+    private final Network network;
+    private final FileSystem fileSystem;
+    private final EnvironmentVariables environmentVariables;
+    private final ProcessFactory processFactory;
+    private final QubFolder qubFolder;
+    private final Folder qubBuildDataFolder;
+    private int port;
+    private int idleTimeoutMinutes;
+    private int maximumProjects;
+    private int maximumMemoryMegabytes;
+    private VerboseCharacterToByteWriteStream verbose;
+
+    public QubBuildDaemonParameters(CharacterToByteWriteStream outputWriteStream, Network network, FileSystem fileSystem, EnvironmentVariables environmentVariables, ProcessFactory processFactory, QubFolder qubFolder, Folder qubBuildDataFolder)
+    {
+        PreCondition.assertNotNull(outputWriteStream, "outputWriteStream");
+        PreCondition.assertNotNull(network, "network");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+        PreCondition.assertNotNull(qubBuildDataFolder, "qubBuildDataFolder");
+
+        this.outputWriteStream = outputWriteStream;
+        this.network = network;
+        this.fileSystem = fileSystem;
+        this.environmentVariables = environmentVariables;
+        this.processFactory = processFactory;
+        this.qubFolder = qubFolder;
+        this.qubBuildDataFolder = qubBuildDataFolder;
+        this.port = QubBuildDaemonParameters.getPortDefault();
+        this.idleTimeoutMinutes = QubBuildDaemonParameters.getIdleTimeoutMinutesDefault();
+        this.maximumProjects = QubBuildDaemonParameters.getMaximumProjectsDefault();
+        this.maximumMemoryMegabytes = QubBuildDaemonParameters.getMaximumMemoryMegabytesDefault();
+        this.verbose = QubBuildCompileParameters.getVerboseDefault();
+    }
+
+    /**
+     * Get the CharacterWriteStream that output will be written to.
+     * @return The CharacterWriteStream that output will be written to.
+     */
+    public CharacterToByteWriteStream getOutputWriteStream()
+    {
+        return this.outputWriteStream;
+    }
+
+    /**
+     * Get the Network that the daemon will listen on.
+     * @return The Network that the daemon will listen on.
+     */
+    public Network getNetwork()
+    {
+        return this.network;
+    }
+
+    /**
+     * Get the FileSystem that the folders to build will be resolved in.
+     * @return The FileSystem that the folders to build will be resolved in.
+     */
+    public FileSystem getFileSystem()
+    {
+        return this.fileSystem;
+    }
+
+    /**
+     * Get the environment variables that this application is being run with.
+     * @return The environment variables that this application is being run with.
+     */
+    public EnvironmentVariables getEnvironmentVariables()
+    {
+        return this.environmentVariables;
+    }
+
+    /**
+     * Get the ProcessFactory that will be used to invoke other processes.
+     * @return The ProcessFactory that will be used to invoke other processes.
+     */
+    public ProcessFactory getProcessFactory()
+    {
+        return this.processFactory;
+    }
+
+    /**
+     * Get the Qub folder for this application.
+     * @return The Qub folder for this application.
+     */
+    public QubFolder getQubFolder()
+    {
+        return this.qubFolder;
+    }
+
+    /**
+     * Get the qub-build data folder for this application.
+     * @return The qub-build data folder for this application.
+     */
+    public Folder getQubBuildDataFolder()
+    {
+        return this.qubBuildDataFolder;
+    }
+
+    /**
+     * Get the loopback port that the daemon will listen on.
+     * @return The loopback port that the daemon will listen on.
+     */
+    public int getPort()
+    {
+        return this.port;
+    }
+
+    /**
+     * Set the loopback port that the daemon will listen on.
+     * @param port The loopback port that the daemon will listen on.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setPort(int port)
+    {
+        PreCondition.assertBetween(1, port, 65535, "port");
+
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Get the number of minutes without a request before the daemon shuts itself down.
+     * @return The number of minutes without a request before the daemon shuts itself down.
+     */
+    public int getIdleTimeoutMinutes()
+    {
+        return this.idleTimeoutMinutes;
+    }
+
+    /**
+     * Set the number of minutes without a request before the daemon shuts itself down.
+     * @param idleTimeoutMinutes The number of minutes without a request before the daemon shuts
+     *                           itself down.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setIdleTimeoutMinutes(int idleTimeoutMinutes)
+    {
+        PreCondition.assertGreaterThan(idleTimeoutMinutes, 0, "idleTimeoutMinutes");
+
+        this.idleTimeoutMinutes = idleTimeoutMinutes;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of projects that the daemon will keep in memory.
+     * @return The maximum number of projects that the daemon will keep in memory.
+     */
+    public int getMaximumProjects()
+    {
+        return this.maximumProjects;
+    }
+
+    /**
+     * Set the maximum number of projects that the daemon will keep in memory.
+     * @param maximumProjects The maximum number of projects that the daemon will keep in memory.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setMaximumProjects(int maximumProjects)
+    {
+        PreCondition.assertGreaterThan(maximumProjects, 0, "maximumProjects");
+
+        this.maximumProjects = maximumProjects;
+        return this;
+    }
+
+    /**
+     * Get the number of megabytes that the daemon can use before it evicts project states.
+     * @return The number of megabytes that the daemon can use before it evicts project states.
+     */
+    public int getMaximumMemoryMegabytes()
+    {
+        return this.maximumMemoryMegabytes;
+    }
+
+    /**
+     * Set the number of megabytes that the daemon can use before it evicts project states.
+     * @param maximumMemoryMegabytes The number of megabytes that the daemon can use before it
+     *                               evicts project states.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setMaximumMemoryMegabytes(int maximumMemoryMegabytes)
+    {
+        PreCondition.assertGreaterThan(maximumMemoryMegabytes, 0, "maximumMemoryMegabytes");
+
+        this.maximumMemoryMegabytes = maximumMemoryMegabytes;
+        return this;
+    }
+
+    /**
+     * Get the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return The VerboseCharacterWriteStream where verbose logs will be written to.
+     */
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    /**
+     * Set the VerboseCharacterWriteStream where verbose logs will be written to.
+     * @param verbose The VerboseCharacterWriteStream where verbose logs will be written to.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonParameters setVerbose(VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        this.verbose = verbose;
+        return this;
+    }
+
+    /**
+     * Get the default value for the --port parameter.
+     * @return The default value for the --port parameter.
+     */
+    static int getPortDefault()
+    {
+        return 41230;
+    }
+
+    /**
+     * Get the default value for the --idletimeout parameter.
+     * @return The default value for the --idletimeout parameter.
+     */
+    static int getIdleTimeoutMinutesDefault()
+    {
+        return 60;
+    }
+
+    /**
+     * Get the default value for the --maximumprojects parameter.
+     * @return The default value for the --maximumprojects parameter.
+     */
+    static int getMaximumProjectsDefault()
+    {
+        return QubBuildProjectStateCache.getMaximumProjectsDefault();
+    }
+
+    /**
+     * Get the default value for the --maximummemory parameter.
+     * @return The default value for the --maximummemory parameter.
+     */
+    static int getMaximumMemoryMegabytesDefault()
+    {
+        return (int)(QubBuildProjectStateCache.getMaximumMemoryBytesDefault() / (1024L * 1024L));
+    }
+}
@@ -0,0 +1,412 @@
+package qub;
+
+/**
+ * A request that is sent from a qub-build compile client to a running qub-build daemon.
+ */
+public class QubBuildDaemonRequest extends JSONObjectWrapperBase
+{
+    private static final String folderPropertyName = "folder";
+    private static final String warningsPropertyName = "warnings";
+    private static final String buildJsonPropertyName = "buildJson";
+    private static final String compilerPropertyName = "compiler";
+    private static final String verbosePropertyName = "verbose";
+    private static final String jobsPropertyName = "jobs";
+    private static final String argumentsFileThresholdPropertyName = "argumentsFileThreshold";
+    private static final String liveIssuesPropertyName = "liveIssues";
+    private static final String failFastPropertyName = "failFast";
+    private static final String sourcepathPropertyName = "sourcepath";
+    private static final String fileHashesPropertyName = "fileHashes";
+    private static final String abiPropertyName = "abi";
+    private static final String stateFilePropertyName = "stateFile";
+    private static final String prettyJsonPropertyName = "prettyJson";
+    private static final String journalPropertyName = "journal";
+    private static final String refIndexPropertyName = "refIndex";
+    private static final String javaHomePropertyName = "javaHome";
+    private static final String pathPropertyName = "path";
+    private static final String tokenPropertyName = "token";
+
+    private QubBuildDaemonRequest(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static QubBuildDaemonRequest create()
+    {
+        return new QubBuildDaemonRequest(JSONObject.create());
+    }
+
+    /**
+     * Create a QubBuildDaemonRequest from the provided compile parameters.
+     * @param parameters The parameters of the compilation that will be sent to the daemon.
+     * @return The created QubBuildDaemonRequest.
+     */
+    public static QubBuildDaemonRequest create(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final QubBuildDaemonRequest result = QubBuildDaemonRequest.create()
+            .setFolder(parameters.getFolderToBuild().getPath())
+            .setWarnings(parameters.getWarnings())
+            .setBuildJson(parameters.getBuildJson())
+            .setCompilerType(parameters.getCompilerType())
+            .setVerbose(parameters.getVerbose().isVerbose())
+            .setJobs(parameters.getJobs())
+            .setArgumentsFileThreshold(parameters.getArgumentsFileThreshold())
+            .setLiveIssues(parameters.getLiveIssues())
+            .setFailFast(parameters.getFailFast())
+            .setSourcepath(parameters.getSourcepath())
+            .setFileHashes(parameters.getFileHashes())
+            .setAbi(parameters.getAbi())
+            .setStateFile(parameters.getStateFile())
+            .setPrettyJson(parameters.getPrettyJson())
+            .setJournal(parameters.getJournal())
+            .setRefIndex(parameters.getRefIndex());
+
+        final String javaHome = parameters.getEnvironmentVariables().get("JAVA_HOME")
+            .catchError(NotFoundException.class)
+            .await();
+        if (!Strings.isNullOrEmpty(javaHome))
+        {
+            result.setJavaHome(javaHome);
+        }
+
+        final String path = parameters.getEnvironmentVariables().get("PATH")
+            .catchError(NotFoundException.class)
+            .await();
+        if (!Strings.isNullOrEmpty(path))
+        {
+            result.setPathEnvironmentVariable(path);
+        }
+
+        return result;
+    }
+
+    public static Result<QubBuildDaemonRequest> parse(String text)
+    {
+        PreCondition.assertNotNullAndNotEmpty(text, "text");
+
+        return Result.create(() ->
+        {
+            return QubBuildDaemonRequest.parse(JSON.parseObject(text).await()).await();
+        });
+    }
+
+    public static Result<QubBuildDaemonRequest> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create(() ->
+        {
+            return new QubBuildDaemonRequest(json);
+        });
+    }
+
+    public QubBuildDaemonRequest setFolder(Path folder)
+    {
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertTrue(folder.isRooted(), "folder.isRooted()");
+
+        this.json.setString(QubBuildDaemonRequest.folderPropertyName, folder.toString());
+        return this;
+    }
+
+    public Path getFolder()
+    {
+        final String folderString = this.json.getString(QubBuildDaemonRequest.folderPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(folderString) ? null : Path.parse(folderString);
+    }
+
+    public QubBuildDaemonRequest setWarnings(Warnings warnings)
+    {
+        PreCondition.assertNotNull(warnings, "warnings");
+
+        this.json.setString(QubBuildDaemonRequest.warningsPropertyName, warnings.toString());
+        return this;
+    }
+
+    public Warnings getWarnings()
+    {
+        final String warningsString = this.json.getString(QubBuildDaemonRequest.warningsPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(warningsString)
+            ? QubBuildCompileParameters.getWarningsDefault()
+            : Warnings.valueOf(warningsString);
+    }
+
+    public QubBuildDaemonRequest setBuildJson(boolean buildJson)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.buildJsonPropertyName, buildJson);
+        return this;
+    }
+
+    public boolean getBuildJson()
+    {
+        final Boolean buildJson = this.json.getBoolean(QubBuildDaemonRequest.buildJsonPropertyName)
+            .catchError()
+            .await();
+        return buildJson == null ? QubBuildCompileParameters.getBuildJsonDefault() : buildJson;
+    }
+
+    public QubBuildDaemonRequest setCompilerType(JavaCompilerType compilerType)
+    {
+        PreCondition.assertNotNull(compilerType, "compilerType");
+
+        this.json.setString(QubBuildDaemonRequest.compilerPropertyName, compilerType.toString());
+        return this;
+    }
+
+    public JavaCompilerType getCompilerType()
+    {
+        final String compilerString = this.json.getString(QubBuildDaemonRequest.compilerPropertyName)
+            .catchError()
+            .await();
+        return Strings.isNullOrEmpty(compilerString)
+            ? QubBuildCompileParameters.getCompilerTypeDefault()
+            : JavaCompilerType.valueOf(compilerString);
+    }
+
+    public QubBuildDaemonRequest setVerbose(boolean verbose)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.verbosePropertyName, verbose);
+        return this;
+    }
+
+    public boolean getVerbose()
+    {
+        final Boolean verbose = this.json.getBoolean(QubBuildDaemonRequest.verbosePropertyName)
+            .catchError()
+            .await();
+        return verbose != null && verbose;
+    }
+
+    public QubBuildDaemonRequest setJobs(int jobs)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(jobs, 1, "jobs");
+
+        this.json.setNumber(QubBuildDaemonRequest.jobsPropertyName, jobs);
+        return this;
+    }
+
+    public int getJobs()
+    {
+        final Double jobs = this.json.getNumber(QubBuildDaemonRequest.jobsPropertyName)
+            .catchError()
+            .await();
+        return jobs == null ? QubBuildCompileParameters.getJobsDefault() : jobs.intValue();
+    }
+
+    public QubBuildDaemonRequest setArgumentsFileThreshold(int argumentsFileThreshold)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(argumentsFileThreshold, 0, "argumentsFileThreshold");
+
+        this.json.setNumber(QubBuildDaemonRequest.argumentsFileThresholdPropertyName, argumentsFileThreshold);
+        return this;
+    }
+
+    public int getArgumentsFileThreshold()
+    {
+        final Double argumentsFileThreshold = this.json.getNumber(QubBuildDaemonRequest.argumentsFileThresholdPropertyName)
+            .catchError()
+            .await();
+        return argumentsFileThreshold == null ? QubBuildCompileParameters.getArgumentsFileThresholdDefault() : argumentsFileThreshold.intValue();
+    }
+
+    public QubBuildDaemonRequest setLiveIssues(boolean liveIssues)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.liveIssuesPropertyName, liveIssues);
+        return this;
+    }
+
+    public boolean getLiveIssues()
+    {
+        final Boolean liveIssues = this.json.getBoolean(QubBuildDaemonRequest.liveIssuesPropertyName)
+            .catchError()
+            .await();
+        return liveIssues == null ? QubBuildCompileParameters.getLiveIssuesDefault() : liveIssues;
+    }
+
+    public QubBuildDaemonRequest setFailFast(int failFast)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(failFast, 0, "failFast");
+
+        this.json.setNumber(QubBuildDaemonRequest.failFastPropertyName, failFast);
+        return this;
+    }
+
+    public int getFailFast()
+    {
+        final Double failFast = this.json.getNumber(QubBuildDaemonRequest.failFastPropertyName)
+            .catchError()
+            .await();
+        return failFast == null ? QubBuildCompileParameters.getFailFastDefault() : failFast.intValue();
+    }
+
+    public QubBuildDaemonRequest setSourcepath(boolean sourcepath)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.sourcepathPropertyName, sourcepath);
+        return this;
+    }
+
+    public boolean getSourcepath()
+    {
+        final Boolean sourcepath = this.json.getBoolean(QubBuildDaemonRequest.sourcepathPropertyName)
+            .catchError()
+            .await();
+        return sourcepath == null ? QubBuildCompileParameters.getSourcepathDefault() : sourcepath;
+    }
+
+    public QubBuildDaemonRequest setFileHashes(boolean fileHashes)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.fileHashesPropertyName, fileHashes);
+        return this;
+    }
+
+    public boolean getFileHashes()
+    {
+        final Boolean fileHashes = this.json.getBoolean(QubBuildDaemonRequest.fileHashesPropertyName)
+            .catchError()
+            .await();
+        return fileHashes == null ? QubBuildCompileParameters.getFileHashesDefault() : fileHashes;
+    }
+
+    public QubBuildDaemonRequest setAbi(boolean abi)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.abiPropertyName, abi);
+        return this;
+    }
+
+    public boolean getAbi()
+    {
+        final Boolean abi = this.json.getBoolean(QubBuildDaemonRequest.abiPropertyName)
+            .catchError()
+            .await();
+        return abi == null ? QubBuildCompileParameters.getAbiDefault() : abi;
+    }
+
+    public QubBuildDaemonRequest setStateFile(boolean stateFile)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.stateFilePropertyName, stateFile);
+        return this;
+    }
+
+    public boolean getStateFile()
+    {
+        final Boolean stateFile = this.json.getBoolean(QubBuildDaemonRequest.stateFilePropertyName)
+            .catchError()
+            .await();
+        return stateFile == null ? QubBuildCompileParameters.getStateFileDefault() : stateFile;
+    }
+
+    public QubBuildDaemonRequest setPrettyJson(boolean prettyJson)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.prettyJsonPropertyName, prettyJson);
+        return this;
+    }
+
+    public boolean getPrettyJson()
+    {
+        final Boolean prettyJson = this.json.getBoolean(QubBuildDaemonRequest.prettyJsonPropertyName)
+            .catchError()
+            .await();
+        return prettyJson == null ? QubBuildCompileParameters.getPrettyJsonDefault() : prettyJson;
+    }
+
+    public QubBuildDaemonRequest setJournal(boolean journal)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.journalPropertyName, journal);
+        return this;
+    }
+
+    public boolean getJournal()
+    {
+        final Boolean journal = this.json.getBoolean(QubBuildDaemonRequest.journalPropertyName)
+            .catchError()
+            .await();
+        return journal == null ? QubBuildCompileParameters.getJournalDefault() : journal;
+    }
+
+    public QubBuildDaemonRequest setRefIndex(boolean refIndex)
+    {
+        this.json.setBoolean(QubBuildDaemonRequest.refIndexPropertyName, refIndex);
+        return this;
+    }
+
+    public boolean getRefIndex()
+    {
+        final Boolean refIndex = this.json.getBoolean(QubBuildDaemonRequest.refIndexPropertyName)
+            .catchError()
+            .await();
+        return refIndex == null ? QubBuildCompileParameters.getRefIndexDefault() : refIndex;
+    }
+
+    public QubBuildDaemonRequest setJavaHome(String javaHome)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javaHome, "javaHome");
+
+        this.json.setString(QubBuildDaemonRequest.javaHomePropertyName, javaHome);
+        return this;
+    }
+
+    public String getJavaHome()
+    {
+        return this.json.getString(QubBuildDaemonRequest.javaHomePropertyName)
+            .catchError()
+            .await();
+    }
+
+    public QubBuildDaemonRequest setPathEnvironmentVariable(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        this.json.setString(QubBuildDaemonRequest.pathPropertyName, path);
+        return this;
+    }
+
+    public String getPathEnvironmentVariable()
+    {
+        return this.json.getString(QubBuildDaemonRequest.pathPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the token that the running daemon wrote to its daemon.json file. The daemon only
+     * accepts requests that have its token.
+     * @param token The daemon's token.
+     * @return This object for method chaining.
+     */
+    public QubBuildDaemonRequest setToken(String token)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        this.json.setString(QubBuildDaemonRequest.tokenPropertyName, token);
+        return this;
+    }
+
+    public String getToken()
+    {
+        return this.json.getString(QubBuildDaemonRequest.tokenPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get whether or not this request has the provided token. The tokens are compared in
+     * constant time so that the comparison doesn't reveal how much of the token was right.
+     * @param token The token that the daemon expects.
+     * @return Whether or not this request has the provided token.
+     */
+    public boolean hasToken(String token)
+    {
+        PreCondition.assertNotNullAndNotEmpty(token, "token");
+
+        final String requestToken = this.getToken();
+        return !Strings.isNullOrEmpty(requestToken) &&
+            java.security.MessageDigest.isEqual(
+                requestToken.getBytes(java.nio.charset.StandardCharsets.UTF_8),
+                token.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+}
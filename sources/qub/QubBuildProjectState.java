@@ -0,0 +1,150 @@
+package qub;
+
+/**
+ * The state of a project that is kept in memory between builds so that it doesn't need to be
+ * resolved or parsed again.
+ */
+public class QubBuildProjectState
+{
+    private final Path projectFolderPath;
+    private ProjectJSON projectJson;
+    private Iterable<String> classpaths;
+    private BuildJSON buildJson;
+    private DateTime buildJsonLastModified;
+    private Iterable<File> javaSourceFiles;
+    private Iterable<File> changedJavaSourceFiles;
+
+    private QubBuildProjectState(Path projectFolderPath)
+    {
+        PreCondition.assertNotNull(projectFolderPath, "projectFolderPath");
+
+        this.projectFolderPath = projectFolderPath;
+    }
+
+    /**
+     * Create a new empty QubBuildProjectState for the project at the provided folder path.
+     * @param projectFolderPath The path to the project's folder.
+     * @return The new QubBuildProjectState.
+     */
+    public static QubBuildProjectState create(Path projectFolderPath)
+    {
+        return new QubBuildProjectState(projectFolderPath);
+    }
+
+    /**
+     * Get the path to the project's folder.
+     * @return The path to the project's folder.
+     */
+    public Path getProjectFolderPath()
+    {
+        return this.projectFolderPath;
+    }
+
+    /**
+     * Get the classpaths that were resolved for the provided project.json. If the provided
+     * project.json doesn't match the project.json that the classpaths were resolved for, then
+     * null will be returned.
+     * @param projectJson The project.json that the classpaths should be resolved for.
+     * @return The resolved classpaths, or null if they haven't been resolved for the provided
+     * project.json.
+     */
+    public Iterable<String> getClasspaths(ProjectJSON projectJson)
+    {
+        PreCondition.assertNotNull(projectJson, "projectJson");
+
+        return Comparer.equal(this.projectJson, projectJson) ? this.classpaths : null;
+    }
+
+    /**
+     * Set the classpaths that were resolved for the provided project.json.
+     * @param projectJson The project.json that the classpaths were resolved for.
+     * @param classpaths The resolved classpaths.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setClasspaths(ProjectJSON projectJson, Iterable<String> classpaths)
+    {
+        PreCondition.assertNotNull(projectJson, "projectJson");
+        PreCondition.assertNotNull(classpaths, "classpaths");
+
+        this.projectJson = projectJson;
+        this.classpaths = classpaths;
+        return this;
+    }
+
+    /**
+     * Get the BuildJSON that was parsed from or written to the build.json file when it had the
+     * provided last modified time. If the provided time doesn't match, then null will be
+     * returned.
+     * @param buildJsonLastModified The current last modified time of the build.json file.
+     * @return The cached BuildJSON, or null if the cached BuildJSON is out of date.
+     */
+    public BuildJSON getBuildJson(DateTime buildJsonLastModified)
+    {
+        return buildJsonLastModified != null && buildJsonLastModified.equals(this.buildJsonLastModified)
+            ? this.buildJson
+            : null;
+    }
+
+    /**
+     * Set the BuildJSON that was parsed from or written to the build.json file.
+     * @param buildJson The BuildJSON that matches the contents of the build.json file.
+     * @param buildJsonLastModified The last modified time of the build.json file.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setBuildJson(BuildJSON buildJson, DateTime buildJsonLastModified)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNull(buildJsonLastModified, "buildJsonLastModified");
+
+        this.buildJson = buildJson;
+        this.buildJsonLastModified = buildJsonLastModified;
+        return this;
+    }
+
+    /**
+     * Get the project's Java source files as they are tracked by a file watcher.
+     * @return The project's Java source files, or null if they need to be found by searching the
+     * project folder.
+     */
+    public Iterable<File> getJavaSourceFiles()
+    {
+        return this.javaSourceFiles;
+    }
+
+    /**
+     * Set the project's Java source files as they are tracked by a file watcher. This should only
+     * be set by something that will update it whenever a Java source file is added or deleted.
+     * @param javaSourceFiles The project's Java source files, or null if they need to be found by
+     *                        searching the project folder.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setJavaSourceFiles(Iterable<File> javaSourceFiles)
+    {
+        this.javaSourceFiles = javaSourceFiles;
+        return this;
+    }
+
+    /**
+     * Get the Java source files that a file watcher saw change since the last build.
+     * @return The Java source files that changed since the last build, or null if any of the
+     * project's Java source files may have changed.
+     */
+    public Iterable<File> getChangedJavaSourceFiles()
+    {
+        return this.changedJavaSourceFiles;
+    }
+
+    /**
+     * Set the Java source files that a file watcher saw change since the last build. The Java
+     * source files that aren't in this collection won't be checked for changes.
+     * @param changedJavaSourceFiles The Java source files that changed since the last build, or
+     *                               null if any of the project's Java source files may have
+     *                               changed.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectState setChangedJavaSourceFiles(Iterable<File> changedJavaSourceFiles)
+    {
+        this.changedJavaSourceFiles = changedJavaSourceFiles;
+        return this;
+    }
+}
@@ -0,0 +1,173 @@
+package qub;
+
+/**
+ * A collection of QubBuildProjectStates that are kept in memory between builds. The least
+ * recently used project states are evicted when there are too many projects or when the JVM is
+ * using too much memory.
+ */
+public class QubBuildProjectStateCache
+{
+    private final List<QubBuildProjectState> projectStates;
+    private int maximumProjects;
+    private long maximumMemoryBytes;
+
+    private QubBuildProjectStateCache()
+    {
+        this.projectStates = List.create();
+        this.maximumProjects = QubBuildProjectStateCache.getMaximumProjectsDefault();
+        this.maximumMemoryBytes = QubBuildProjectStateCache.getMaximumMemoryBytesDefault();
+    }
+
+    /**
+     * Create a new empty QubBuildProjectStateCache.
+     * @return The new QubBuildProjectStateCache.
+     */
+    public static QubBuildProjectStateCache create()
+    {
+        return new QubBuildProjectStateCache();
+    }
+
+    /**
+     * Get the default maximum number of projects that will be kept in memory.
+     * @return The default maximum number of projects that will be kept in memory.
+     */
+    static int getMaximumProjectsDefault()
+    {
+        return 10;
+    }
+
+    /**
+     * Get the default number of bytes that the JVM can use before project states are evicted.
+     * @return The default number of bytes that the JVM can use before project states are evicted.
+     */
+    static long getMaximumMemoryBytesDefault()
+    {
+        return 1024L * 1024L * 1024L;
+    }
+
+    /**
+     * Get the maximum number of projects that will be kept in memory.
+     * @return The maximum number of projects that will be kept in memory.
+     */
+    public int getMaximumProjects()
+    {
+        return this.maximumProjects;
+    }
+
+    /**
+     * Set the maximum number of projects that will be kept in memory.
+     * @param maximumProjects The maximum number of projects that will be kept in memory.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectStateCache setMaximumProjects(int maximumProjects)
+    {
+        PreCondition.assertGreaterThan(maximumProjects, 0, "maximumProjects");
+
+        this.maximumProjects = maximumProjects;
+        this.evict();
+        return this;
+    }
+
+    /**
+     * Get the number of bytes that the JVM can use before project states are evicted.
+     * @return The number of bytes that the JVM can use before project states are evicted.
+     */
+    public long getMaximumMemoryBytes()
+    {
+        return this.maximumMemoryBytes;
+    }
+
+    /**
+     * Set the number of bytes that the JVM can use before project states are evicted.
+     * @param maximumMemoryBytes The number of bytes that the JVM can use before project states
+     *                           are evicted.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectStateCache setMaximumMemoryBytes(long maximumMemoryBytes)
+    {
+        PreCondition.assertGreaterThan(maximumMemoryBytes, 0L, "maximumMemoryBytes");
+
+        this.maximumMemoryBytes = maximumMemoryBytes;
+        return this;
+    }
+
+    /**
+     * Get the number of project states that are in this cache.
+     * @return The number of project states that are in this cache.
+     */
+    public int getCount()
+    {
+        return this.projectStates.getCount();
+    }
+
+    /**
+     * Get the state for the project at the provided folder path. If no state exists for the
+     * project yet, then a new empty state will be created. The returned state becomes the most
+     * recently used state.
+     * @param projectFolderPath The path to the project's folder.
+     * @return The state for the project at the provided folder path.
+     */
+    public QubBuildProjectState getOrCreate(Path projectFolderPath)
+    {
+        PreCondition.assertNotNull(projectFolderPath, "projectFolderPath");
+
+        QubBuildProjectState result = this.projectStates.first((QubBuildProjectState projectState) -> projectState.getProjectFolderPath().equals(projectFolderPath));
+        if (result != null)
+        {
+            this.projectStates.remove(result);
+        }
+        else
+        {
+            result = QubBuildProjectState.create(projectFolderPath);
+        }
+        this.projectStates.add(result);
+        this.evict();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Remove the state for the project at the provided folder path.
+     * @param projectFolderPath The path to the project's folder.
+     * @return Whether or not a project state was removed.
+     */
+    public boolean remove(Path projectFolderPath)
+    {
+        PreCondition.assertNotNull(projectFolderPath, "projectFolderPath");
+
+        final QubBuildProjectState projectState = this.projectStates.first((QubBuildProjectState state) -> state.getProjectFolderPath().equals(projectFolderPath));
+        return projectState != null && this.projectStates.remove(projectState);
+    }
+
+    /**
+     * Remove all of the project states from this cache.
+     * @return This object for method chaining.
+     */
+    public QubBuildProjectStateCache clear()
+    {
+        this.projectStates.clear();
+        return this;
+    }
+
+    /**
+     * Evict the least recently used project states until this cache doesn't have too many
+     * projects and the JVM is using less than the maximum memory. The most recently used project
+     * state is never evicted.
+     */
+    private void evict()
+    {
+        while (this.projectStates.getCount() > this.maximumProjects)
+        {
+            this.projectStates.removeFirst();
+        }
+
+        final Runtime runtime = Runtime.getRuntime();
+        while (this.projectStates.getCount() > 1 && runtime.totalMemory() - runtime.freeMemory() > this.maximumMemoryBytes)
+        {
+            this.projectStates.removeFirst();
+            System.gc();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package qub;
+
+/**
+ * A long-lived qub-build process that watches a project's source folders and compiles the source
+ * files that change as soon as they are saved. The project's source files, build.json, and
+ * classpaths are kept in memory between compilations, so the project folder is only searched for
+ * source files before the first compilation and whenever project.json changes.
+ */
+public interface QubBuildWatch
+{
+    /**
+     * The number of milliseconds without any new file system events that the watcher waits for
+     * before it compiles the changed source files. This lets an editor that saves a file in
+     * several steps, or a tool that changes many files at once, trigger a single compilation.
+     */
+    long debounceMilliseconds = 200;
+
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("watch", QubBuildCompile::getParameters, QubBuildWatch::run)
+            .setDescription("Compile source code files whenever they change.");
+    }
+
+    static int run(QubBuildCompileParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        // The watcher keeps the project's state in memory itself, so there is no reason to send
+        // its compilations to a daemon.
+        parameters.setDaemon(false);
+        if (parameters.getProjectStateCache() == null)
+        {
+            parameters.setProjectStateCache(QubBuildProjectStateCache.create());
+        }
+
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder folderToBuild = parameters.getFolderToBuild();
+        final QubBuildProjectStateCache projectStateCache = parameters.getProjectStateCache();
+
+        int exitCode = 0;
+        try (final java.nio.file.WatchService watchService = java.nio.file.FileSystems.getDefault().newWatchService())
+        {
+            final java.nio.file.Path projectFolderPath = java.nio.file.Paths.get(folderToBuild.toString());
+            final java.nio.file.Path projectJsonPath = projectFolderPath.resolve("project.json");
+            final java.nio.file.WatchKey projectFolderKey = QubBuildWatch.register(watchService, projectFolderPath);
+            final Map<java.nio.file.WatchKey,java.nio.file.Path> sourceFolderKeys = Map.create();
+
+            ProjectJSONJava projectJsonJava = QubBuildWatch.findJavaSourceFiles(parameters, projectStateCache.getOrCreate(folderToBuild.getPath()), watchService, sourceFolderKeys).await();
+            exitCode = QubBuildCompile.run(parameters);
+            output.writeLine("Watching for changes...").await();
+
+            while (true)
+            {
+                final List<java.nio.file.Path> changedPaths = List.create();
+                final List<java.nio.file.Path> deletedPaths = List.create();
+                boolean searchProjectFolder = false;
+                java.nio.file.WatchKey watchKey = watchService.take();
+                while (watchKey != null)
+                {
+                    final java.nio.file.Path watchedFolderPath = watchKey == projectFolderKey
+                        ? projectFolderPath
+                        : sourceFolderKeys.get(watchKey).catchError(NotFoundException.class).await();
+                    for (final java.nio.file.WatchEvent<?> event : watchKey.pollEvents())
+                    {
+                        if (event.kind() == java.nio.file.StandardWatchEventKinds.OVERFLOW || watchedFolderPath == null)
+                        {
+                            searchProjectFolder = true;
+                        }
+                        else
+                        {
+                            final java.nio.file.Path changedPath = watchedFolderPath.resolve((java.nio.file.Path)event.context());
+                            if (changedPath.equals(projectJsonPath))
+                            {
+                                searchProjectFolder = true;
+                            }
+                            else if (watchKey != projectFolderKey && event.kind() == java.nio.file.StandardWatchEventKinds.ENTRY_CREATE && java.nio.file.Files.isDirectory(changedPath))
+                            {
+                                verbose.writeLine("Watching new folder " + changedPath + "...").await();
+                                changedPaths.addAll(QubBuildWatch.registerRecursively(watchService, changedPath, sourceFolderKeys));
+                            }
+                            else if (changedPath.toString().endsWith(".java"))
+                            {
+                                changedPaths.add(changedPath);
+                            }
+                            else if (event.kind() == java.nio.file.StandardWatchEventKinds.ENTRY_DELETE)
+                            {
+                                // A deleted folder only reports its own deletion, not the deletion
+                                // of the source files that were in it.
+                                deletedPaths.add(changedPath);
+                            }
+                        }
+                    }
+                    if (!watchKey.reset())
+                    {
+                        // A watched folder that can no longer be watched has been deleted.
+                        if (watchKey == projectFolderKey)
+                        {
+                            searchProjectFolder = true;
+                        }
+                        else
+                        {
+                            sourceFolderKeys.remove(watchKey).await();
+                            if (watchedFolderPath != null)
+                            {
+                                deletedPaths.add(watchedFolderPath);
+                            }
+                        }
+                    }
+
+                    watchKey = watchService.poll(QubBuildWatch.debounceMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
+                }
+
+                // A failed compilation removes the project's state from the cache, so the state
+                // needs to be gotten again before each compilation.
+                final QubBuildProjectState projectState = projectStateCache.getOrCreate(folderToBuild.getPath());
+                if (searchProjectFolder || projectJsonJava == null || projectState.getJavaSourceFiles() == null)
+                {
+                    verbose.writeLine("Searching " + folderToBuild + " for source files...").await();
+                    projectJsonJava = QubBuildWatch.findJavaSourceFiles(parameters, projectState, watchService, sourceFolderKeys).await();
+                }
+                else if (changedPaths.any() || deletedPaths.any())
+                {
+                    final List<File> javaSourceFiles = List.create(projectState.getJavaSourceFiles()
+                        .where((File javaSourceFile) -> !QubBuildWatch.isInAny(javaSourceFile, deletedPaths)));
+                    final List<File> changedJavaSourceFiles = List.create();
+                    for (final java.nio.file.Path changedPath : changedPaths)
+                    {
+                        final File changedFile = folderToBuild.getFile(projectFolderPath.relativize(changedPath).toString().replace('\\', '/')).await();
+                        if (changedFile.exists().await() && QubBuild.isJavaSourceFile(folderToBuild, projectJsonJava, changedFile))
+                        {
+                            if (!javaSourceFiles.contains(changedFile))
+                            {
+                                javaSourceFiles.add(changedFile);
+                            }
+                            if (!changedJavaSourceFiles.contains(changedFile))
+                            {
+                                changedJavaSourceFiles.add(changedFile);
+                            }
+                        }
+                        else
+                        {
+                            javaSourceFiles.remove(changedFile);
+                        }
+                    }
+                    QubBuildCompile.writeFileList(verbose, changedJavaSourceFiles, "Changed source files").await();
+                    projectState.setJavaSourceFiles(javaSourceFiles)
+                        .setChangedJavaSourceFiles(changedJavaSourceFiles);
+                }
+                else
+                {
+                    continue;
+                }
+
+                exitCode = QubBuildCompile.run(parameters);
+                output.writeLine("Watching for changes...").await();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            output.writeLine("Stopped watching for changes.").await();
+        }
+        catch (Throwable error)
+        {
+            final Throwable unwrappedError = Exceptions.unwrap(error);
+            if (Types.instanceOf(unwrappedError, Iterable.create(PreConditionFailure.class, PostConditionFailure.class, NullPointerException.class)))
+            {
+                throw Exceptions.asRuntime(error);
+            }
+            output.writeLine("ERROR: " + unwrappedError.getMessage()).await();
+            ++exitCode;
+        }
+
+        return exitCode;
+    }
+
+    /**
+     * Search the project folder for its Java source files, remember them in the provided project
+     * state, and watch the folders that contain them. This replaces any folders that were
+     * previously being watched.
+     * @param parameters The parameters of the compilations.
+     * @param projectState The project state that the Java source files will be remembered in.
+     * @param watchService The WatchService that the source folders will be registered with.
+     * @param sourceFolderKeys The source folders that are being watched.
+     * @return The ProjectJSONJava that the Java source files were found with, or null if the
+     * project doesn't have one. A null result will be reported by the next compilation.
+     */
+    static Result<ProjectJSONJava> findJavaSourceFiles(QubBuildCompileParameters parameters, QubBuildProjectState projectState, java.nio.file.WatchService watchService, Map<java.nio.file.WatchKey,java.nio.file.Path> sourceFolderKeys)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(projectState, "projectState");
+        PreCondition.assertNotNull(watchService, "watchService");
+        PreCondition.assertNotNull(sourceFolderKeys, "sourceFolderKeys");
+
+        return Result.create(() ->
+        {
+            for (final java.nio.file.WatchKey sourceFolderKey : sourceFolderKeys.getKeys().toList())
+            {
+                sourceFolderKey.cancel();
+                sourceFolderKeys.remove(sourceFolderKey).await();
+            }
+            projectState.setJavaSourceFiles(null)
+                .setChangedJavaSourceFiles(null);
+
+            final Folder folderToBuild = parameters.getFolderToBuild();
+            final ProjectJSON projectJson = ProjectJSON.parse(folderToBuild.getFile("project.json").await())
+                .catchError()
+                .await();
+            final ProjectJSONJava result = projectJson == null ? null : projectJson.getJava();
+            if (result != null)
+            {
+                final Iterable<File> javaSourceFiles = QubBuild.iterateJavaSourceFiles(folderToBuild, result).toList();
+                projectState.setJavaSourceFiles(javaSourceFiles);
+
+                final java.nio.file.Path projectFolderPath = java.nio.file.Paths.get(folderToBuild.toString());
+                try
+                {
+                    for (final String sourceFolderPath : QubBuild.getSourceFolderPaths(javaSourceFiles, folderToBuild))
+                    {
+                        QubBuildWatch.registerRecursively(watchService, projectFolderPath.resolve(sourceFolderPath), sourceFolderKeys);
+                    }
+                }
+                catch (java.io.IOException e)
+                {
+                    throw Exceptions.asRuntime(e);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get whether or not the provided file is one of the provided paths or is in one of the
+     * folders at the provided paths.
+     */
+    static boolean isInAny(File file, Iterable<java.nio.file.Path> paths)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(paths, "paths");
+
+        final java.nio.file.Path filePath = java.nio.file.Paths.get(file.toString());
+        return paths.contains((java.nio.file.Path path) -> filePath.startsWith(path));
+    }
+
+    /**
+     * Watch the provided folder for created, deleted, and modified entries.
+     */
+    static java.nio.file.WatchKey register(java.nio.file.WatchService watchService, java.nio.file.Path folderPath) throws java.io.IOException
+    {
+        return folderPath.register(watchService,
+            java.nio.file.StandardWatchEventKinds.ENTRY_CREATE,
+            java.nio.file.StandardWatchEventKinds.ENTRY_DELETE,
+            java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Watch the provided folder and all of its subfolders. Most WatchService implementations
+     * (such as inotify) don't watch subfolders, so each folder needs to be registered.
+     * @return The files that were found in the registered folders.
+     */
+    static Iterable<java.nio.file.Path> registerRecursively(java.nio.file.WatchService watchService, java.nio.file.Path folderPath, Map<java.nio.file.WatchKey,java.nio.file.Path> sourceFolderKeys) throws java.io.IOException
+    {
+        final List<java.nio.file.Path> result = List.create();
+        java.nio.file.Files.walkFileTree(folderPath, new java.nio.file.SimpleFileVisitor<java.nio.file.Path>()
+        {
+            @Override
+            public java.nio.file.FileVisitResult preVisitDirectory(java.nio.file.Path folder, java.nio.file.attribute.BasicFileAttributes attributes) throws java.io.IOException
+            {
+                sourceFolderKeys.set(QubBuildWatch.register(watchService, folder), folder);
+                return java.nio.file.FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public java.nio.file.FileVisitResult visitFile(java.nio.file.Path file, java.nio.file.attribute.BasicFileAttributes attributes)
+            {
+                result.add(file);
+                return java.nio.file.FileVisitResult.CONTINUE;
+            }
+        });
+        return result;
+    }
+}
@@ -63,6 +63,250 @@ public interface BuildJSONSourceFileTests
                 });
             });
 
+            runner.testGroup("setSizeAndContentHash(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setSizeAndContentHash(null),
+                        new PreConditionFailure("sourceFileContents cannot be null."));
+                    test.assertNull(sourceFile.getSize());
+                    test.assertNull(sourceFile.getContentHash());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setSizeAndContentHashResult = sourceFile.setSizeAndContentHash(new byte[] { 97 });
+                    test.assertSame(sourceFile, setSizeAndContentHashResult);
+                    test.assertEqual(1L, sourceFile.getSize());
+                    test.assertEqual("af63dc4c8601ec8c", sourceFile.getContentHash());
+                });
+            });
+
+            runner.testGroup("hasSameContents(byte[])", () ->
+            {
+                runner.test("with no recorded size or content hash", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertFalse(sourceFile.hasSameContents(new byte[] { 97 }));
+                });
+
+                runner.test("with same contents", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a")
+                        .setSizeAndContentHash(new byte[] { 97 });
+                    test.assertTrue(sourceFile.hasSameContents(new byte[] { 97 }));
+                });
+
+                runner.test("with different size", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a")
+                        .setSizeAndContentHash(new byte[] { 97 });
+                    test.assertFalse(sourceFile.hasSameContents(new byte[] { 97, 98 }));
+                });
+
+                runner.test("with same size and different contents", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a")
+                        .setSizeAndContentHash(new byte[] { 97 });
+                    test.assertFalse(sourceFile.hasSameContents(new byte[] { 98 }));
+                });
+            });
+
+            runner.testGroup("setApiFingerprint(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setApiFingerprint(null),
+                        new PreConditionFailure("apiFingerprint cannot be null."));
+                    test.assertNull(sourceFile.getApiFingerprint());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setApiFingerprint(""),
+                        new PreConditionFailure("apiFingerprint cannot be empty."));
+                    test.assertNull(sourceFile.getApiFingerprint());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setApiFingerprintResult = sourceFile.setApiFingerprint("0123456789abcdef");
+                    test.assertSame(sourceFile, setApiFingerprintResult);
+                    test.assertEqual("0123456789abcdef", sourceFile.getApiFingerprint());
+                    test.assertEqual("\"a\":{\"apiFingerprint\":\"0123456789abcdef\"}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setPackageName(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setPackageName(null),
+                        new PreConditionFailure("packageName cannot be null."));
+                    test.assertNull(sourceFile.getPackageName());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setPackageName(""),
+                        new PreConditionFailure("packageName cannot be empty."));
+                    test.assertNull(sourceFile.getPackageName());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setPackageNameResult = sourceFile.setPackageName("qub");
+                    test.assertSame(sourceFile, setPackageNameResult);
+                    test.assertEqual("qub", sourceFile.getPackageName());
+                    test.assertEqual("\"a\":{\"package\":\"qub\"}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setTypes(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setTypes(null),
+                        new PreConditionFailure("types cannot be null."));
+                    test.assertNull(sourceFile.getTypes());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setTypesResult = sourceFile.setTypes(Iterable.create("B", "C"));
+                    test.assertSame(sourceFile, setTypesResult);
+                    test.assertEqual(Iterable.create("B", "C"), sourceFile.getTypes());
+                    test.assertEqual("\"a\":{\"types\":[\"B\",\"C\"]}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setImports(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setImports(null),
+                        new PreConditionFailure("imports cannot be null."));
+                    test.assertNull(sourceFile.getImports());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setImportsResult = sourceFile.setImports(Iterable.create());
+                    test.assertSame(sourceFile, setImportsResult);
+                    test.assertEqual(Iterable.create(), sourceFile.getImports());
+                    test.assertEqual("\"a\":{\"imports\":[]}", sourceFile.toString());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setImportsResult = sourceFile.setImports(Iterable.create("a.b.C", "a.d.*"));
+                    test.assertSame(sourceFile, setImportsResult);
+                    test.assertEqual(Iterable.create("a.b.C", "a.d.*"), sourceFile.getImports());
+                    test.assertEqual("\"a\":{\"imports\":[\"a.b.C\",\"a.d.*\"]}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setReferences(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setReferences(null),
+                        new PreConditionFailure("references cannot be null."));
+                    test.assertNull(sourceFile.getReferences());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setReferencesResult = sourceFile.setReferences(Iterable.create());
+                    test.assertSame(sourceFile, setReferencesResult);
+                    test.assertEqual(Iterable.create(), sourceFile.getReferences());
+                    test.assertEqual("\"a\":{\"references\":[]}", sourceFile.toString());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setReferencesResult = sourceFile.setReferences(Iterable.create("C", "d"));
+                    test.assertSame(sourceFile, setReferencesResult);
+                    test.assertEqual(Iterable.create("C", "d"), sourceFile.getReferences());
+                    test.assertEqual("\"a\":{\"references\":[\"C\",\"d\"]}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setExternalClasses(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setExternalClasses(null),
+                        new PreConditionFailure("externalClasses cannot be null."));
+                    test.assertNull(sourceFile.getExternalClasses());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setExternalClassesResult = sourceFile.setExternalClasses(Iterable.create("org.example.B"));
+                    test.assertSame(sourceFile, setExternalClassesResult);
+                    test.assertEqual(Iterable.create("org.example.B"), sourceFile.getExternalClasses());
+                    test.assertEqual("\"a\":{\"externalClasses\":[\"org.example.B\"]}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("setClassFiles(Iterable<Path>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    test.assertThrows(() -> sourceFile.setClassFiles(null),
+                        new PreConditionFailure("classFiles cannot be null."));
+                    test.assertNull(sourceFile.getClassFiles());
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("a");
+                    final BuildJSONSourceFile setClassFilesResult = sourceFile.setClassFiles(Iterable.create(Path.parse("A.class"), Path.parse("A$1.class")));
+                    test.assertSame(sourceFile, setClassFilesResult);
+                    test.assertEqual(Iterable.create(Path.parse("A.class"), Path.parse("A$1.class")), sourceFile.getClassFiles());
+                    test.assertEqual("\"a\":{\"classFiles\":[\"A.class\",\"A$1.class\"]}", sourceFile.toString());
+                });
+            });
+
+            runner.testGroup("getContentHash(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildJSONSourceFile.getContentHash(null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertEqual("cbf29ce484222325", BuildJSONSourceFile.getContentHash(new byte[0]));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    test.assertEqual("af63dc4c8601ec8c", BuildJSONSourceFile.getContentHash(new byte[] { 97 }));
+                });
+            });
+
             runner.testGroup("addIssue(JavaCompilerIssue)", () ->
             {
                 runner.test("with null", (Test test) ->
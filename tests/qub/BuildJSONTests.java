@@ -180,6 +180,34 @@ public interface BuildJSONTests
                             .setLastModified(DateTime.epoch.plus(Duration.milliseconds(10))),
                         buildJson.getSourceFile(Path.parse("sources/A.java")).await());
                 });
+
+                runner.test("with the source file object that was set", (Test test) ->
+                {
+                    final BuildJSONSourceFile aSourceFile = BuildJSONSourceFile.create(Path.parse("sources/A.java"));
+                    final BuildJSON buildJson = BuildJSON.create();
+                    buildJson.setSourceFiles(Iterable.create(aSourceFile));
+                    test.assertSame(aSourceFile, buildJson.getSourceFile(Path.parse("sources/A.java")).await());
+
+                    buildJson.getSourceFile(Path.parse("sources/A.java")).await()
+                        .addIssue(JavaCompilerIssue.error("sources/A.java", 1, 2, "Oops"));
+                    test.assertEqual(Iterable.create(JavaCompilerIssue.error("sources/A.java", 1, 2, "Oops")), aSourceFile.getIssues());
+                });
+
+                runner.test("with parsed sourceFiles", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.parse(JSONObject.create()
+                        .setObject("sourceFiles", JSONObject.create()
+                            .setObject("sources/A.java", JSONObject.create()
+                                .setString("lastModified", "1970-01-01T00:00Z"))
+                            .setObject("sources/B.java", JSONObject.create()
+                                .setArray("dependencies", JSONArray.create(Iterable.create(JSONString.get("sources/A.java")))))))
+                        .await();
+                    final BuildJSONSourceFile bSourceFile = buildJson.getSourceFile(Path.parse("sources/B.java")).await();
+                    test.assertEqual(Path.parse("sources/B.java"), bSourceFile.getRelativePath());
+                    test.assertEqual(Iterable.create(Path.parse("sources/A.java")), bSourceFile.getDependencies());
+                    test.assertSame(bSourceFile, buildJson.getSourceFile(Path.parse("sources/B.java")).await());
+                    test.assertEqual(DateTime.epoch, buildJson.getSourceFile(Path.parse("sources/A.java")).await().getLastModified());
+                });
             });
 
             runner.testGroup("toJson()", () ->
@@ -242,6 +270,78 @@ public interface BuildJSONTests
                             .setObject("hello.java", JSONObject.create()
                                 .setString("lastModified", "1970-01-01T00:00Z"))));
             });
+
+            runner.testGroup("write(CharacterWriteStream,JSONFormat)", () ->
+            {
+                runner.test("with null writeStream", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    test.assertThrows(() -> buildJson.write(null, JSONFormat.pretty),
+                        new PreConditionFailure("writeStream cannot be null."));
+                });
+
+                runner.test("with null format", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create();
+                    final InMemoryCharacterToByteStream writeStream = InMemoryCharacterToByteStream.create();
+                    test.assertThrows(() -> buildJson.write(writeStream, null),
+                        new PreConditionFailure("format cannot be null."));
+                });
+
+                final Action2<BuildJSON,JSONFormat> writeTest = (BuildJSON buildJson, JSONFormat format) ->
+                {
+                    runner.test("with " + buildJson.toString() + " and " + (format == JSONFormat.pretty ? "pretty" : "consise") + " format", (Test test) ->
+                    {
+                        final InMemoryCharacterToByteStream writeStream = InMemoryCharacterToByteStream.create();
+                        buildJson.write(writeStream, format).await();
+                        test.assertEqual(buildJson.toString(format), writeStream.getText().await());
+                    });
+                };
+
+                final BuildJSON emptyBuildJson = BuildJSON.create();
+                final BuildJSON fullBuildJson = BuildJSON.create()
+                    .setProjectJson(ProjectJSON.create()
+                        .setProject("hello")
+                        .setJava(ProjectJSONJava.create()))
+                    .setJavacVersion("14.0.1")
+                    .setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java")
+                            .setLastModified(DateTime.epoch)
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setLastModified(DateTime.epoch)
+                            .addIssue(JavaCompilerIssue.warning("sources/B.java", 1, 2, "Careful"))));
+                writeTest.run(emptyBuildJson, JSONFormat.consise);
+                writeTest.run(emptyBuildJson, JSONFormat.pretty);
+                writeTest.run(BuildJSON.create().setSourceFiles(Iterable.create()), JSONFormat.pretty);
+                writeTest.run(fullBuildJson, JSONFormat.consise);
+                writeTest.run(fullBuildJson, JSONFormat.pretty);
+
+                final BuildJSON manySourceFilesBuildJson = BuildJSON.create()
+                    .setJavacVersion("14.0.1")
+                    .setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create("sources/a/A.java")
+                            .setLastModified(DateTime.epoch)
+                            .setSizeAndContentHash(new byte[] { 1, 2, 3 })
+                            .setPackageName("a")
+                            .setTypes(Iterable.create("A", "AHelper"))
+                            .setClassFiles(Iterable.create(Path.parse("a/A.class"), Path.parse("a/A$1.class"), Path.parse("a/AHelper.class")))
+                            .setDependencies(Iterable.create(Path.parse("sources/b/B.java"), Path.parse("sources/C.java"))),
+                        BuildJSONSourceFile.create("sources/b/B.java")
+                            .setLastModified(DateTime.epoch)
+                            .setPackageName("b")
+                            .setApiFingerprint("abc123")
+                            .setExternalClasses(Iterable.create("qub.Iterable"))
+                            .addIssue(JavaCompilerIssue.warning("sources/b/B.java", 1, 2, "Careful"))
+                            .addIssue(JavaCompilerIssue.error("sources/b/B.java", 3, 4, "Broken")),
+                        BuildJSONSourceFile.create("sources/C.java")
+                            .setLastModified(DateTime.epoch)
+                            .setImports(Iterable.create("b.B"))
+                            .setReferences(Iterable.create("B", "C")),
+                        BuildJSONSourceFile.create("sources/D.java")));
+                writeTest.run(manySourceFilesBuildJson, JSONFormat.consise);
+                writeTest.run(manySourceFilesBuildJson, JSONFormat.pretty);
+            });
         });
     }
 }
@@ -0,0 +1,119 @@
+package qub;
+
+public interface BuildStateFileTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(BuildStateFile.class, () ->
+        {
+            runner.testGroup("write(File,BuildJSON)", () ->
+            {
+                runner.test("with null file", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildStateFile.write(null, BuildJSON.create()),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with null buildJson", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/outputs/build.state").await();
+                    test.assertThrows(() -> BuildStateFile.write(file, null),
+                        new PreConditionFailure("buildJson cannot be null."));
+                    test.assertFalse(file.exists().await());
+                });
+            });
+
+            runner.testGroup("read(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildStateFile.read(null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/outputs/build.state").await();
+                    test.assertThrows(() -> BuildStateFile.read(file).await(),
+                        new FileNotFoundException(file));
+                });
+
+                runner.test("with file that isn't a build state file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/outputs/build.state").await();
+                    file.setContentsAsString("{}").await();
+                    test.assertThrows(() -> BuildStateFile.read(file).await(),
+                        new ParseException("Expected the build state file to start with its magic number."));
+                });
+
+                final Action2<String,BuildJSON> roundTripTest = (String testName, BuildJSON buildJson) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                        fileSystem.createRoot("/").await();
+                        final File file = fileSystem.getFile("/outputs/build.state").await();
+                        BuildStateFile.write(file, buildJson).await();
+
+                        final BuildStateFile buildStateFile = BuildStateFile.read(file).await();
+                        test.assertEqual(buildJson.getJavacVersion(), buildStateFile.getJavacVersion());
+                        test.assertEqual(buildJson.getProjectJson(), buildStateFile.getProjectJson());
+                        test.assertEqual(buildJson.getSourceFiles().getCount(), buildStateFile.getSourceFileCount());
+                        for (final BuildJSONSourceFile sourceFile : buildJson.getSourceFiles())
+                        {
+                            test.assertEqual(sourceFile, buildStateFile.getSourceFile(sourceFile.getRelativePath()).await());
+                        }
+                        test.assertEqual(buildJson.toString(), buildStateFile.toBuildJson().toString());
+                    });
+                };
+
+                roundTripTest.run("with empty BuildJSON", BuildJSON.create());
+                roundTripTest.run("with javac version and project.json",
+                    BuildJSON.create()
+                        .setJavacVersion("1.2.3")
+                        .setProjectJson(ProjectJSON.create()
+                            .setJava(ProjectJSONJava.create())));
+                roundTripTest.run("with source files",
+                    BuildJSON.create()
+                        .setJavacVersion("1.2.3")
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))
+                                .setSizeAndContentHash(new byte[] { 97 })
+                                .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setLastModified(DateTime.epoch.plus(Duration.milliseconds(6)))
+                                .setPackageName("b")
+                                .setTypes(Iterable.create("B", "C"))
+                                .setDependencies(Iterable.create())
+                                .addIssue(JavaCompilerIssue.warning("sources/B.java", 1, 2, "Careful")),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setContentHash("not a hash")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java"), Path.parse("sources/D.java"))))));
+            });
+
+            runner.testGroup("getSourceFile(Path)", () ->
+            {
+                runner.test("with path that isn't in the file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/outputs/build.state").await();
+                    BuildStateFile.write(file, BuildJSON.create()
+                        .setSourceFiles(Iterable.create(BuildJSONSourceFile.create("sources/A.java"))))
+                        .await();
+
+                    final BuildStateFile buildStateFile = BuildStateFile.read(file).await();
+                    test.assertThrows(() -> buildStateFile.getSourceFile(Path.parse("sources/B.java")).await(),
+                        new NotFoundException("No source file found in the build state file with the path \"sources/B.java\"."));
+                });
+            });
+        });
+    }
+}
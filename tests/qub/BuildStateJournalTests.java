@@ -0,0 +1,174 @@
+package qub;
+
+public interface BuildStateJournalTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(BuildStateJournal.class, () ->
+        {
+            runner.testGroup("createRecord(java.util.HashMap<String,String>,BuildJSON)", () ->
+            {
+                runner.test("with null previousSourceFileTexts", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildStateJournal.createRecord(null, BuildJSON.create()),
+                        new PreConditionFailure("previousSourceFileTexts cannot be null."));
+                });
+
+                runner.test("with null buildJson", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildStateJournal.createRecord(new java.util.HashMap<>(), null),
+                        new PreConditionFailure("buildJson cannot be null."));
+                });
+
+                runner.test("with no changes", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch)));
+                    final java.util.HashMap<String,String> previousSourceFileTexts = BuildStateJournal.getSourceFileTexts(buildJson);
+                    test.assertEqual(
+                        JSONObject.create(),
+                        BuildStateJournal.createRecord(previousSourceFileTexts, buildJson));
+                });
+
+                runner.test("with changed, new, and removed source files", (Test test) ->
+                {
+                    final BuildJSONSourceFile aSourceFile = BuildJSONSourceFile.create("sources/A.java")
+                        .setLastModified(DateTime.epoch);
+                    final BuildJSONSourceFile bSourceFile = BuildJSONSourceFile.create("sources/B.java")
+                        .setLastModified(DateTime.epoch);
+                    final BuildJSONSourceFile cSourceFile = BuildJSONSourceFile.create("sources/C.java")
+                        .setLastModified(DateTime.epoch);
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(aSourceFile, bSourceFile, cSourceFile));
+                    final java.util.HashMap<String,String> previousSourceFileTexts = BuildStateJournal.getSourceFileTexts(buildJson);
+
+                    bSourceFile.setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)));
+                    final BuildJSONSourceFile dSourceFile = BuildJSONSourceFile.create("sources/D.java")
+                        .setLastModified(DateTime.epoch);
+                    buildJson.setJavacVersion("14.0.1")
+                        .setSourceFiles(Iterable.create(aSourceFile, bSourceFile, dSourceFile));
+
+                    test.assertEqual(
+                        JSONObject.create()
+                            .setString("javacVersion", "14.0.1")
+                            .setObject("sourceFiles", JSONObject.create()
+                                .set(bSourceFile.toJsonProperty())
+                                .set(dSourceFile.toJsonProperty()))
+                            .set("removedSourceFiles", JSONArray.create(Iterable.create(JSONString.get("sources/C.java")))),
+                        BuildStateJournal.createRecord(previousSourceFileTexts, buildJson));
+                });
+            });
+
+            runner.testGroup("replay(File,BuildJSON)", () ->
+            {
+                runner.test("with journal file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch)));
+                    final String buildJsonText = buildJson.toString();
+
+                    test.assertEqual(0, BuildStateJournal.replay(journalFile, buildJson).await());
+                    test.assertEqual(buildJsonText, buildJson.toString());
+                });
+
+                runner.test("with appended records", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+
+                    final BuildJSON snapshot = BuildJSON.create()
+                        .setJavacVersion("14.0.1")
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setLastModified(DateTime.epoch)));
+
+                    final BuildJSON firstBuild = BuildJSON.create()
+                        .setJavacVersion("14.0.1")
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5))),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setLastModified(DateTime.epoch)));
+                    BuildStateJournal.append(journalFile, BuildStateJournal.createRecord(BuildStateJournal.getSourceFileTexts(snapshot), firstBuild)).await();
+
+                    final BuildJSON secondBuild = BuildJSON.create()
+                        .setJavacVersion("14.0.2")
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5))),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setLastModified(DateTime.epoch)));
+                    BuildStateJournal.append(journalFile, BuildStateJournal.createRecord(BuildStateJournal.getSourceFileTexts(firstBuild), secondBuild)).await();
+
+                    test.assertEqual(2, BuildStateJournal.replay(journalFile, snapshot).await());
+                    test.assertEqual(secondBuild.getJavacVersion(), snapshot.getJavacVersion());
+                    test.assertEqual(secondBuild.getSourceFiles(), snapshot.getSourceFiles());
+                });
+
+                runner.test("with partially written last record", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+
+                    final BuildJSON snapshot = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch)));
+                    final BuildJSON build = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(DateTime.epoch.plus(Duration.milliseconds(5)))));
+                    BuildStateJournal.append(journalFile, BuildStateJournal.createRecord(BuildStateJournal.getSourceFileTexts(snapshot), build)).await();
+                    journalFile.setContentsAsString(journalFile.getContentsAsString().await() + "{\"sourceFiles\":{\"sources/A.java\":{").await();
+
+                    test.assertEqual(1, BuildStateJournal.replay(journalFile, snapshot).await());
+                    test.assertEqual(build.getSourceFiles(), snapshot.getSourceFiles());
+                });
+            });
+
+            runner.testGroup("shouldCompact(File,File,JSONObject)", () ->
+            {
+                runner.test("with snapshot file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+                    final File snapshotFile = fileSystem.getFile("/outputs/build.json").await();
+                    test.assertTrue(BuildStateJournal.shouldCompact(journalFile, snapshotFile, JSONObject.create()));
+                });
+
+                runner.test("with small journal", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+                    final File snapshotFile = fileSystem.getFile("/outputs/build.json").await();
+                    snapshotFile.setContentsAsString(Strings.repeat('a', 100)).await();
+                    test.assertFalse(BuildStateJournal.shouldCompact(journalFile, snapshotFile, JSONObject.create()));
+                });
+
+                runner.test("with journal larger than the compaction ratio", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File journalFile = fileSystem.getFile("/outputs/build.journal").await();
+                    final File snapshotFile = fileSystem.getFile("/outputs/build.json").await();
+                    snapshotFile.setContentsAsString(Strings.repeat('a', 100)).await();
+                    journalFile.setContentsAsString(Strings.repeat('a', 50)).await();
+                    test.assertTrue(BuildStateJournal.shouldCompact(journalFile, snapshotFile, JSONObject.create()));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package qub;
+
+public interface FileSnapshotTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(FileSnapshot.class, () ->
+        {
+            runner.testGroup("create(Iterable<File>,Folder)", () ->
+            {
+                runner.test("with null sourceFiles", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder outputsFolder = fileSystem.getFolder("/project/outputs/").await();
+                    test.assertThrows(() -> FileSnapshot.create(null, outputsFolder),
+                        new PreConditionFailure("sourceFiles cannot be null."));
+                });
+
+                runner.test("with null outputsFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> FileSnapshot.create(Iterable.create(), null),
+                        new PreConditionFailure("outputsFolder cannot be null."));
+                });
+
+                runner.test("with non-existing outputs folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/").await();
+                    final Folder outputsFolder = projectFolder.getFolder("outputs").await();
+                    final FileSnapshot snapshot = FileSnapshot.create(Iterable.create(), outputsFolder).await();
+                    test.assertFalse(snapshot.outputsFolderExists());
+                    test.assertFalse(snapshot.outputFileExists(outputsFolder.getFile("A.class").await()));
+                    test.assertEqual(Iterable.create(), snapshot.getOutputFolderFiles(outputsFolder));
+                    test.assertEqual(Iterable.create(), snapshot.getExistingClassFiles(projectFolder.getFile("sources/A.java").await(), projectFolder));
+                });
+
+                runner.test("with existing class files", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/").await();
+                    final Folder outputsFolder = projectFolder.getFolder("outputs").await();
+                    final File aClassFile = outputsFolder.createFile("A.class").await();
+                    final File aInnerClassFile = outputsFolder.createFile("A$Inner.class").await();
+                    final File abClassFile = outputsFolder.createFile("AB.class").await();
+                    final File cClassFile = outputsFolder.createFile("qub/C.class").await();
+                    final FileSnapshot snapshot = FileSnapshot.create(Iterable.create(), outputsFolder).await();
+
+                    // Files created after the snapshot was captured aren't part of the snapshot.
+                    final File dClassFile = outputsFolder.createFile("D.class").await();
+
+                    test.assertTrue(snapshot.outputsFolderExists());
+                    test.assertTrue(snapshot.outputFileExists(aClassFile));
+                    test.assertTrue(snapshot.outputFileExists(cClassFile));
+                    test.assertFalse(snapshot.outputFileExists(dClassFile));
+                    test.assertEqual(Iterable.create(cClassFile), snapshot.getOutputFolderFiles(outputsFolder.getFolder("qub").await()));
+                    test.assertEqual(
+                        Iterable.create(aInnerClassFile, aClassFile),
+                        snapshot.getExistingClassFiles(projectFolder.getFile("sources/A.java").await(), projectFolder));
+                    test.assertEqual(
+                        Iterable.create(abClassFile),
+                        snapshot.getExistingClassFiles(projectFolder.getFile("sources/AB.java").await(), projectFolder));
+                    test.assertEqual(
+                        Iterable.create(cClassFile),
+                        snapshot.getExistingClassFiles(projectFolder.getFile("tests/qub/C.java").await(), projectFolder));
+                    test.assertEqual(
+                        Iterable.create(),
+                        snapshot.getExistingClassFiles(projectFolder.getFile("sources/D.java").await(), projectFolder));
+                });
+            });
+        });
+    }
+}
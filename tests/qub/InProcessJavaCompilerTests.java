@@ -0,0 +1,202 @@
+package qub;
+
+public interface InProcessJavaCompilerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(InProcessJavaCompiler.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> InProcessJavaCompiler.create((Folder)null),
+                        new PreConditionFailure("workingFolder cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder workingFolder = fileSystem.getFolder("/working/folder/").await();
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(workingFolder);
+                    test.assertNotNull(compiler);
+                    test.assertEqual(workingFolder.getPath(), compiler.getWorkingFolderPath());
+                    test.assertEqual(Iterable.create(), compiler.getArguments());
+                });
+            });
+
+            runner.testGroup("addOutputFolder(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(Path.parse("/working/folder/"));
+                    test.assertThrows(() -> compiler.addOutputFolder((Folder)null),
+                        new PreConditionFailure("outputFolder cannot be null."));
+                    test.assertEqual(Iterable.create(), compiler.getArguments());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder workingFolder = fileSystem.getFolder("/working/folder/").await();
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(workingFolder);
+                    final Folder outputsFolder = workingFolder.getFolder("outputs").await();
+                    test.assertSame(compiler, compiler.addOutputFolder(outputsFolder));
+                    test.assertEqual(Iterable.create("-d", "/working/folder/outputs"), compiler.getArguments());
+                });
+            });
+
+            runner.testGroup("addSourceFile(Path)", () ->
+            {
+                runner.test("with relative path", (Test test) ->
+                {
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(Path.parse("/working/folder/"));
+                    test.assertSame(compiler, compiler.addSourceFile(Path.parse("sources/A.java")));
+                    test.assertEqual(Iterable.create("/working/folder/sources/A.java"), compiler.getArguments());
+                });
+
+                runner.test("with rooted path", (Test test) ->
+                {
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(Path.parse("/working/folder/"));
+                    test.assertSame(compiler, compiler.addSourceFile(Path.parse("/other/sources/A.java")));
+                    test.assertEqual(Iterable.create("/other/sources/A.java"), compiler.getArguments());
+                });
+            });
+
+            runner.testGroup("compile()", () ->
+            {
+                runner.test("with null warnings", (Test test) ->
+                {
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(Path.parse("/working/folder/"));
+                    final InMemoryCharacterToByteStream verbose = InMemoryCharacterToByteStream.create();
+                    test.assertThrows(() -> compiler.compile(null, verbose).await(),
+                        new PreConditionFailure("warnings cannot be null."));
+                    test.assertEqual("", verbose.getText().await());
+                });
+
+                runner.test("with null verbose", (Test test) ->
+                {
+                    final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(Path.parse("/working/folder/"));
+                    test.assertThrows(() -> compiler.compile(Warnings.Show, null).await(),
+                        new PreConditionFailure("verbose cannot be null."));
+                });
+
+                runner.test("with no errors", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder currentFolder = process.getCurrentFolder();
+                        final Folder rootFolder = currentFolder.createFolder("temp").await();
+                        try
+                        {
+                            final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(rootFolder);
+                            final Folder outputsFolder = rootFolder.getFolder("outputs").await();
+                            compiler.addOutputFolder(outputsFolder);
+
+                            final File cJavaFile = rootFolder.getFile("sources/C.java").await();
+                            cJavaFile.setContentsAsString(Strings.join('\n', Iterable.create(
+                                "public class C",
+                                "{",
+                                "  private int value;",
+                                "  public int getValue()",
+                                "  {",
+                                "    return value;",
+                                "  }",
+                                "}")))
+                                .await();
+                            compiler.addSourceFile(cJavaFile.relativeTo(rootFolder));
+
+                            final InMemoryCharacterToByteStream verbose = InMemoryCharacterToByteStream.create();
+                            final JavaCompilationResult result = compiler.compile(Warnings.Show, verbose).await();
+                            test.assertNotNull(result);
+                            test.assertEqual(0, result.exitCode);
+                            test.assertEqual("", result.output);
+                            test.assertEqual("", result.error);
+                            test.assertEqual(Iterable.create(), result.issues);
+                            test.assertTrue(QubBuildCompile.getClassFile(cJavaFile, rootFolder, outputsFolder).exists().await());
+                        }
+                        finally
+                        {
+                            rootFolder.delete().await();
+                        }
+                    }
+                });
+
+                runner.test("with unchanged class file", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder currentFolder = process.getCurrentFolder();
+                        final Folder rootFolder = currentFolder.createFolder("temp").await();
+                        try
+                        {
+                            final Folder outputsFolder = rootFolder.getFolder("outputs").await();
+                            final File cJavaFile = rootFolder.getFile("sources/C.java").await();
+                            cJavaFile.setContentsAsString("public class C {}").await();
+
+                            final InProcessJavaCompiler firstCompiler = InProcessJavaCompiler.create(rootFolder);
+                            firstCompiler.addOutputFolder(outputsFolder);
+                            firstCompiler.addSourceFile(cJavaFile.relativeTo(rootFolder));
+                            final InMemoryCharacterToByteStream firstVerbose = InMemoryCharacterToByteStream.create();
+                            test.assertEqual(0, firstCompiler.compile(Warnings.Show, firstVerbose).await().exitCode);
+                            test.assertTrue(firstVerbose.getText().await().contains("Wrote 1 class file and skipped 0 unchanged class files."));
+
+                            final File classFile = QubBuildCompile.getClassFile(cJavaFile, rootFolder, outputsFolder);
+                            final DateTime classFileLastModified = classFile.getLastModified().await();
+
+                            final InProcessJavaCompiler secondCompiler = InProcessJavaCompiler.create(rootFolder);
+                            secondCompiler.addOutputFolder(outputsFolder);
+                            secondCompiler.addSourceFile(cJavaFile.relativeTo(rootFolder));
+                            final InMemoryCharacterToByteStream secondVerbose = InMemoryCharacterToByteStream.create();
+                            test.assertEqual(0, secondCompiler.compile(Warnings.Show, secondVerbose).await().exitCode);
+                            test.assertTrue(secondVerbose.getText().await().contains("Wrote 0 class files and skipped 1 unchanged class file."));
+                            test.assertEqual(classFileLastModified, classFile.getLastModified().await());
+                        }
+                        finally
+                        {
+                            rootFolder.delete().await();
+                        }
+                    }
+                });
+
+                runner.test("with one error", (Test test) ->
+                {
+                    try (final RealDesktopProcess process = RealDesktopProcess.create())
+                    {
+                        final Folder currentFolder = process.getCurrentFolder();
+                        final Folder rootFolder = currentFolder.createFolder("temp").await();
+                        try
+                        {
+                            final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(rootFolder);
+                            final Folder outputsFolder = rootFolder.getFolder("outputs").await();
+                            compiler.addOutputFolder(outputsFolder);
+
+                            final File cJavaFile = rootFolder.getFile("sources/C.java").await();
+                            cJavaFile.setContentsAsString("Im not a valid Java file").await();
+                            compiler.addSourceFile(cJavaFile.relativeTo(rootFolder));
+
+                            final InMemoryCharacterToByteStream verbose = InMemoryCharacterToByteStream.create();
+                            final JavaCompilationResult result = compiler.compile(Warnings.Show, verbose).await();
+                            test.assertNotNull(result);
+                            test.assertEqual(1, result.exitCode);
+                            test.assertEqual(
+                                Iterable.create(
+                                    JavaCompilerIssue.error(
+                                        "sources/C.java",
+                                        1, 1,
+                                        "class, interface, or enum expected")),
+                                result.issues);
+                            test.assertFalse(QubBuildCompile.getClassFile(cJavaFile, rootFolder, outputsFolder).exists().await());
+                        }
+                        finally
+                        {
+                            rootFolder.delete().await();
+                        }
+                    }
+                });
+            });
+        });
+    }
+}
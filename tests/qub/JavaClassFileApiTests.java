@@ -0,0 +1,115 @@
+package qub;
+
+public interface JavaClassFileApiTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaClassFileApi.class, () ->
+        {
+            runner.testGroup("getApi(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFileApi.getApi(null),
+                        new PreConditionFailure("classFileBytes cannot be null."));
+                });
+
+                runner.test("with bytes that aren't a class file", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFileApi.getApi(new byte[] { 0, 1, 2, 3 }).await(),
+                        new ParseException("Expected the class file to start with 0xCAFEBABE."));
+                });
+            });
+
+            runner.testGroup("getFingerprint(Iterable<File>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFileApi.getFingerprint(null),
+                        new PreConditionFailure("classFiles cannot be null."));
+                });
+
+                final Action3<String,String,Boolean> getFingerprintTest = (String before, String after, Boolean expectedSameFingerprint) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(before) + " and " + Strings.escapeAndQuote(after), (Test test) ->
+                    {
+                        try (final RealDesktopProcess process = RealDesktopProcess.create())
+                        {
+                            final Folder currentFolder = process.getCurrentFolder();
+                            final Folder rootFolder = currentFolder.createFolder("temp").await();
+                            try
+                            {
+                                final String beforeFingerprint = JavaClassFileApiTests.getFingerprint(rootFolder.getFolder("before").await(), before);
+                                final String afterFingerprint = JavaClassFileApiTests.getFingerprint(rootFolder.getFolder("after").await(), after);
+                                test.assertEqual(expectedSameFingerprint, beforeFingerprint.equals(afterFingerprint));
+                            }
+                            finally
+                            {
+                                rootFolder.delete().await();
+                            }
+                        }
+                    });
+                };
+
+                getFingerprintTest.run(
+                    "public class A { public int a() { return 1; } }",
+                    "public class A { public int a() { return 2; } }",
+                    true);
+                getFingerprintTest.run(
+                    "public class A { public int a() { return 1; } }",
+                    "public class A { public int a() { return b(); } private int b() { return 2; } }",
+                    true);
+                getFingerprintTest.run(
+                    "public class A { public Runnable a() { return null; } }",
+                    "public class A { public Runnable a() { return new Runnable() { public void run() {} }; } }",
+                    true);
+                getFingerprintTest.run(
+                    "public class A { public int a() { return 1; } public int b() { return 2; } }",
+                    "public class A { public int b() { return 2; } public int a() { return 1; } }",
+                    true);
+                getFingerprintTest.run(
+                    "public class A { public int a() { return 1; } }",
+                    "public class A { public long a() { return 1; } }",
+                    false);
+                getFingerprintTest.run(
+                    "public class A { public int a() { return 1; } }",
+                    "public class A { public int a() { return 1; } public int b() { return 2; } }",
+                    false);
+                getFingerprintTest.run(
+                    "public class A { public static final int A = 1; }",
+                    "public class A { public static final int A = 2; }",
+                    false);
+                getFingerprintTest.run(
+                    "public class A { }",
+                    "public class A implements Runnable { public void run() {} }",
+                    false);
+                getFingerprintTest.run(
+                    "public class A { public void a() {} }",
+                    "public class A { @Deprecated public void a() {} }",
+                    false);
+                getFingerprintTest.run(
+                    "public class A { public static class B { } }",
+                    "public class A { public static class B { public int b; } }",
+                    false);
+            });
+        });
+    }
+
+    static String getFingerprint(Folder rootFolder, String aJavaFileContents)
+    {
+        final Folder outputsFolder = rootFolder.getFolder("outputs").await();
+        final File aJavaFile = rootFolder.getFile("sources/A.java").await();
+        aJavaFile.setContentsAsString(aJavaFileContents).await();
+
+        final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(rootFolder);
+        compiler.addOutputFolder(outputsFolder);
+        compiler.addSourceFile(aJavaFile.relativeTo(rootFolder));
+        final JavaCompilationResult result = compiler.compile(Warnings.Show, InMemoryCharacterToByteStream.create()).await();
+        if (result.exitCode != 0)
+        {
+            throw new RuntimeException(result.error);
+        }
+
+        return JavaClassFileApi.getFingerprint(QubBuildCompile.getExistingClassFiles(aJavaFile, rootFolder, outputsFolder)).await();
+    }
+}
@@ -0,0 +1,121 @@
+package qub;
+
+public interface JavaClassFileReferencesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaClassFileReferences.class, () ->
+        {
+            runner.testGroup("parse(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFileReferences.parse(null),
+                        new PreConditionFailure("classFileBytes cannot be null."));
+                });
+
+                runner.test("with bytes that aren't a class file", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaClassFileReferences.parse(new byte[] { 0, 1, 2, 3 }).await(),
+                        new ParseException("Expected the class file to start with 0xCAFEBABE."));
+                });
+
+                final Action3<String,Iterable<String>,Boolean> parseTest = (String aJavaFileContents, Iterable<String> expectedReferencedClassNames, Boolean expectedDeclaresConstants) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(aJavaFileContents), (Test test) ->
+                    {
+                        try (final RealDesktopProcess process = RealDesktopProcess.create())
+                        {
+                            final Folder currentFolder = process.getCurrentFolder();
+                            final Folder rootFolder = currentFolder.createFolder("temp").await();
+                            try
+                            {
+                                final JavaClassFileReferences references = JavaClassFileReferences.parse(JavaClassFileReferencesTests.compile(rootFolder, aJavaFileContents)).await();
+                                test.assertEqual("a/A", references.getClassName());
+                                for (final String expectedReferencedClassName : expectedReferencedClassNames)
+                                {
+                                    test.assertTrue(references.getReferencedClassNames().contains(expectedReferencedClassName));
+                                }
+                                test.assertFalse(references.getReferencedClassNames().contains("a/A"));
+                                test.assertEqual(expectedDeclaresConstants, references.declaresConstants());
+                            }
+                            finally
+                            {
+                                rootFolder.delete().await();
+                            }
+                        }
+                    });
+                };
+
+                parseTest.run(
+                    "package a; public class A { }",
+                    Iterable.create("java/lang/Object"),
+                    false);
+                parseTest.run(
+                    "package a; public class A { public static final int B = 1; }",
+                    Iterable.create("java/lang/Object"),
+                    true);
+                parseTest.run(
+                    "package a; public class A { public static int b() { return java.time.Duration.ZERO.getNano(); } }",
+                    Iterable.create("java/time/Duration"),
+                    false);
+                parseTest.run(
+                    "package a; public class A { public java.util.List<java.time.Duration> b; }",
+                    Iterable.create("java/util/List", "java/time/Duration"),
+                    false);
+                parseTest.run(
+                    "package a; public class A implements Runnable { public void run() {} }",
+                    Iterable.create("java/lang/Runnable"),
+                    false);
+            });
+
+            runner.testGroup("getTopLevelClassName(String)", () ->
+            {
+                final Action2<String,Throwable> getTopLevelClassNameErrorTest = (String className, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(className), (Test test) ->
+                    {
+                        test.assertThrows(() -> JavaClassFileReferences.getTopLevelClassName(className), expected);
+                    });
+                };
+
+                getTopLevelClassNameErrorTest.run(null, new PreConditionFailure("className cannot be null."));
+                getTopLevelClassNameErrorTest.run("", new PreConditionFailure("className cannot be empty."));
+
+                final Action2<String,String> getTopLevelClassNameTest = (String className, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(className), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavaClassFileReferences.getTopLevelClassName(className));
+                    });
+                };
+
+                getTopLevelClassNameTest.run("A", "A");
+                getTopLevelClassNameTest.run("A$B", "A");
+                getTopLevelClassNameTest.run("A$B$1", "A");
+                getTopLevelClassNameTest.run("a/b/A", "a/b/A");
+                getTopLevelClassNameTest.run("a/b/A$B", "a/b/A");
+                getTopLevelClassNameTest.run("a$b/A", "a$b/A");
+                getTopLevelClassNameTest.run("a/$A", "a/$A");
+            });
+        });
+    }
+
+    static byte[] compile(Folder rootFolder, String aJavaFileContents)
+    {
+        final Folder outputsFolder = rootFolder.getFolder("outputs").await();
+        final File aJavaFile = rootFolder.getFile("sources/a/A.java").await();
+        aJavaFile.setContentsAsString(aJavaFileContents).await();
+
+        final InProcessJavaCompiler compiler = InProcessJavaCompiler.create(rootFolder);
+        compiler.addOutputFolder(outputsFolder);
+        compiler.addSourceFile(aJavaFile.relativeTo(rootFolder));
+        final JavaCompilationResult result = compiler.compile(Warnings.Show, InMemoryCharacterToByteStream.create()).await();
+        if (result.exitCode != 0)
+        {
+            throw new RuntimeException(result.error);
+        }
+
+        return outputsFolder.getFile("a/A.class").await().getContents().await();
+    }
+}
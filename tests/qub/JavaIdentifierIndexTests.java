@@ -0,0 +1,88 @@
+package qub;
+
+public interface JavaIdentifierIndexTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaIdentifierIndex.class, () ->
+        {
+            runner.testGroup("add(BuildJSONSourceFile)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                    test.assertThrows(() -> index.add(null),
+                        new PreConditionFailure("sourceFile cannot be null."));
+                });
+
+                runner.test("with source file without recorded references", (Test test) ->
+                {
+                    final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                    test.assertFalse(index.add(BuildJSONSourceFile.create("sources/A.java")
+                        .setImports(Iterable.create())));
+                    test.assertEqual(Iterable.create(), index.getSourceFilesThatReferTo("", Iterable.create("A")));
+                });
+
+                runner.test("with source file with recorded references", (Test test) ->
+                {
+                    final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                    final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("sources/A.java")
+                        .setImports(Iterable.create())
+                        .setReferences(Iterable.create("A", "B", "class"));
+                    test.assertTrue(index.add(sourceFile));
+                    test.assertEqual(Iterable.create(sourceFile), index.getSourceFilesThatReferTo("", Iterable.create("B")));
+                });
+            });
+
+            runner.testGroup("getSourceFilesThatReferTo(String,Iterable<String>)", () ->
+            {
+                runner.test("with null packageName", (Test test) ->
+                {
+                    final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                    test.assertThrows(() -> index.getSourceFilesThatReferTo(null, Iterable.create("A")),
+                        new PreConditionFailure("packageName cannot be null."));
+                });
+
+                runner.test("with null typeNames", (Test test) ->
+                {
+                    final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                    test.assertThrows(() -> index.getSourceFilesThatReferTo("", null),
+                        new PreConditionFailure("typeNames cannot be null."));
+                });
+
+                final Action3<String,String,Boolean> getSourceFilesThatReferToTest = (String sourceCode, String qualifiedTypeName, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(sourceCode) + " and " + Strings.escapeAndQuote(qualifiedTypeName), (Test test) ->
+                    {
+                        final JavaSourceFileSymbols symbols = JavaSourceFileSymbols.parse(sourceCode);
+                        final BuildJSONSourceFile sourceFile = BuildJSONSourceFile.create("sources/A.java")
+                            .setImports(symbols.getImports())
+                            .setReferences(symbols.getReferencedNames());
+                        if (!symbols.getPackageName().isEmpty())
+                        {
+                            sourceFile.setPackageName(symbols.getPackageName());
+                        }
+                        final JavaIdentifierIndex index = JavaIdentifierIndex.create();
+                        index.add(sourceFile);
+
+                        final int lastDotIndex = qualifiedTypeName.lastIndexOf('.');
+                        final String packageName = lastDotIndex == -1 ? "" : qualifiedTypeName.substring(0, lastDotIndex);
+                        final String typeName = qualifiedTypeName.substring(lastDotIndex + 1);
+                        test.assertEqual(
+                            expected ? Iterable.create(sourceFile) : Iterable.create(),
+                            index.getSourceFilesThatReferTo(packageName, Iterable.create(typeName)));
+                    });
+                };
+
+                getSourceFilesThatReferToTest.run("class A { B x; }", "B", true);
+                getSourceFilesThatReferToTest.run("class A { }", "B", false);
+                getSourceFilesThatReferToTest.run("package a; class A { B x; }", "a.B", true);
+                getSourceFilesThatReferToTest.run("package a; class A { B x; }", "b.B", false);
+                getSourceFilesThatReferToTest.run("package a; import b.B; class A { B x; }", "b.B", true);
+                getSourceFilesThatReferToTest.run("package a; import b.*; class A { B x; }", "b.B", true);
+                getSourceFilesThatReferToTest.run("package a; import static b.B.c; class A { int x = c; }", "b.B", true);
+                getSourceFilesThatReferToTest.run("package a; class A { b.B x; }", "b.B", true);
+            });
+        });
+    }
+}
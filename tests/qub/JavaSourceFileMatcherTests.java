@@ -0,0 +1,79 @@
+package qub;
+
+public interface JavaSourceFileMatcherTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaSourceFileMatcher.class, () ->
+        {
+            runner.testGroup("getLiteralPrefixSegments(String)", () ->
+            {
+                final Action2<String,Iterable<String>> getLiteralPrefixSegmentsTest = (String pathPattern, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(pathPattern), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavaSourceFileMatcher.getLiteralPrefixSegments(pathPattern));
+                    });
+                };
+
+                getLiteralPrefixSegmentsTest.run("", Iterable.create());
+                getLiteralPrefixSegmentsTest.run("A.java", Iterable.create());
+                getLiteralPrefixSegmentsTest.run("**/A*.java", Iterable.create());
+                getLiteralPrefixSegmentsTest.run("sources/**/*.java", Iterable.create("sources"));
+                getLiteralPrefixSegmentsTest.run("sources/qub/*.java", Iterable.create("sources", "qub"));
+                getLiteralPrefixSegmentsTest.run("./sources/*.java", Iterable.create("sources"));
+                getLiteralPrefixSegmentsTest.run("src*/qub/*.java", Iterable.create());
+            });
+
+            runner.testGroup("canContainMatches(Folder)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder projectFolder = fileSystem.getFolder("/project/").await();
+
+                final Action3<ProjectJSONJava,String,Boolean> canContainMatchesTest = (ProjectJSONJava projectJsonJava, String folderPath, Boolean expected) ->
+                {
+                    runner.test("with " + projectJsonJava + " and " + Strings.escapeAndQuote(folderPath), (Test test) ->
+                    {
+                        final JavaSourceFileMatcher matcher = JavaSourceFileMatcher.create(projectFolder, projectJsonJava);
+                        test.assertEqual(expected, matcher.canContainMatches(projectFolder.getFolder(folderPath).await()));
+                    });
+                };
+
+                canContainMatchesTest.run(ProjectJSONJava.create(), "sources", true);
+                canContainMatchesTest.run(ProjectJSONJava.create(), "sources/qub", true);
+                canContainMatchesTest.run(ProjectJSONJava.create(), "outputs", false);
+                canContainMatchesTest.run(ProjectJSONJava.create(), "sources/outputs", true);
+                canContainMatchesTest.run(ProjectJSONJava.create().setOutputFolder("bin"), "outputs", true);
+                canContainMatchesTest.run(ProjectJSONJava.create().setOutputFolder("bin"), "bin", false);
+                canContainMatchesTest.run(ProjectJSONJava.create(), ".git", false);
+                canContainMatchesTest.run(ProjectJSONJava.create(), "sources/node_modules", false);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("sources/qub/*.java")), "sources", true);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("sources/qub/*.java")), "sources/qub", true);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("sources/qub/*.java")), "sources/qub/inner", true);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("sources/qub/*.java")), "sources/other", false);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("sources/qub/*.java")), "tests", false);
+                canContainMatchesTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("**/A*.java")), "tests", true);
+            });
+
+            runner.testGroup("findMatches()", () ->
+            {
+                runner.test("with files in pruned folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.createFolder("/project/").await();
+                    final File aJavaFile = projectFolder.createFile("sources/A.java").await();
+                    final File bJavaFile = projectFolder.createFile("sources/qub/B.java").await();
+                    projectFolder.createFile("sources/A.txt").await();
+                    projectFolder.createFile("outputs/C.java").await();
+                    projectFolder.createFile(".git/D.java").await();
+                    projectFolder.createFile("node_modules/E.java").await();
+
+                    final JavaSourceFileMatcher matcher = JavaSourceFileMatcher.create(projectFolder, ProjectJSONJava.create());
+                    test.assertEqual(Iterable.create(aJavaFile, bJavaFile), matcher.findMatches());
+                });
+            });
+        });
+    }
+}
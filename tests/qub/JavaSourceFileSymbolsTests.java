@@ -0,0 +1,152 @@
+package qub;
+
+public interface JavaSourceFileSymbolsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaSourceFileSymbols.class, () ->
+        {
+            runner.testGroup("create(String,Iterable<String>,Iterable<String>)", () ->
+            {
+                runner.test("with null packageName", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaSourceFileSymbols.create(null, Iterable.create(), Iterable.create()),
+                        new PreConditionFailure("packageName cannot be null."));
+                });
+
+                runner.test("with null imports", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaSourceFileSymbols.create("", null, Iterable.create()),
+                        new PreConditionFailure("imports cannot be null."));
+                });
+
+                runner.test("with null referencedNames", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaSourceFileSymbols.create("", Iterable.create(), null),
+                        new PreConditionFailure("referencedNames cannot be null."));
+                });
+
+                runner.test("with recorded symbols", (Test test) ->
+                {
+                    final JavaSourceFileSymbols parsedSymbols = JavaSourceFileSymbols.parse("package a; import b.C; class A { D d; }");
+                    final JavaSourceFileSymbols symbols = JavaSourceFileSymbols.create(parsedSymbols.getPackageName(), parsedSymbols.getImports(), parsedSymbols.getReferencedNames());
+                    test.assertEqual("a", symbols.getPackageName());
+                    test.assertEqual(Iterable.create("b.C"), symbols.getImports());
+                    test.assertEqual(Iterable.create(), symbols.getDeclaredTypeNames());
+                    test.assertEqual(parsedSymbols.getReferencedNames(), symbols.getReferencedNames());
+                    test.assertTrue(symbols.refersTo("b", Iterable.create("C")));
+                    test.assertTrue(symbols.refersTo("a", Iterable.create("D")));
+                    test.assertFalse(symbols.refersTo("a", Iterable.create("E")));
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaSourceFileSymbols.parse(null),
+                        new PreConditionFailure("sourceCode cannot be null."));
+                });
+
+                final Action2<String,Action2<Test,JavaSourceFileSymbols>> parseTest = (String sourceCode, Action2<Test,JavaSourceFileSymbols> assertSymbols) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(sourceCode), (Test test) ->
+                    {
+                        assertSymbols.run(test, JavaSourceFileSymbols.parse(sourceCode));
+                    });
+                };
+
+                parseTest.run("", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create(), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create(), symbols.getReferencedNames());
+                });
+
+                parseTest.run("A.java source, depends on B", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create(), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("A", "java", "source", "depends", "on", "B"), symbols.getReferencedNames());
+                });
+
+                parseTest.run("package a.b; import c.D; import static e.F.g; import h.*; class A { }", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("a.b", symbols.getPackageName());
+                    test.assertEqual(Iterable.create("c.D", "e.F.g", "h.*"), symbols.getImports());
+                    test.assertEqual(Iterable.create("A"), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("class", "A"), symbols.getReferencedNames());
+                });
+
+                parseTest.run("// B\n/* C */ /** D */ class A { String e = \"F\"; char g = 'H'; String i = \"\\\"J\"; }", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create("A"), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("class", "A", "String", "e", "char", "g", "i"), symbols.getReferencedNames());
+                });
+
+                parseTest.run("class A { String b = \"\"\"\n  C \"D\"\n  \"\"\"; }", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create("A"), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("class", "A", "String", "b"), symbols.getReferencedNames());
+                });
+
+                parseTest.run("class A { static class B { interface C { } } void d() { class E { } Object f = A.class; } } enum G { H { } } @interface I { }", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create("A", "B", "C", "G", "I"), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("class", "A", "static", "B", "interface", "C", "void", "d", "E", "Object", "f", "enum", "G", "H", "I"), symbols.getReferencedNames());
+                });
+
+                parseTest.run("record A(int b) { } class C { int record = 1e+5; }", (Test test, JavaSourceFileSymbols symbols) ->
+                {
+                    test.assertEqual("", symbols.getPackageName());
+                    test.assertEqual(Iterable.create(), symbols.getImports());
+                    test.assertEqual(Iterable.create("A", "C"), symbols.getDeclaredTypeNames());
+                    test.assertEqual(Iterable.create("record", "A", "int", "b", "class", "C"), symbols.getReferencedNames());
+                });
+            });
+
+            runner.testGroup("refersTo(String,Iterable<String>)", () ->
+            {
+                final Action3<String,String,Boolean> refersToTest = (String sourceCode, String qualifiedTypeName, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(sourceCode) + " and " + Strings.escapeAndQuote(qualifiedTypeName), (Test test) ->
+                    {
+                        final int lastDotIndex = qualifiedTypeName.lastIndexOf('.');
+                        final String packageName = lastDotIndex == -1 ? "" : qualifiedTypeName.substring(0, lastDotIndex);
+                        final String typeName = qualifiedTypeName.substring(lastDotIndex + 1);
+                        test.assertEqual(expected, JavaSourceFileSymbols.parse(sourceCode).refersTo(packageName, Iterable.create(typeName)));
+                    });
+                };
+
+                refersToTest.run("class A { B x; }", "B", true);
+                refersToTest.run("class A { }", "B", false);
+                refersToTest.run("class A { // B\n }", "B", false);
+                refersToTest.run("class A { String x = \"B\"; }", "B", false);
+                refersToTest.run("package a; class A { B x; }", "a.B", true);
+                refersToTest.run("package a; class A { B x; }", "b.B", false);
+                refersToTest.run("package a; import b.B; class A { }", "b.B", true);
+                refersToTest.run("package a; import b.B.C; class A { C x; }", "b.B", true);
+                refersToTest.run("package a; import static b.B.c; class A { }", "b.B", true);
+                refersToTest.run("package a; import b.*; class A { B x; }", "b.B", true);
+                refersToTest.run("package a; import b.*; class A { }", "b.B", false);
+                refersToTest.run("package a; class A { b.B x; }", "b.B", true);
+                refersToTest.run("package a; import c.B; class A { B x; }", "b.B", false);
+
+                runner.test("with multiple type names", (Test test) ->
+                {
+                    final JavaSourceFileSymbols symbols = JavaSourceFileSymbols.parse("class A { C x; }");
+                    test.assertTrue(symbols.refersTo("", Iterable.create("B", "C")));
+                    test.assertFalse(symbols.refersTo("", Iterable.create("B", "D")));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package qub;
+
+public interface JavaToolchainsJSONTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavaToolchainsJSON.class, () ->
+        {
+            runner.testGroup("discover(Folder,Iterable<String>)", () ->
+            {
+                runner.test("with null javaFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> JavaToolchainsJSON.discover(null, Iterable.create()),
+                        new PreConditionFailure("javaFolder cannot be null."));
+                });
+
+                runner.test("with JDK and JRE folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder javaFolder = fileSystem.createFolder("/java/").await();
+                    javaFolder.createFolder("jdk-11.0.1").await();
+                    javaFolder.createFolder("jdk1.8.0_200/jre").await();
+                    javaFolder.createFolder("jre1.8.0_192").await();
+                    javaFolder.createFolder("not-a-jdk").await();
+                    javaFolder.createFile("temurin/release").await()
+                        .setContentsAsString("IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"17.0.2\"\n").await();
+
+                    final Iterable<String> javaFolderEntries = Iterable.create("jdk-11.0.1", "jdk1.8.0_200", "jre1.8.0_192", "not-a-jdk", "temurin");
+                    final JavaToolchainsJSON toolchains = JavaToolchainsJSON.discover(javaFolder, javaFolderEntries).await();
+                    test.assertEqual(Path.parse("/java/"), toolchains.getJavaFolderPath());
+                    test.assertEqual(javaFolderEntries, toolchains.getJavaFolderEntries());
+                    test.assertEqual(
+                        Iterable.create("11.0.1", "1.8.0_200", "1.8.0_192", "17.0.2"),
+                        toolchains.getToolchains().map(JavaToolchainJSON::getVersion));
+                    test.assertEqual(
+                        Iterable.create(null, Path.parse("/java/jdk1.8.0_200/jre/lib/rt.jar"), Path.parse("/java/jre1.8.0_192/lib/rt.jar"), null),
+                        toolchains.getToolchains().map(JavaToolchainJSON::getBootClasspath));
+
+                    test.assertTrue(toolchains.matches(Path.parse("/java/"), javaFolderEntries));
+                    test.assertFalse(toolchains.matches(Path.parse("/java/"), Iterable.create("jdk-11.0.1")));
+
+                    final JavaToolchainsJSON parsedToolchains = JavaToolchainsJSON.parse(JSON.parseObject(toolchains.toString()).await()).await();
+                    test.assertTrue(parsedToolchains.matches(Path.parse("/java/"), javaFolderEntries));
+                    test.assertEqual(
+                        Path.parse("/java/jre1.8.0_192/lib/rt.jar"),
+                        parsedToolchains.findBootClasspathToolchain("1.8").getBootClasspath());
+                });
+            });
+
+            runner.testGroup("findBootClasspathToolchain(String)", () ->
+            {
+                final JavaToolchainsJSON toolchains = JavaToolchainsJSON.create()
+                    .setToolchains(Iterable.create(
+                        JavaToolchainJSON.create()
+                            .setFolderPath(Path.parse("/java/jre1.8.0_192/"))
+                            .setVersion("1.8.0_192")
+                            .setBootClasspath(Path.parse("/java/jre1.8.0_192/lib/rt.jar")),
+                        JavaToolchainJSON.create()
+                            .setFolderPath(Path.parse("/java/jre1.8.0_251/"))
+                            .setVersion("1.8.0_251")
+                            .setBootClasspath(Path.parse("/java/jre1.8.0_251/lib/rt.jar")),
+                        JavaToolchainJSON.create()
+                            .setFolderPath(Path.parse("/java/jdk1.7.0_80/"))
+                            .setVersion("1.7.0_80")
+                            .setBootClasspath(Path.parse("/java/jdk1.7.0_80/jre/lib/rt.jar"))));
+
+                final Action2<String,Path> findBootClasspathToolchainTest = (String javaVersion, Path expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(javaVersion), (Test test) ->
+                    {
+                        final JavaToolchainJSON toolchain = toolchains.findBootClasspathToolchain(javaVersion);
+                        test.assertEqual(expected, toolchain == null ? null : toolchain.getBootClasspath());
+                    });
+                };
+
+                findBootClasspathToolchainTest.run("8", Path.parse("/java/jre1.8.0_251/lib/rt.jar"));
+                findBootClasspathToolchainTest.run("1.8", Path.parse("/java/jre1.8.0_251/lib/rt.jar"));
+                findBootClasspathToolchainTest.run("1.7", Path.parse("/java/jdk1.7.0_80/jre/lib/rt.jar"));
+                findBootClasspathToolchainTest.run("1.6", null);
+            });
+        });
+
+        runner.testGroup(JavaToolchainJSON.class, () ->
+        {
+            runner.testGroup("getMajorVersion(String)", () ->
+            {
+                final Action2<String,Integer> getMajorVersionTest = (String javaVersion, Integer expected) ->
+                {
+                    runner.test("with " + (javaVersion == null ? "null" : Strings.escapeAndQuote(javaVersion)), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavaToolchainJSON.getMajorVersion(javaVersion));
+                    });
+                };
+
+                getMajorVersionTest.run(null, 0);
+                getMajorVersionTest.run("", 0);
+                getMajorVersionTest.run("abc", 0);
+                getMajorVersionTest.run("8", 8);
+                getMajorVersionTest.run("1.8", 8);
+                getMajorVersionTest.run("1.8.0_192", 8);
+                getMajorVersionTest.run("11", 11);
+                getMajorVersionTest.run("11.0.1", 11);
+                getMajorVersionTest.run("17-ea", 17);
+            });
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package qub;
+
+public interface JavacIssueParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacIssueParser.class, () ->
+        {
+            runner.testGroup("create(Warnings,Action1<JavaCompilerIssue>)", () ->
+            {
+                runner.test("with null warnings", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacIssueParser.create(null, (JavaCompilerIssue issue) -> {}),
+                        new PreConditionFailure("warnings cannot be null."));
+                });
+
+                runner.test("with null onIssue", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacIssueParser.create(Warnings.Show, null),
+                        new PreConditionFailure("onIssue cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, (JavaCompilerIssue issue) -> {});
+                    test.assertNotNull(parser);
+                    test.assertEqual("", parser.getNonIssueText());
+                });
+            });
+
+            runner.testGroup("addLine(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, (JavaCompilerIssue issue) -> {});
+                    test.assertThrows(() -> parser.addLine(null),
+                        new PreConditionFailure("line cannot be null."));
+                });
+
+                runner.test("with non-issue line", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, issues::add);
+                    test.assertSame(parser, parser.addLine("error: file not found: sources\\A.java\n"));
+                    test.assertEqual(Iterable.create(), issues);
+                    test.assertEqual("error: file not found: sources\\A.java\n", parser.getNonIssueText());
+                });
+
+                runner.test("with an issue that arrives one line at a time", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, issues::add);
+
+                    parser.addLine("sources\\A.java:6: error: ';' expected\r\n");
+                    test.assertEqual(Iterable.create(), issues);
+
+                    parser.addLine("    return value\r\n");
+                    test.assertEqual(Iterable.create(), issues);
+
+                    parser.addLine("                ^\r\n");
+                    test.assertEqual(Iterable.create(), issues);
+
+                    parser.addLine("1 error\r\n");
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 6, 17, "';' expected")),
+                        issues);
+                    test.assertEqual("1 error\n", parser.getNonIssueText());
+                });
+
+                runner.test("with a warning and Warnings.Error", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Error, issues::add);
+
+                    parser.addLine("sources/A.java:1: warning: [deprecation] Foo in Bar has been deprecated");
+                    parser.addLine("  Foo foo;");
+                    parser.addLine("  ^");
+                    test.assertSame(parser, parser.finish());
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 1, 3, "[deprecation] Foo in Bar has been deprecated")),
+                        issues);
+                });
+
+                runner.test("with indented lines after an issue", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, issues::add);
+
+                    parser.addLine("sources/A.java:3: error: cannot find symbol");
+                    parser.addLine("    Foo foo;");
+                    parser.addLine("    ^");
+                    parser.addLine("  symbol:   class Foo");
+                    parser.addLine("  location: class A");
+                    parser.addLine("1 error");
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 3, 5, "cannot find symbol; symbol: class Foo; location: class A")),
+                        issues);
+                    test.assertEqual("1 error\n", parser.getNonIssueText());
+                });
+
+                runner.test("with indented lines after a reported issue", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, issues::add);
+
+                    parser.addLine("sources/A.java:3: error: cannot find symbol");
+                    parser.addLine("    Foo foo;");
+                    parser.addLine("    ^");
+                    parser.addLine("Note: Some input files use unchecked operations.");
+                    parser.addLine("  Recompile with -Xlint:unchecked for details.");
+                    parser.finish();
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 3, 5, "cannot find symbol")),
+                        issues);
+                    test.assertEqual("Note: Some input files use unchecked operations.\n  Recompile with -Xlint:unchecked for details.\n", parser.getNonIssueText());
+                });
+
+                runner.test("with two issues in a row", (Test test) ->
+                {
+                    final List<JavaCompilerIssue> issues = List.create();
+                    final JavacIssueParser parser = JavacIssueParser.create(Warnings.Show, issues::add);
+
+                    parser.addLine("sources/A.java:3: error: cannot find symbol");
+                    parser.addLine("    Foo foo;");
+                    parser.addLine("    ^");
+                    parser.addLine("sources/B.java:1: warning: [unchecked] unchecked call");
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 3, 5, "cannot find symbol")),
+                        issues);
+
+                    parser.addLine("  b.add(1);");
+                    parser.addLine("       ^");
+                    parser.finish();
+                    test.assertEqual(
+                        Iterable.create(
+                            JavaCompilerIssue.error("sources/A.java", 3, 5, "cannot find symbol"),
+                            JavaCompilerIssue.warning("sources/B.java", 1, 8, "[unchecked] unchecked call")),
+                        issues);
+                    test.assertEqual("", parser.getNonIssueText());
+                });
+            });
+
+            runner.testGroup("joinMessageLines(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JavacIssueParser.joinMessageLines(null),
+                        new PreConditionFailure("messageLines cannot be null."));
+                });
+
+                runner.test("with one line", (Test test) ->
+                {
+                    test.assertEqual("';' expected", JavacIssueParser.joinMessageLines(Iterable.create("';' expected")));
+                });
+
+                runner.test("with detail lines", (Test test) ->
+                {
+                    test.assertEqual(
+                        "incompatible types; required: int; found: String",
+                        JavacIssueParser.joinMessageLines(Iterable.create("incompatible types", "  required: int", "  found:    String")));
+                });
+            });
+        });
+    }
+}
@@ -592,9 +592,6 @@ public interface JavacProcessBuilderTests
                             test.assertEqual("", result.output);
                             test.assertEqual(
                                 Iterable.create(
-                                    "sources\\C.java:1: error: class MyTestClass is public, should be declared in a file named MyTestClass.java",
-                                    "public class MyTestClass",
-                                    "       ^",
                                     "1 error"),
                                 Strings.getLines(result.error));
                             test.assertEqual(
@@ -648,9 +645,6 @@ public interface JavacProcessBuilderTests
                             test.assertEqual("", result.output);
                             test.assertEqual(
                                 Iterable.create(
-                                    "sources\\C.java:1: error: class, interface, or enum expected",
-                                    "Im not a valid Java file",
-                                    "^",
                                     "1 error"),
                                 Strings.getLines(result.error));
                             test.assertEqual(Iterable.create(
@@ -712,12 +706,6 @@ public interface JavacProcessBuilderTests
                             test.assertEqual("", result.output);
                             test.assertEqual(
                                 Iterable.create(
-                                    "sources\\C.java:6: error: \';\' expected",
-                                    "    return value",
-                                    "                ^",
-                                    "sources\\C.java:7: error: reached end of file while parsing",
-                                    "  }",
-                                    "   ^",
                                     "2 errors"),
                                 Strings.getLines(result.error));
                             test.assertEqual(
@@ -777,6 +765,84 @@ public interface JavacProcessBuilderTests
                     }
                 });
             });
+
+            runner.testGroup("findExecutableFile(EnvironmentVariables,FileSystem)", () ->
+            {
+                runner.test("with null environmentVariables", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    test.assertThrows(() -> JavacProcessBuilder.findExecutableFile(null, fileSystem),
+                        new PreConditionFailure("environmentVariables cannot be null."));
+                });
+
+                runner.test("with no PATH environment variable", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        test.assertNull(JavacProcessBuilder.findExecutableFile(process.getEnvironmentVariables(), process.getFileSystem()).await());
+                    }
+                });
+
+                runner.test("with PATH environment variable that doesn't contain javac", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final Folder binFolder = process.getFileSystem().createFolder("/bin/").await();
+                        process.getEnvironmentVariables()
+                            .set("PATH", binFolder.toString());
+                        test.assertNull(JavacProcessBuilder.findExecutableFile(process.getEnvironmentVariables(), process.getFileSystem()).await());
+                    }
+                });
+
+                runner.test("with PATH environment variable that contains javac", (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final Folder binFolder = process.getFileSystem().createFolder("/bin/").await();
+                        final File javacFile = process.getFileSystem().createFile("/java/jdk-11.0.1/bin/javac").await();
+                        process.getEnvironmentVariables()
+                            .set("PATH", binFolder.toString() + java.io.File.pathSeparator + javacFile.getParentFolder().await().toString());
+                        test.assertEqual(javacFile, JavacProcessBuilder.findExecutableFile(process.getEnvironmentVariables(), process.getFileSystem()).await());
+                    }
+                });
+            });
+
+            runner.testGroup("getArgumentsFileContents(Iterable<String>)", () ->
+            {
+                final Action2<Iterable<String>,String> getArgumentsFileContentsTest = (Iterable<String> arguments, String expected) ->
+                {
+                    runner.test("with " + arguments, (Test test) ->
+                    {
+                        final String contents = JavacArguments.getArgumentsFileContents(arguments);
+                        test.assertEqual(expected, contents);
+                        test.assertEqual(arguments, JavacArguments.parseArgumentsFileContents(contents));
+                    });
+                };
+
+                getArgumentsFileContentsTest.run(Iterable.create(), "");
+                getArgumentsFileContentsTest.run(Iterable.create("-d", "outputs"), "-d\noutputs\n");
+                getArgumentsFileContentsTest.run(Iterable.create("sources/My File.java"), "\"sources/My File.java\"\n");
+                getArgumentsFileContentsTest.run(Iterable.create("C:\\outputs"), "\"C:\\\\outputs\"\n");
+                getArgumentsFileContentsTest.run(Iterable.create("a\"b"), "\"a\\\"b\"\n");
+                getArgumentsFileContentsTest.run(Iterable.create("#notacomment"), "\"#notacomment\"\n");
+            });
+
+            runner.testGroup("parseArgumentsFileContents(String)", () ->
+            {
+                final Action2<String,Iterable<String>> parseArgumentsFileContentsTest = (String contents, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(contents), (Test test) ->
+                    {
+                        test.assertEqual(expected, JavacArguments.parseArgumentsFileContents(contents));
+                    });
+                };
+
+                parseArgumentsFileContentsTest.run("", Iterable.create());
+                parseArgumentsFileContentsTest.run("   \n  ", Iterable.create());
+                parseArgumentsFileContentsTest.run("-d outputs", Iterable.create("-d", "outputs"));
+                parseArgumentsFileContentsTest.run("# comment\nA.java", Iterable.create("A.java"));
+                parseArgumentsFileContentsTest.run("'a b' \"c d\"", Iterable.create("a b", "c d"));
+            });
         });
     }
 }
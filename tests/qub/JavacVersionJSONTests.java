@@ -0,0 +1,66 @@
+package qub;
+
+public interface JavacVersionJSONTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(JavacVersionJSON.class, () ->
+        {
+            runner.testGroup("matches(Path,DateTime,long)", () ->
+            {
+                final JavacVersionJSON javacVersionJson = JavacVersionJSON.create()
+                    .setJavacPath(Path.parse("/java/bin/javac"))
+                    .setJavacLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                    .setJavacSize(100)
+                    .setJavacVersion(VersionNumber.parse("14.0.1").await());
+
+                runner.test("with null javacPath", (Test test) ->
+                {
+                    test.assertThrows(() -> javacVersionJson.matches(null, DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 100),
+                        new PreConditionFailure("javacPath cannot be null."));
+                });
+
+                runner.test("with null javacLastModified", (Test test) ->
+                {
+                    test.assertThrows(() -> javacVersionJson.matches(Path.parse("/java/bin/javac"), null, 100),
+                        new PreConditionFailure("javacLastModified cannot be null."));
+                });
+
+                runner.test("with same path, last modified, and size", (Test test) ->
+                {
+                    test.assertTrue(javacVersionJson.matches(Path.parse("/java/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 100));
+                });
+
+                runner.test("with different path", (Test test) ->
+                {
+                    test.assertFalse(javacVersionJson.matches(Path.parse("/other/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 100));
+                });
+
+                runner.test("with different last modified", (Test test) ->
+                {
+                    test.assertFalse(javacVersionJson.matches(Path.parse("/java/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(2)), 100));
+                });
+
+                runner.test("with different size", (Test test) ->
+                {
+                    test.assertFalse(javacVersionJson.matches(Path.parse("/java/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 101));
+                });
+
+                runner.test("with no cached size", (Test test) ->
+                {
+                    final JavacVersionJSON oldJavacVersionJson = JavacVersionJSON.create()
+                        .setJavacPath(Path.parse("/java/bin/javac"))
+                        .setJavacLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                        .setJavacVersion(VersionNumber.parse("14.0.1").await());
+                    test.assertFalse(oldJavacVersionJson.matches(Path.parse("/java/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 100));
+                });
+
+                runner.test("after parsing", (Test test) ->
+                {
+                    final JavacVersionJSON parsedJavacVersionJson = JavacVersionJSON.parse(JSON.parseObject(javacVersionJson.toString()).await()).await();
+                    test.assertTrue(parsedJavacVersionJson.matches(Path.parse("/java/bin/javac"), DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), 100));
+                });
+            });
+        });
+    }
+}
@@ -286,6 +286,84 @@ public interface QubBuildCompileTests
                     }
                 });
 
+                final Action2<String,Action2<Test,QubBuildCompileParameters>> parameterTest = (String argument, Action2<Test,QubBuildCompileParameters> assertParameter) ->
+                {
+                    runner.test("with " + argument + " argument", (Test test) ->
+                    {
+                        try (final FakeDesktopProcess process = FakeDesktopProcess.create(argument))
+                        {
+                            process.getTypeLoader()
+                                .addTypeContainer("fake.MainClassFullName", "/qub/fake/main-java/versions/7/main-java.jar");
+                            final CommandLineAction action = CommandLineAction.create("fake-action-name", (DesktopProcess actionProcess) -> {});
+
+                            final QubBuildCompileParameters parameters = QubBuildCompile.getParameters(process, action);
+                            test.assertNotNull(parameters);
+                            test.assertEqual(process.getCurrentFolder(), parameters.getFolderToBuild());
+                            test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
+                            test.assertSame(process.getOutputWriteStream(), parameters.getOutputWriteStream());
+                            test.assertNotNull(parameters.getProcessFactory());
+                            test.assertTrue(parameters.getBuildJson());
+                            test.assertFalse(parameters.getVerbose().isVerbose());
+                            test.assertEqual(Warnings.Show, parameters.getWarnings());
+                            assertParameter.run(test, parameters);
+                        }
+                    });
+                };
+
+                parameterTest.run("--compiler=process", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertEqual(JavaCompilerType.Process, parameters.getCompilerType());
+                });
+                parameterTest.run("--compiler=inprocess", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertEqual(JavaCompilerType.InProcess, parameters.getCompilerType());
+                });
+                parameterTest.run("--daemon", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getDaemon());
+                    test.assertNotNull(parameters.getNetwork());
+                });
+                parameterTest.run("--jobs=4", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertEqual(4, parameters.getJobs());
+                });
+                parameterTest.run("--liveissues", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getLiveIssues());
+                });
+                parameterTest.run("--failfast=3", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertEqual(3, parameters.getFailFast());
+                });
+                parameterTest.run("--sourcepath", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getSourcepath());
+                });
+                parameterTest.run("--filehashes=false", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertFalse(parameters.getFileHashes());
+                });
+                parameterTest.run("--abi", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getAbi());
+                });
+                parameterTest.run("--statefile", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getStateFile());
+                });
+                parameterTest.run("--prettyjson=false", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertFalse(parameters.getPrettyJson());
+                });
+                parameterTest.run("--journal", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getJournal());
+                });
+                parameterTest.run("--refindex", (Test test, QubBuildCompileParameters parameters) ->
+                {
+                    test.assertTrue(parameters.getRefIndex());
+                });
+
                 runner.test("with --verbose argument", (Test test) ->
                 {
                     try (final FakeDesktopProcess process = FakeDesktopProcess.create("--verbose"))
@@ -375,11 +453,23 @@ public interface QubBuildCompileTests
                         test.assertNull(QubBuildCompile.getParameters(process, action));
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--compiler=<process|inprocess>] [--daemon] [--jobs=<count>] [--liveissues] [--failfast=<errors>] [--sourcepath] [--filehashes] [--abi] [--statefile] [--prettyjson] [--journal] [--refindex] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
                                 "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
                                 "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
                                 "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --compiler:   The Java compiler to use. Can be either \"process\" or \"inprocess\". Defaults to \"process\".",
+                                "  --daemon:     Whether or not to send the compilation to a running qub-build daemon. Defaults to false.",
+                                "  --jobs:       The number of compilers that can compile independent source files at the same time. Defaults to 1.",
+                                "  --liveissues: Whether or not to show issues while the compiler is still running. Defaults to false.",
+                                "  --failfast:   The number of errors that stop the compiler before it finishes. Defaults to 0, which never stops the compiler.",
+                                "  --sourcepath: Whether or not to let javac find the unmodified source files that it needs in the project's source folders. Defaults to false.",
+                                "  --filehashes: Whether or not to record the size and content hash of each source file so that a source file whose last modified time changed is only compiled if its contents changed. Defaults to true.",
+                                "  --abi:        Whether or not to only compile the dependents of a compiled source file when the API of its class files changed. Defaults to false.",
+                                "  --statefile:  Whether or not to keep the build state in a compact binary build.state file instead of in a build.json file. Defaults to false.",
+                                "  --prettyjson: Whether or not to pretty print the build.json file. Defaults to true.",
+                                "  --journal:    Whether or not to append the changes that each build makes to a build.journal file instead of rewriting the whole build state. Defaults to false.",
+                                "  --refindex:   Whether or not to record the identifiers that each source file refers to so that the unmodified source files that refer to an added type are found without reading them. Defaults to false.",
                                 "  --verbose(v): Whether or not to show verbose logs.",
                                 "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
                                 "  --help(?):    Show the help message for this application."),
@@ -396,11 +486,23 @@ public interface QubBuildCompileTests
                         test.assertNull(QubBuildCompile.getParameters(process, action));
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--compiler=<process|inprocess>] [--daemon] [--jobs=<count>] [--liveissues] [--failfast=<errors>] [--sourcepath] [--filehashes] [--abi] [--statefile] [--prettyjson] [--journal] [--refindex] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
                                 "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
                                 "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
                                 "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --compiler:   The Java compiler to use. Can be either \"process\" or \"inprocess\". Defaults to \"process\".",
+                                "  --daemon:     Whether or not to send the compilation to a running qub-build daemon. Defaults to false.",
+                                "  --jobs:       The number of compilers that can compile independent source files at the same time. Defaults to 1.",
+                                "  --liveissues: Whether or not to show issues while the compiler is still running. Defaults to false.",
+                                "  --failfast:   The number of errors that stop the compiler before it finishes. Defaults to 0, which never stops the compiler.",
+                                "  --sourcepath: Whether or not to let javac find the unmodified source files that it needs in the project's source folders. Defaults to false.",
+                                "  --filehashes: Whether or not to record the size and content hash of each source file so that a source file whose last modified time changed is only compiled if its contents changed. Defaults to true.",
+                                "  --abi:        Whether or not to only compile the dependents of a compiled source file when the API of its class files changed. Defaults to false.",
+                                "  --statefile:  Whether or not to keep the build state in a compact binary build.state file instead of in a build.json file. Defaults to false.",
+                                "  --prettyjson: Whether or not to pretty print the build.json file. Defaults to true.",
+                                "  --journal:    Whether or not to append the changes that each build makes to a build.journal file instead of rewriting the whole build state. Defaults to false.",
+                                "  --refindex:   Whether or not to record the identifiers that each source file refers to so that the unmodified source files that refer to an added type are found without reading them. Defaults to false.",
                                 "  --verbose(v): Whether or not to show verbose logs.",
                                 "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
                                 "  --help(?):    Show the help message for this application."),
@@ -667,7 +769,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -746,7 +849,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create().setOutputFolder("bin")))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -826,7 +930,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -912,9 +1017,99 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero)),
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
+                            .toString(JSONFormat.pretty),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+                });
+
+                runner.test("with multiple source files and javac arguments that are longer than the arguments file threshold",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addArgumentsFile(outputsFolder.getFile("javac.args").await())
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setArgumentsFileThreshold(10);
+
+                    test.assertEqual(0, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "VERBOSE: Compiling all source files.",
+                            "Compiling 2 files...",
+                            "VERBOSE: Writing javac arguments to outputs/javac.args...",
+                            "VERBOSE: Running /: javac @outputs/javac.args...",
+                            "VERBOSE: Compilation finished.",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
+                    test.assertEqual(Duration.zero, aClassFile.getLastModified().await().getDurationSinceEpoch());
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+                    test.assertEqual("B.java bytecode", bClassFile.getContentsAsString().await());
+                    test.assertEqual(Duration.zero, bClassFile.getLastModified().await().getDurationSinceEpoch());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
+                                BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -999,9 +1194,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero)),
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -1085,7 +1282,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
@@ -1168,7 +1366,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1265,7 +1464,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1372,6 +1572,122 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create("sources/A.java")
                                     .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
+                                    .addIssue(
+                                        new JavaCompilerIssue(
+                                            "sources/A.java",
+                                            1,
+                                            20,
+                                            Issue.Type.Error,
+                                            "This doesn't look right to me."))))
+                            .toString(JSONFormat.pretty),
+                        buildJsonFile.getContentsAsString().await());
+                    test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
+                });
+
+                runner.test("with one source file with one error and live issues",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    outputsFolder.create().await();
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File buildJsonFile = QubBuildCompileTests.getBuildJSONFile(outputsFolder);
+                    buildJsonFile.setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())))
+                            .toString());
+
+                    clock.advance(Duration.minutes(1));
+
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .addCompilerIssues(new JavaCompilerIssue("sources\\A.java", 1, 20, Issue.Type.Error, "This doesn't look right to me."))
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setLiveIssues(true);
+
+                    test.assertEqual(1, QubBuildCompile.run(parameters));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "Error: sources/A.java (Line 1): This doesn't look right to me.",
+                            "1 Error"),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Parsing outputs/build.json...",
+                            "VERBOSE: /sources/A.java - Last modified: 1970-01-01T00:01Z",
+                            "VERBOSE:                 - Last built:    1970-01-01T00:00Z",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "VERBOSE: Modified source files:",
+                            "VERBOSE: /sources/A.java",
+                            "Compiling 1 file...",
+                            "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/A.java...",
+                            "VERBOSE: sources\\A.java:1: error: This doesn't look right to me.",
+                            "VERBOSE: Fake code line",
+                            "VERBOSE:                    ^",
+                            "Error: sources/A.java (Line 1): This doesn't look right to me.",
+                            "VERBOSE: Compilation finished.",
+                            "1 Error",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file."),
+                        QubBuildCompileTests.getLogFileContentLines(process));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", aClassFile.getContentsAsString().await());
+                    test.assertEqual(Duration.zero, aClassFile.getLastModified().await().getDurationSinceEpoch());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create("sources/A.java")
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .addIssue(
                                         new JavaCompilerIssue(
                                             "sources/A.java",
@@ -1469,7 +1785,8 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create("sources/A.java")
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
-                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Warning, "Are you sure?"))))
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Warning, "Are you sure?"))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1577,7 +1894,8 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create("sources/A.java")
                                     .setLastModified(clock.getCurrentDateTime())
-                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Warning, "Are you still sure?"))))
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 20, Issue.Type.Warning, "Are you still sure?"))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1704,10 +2022,12 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
-                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?"))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(aTestsJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
-                                    .addIssue(new JavaCompilerIssue(aTestsJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this."))))
+                                    .addIssue(new JavaCompilerIssue(aTestsJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this."))
+                                    .setSizeAndContentHash(aTestsJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -1859,15 +2179,19 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 12, 2, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(aTestsJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aTestsJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aTestsJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this.")),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(cJavaFile.getContents().await())
                                     .setIssues(Iterable.create(
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this."),
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 20, 7, Issue.Type.Error, "Can't be this.")))
@@ -2024,15 +2348,19 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 12, 2, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(aTestsJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aTestsJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aTestsJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this.")),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(cJavaFile.getContents().await())
                                     .setIssues(Iterable.create(
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Warning, "Can't be this."),
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 20, 7, Issue.Type.Error, "Can't be this.")))
@@ -2183,14 +2511,18 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 12, 2, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(aTestsJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1))),
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aTestsJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(cJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 20, 7, Issue.Type.Error, "Can't be this."))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
@@ -2342,15 +2674,19 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 12, 2, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
                                 BuildJSONSourceFile.create(aTestsJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(aTestsJavaFile.getContents().await())
                                     .addIssue(new JavaCompilerIssue(aTestsJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Error, "Can't be this.")),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)))
+                                    .setSizeAndContentHash(cJavaFile.getContents().await())
                                     .setIssues(Iterable.create(
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 20, 7, Issue.Type.Error, "Can't be this."),
                                         new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 10, 7, Issue.Type.Error, "Can't be this.")))
@@ -2463,9 +2799,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime()),
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -2571,9 +2909,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime()),
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -2656,6 +2996,8 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Modified source files:",
                             "VERBOSE: /sources/A.java",
+                            "VERBOSE: Source files with modified dependencies:",
+                            "VERBOSE: /sources/B.java",
                             "Compiling 2 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/A.java sources/B.java...",
                             "VERBOSE: Compilation finished.",
@@ -2680,9 +3022,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime()),
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(aJavaFile.relativeTo(currentFolder)))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
@@ -2790,9 +3134,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero)),
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(aJavaFile.relativeTo(currentFolder)))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
@@ -2874,8 +3220,6 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Source files with deleted dependencies:",
                             "VERBOSE: /sources/B.java",
-                            "VERBOSE: Source files with modified dependencies:",
-                            "VERBOSE: /sources/B.java",
                             "Compiling 1 file...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/B.java...",
                             "VERBOSE: Compilation finished.",
@@ -2898,6 +3242,7 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(aJavaFile.relativeTo(currentFolder)))))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
@@ -3000,9 +3345,11 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime()),
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3102,6 +3449,9 @@ public interface QubBuildCompileTests
                             "VERBOSE: Detecting java source files to compile...",
                             "VERBOSE: Modified source files:",
                             "VERBOSE: /sources/C.java",
+                            "VERBOSE: Source files with modified dependencies:",
+                            "VERBOSE: /sources/B.java",
+                            "VERBOSE: /sources/A.java",
                             "Compiling 3 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/C.java sources/B.java sources/A.java...",
                             "VERBOSE: Compilation finished.",
@@ -3133,14 +3483,18 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(bJavaFile.relativeTo(currentFolder))),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(cJavaFile.relativeTo(currentFolder))),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime()),
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(cJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(nJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(nJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3243,7 +3597,7 @@ public interface QubBuildCompileTests
                             "VERBOSE: Source files with deleted dependencies:",
                             "VERBOSE: /sources/B.java",
                             "VERBOSE: Source files with modified dependencies:",
-                            "VERBOSE: /sources/B.java",
+                            "VERBOSE: /sources/A.java",
                             "Compiling 2 files...",
                             "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/ sources/B.java sources/A.java...",
                             "VERBOSE: sources/B.java:1: error: Missing definition for C.",
@@ -3277,13 +3631,16 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(bJavaFile.relativeTo(currentFolder))),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(cJavaFile.relativeTo(currentFolder)))
                                     .addIssue(new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 1, 25, Issue.Type.Error, "Missing definition for C.")),
                                 BuildJSONSourceFile.create(nJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(nJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3412,14 +3769,18 @@ public interface QubBuildCompileTests
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(bJavaFile.relativeTo(currentFolder))),
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
                                     .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())
                                     .setDependencies(Iterable.create(cJavaFile.relativeTo(currentFolder))),
                                 BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero)),
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(cJavaFile.getContents().await()),
                                 BuildJSONSourceFile.create(nJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(nJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3508,7 +3869,8 @@ public interface QubBuildCompileTests
                                     .setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3597,7 +3959,8 @@ public interface QubBuildCompileTests
                                     .setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3686,7 +4049,8 @@ public interface QubBuildCompileTests
                                     .setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3794,7 +4158,8 @@ public interface QubBuildCompileTests
                                         .setVersion("1.8")))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3902,7 +4267,8 @@ public interface QubBuildCompileTests
                                         .setVersion("8")))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -3997,7 +4363,8 @@ public interface QubBuildCompileTests
                                         .setVersion("8")))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4092,7 +4459,8 @@ public interface QubBuildCompileTests
                                         .setVersion("1.8")))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(clock.getCurrentDateTime())))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4187,7 +4555,8 @@ public interface QubBuildCompileTests
                                             projectVersionFolder.getProjectSignature().await()))))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4290,7 +4659,8 @@ public interface QubBuildCompileTests
                                     .setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4401,7 +4771,8 @@ public interface QubBuildCompileTests
                                             dVersionFolder.getProjectSignature().await()))))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4502,7 +4873,8 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(bJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4693,7 +5065,8 @@ public interface QubBuildCompileTests
                                             cProjectVersionFolder.getProjectSignature().await()))))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -4817,7 +5190,8 @@ public interface QubBuildCompileTests
                                             eProjectVersionFolder.getProjectSignature().await()))))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
                             .toString(JSONFormat.pretty),
                         buildJsonFile.getContentsAsString().await());
                     test.assertEqual(clock.getCurrentDateTime(), buildJsonFile.getLastModified().await());
@@ -5012,70 +5386,1775 @@ public interface QubBuildCompileTests
                             .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
                             .setSourceFiles(Iterable.create(
                                 BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
-                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash("A.java source".getBytes(java.nio.charset.StandardCharsets.UTF_8))))
                             .toString(JSONFormat.pretty),
                         QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
                 });
-            });
-        });
-    }
 
-    static File getProjectJsonFile(Folder currentFolder)
-    {
-        return currentFolder.getFile("project.json").await();
-    }
+                runner.test("with source file touched without changing its contents",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
 
-    static Folder getOutputsFolder(Folder currentFolder)
-    {
-        return currentFolder.getFolder("outputs").await();
-    }
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
 
-    static Folder getSourcesFolder(Folder currentFolder)
-    {
-        return currentFolder.getFolder("sources").await();
-    }
+                    clock.advance(Duration.minutes(1));
 
-    static Folder getTestsFolder(Folder currentFolder)
-    {
-        return currentFolder.getFolder("tests").await();
-    }
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
 
-    static QubBuildCompileParameters getParameters(FakeDesktopProcess process)
-    {
-        final CharacterToByteWriteStream output = process.getOutputWriteStream();
-        final Folder currentFolder = process.getCurrentFolder();
-        final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
-        final FakeProcessFactory processFactory = process.getProcessFactory();
-        final QubFolder qubFolder = process.getQubFolder().await();
-        final Folder projectDataFolder = process.getQubProjectDataFolder().await();
-        return new QubBuildCompileParameters(output, currentFolder, environmentVariables, processFactory, qubFolder, projectDataFolder);
-    }
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), aClassFile.getLastModified().await());
 
-    static Iterable<String> getOutputLines(InMemoryCharacterStream output)
-    {
-        return Strings.getLines(output.getText().await());
-    }
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    test.assertEqual(clock.getCurrentDateTime(), aJavaFile.getLastModified().await());
 
-    static Iterable<String> getLogFileContentLines(DesktopProcess process)
-    {
-        final Folder projectDataFolder = process.getQubProjectDataFolder().await();
-        return Strings.getLines(projectDataFolder.getFile("logs/1.log").await().getContentsAsString().await());
-    }
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
 
-    static Iterable<String> getOutputsFolderFilePathStrings(Folder outputsFolder)
-    {
-        return outputsFolder.iterateFilesRecursively()
-            .map((File entry) -> entry.getPath().relativeTo(outputsFolder).toString())
-            .toList();
-    }
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
 
-    static File getBuildJSONFile(Folder outputsFolder)
-    {
-        return outputsFolder.getFile("build.json").await();
-    }
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), aClassFile.getLastModified().await());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(2)))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
+                            .toString(JSONFormat.pretty),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+                });
 
-    static String getBuildJSONFileContent(Folder outputsFolder)
-    {
-        return QubBuildCompileTests.getBuildJSONFile(outputsFolder).getContentsAsString().await();
+                runner.test("with --filehashes=false and source file touched without changing its contents",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setFileHashes(false)));
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), aClassFile.getLastModified().await());
+
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setFileHashes(false)));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(2)), aClassFile.getLastModified().await());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.minutes(2)))))
+                            .toString(JSONFormat.pretty),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+                });
+
+                runner.test("with a process factory whose working folder isn't the folder to build",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder projectFolder = currentFolder.getFolder("project").await();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(projectFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(projectFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(projectFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(projectFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(projectFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    final QubBuildCompileParameters parameters = new QubBuildCompileParameters(
+                        output,
+                        projectFolder,
+                        process.getEnvironmentVariables(),
+                        process.getProcessFactory(),
+                        process.getQubFolder().await(),
+                        process.getQubProjectDataFolder().await());
+
+                    test.assertEqual(0, QubBuildCompile.run(parameters));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", outputsFolder.getFile("A.class").await().getContentsAsString().await());
+                    test.assertFalse(currentFolder.getFolder("outputs").await().exists().await());
+                });
+
+                runner.test("with --jobs=2 and two independent source files",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically())
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(bJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setJobs(2)));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual("A.java bytecode", outputsFolder.getFile("A.class").await().getContentsAsString().await());
+                    test.assertEqual("B.java bytecode", outputsFolder.getFile("B.class").await().getContentsAsString().await());
+                });
+
+                runner.test("with --jobs=2 and a batch that fails",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { }").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("public class B { }").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    cJavaFile.setContentsAsString("public class C { private A a; }").await();
+                    final File dJavaFile = sourcesFolder.getFile("D.java").await();
+                    dJavaFile.setContentsAsString("public class D { private B b; }").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .addCompilerIssues(
+                                new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?"))
+                            .setCompileFunctionAutomatically())
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(bJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertTrue(QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setJobs(2)) > 0);
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 4 files...",
+                            "Batch 1 of 2 failed, so 2 files weren't compiled.",
+                            "1 Error:",
+                            "sources/A.java (Line 1): Are you sure?"),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertFalse(outputsFolder.getFile("C.class").await().exists().await());
+                    test.assertFalse(outputsFolder.getFile("D.class").await().exists().await());
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
+                                BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder)),
+                                BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
+                                    .setDependencies(Iterable.create(aJavaFile.relativeTo(currentFolder))),
+                                BuildJSONSourceFile.create(dJavaFile.relativeTo(currentFolder))
+                                    .setDependencies(Iterable.create(bJavaFile.relativeTo(currentFolder)))))
+                            .toString(JSONFormat.pretty),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+                });
+
+                runner.test("with --failfast=1 and two source files with errors",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile)
+                            .addCompilerIssues(
+                                new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?"),
+                                new JavaCompilerIssue(bJavaFile.relativeTo(currentFolder), 2, 3, Issue.Type.Error, "Not this either."))
+                            .setCompileFunctionAutomatically());
+
+                    test.assertTrue(QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setFailFast(1)) > 0);
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files...",
+                            "1 Error:",
+                            "sources/A.java (Line 1): Are you sure?"),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())
+                                    .addIssue(new JavaCompilerIssue(aJavaFile.relativeTo(currentFolder), 1, 5, Issue.Type.Error, "Are you sure?")),
+                                BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))))
+                            .toString(JSONFormat.pretty),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(bJavaFile, aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setFailFast(1)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files...",
+                            "1 Error:",
+                            "sources/A.java (Line 1): Are you sure?",
+                            "Compiling 2 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                });
+
+                runner.test("with --sourcepath and a modified source file with transitive dependents",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source, depends on B").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source, depends on C").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A.java bytecode").await();
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+                    bClassFile.setContentsAsString("B.java bytecode").await();
+                    final File cClassFile = outputsFolder.getFile("C.class").await();
+                    cClassFile.setContentsAsString("C.java bytecode").await();
+                    QubBuildCompileTests.getBuildJSONFile(outputsFolder).setContentsAsString(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setDependencies(Iterable.create(bJavaFile.relativeTo(currentFolder))),
+                                BuildJSONSourceFile.create(bJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())
+                                    .setDependencies(Iterable.create(cJavaFile.relativeTo(currentFolder))),
+                                BuildJSONSourceFile.create(cJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(clock.getCurrentDateTime())))
+                            .toString()).await();
+
+                    clock.advance(Duration.seconds(1));
+
+                    cJavaFile.setContentsAsString("C.java source").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addArguments("-sourcepath", "sources", "-implicit:class")
+                            .addSourceFiles(cJavaFile, bJavaFile, aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setSourcepath(true)));
+                    test.assertFalse(output.isDisposed());
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 3 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), bClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), cClassFile.getLastModified().await());
+                });
+
+                runner.test("with --statefile and a source file modified between builds",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setStateFile(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.state"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+
+                    clock.advance(Duration.minutes(1));
+                    bJavaFile.setContentsAsString("B.java source 2").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(bJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setStateFile(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 2 files...",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "build.state"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), aClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), bClassFile.getLastModified().await());
+
+                    final BuildStateFile buildStateFile = BuildStateFile.read(outputsFolder.getFile("build.state").await()).await();
+                    test.assertEqual(clock.getCurrentDateTime(), buildStateFile.getSourceFile(bJavaFile.relativeTo(currentFolder)).await().getLastModified());
+                });
+
+                runner.test("with --prettyjson=false",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setPrettyJson(false)));
+                    test.assertEqual(
+                        BuildJSON.create()
+                            .setJavacVersion("14.0.1")
+                            .setProjectJson(ProjectJSON.create().setJava(ProjectJSONJava.create()))
+                            .setSourceFiles(Iterable.create(
+                                BuildJSONSourceFile.create(aJavaFile.relativeTo(currentFolder))
+                                    .setLastModified(DateTime.createFromDurationSinceEpoch(Duration.zero))
+                                    .setSizeAndContentHash(aJavaFile.getContents().await())))
+                            .toString(JSONFormat.consise),
+                        QubBuildCompileTests.getBuildJSONFileContent(outputsFolder));
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setPrettyJson(false)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+                });
+
+                runner.test("with --journal and a source file modified between builds",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("B.java source").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    cJavaFile.setContentsAsString("C.java source").await();
+                    final File dJavaFile = sourcesFolder.getFile("D.java").await();
+                    dJavaFile.setContentsAsString("D.java source").await();
+                    final File journalFile = outputsFolder.getFile("build.journal").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile, cJavaFile, dJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setJournal(true)));
+                    test.assertFalse(journalFile.exists().await());
+
+                    clock.advance(Duration.minutes(1));
+                    bJavaFile.setContentsAsString("B.java source 2").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(bJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setJournal(true)));
+                    final String journalText = journalFile.getContentsAsString().await();
+                    test.assertTrue(journalText.contains("sources/B.java"));
+                    test.assertFalse(journalText.contains("sources/A.java"));
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setJournal(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 4 files...",
+                            "Compiling 1 file...",
+                            "No files need to be compiled."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(
+                        Iterable.create(
+                            "A.class",
+                            "B.class",
+                            "C.class",
+                            "D.class",
+                            "build.journal",
+                            "build.json"),
+                        QubBuildCompileTests.getOutputsFolderFilePathStrings(outputsFolder),
+                        "Wrong files in outputs folder");
+                });
+
+                runner.test("with --refindex and an added type that an unmodified source file refers to",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { private B b; }").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setRefIndex(true)));
+
+                    clock.advance(Duration.minutes(1));
+                    bJavaFile.setContentsAsString("public class B { }").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(bJavaFile, aJavaFile)
+                            .setCompileFunctionAutomatically());
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setRefIndex(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "Compiling 2 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(
+                        Iterable.create(bJavaFile.relativeTo(currentFolder)),
+                        QubBuildCompile.readBuildState(QubBuildCompileTests.getBuildJSONFile(outputsFolder)).getSourceFile(aJavaFile.relativeTo(currentFolder)).await().getDependencies());
+                });
+
+                runner.test("with class files that refer to types that their source files don't name",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { public int a() { return 1; } }").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("public class B { public int b() { return C.create().a(); } }").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    cJavaFile.setContentsAsString("public class C { public static A create() { return new A(); } }").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile, cJavaFile)
+                            .setFunction(() ->
+                            {
+                                outputsFolder.getFile("A.class").await().setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create("a ()I"), Iterable.create())).await();
+                                outputsFolder.getFile("B.class").await().setContents(QubBuildCompileTests.createClassFileBytes("B", "java/lang/Object", Iterable.create("b ()I"), Iterable.create("C", "A"))).await();
+                                outputsFolder.getFile("C.class").await().setContents(QubBuildCompileTests.createClassFileBytes("C", "java/lang/Object", Iterable.create("create ()LA;"), Iterable.create("A"))).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 3 files..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    // B.java only refers to A in its class file, since it never names A.
+                    final BuildJSON buildJson = QubBuildCompile.readBuildState(QubBuildCompileTests.getBuildJSONFile(outputsFolder));
+                    final Iterable<Path> bDependencies = buildJson.getSourceFile(bJavaFile.relativeTo(currentFolder)).await().getDependencies();
+                    test.assertTrue(bDependencies.contains(aJavaFile.relativeTo(currentFolder)));
+                    test.assertTrue(bDependencies.contains(cJavaFile.relativeTo(currentFolder)));
+                    test.assertEqual(
+                        Iterable.create(aJavaFile.relativeTo(currentFolder)),
+                        buildJson.getSourceFile(cJavaFile.relativeTo(currentFolder)).await().getDependencies());
+                });
+
+                runner.test("with a nested class that is removed from its source file",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { public static class N { } }").await();
+                    final File nestedClassFile = outputsFolder.getFile("A$N.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                outputsFolder.getFile("A.class").await().setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create(), Iterable.create("A$N"))).await();
+                                nestedClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A$N", "java/lang/Object", Iterable.create(), Iterable.create("A"))).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertTrue(nestedClassFile.exists().await());
+                    BuildJSON buildJson = QubBuildCompile.readBuildState(QubBuildCompileTests.getBuildJSONFile(outputsFolder));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("A.class"), Path.parse("A$N.class")),
+                        buildJson.getSourceFile(aJavaFile.relativeTo(currentFolder)).await().getClassFiles());
+
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("public class A { }").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                outputsFolder.getFile("A.class").await().setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create(), Iterable.create())).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 1 file...",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+
+                    // The nested class that was removed from A.java was recorded as one of its
+                    // class files, so it is deleted.
+                    test.assertFalse(nestedClassFile.exists().await());
+                    buildJson = QubBuildCompile.readBuildState(QubBuildCompileTests.getBuildJSONFile(outputsFolder));
+                    test.assertEqual(
+                        Iterable.create(Path.parse("A.class")),
+                        buildJson.getSourceFile(aJavaFile.relativeTo(currentFolder)).await().getClassFiles());
+                });
+
+                runner.test("with --abi and class files that can be parsed",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { public int a() { return 1; } }").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("public class B { public int b() { return C.create().a(); } }").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    cJavaFile.setContentsAsString("public class C { public static A create() { return new A(); } }").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+                    final File cClassFile = outputsFolder.getFile("C.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile, cJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create("a ()I"), Iterable.create())).await();
+                                bClassFile.setContents(QubBuildCompileTests.createClassFileBytes("B", "java/lang/Object", Iterable.create("b ()I"), Iterable.create("C", "A"))).await();
+                                cClassFile.setContents(QubBuildCompileTests.createClassFileBytes("C", "java/lang/Object", Iterable.create("create ()LA;"), Iterable.create("A"))).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setAbi(true)));
+
+                    // Changing a method body doesn't change A's API, so B and C aren't compiled.
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("public class A { public int a() { return 2; } }").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create("a ()I"), Iterable.create())).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setAbi(true)));
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), bClassFile.getLastModified().await());
+                    test.assertEqual(DateTime.createFromDurationSinceEpoch(Duration.minutes(1)), cClassFile.getLastModified().await());
+
+                    // Adding a method changes A's API, so its dependents are compiled after it.
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("public class A { public int a() { return 2; } public int b() { return 3; } }").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create("a ()I", "b ()I"), Iterable.create())).await();
+                            }))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(bJavaFile, cJavaFile)
+                            .setFunction(() ->
+                            {
+                                bClassFile.setContents(QubBuildCompileTests.createClassFileBytes("B", "java/lang/Object", Iterable.create("b ()I"), Iterable.create("C", "A"))).await();
+                                cClassFile.setContents(QubBuildCompileTests.createClassFileBytes("C", "java/lang/Object", Iterable.create("create ()LA;"), Iterable.create("A"))).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setAbi(true)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 3 files...",
+                            "Compiling 1 file...",
+                            "Compiling 1 file..."),
+                        QubBuildCompileTests.getOutputLines(output));
+                    test.assertEqual(clock.getCurrentDateTime(), aClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), bClassFile.getLastModified().await());
+                    test.assertEqual(clock.getCurrentDateTime(), cClassFile.getLastModified().await());
+                });
+
+                runner.test("with --abi and a removed method that a dependent inherits",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryCharacterToByteStream output = process.getOutputWriteStream();
+                    final ManualClock clock = process.getClock();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final Folder sourcesFolder = QubBuildCompileTests.getSourcesFolder(currentFolder);
+
+                    QubBuildCompileTests.getProjectJsonFile(currentFolder)
+                        .setContentsAsString(
+                            ProjectJSON.create()
+                                .setJava(ProjectJSONJava.create())
+                                .toString())
+                        .await();
+                    final File aJavaFile = sourcesFolder.getFile("A.java").await();
+                    aJavaFile.setContentsAsString("public class A { public void m() { } }").await();
+                    final File bJavaFile = sourcesFolder.getFile("B.java").await();
+                    bJavaFile.setContentsAsString("public class B extends A { }").await();
+                    final File cJavaFile = sourcesFolder.getFile("C.java").await();
+                    cJavaFile.setContentsAsString("public class C { public void c(B b) { b.m(); } }").await();
+                    final File aClassFile = outputsFolder.getFile("A.class").await();
+                    final File bClassFile = outputsFolder.getFile("B.class").await();
+                    final File cClassFile = outputsFolder.getFile("C.class").await();
+
+                    clock.advance(Duration.minutes(1));
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(aJavaFile, bJavaFile, cJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create("m ()V"), Iterable.create())).await();
+                                bClassFile.setContents(QubBuildCompileTests.createClassFileBytes("B", "A", Iterable.create(), Iterable.create())).await();
+                                cClassFile.setContents(QubBuildCompileTests.createClassFileBytes("C", "java/lang/Object", Iterable.create("c (LB;)V"), Iterable.create("B"))).await();
+                            }));
+
+                    test.assertEqual(0, QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setAbi(true)));
+
+                    // Removing m() changes A's API but not B's, so C only breaks through B.
+                    clock.advance(Duration.minutes(1));
+                    aJavaFile.setContentsAsString("public class A { }").await();
+
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1\r\n"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFile(aJavaFile)
+                            .setFunction(() ->
+                            {
+                                aClassFile.setContents(QubBuildCompileTests.createClassFileBytes("A", "java/lang/Object", Iterable.create(), Iterable.create())).await();
+                            }))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(outputsFolder)
+                            .addSourceFiles(bJavaFile, cJavaFile)
+                            .addCompilerIssues(
+                                new JavaCompilerIssue(cJavaFile.relativeTo(currentFolder), 1, 39, Issue.Type.Error, "cannot find symbol"))
+                            .setCompileFunctionAutomatically());
+
+                    test.assertTrue(QubBuildCompile.run(QubBuildCompileTests.getParameters(process).setAbi(true)) > 0);
+                    test.assertEqual(
+                        Iterable.create(
+                            "Compiling 3 files...",
+                            "Compiling 1 file...",
+                            "1 Error:",
+                            "sources/C.java (Line 1): cannot find symbol"),
+                        QubBuildCompileTests.getOutputLines(output));
+                });
+            });
+
+            runner.testGroup("getCompilationBatches(Iterable<File>,BuildJSON,Folder,int)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                final File cJavaFile = folderToBuild.getFile("sources/C.java").await();
+                final File dJavaFile = folderToBuild.getFile("sources/D.java").await();
+                final File eJavaFile = folderToBuild.getFile("sources/E.java").await();
+                final File fJavaFile = folderToBuild.getFile("sources/F.java").await();
+
+                runner.test("with independent source files", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java")));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile),
+                                Iterable.create(bJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(aJavaFile, bJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with a dependency chain", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, bJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(bJavaFile, aJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with a dependency cycle", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, bJavaFile, cJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(aJavaFile, bJavaFile, cJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with a dependency that isn't being compiled", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(bJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(bJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with a later group that depends on one of the earlier groups", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java"),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, cJavaFile),
+                                Iterable.create(bJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(aJavaFile, bJavaFile, cJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with later groups that depend on the same earlier group", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, bJavaFile, cJavaFile))),
+                        QubBuildCompile.getCompilationBatches(Iterable.create(aJavaFile, bJavaFile, cJavaFile), buildJson, folderToBuild, 2));
+                });
+
+                runner.test("with more batches than jobs", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java"),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                            BuildJSONSourceFile.create("sources/D.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                            BuildJSONSourceFile.create("sources/E.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/C.java"))),
+                            BuildJSONSourceFile.create("sources/F.java")
+                                .setDependencies(Iterable.create(Path.parse("sources/D.java")))));
+                    final Iterable<File> javaSourceFiles = Iterable.create(aJavaFile, bJavaFile, cJavaFile, dJavaFile, eJavaFile, fJavaFile);
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, cJavaFile),
+                                Iterable.create(bJavaFile, dJavaFile)),
+                            Iterable.create(
+                                Iterable.create(eJavaFile),
+                                Iterable.create(fJavaFile))),
+                        QubBuildCompile.getCompilationBatches(javaSourceFiles, buildJson, folderToBuild, 2));
+                    test.assertEqual(
+                        Iterable.create(
+                            Iterable.create(
+                                Iterable.create(aJavaFile, cJavaFile, eJavaFile),
+                                Iterable.create(bJavaFile, dJavaFile, fJavaFile))),
+                        QubBuildCompile.getCompilationBatches(javaSourceFiles, buildJson, folderToBuild, 1));
+                });
+            });
+
+            runner.testGroup("forgetStoppedSourceFiles(BuildJSON,Iterable<File>,Iterable<JavaCompilerIssue>,Folder)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                final DateTime lastModified = DateTime.create(2020, 1, 2, 3, 4);
+
+                runner.test("with no issues", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(lastModified),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setLastModified(lastModified)
+                                .setDependencies(Iterable.create(Path.parse("sources/A.java")))));
+
+                    QubBuildCompile.forgetStoppedSourceFiles(buildJson, Iterable.create(bJavaFile), Iterable.create(), folderToBuild);
+
+                    test.assertEqual(lastModified, buildJson.getSourceFile("sources/A.java").await().getLastModified());
+                    final BuildJSONSourceFile bSourceFile = buildJson.getSourceFile("sources/B.java").await();
+                    test.assertNull(bSourceFile.getLastModified());
+                    test.assertEqual(Iterable.create(Path.parse("sources/A.java")), bSourceFile.getDependencies());
+                });
+
+                runner.test("with an error", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(lastModified),
+                            BuildJSONSourceFile.create("sources/B.java")
+                                .setLastModified(lastModified)));
+
+                    QubBuildCompile.forgetStoppedSourceFiles(
+                        buildJson,
+                        Iterable.create(aJavaFile, bJavaFile),
+                        Iterable.create(JavaCompilerIssue.error("sources/A.java", 1, 5, "Are you sure?")),
+                        folderToBuild);
+
+                    test.assertEqual(lastModified, buildJson.getSourceFile("sources/A.java").await().getLastModified());
+                    test.assertNull(buildJson.getSourceFile("sources/B.java").await().getLastModified());
+                });
+
+                runner.test("with only a warning", (Test test) ->
+                {
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setLastModified(lastModified)));
+
+                    QubBuildCompile.forgetStoppedSourceFiles(
+                        buildJson,
+                        Iterable.create(aJavaFile),
+                        Iterable.create(JavaCompilerIssue.warning("sources/A.java", 1, 5, "Are you sure?")),
+                        folderToBuild);
+
+                    test.assertNull(buildJson.getSourceFile("sources/A.java").await().getLastModified());
+                });
+            });
+
+            runner.testGroup("readPreviousClassFiles(QubBuildCompileParameters,Iterable<File>,Map<Path,Iterable<Path>>,FileSnapshot,Folder)", () ->
+            {
+                runner.test("with in-process compiler",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final File aJavaFile = currentFolder.createFile("sources/A.java").await();
+                    outputsFolder.createFile("A.class").await();
+                    final FileSnapshot fileSnapshot = FileSnapshot.create(Iterable.create(aJavaFile), outputsFolder).await();
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setCompilerType(JavaCompilerType.InProcess);
+
+                    test.assertFalse(QubBuildCompile.readPreviousClassFiles(parameters, Iterable.create(aJavaFile), Map.create(), fileSnapshot, outputsFolder).any());
+                });
+
+                runner.test("with process compiler and class files that aren't on the real file system",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputsFolder = QubBuildCompileTests.getOutputsFolder(currentFolder);
+                    final File aJavaFile = currentFolder.createFile("sources/A.java").await();
+                    outputsFolder.createFile("A.class").await();
+                    final FileSnapshot fileSnapshot = FileSnapshot.create(Iterable.create(aJavaFile), outputsFolder).await();
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setCompilerType(JavaCompilerType.Process);
+
+                    test.assertFalse(QubBuildCompile.readPreviousClassFiles(parameters, Iterable.create(aJavaFile), Map.create(), fileSnapshot, outputsFolder).any());
+                });
+            });
+
+            runner.testGroup("deleteStaleClassFiles(Iterable<File>,BuildJSON,Map<Path,Iterable<Path>>,FileSnapshot,Folder,Folder)", () ->
+            {
+                runner.test("with no previously recorded class files", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final Folder outputsFolder = folderToBuild.getFolder("outputs").await();
+                    final File aJavaFile = folderToBuild.createFile("sources/A.java").await();
+                    final File aClassFile = outputsFolder.createFile("A.class").await();
+                    final File a1ClassFile = outputsFolder.createFile("A$1.class").await();
+                    final File a2ClassFile = outputsFolder.createFile("A$2.class").await();
+                    final File bClassFile = outputsFolder.createFile("B.class").await();
+                    final FileSnapshot fileSnapshot = FileSnapshot.create(Iterable.create(aJavaFile), outputsFolder).await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setClassFiles(Iterable.create(Path.parse("A.class"), Path.parse("A$1.class")))));
+
+                    QubBuildCompile.deleteStaleClassFiles(Iterable.create(aJavaFile), buildJson, Map.create(), fileSnapshot, folderToBuild, outputsFolder);
+
+                    test.assertTrue(aClassFile.exists().await());
+                    test.assertTrue(a1ClassFile.exists().await());
+                    test.assertFalse(a2ClassFile.exists().await());
+                    test.assertTrue(bClassFile.exists().await());
+                });
+
+                runner.test("with previously recorded class files", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final Folder outputsFolder = folderToBuild.getFolder("outputs").await();
+                    final File aJavaFile = folderToBuild.createFile("sources/A.java").await();
+                    final File aClassFile = outputsFolder.createFile("A.class").await();
+                    final File bClassFile = outputsFolder.createFile("B.class").await();
+                    final FileSnapshot fileSnapshot = FileSnapshot.create(Iterable.create(aJavaFile), outputsFolder).await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setClassFiles(Iterable.create(Path.parse("A.class")))));
+                    final Map<Path,Iterable<Path>> previousClassFiles = Map.create();
+                    previousClassFiles.set(Path.parse("sources/A.java"), Iterable.create(Path.parse("A.class"), Path.parse("B.class")));
+
+                    QubBuildCompile.deleteStaleClassFiles(Iterable.create(aJavaFile), buildJson, previousClassFiles, fileSnapshot, folderToBuild, outputsFolder);
+
+                    test.assertTrue(aClassFile.exists().await());
+                    test.assertFalse(bClassFile.exists().await());
+                });
+
+                runner.test("with a source file whose class files weren't recorded", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final Folder outputsFolder = folderToBuild.getFolder("outputs").await();
+                    final File aJavaFile = folderToBuild.createFile("sources/A.java").await();
+                    final File aClassFile = outputsFolder.createFile("A.class").await();
+                    final File a1ClassFile = outputsFolder.createFile("A$1.class").await();
+                    final FileSnapshot fileSnapshot = FileSnapshot.create(Iterable.create(aJavaFile), outputsFolder).await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")));
+
+                    QubBuildCompile.deleteStaleClassFiles(Iterable.create(aJavaFile), buildJson, Map.create(), fileSnapshot, folderToBuild, outputsFolder);
+
+                    test.assertTrue(aClassFile.exists().await());
+                    test.assertTrue(a1ClassFile.exists().await());
+                });
+            });
+
+            runner.testGroup("addDependenciesOnAddedTypes(Iterable<File>,Iterable<File>,BuildJSON,Folder)", () ->
+            {
+                runner.test("with unmodified source file that refers to an added type", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                    final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                    final File cJavaFile = folderToBuild.getFile("sources/C.java").await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setImports(Iterable.create())
+                                .setReferences(Iterable.create("A", "B", "class")),
+                            BuildJSONSourceFile.create("sources/B.java"),
+                            BuildJSONSourceFile.create("sources/C.java")
+                                .setImports(Iterable.create())
+                                .setReferences(Iterable.create("C", "class"))));
+
+                    final Iterable<File> result = QubBuildCompile.addDependenciesOnAddedTypes(Iterable.create(bJavaFile), Iterable.create(aJavaFile, cJavaFile), buildJson, folderToBuild);
+                    test.assertEqual(Iterable.create(aJavaFile), result);
+                    test.assertEqual(Iterable.create(Path.parse("sources/B.java")), buildJson.getSourceFile("sources/A.java").await().getDependencies());
+                    test.assertNull(buildJson.getSourceFile("sources/C.java").await().getDependencies());
+                });
+
+                runner.test("with unmodified source file that already depends on the changed source file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                    final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java")
+                                .setImports(Iterable.create())
+                                .setReferences(Iterable.create("A", "B", "class"))
+                                .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                            BuildJSONSourceFile.create("sources/B.java")));
+
+                    final Iterable<File> result = QubBuildCompile.addDependenciesOnAddedTypes(Iterable.create(bJavaFile), Iterable.create(aJavaFile), buildJson, folderToBuild);
+                    test.assertEqual(Iterable.create(), result);
+                    test.assertEqual(Iterable.create(Path.parse("sources/B.java")), buildJson.getSourceFile("sources/A.java").await().getDependencies());
+                });
+
+                runner.test("with unmodified source file whose references weren't recorded", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                    final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                    final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                    final BuildJSON buildJson = BuildJSON.create()
+                        .setSourceFiles(Iterable.create(
+                            BuildJSONSourceFile.create("sources/A.java"),
+                            BuildJSONSourceFile.create("sources/B.java")));
+
+                    final Iterable<File> result = QubBuildCompile.addDependenciesOnAddedTypes(Iterable.create(bJavaFile), Iterable.create(aJavaFile), buildJson, folderToBuild);
+                    test.assertEqual(Iterable.create(), result);
+                    test.assertNull(buildJson.getSourceFile("sources/A.java").await().getDependencies());
+                });
+            });
+
+            runner.testGroup("getApiDependents(Iterable<File>,Set<Path>,Set<File>,BuildJSON,Folder)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                final File aJavaFile = folderToBuild.getFile("sources/A.java").await();
+                final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                final File cJavaFile = folderToBuild.getFile("sources/C.java").await();
+                final Iterable<File> javaSourceFiles = Iterable.create(aJavaFile, bJavaFile, cJavaFile);
+                final BuildJSON buildJson = BuildJSON.create()
+                    .setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java"),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java")))));
+
+                runner.test("with no changed APIs", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubBuildCompile.getApiDependents(javaSourceFiles, Set.create(), Set.create(aJavaFile), buildJson, folderToBuild));
+                });
+
+                runner.test("with changed API", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(bJavaFile, cJavaFile),
+                        QubBuildCompile.getApiDependents(javaSourceFiles, Set.create(Path.parse("sources/A.java")), Set.create(aJavaFile), buildJson, folderToBuild));
+                });
+
+                runner.test("with changed API and compiled dependent", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(cJavaFile),
+                        QubBuildCompile.getApiDependents(javaSourceFiles, Set.create(Path.parse("sources/A.java")), Set.create(aJavaFile, bJavaFile), buildJson, folderToBuild));
+                });
+            });
+
+            runner.testGroup("getDependentsToCompile(Iterable<Path>,Iterable<File>,boolean,BuildJSON,Folder)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder folderToBuild = fileSystem.getFolder("/project/").await();
+                final File bJavaFile = folderToBuild.getFile("sources/B.java").await();
+                final File cJavaFile = folderToBuild.getFile("sources/C.java").await();
+                final File dJavaFile = folderToBuild.getFile("sources/D.java").await();
+                final BuildJSON buildJson = BuildJSON.create()
+                    .setSourceFiles(Iterable.create(
+                        BuildJSONSourceFile.create("sources/A.java"),
+                        BuildJSONSourceFile.create("sources/B.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/A.java"))),
+                        BuildJSONSourceFile.create("sources/C.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/B.java"))),
+                        BuildJSONSourceFile.create("sources/D.java")
+                            .setDependencies(Iterable.create(Path.parse("sources/C.java"), Path.parse("sources/A.java")))));
+                final Iterable<Path> changedSourceFilePaths = Iterable.create(Path.parse("sources/A.java"));
+
+                runner.test("with no candidates", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(),
+                        QubBuildCompile.getDependentsToCompile(changedSourceFilePaths, Iterable.create(), true, buildJson, folderToBuild));
+                });
+
+                runner.test("with direct dependents", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(bJavaFile, dJavaFile),
+                        QubBuildCompile.getDependentsToCompile(changedSourceFilePaths, Iterable.create(bJavaFile, cJavaFile, dJavaFile), false, buildJson, folderToBuild));
+                });
+
+                runner.test("with transitive dependents", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(bJavaFile, dJavaFile, cJavaFile),
+                        QubBuildCompile.getDependentsToCompile(changedSourceFilePaths, Iterable.create(bJavaFile, cJavaFile, dJavaFile), true, buildJson, folderToBuild));
+                });
+
+                runner.test("with a dependent that isn't a candidate", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create(dJavaFile),
+                        QubBuildCompile.getDependentsToCompile(changedSourceFilePaths, Iterable.create(cJavaFile, dJavaFile), true, buildJson, folderToBuild));
+                });
+            });
+        });
+    }
+
+    static File getProjectJsonFile(Folder currentFolder)
+    {
+        return currentFolder.getFile("project.json").await();
+    }
+
+    static Folder getOutputsFolder(Folder currentFolder)
+    {
+        return currentFolder.getFolder("outputs").await();
+    }
+
+    static Folder getSourcesFolder(Folder currentFolder)
+    {
+        return currentFolder.getFolder("sources").await();
+    }
+
+    static Folder getTestsFolder(Folder currentFolder)
+    {
+        return currentFolder.getFolder("tests").await();
+    }
+
+    static QubBuildCompileParameters getParameters(FakeDesktopProcess process)
+    {
+        final CharacterToByteWriteStream output = process.getOutputWriteStream();
+        final Folder currentFolder = process.getCurrentFolder();
+        final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+        final FakeProcessFactory processFactory = process.getProcessFactory();
+        final QubFolder qubFolder = process.getQubFolder().await();
+        final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+        return new QubBuildCompileParameters(output, currentFolder, environmentVariables, processFactory, qubFolder, projectDataFolder);
+    }
+
+    static Iterable<String> getOutputLines(InMemoryCharacterStream output)
+    {
+        return Strings.getLines(output.getText().await());
+    }
+
+    static Iterable<String> getLogFileContentLines(DesktopProcess process)
+    {
+        final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+        return Strings.getLines(projectDataFolder.getFile("logs/1.log").await().getContentsAsString().await());
+    }
+
+    static Iterable<String> getOutputsFolderFilePathStrings(Folder outputsFolder)
+    {
+        return outputsFolder.iterateFilesRecursively()
+            .map((File entry) -> entry.getPath().relativeTo(outputsFolder).toString())
+            .toList();
+    }
+
+    static File getBuildJSONFile(Folder outputsFolder)
+    {
+        return outputsFolder.getFile("build.json").await();
+    }
+
+    static String getBuildJSONFileContent(Folder outputsFolder)
+    {
+        return QubBuildCompileTests.getBuildJSONFile(outputsFolder).getContentsAsString().await();
+    }
+
+    /**
+     * Create the bytes of a class file that declares the provided public methods and that refers to
+     * the provided classes. The methods have no code, but the rest of the class file is laid out the
+     * way javac writes it, so a fake javac process can write class files that can be parsed.
+     * @param className The internal name of the class.
+     * @param superClassName The internal name of the class's super class.
+     * @param methods The name and descriptor of each method, separated by a space.
+     * @param referencedClassNames The internal names of the other classes that the class refers to.
+     * @return The bytes of the class file.
+     */
+    static byte[] createClassFileBytes(String className, String superClassName, Iterable<String> methods, Iterable<String> referencedClassNames)
+    {
+        final List<String> classNames = List.create();
+        classNames.add(className);
+        classNames.add(superClassName);
+        classNames.addAll(referencedClassNames);
+
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (final java.io.DataOutputStream classFile = new java.io.DataOutputStream(bytes))
+        {
+            classFile.writeInt(0xCAFEBABE);
+            classFile.writeShort(0); // minor_version
+            classFile.writeShort(52); // major_version
+            classFile.writeShort(1 + (classNames.getCount() * 2) + (methods.getCount() * 2)); // constant_pool_count
+
+            // Each class is a CONSTANT_Utf8 followed by the CONSTANT_Class that names it.
+            int constantIndex = 1;
+            for (final String name : classNames)
+            {
+                classFile.writeByte(1);
+                classFile.writeUTF(name);
+                classFile.writeByte(7);
+                classFile.writeShort(constantIndex);
+                constantIndex += 2;
+            }
+            for (final String method : methods)
+            {
+                for (final String methodPart : method.split(" "))
+                {
+                    classFile.writeByte(1);
+                    classFile.writeUTF(methodPart);
+                }
+            }
+
+            classFile.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+            classFile.writeShort(2); // this_class
+            classFile.writeShort(4); // super_class
+            classFile.writeShort(0); // interfaces_count
+            classFile.writeShort(0); // fields_count
+            classFile.writeShort(methods.getCount());
+            for (int i = 0; i < methods.getCount(); ++i)
+            {
+                classFile.writeShort(0x0001); // ACC_PUBLIC
+                classFile.writeShort(constantIndex); // name_index
+                classFile.writeShort(constantIndex + 1); // descriptor_index
+                classFile.writeShort(0); // attributes_count
+                constantIndex += 2;
+            }
+            classFile.writeShort(0); // attributes_count
+        }
+        catch (java.io.IOException e)
+        {
+            throw Exceptions.asRuntime(e);
+        }
+        return bytes.toByteArray();
     }
 }
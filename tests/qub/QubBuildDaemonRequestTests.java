@@ -0,0 +1,177 @@
+package qub;
+
+public interface QubBuildDaemonRequestTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildDaemonRequest.class, () ->
+        {
+            runner.testGroup("create(QubBuildCompileParameters)", () ->
+            {
+                runner.test("with null parameters", (Test test) ->
+                {
+                    test.assertThrows(() -> QubBuildDaemonRequest.create((QubBuildCompileParameters)null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with default parameters",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process);
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse(QubBuildDaemonRequest.create(parameters).toString(JSONFormat.consise)).await();
+                    QubBuildDaemonRequestTests.assertRequest(test, parameters, request);
+                    test.assertNull(request.getJavaHome());
+                    test.assertNull(request.getPathEnvironmentVariable());
+                });
+
+                runner.test("with non-default parameters",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    process.getEnvironmentVariables()
+                        .set("JAVA_HOME", "/java/home/");
+                    process.getEnvironmentVariables()
+                        .set("PATH", "/java/home/bin/");
+                    final QubBuildCompileParameters parameters = QubBuildCompileTests.getParameters(process)
+                        .setWarnings(Warnings.Error)
+                        .setBuildJson(false)
+                        .setCompilerType(JavaCompilerType.InProcess)
+                        .setVerbose(VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream()).setIsVerbose(true))
+                        .setJobs(4)
+                        .setArgumentsFileThreshold(100)
+                        .setLiveIssues(true)
+                        .setFailFast(3)
+                        .setSourcepath(true)
+                        .setFileHashes(false)
+                        .setAbi(true)
+                        .setStateFile(true)
+                        .setPrettyJson(false)
+                        .setJournal(true)
+                        .setRefIndex(true);
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse(QubBuildDaemonRequest.create(parameters).toString(JSONFormat.consise)).await();
+                    QubBuildDaemonRequestTests.assertRequest(test, parameters, request);
+                    test.assertEqual("/java/home/", request.getJavaHome());
+                    test.assertEqual("/java/home/bin/", request.getPathEnvironmentVariable());
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with empty object", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertNull(request.getFolder());
+                    test.assertEqual(QubBuildCompileParameters.getWarningsDefault(), request.getWarnings());
+                    test.assertEqual(QubBuildCompileParameters.getBuildJsonDefault(), request.getBuildJson());
+                    test.assertEqual(QubBuildCompileParameters.getCompilerTypeDefault(), request.getCompilerType());
+                    test.assertFalse(request.getVerbose());
+                    test.assertEqual(QubBuildCompileParameters.getJobsDefault(), request.getJobs());
+                    test.assertEqual(QubBuildCompileParameters.getArgumentsFileThresholdDefault(), request.getArgumentsFileThreshold());
+                    test.assertEqual(QubBuildCompileParameters.getLiveIssuesDefault(), request.getLiveIssues());
+                    test.assertEqual(QubBuildCompileParameters.getFailFastDefault(), request.getFailFast());
+                    test.assertEqual(QubBuildCompileParameters.getSourcepathDefault(), request.getSourcepath());
+                    test.assertEqual(QubBuildCompileParameters.getFileHashesDefault(), request.getFileHashes());
+                    test.assertEqual(QubBuildCompileParameters.getAbiDefault(), request.getAbi());
+                    test.assertEqual(QubBuildCompileParameters.getStateFileDefault(), request.getStateFile());
+                    test.assertEqual(QubBuildCompileParameters.getPrettyJsonDefault(), request.getPrettyJson());
+                    test.assertEqual(QubBuildCompileParameters.getJournalDefault(), request.getJournal());
+                    test.assertEqual(QubBuildCompileParameters.getRefIndexDefault(), request.getRefIndex());
+                    test.assertNull(request.getJavaHome());
+                    test.assertNull(request.getPathEnvironmentVariable());
+                    test.assertNull(request.getToken());
+                });
+            });
+
+            runner.testGroup("setToken(String)", () ->
+            {
+                runner.test("with null token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertThrows(() -> request.setToken(null),
+                        new PreConditionFailure("token cannot be null."));
+                    test.assertNull(request.getToken());
+                });
+
+                runner.test("with empty token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertThrows(() -> request.setToken(""),
+                        new PreConditionFailure("token cannot be empty."));
+                    test.assertNull(request.getToken());
+                });
+
+                runner.test("with non-empty token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertSame(request, request.setToken("abc"));
+                    test.assertEqual("abc", request.getToken());
+                    test.assertEqual("abc", QubBuildDaemonRequest.parse(request.toString(JSONFormat.consise)).await().getToken());
+                });
+            });
+
+            runner.testGroup("hasToken(String)", () ->
+            {
+                runner.test("with null token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertThrows(() -> request.hasToken(null),
+                        new PreConditionFailure("token cannot be null."));
+                });
+
+                runner.test("with empty token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertThrows(() -> request.hasToken(""),
+                        new PreConditionFailure("token cannot be empty."));
+                });
+
+                runner.test("with no token in the request", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await();
+                    test.assertFalse(request.hasToken("abc"));
+                });
+
+                runner.test("with empty token in the request", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{\"token\":\"\"}").await();
+                    test.assertFalse(request.hasToken("abc"));
+                });
+
+                runner.test("with different token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await()
+                        .setToken("abd");
+                    test.assertFalse(request.hasToken("abc"));
+                });
+
+                runner.test("with same token", (Test test) ->
+                {
+                    final QubBuildDaemonRequest request = QubBuildDaemonRequest.parse("{}").await()
+                        .setToken("abc");
+                    test.assertTrue(request.hasToken("abc"));
+                });
+            });
+        });
+    }
+
+    static void assertRequest(Test test, QubBuildCompileParameters parameters, QubBuildDaemonRequest request)
+    {
+        test.assertEqual(parameters.getFolderToBuild().getPath(), request.getFolder());
+        test.assertEqual(parameters.getWarnings(), request.getWarnings());
+        test.assertEqual(parameters.getBuildJson(), request.getBuildJson());
+        test.assertEqual(parameters.getCompilerType(), request.getCompilerType());
+        test.assertEqual(parameters.getVerbose().isVerbose(), request.getVerbose());
+        test.assertEqual(parameters.getJobs(), request.getJobs());
+        test.assertEqual(parameters.getArgumentsFileThreshold(), request.getArgumentsFileThreshold());
+        test.assertEqual(parameters.getLiveIssues(), request.getLiveIssues());
+        test.assertEqual(parameters.getFailFast(), request.getFailFast());
+        test.assertEqual(parameters.getSourcepath(), request.getSourcepath());
+        test.assertEqual(parameters.getFileHashes(), request.getFileHashes());
+        test.assertEqual(parameters.getAbi(), request.getAbi());
+        test.assertEqual(parameters.getStateFile(), request.getStateFile());
+        test.assertEqual(parameters.getPrettyJson(), request.getPrettyJson());
+        test.assertEqual(parameters.getJournal(), request.getJournal());
+        test.assertEqual(parameters.getRefIndex(), request.getRefIndex());
+    }
+}
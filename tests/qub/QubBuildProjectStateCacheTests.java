@@ -0,0 +1,78 @@
+package qub;
+
+public interface QubBuildProjectStateCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(QubBuildProjectStateCache.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                test.assertNotNull(cache);
+                test.assertEqual(0, cache.getCount());
+                test.assertEqual(QubBuildProjectStateCache.getMaximumProjectsDefault(), cache.getMaximumProjects());
+                test.assertEqual(QubBuildProjectStateCache.getMaximumMemoryBytesDefault(), cache.getMaximumMemoryBytes());
+            });
+
+            runner.testGroup("getOrCreate(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                    test.assertThrows(() -> cache.getOrCreate(null),
+                        new PreConditionFailure("projectFolderPath cannot be null."));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with new project", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                    final QubBuildProjectState projectState = cache.getOrCreate(Path.parse("/project/"));
+                    test.assertNotNull(projectState);
+                    test.assertEqual(Path.parse("/project/"), projectState.getProjectFolderPath());
+                    test.assertEqual(1, cache.getCount());
+                });
+
+                runner.test("with existing project", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                    final QubBuildProjectState projectState = cache.getOrCreate(Path.parse("/project/"));
+                    test.assertSame(projectState, cache.getOrCreate(Path.parse("/project/")));
+                    test.assertEqual(1, cache.getCount());
+                });
+
+                runner.test("with more projects than the maximum", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create()
+                        .setMaximumProjects(2);
+                    final QubBuildProjectState a = cache.getOrCreate(Path.parse("/a/"));
+                    final QubBuildProjectState b = cache.getOrCreate(Path.parse("/b/"));
+                    test.assertSame(a, cache.getOrCreate(Path.parse("/a/")));
+                    cache.getOrCreate(Path.parse("/c/"));
+                    test.assertEqual(2, cache.getCount());
+                    test.assertSame(a, cache.getOrCreate(Path.parse("/a/")));
+                    test.assertNotSame(b, cache.getOrCreate(Path.parse("/b/")));
+                });
+            });
+
+            runner.testGroup("remove(Path)", () ->
+            {
+                runner.test("with unknown project", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                    test.assertFalse(cache.remove(Path.parse("/project/")));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with known project", (Test test) ->
+                {
+                    final QubBuildProjectStateCache cache = QubBuildProjectStateCache.create();
+                    cache.getOrCreate(Path.parse("/project/"));
+                    test.assertTrue(cache.remove(Path.parse("/project/")));
+                    test.assertEqual(0, cache.getCount());
+                });
+            });
+        });
+    }
+}
@@ -40,7 +40,9 @@ public interface QubBuildTests
                                 "",
                                 "Actions:",
                                 "  compile (default): Compile source code files.",
-                                "  logs:              Show the logs folder."),
+                                "  daemon:            Run a daemon that keeps build state in memory between compilations.",
+                                "  logs:              Show the logs folder.",
+                                "  watch:             Compile source code files whenever they change."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -60,7 +62,9 @@ public interface QubBuildTests
                                 "",
                                 "Actions:",
                                 "  compile (default): Compile source code files.",
-                                "  logs:              Show the logs folder."),
+                                "  daemon:            Run a daemon that keeps build state in memory between compilations.",
+                                "  logs:              Show the logs folder.",
+                                "  watch:             Compile source code files whenever they change."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -73,11 +77,23 @@ public interface QubBuildTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: qub-build compile [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--verbose] [--profiler] [--help]",
+                                "Usage: qub-build compile [[--folder=]<folder-path-to-build>] [--warnings=<show|error|hide>] [--buildjson] [--compiler=<process|inprocess>] [--daemon] [--jobs=<count>] [--liveissues] [--failfast=<errors>] [--sourcepath] [--filehashes] [--abi] [--statefile] [--prettyjson] [--journal] [--refindex] [--verbose] [--profiler] [--help]",
                                 "  Compile source code files.",
                                 "  --folder:     The folder to build. The current folder will be used if this isn't defined.",
                                 "  --warnings:   How to handle build warnings. Can be either \"show\", \"error\", or \"hide\". Defaults to \"show\".",
                                 "  --buildjson:  Whether or not to read and write a build.json file. Defaults to true.",
+                                "  --compiler:   The Java compiler to use. Can be either \"process\" or \"inprocess\". Defaults to \"process\".",
+                                "  --daemon:     Whether or not to send the compilation to a running qub-build daemon. Defaults to false.",
+                                "  --jobs:       The number of compilers that can compile independent source files at the same time. Defaults to 1.",
+                                "  --liveissues: Whether or not to show issues while the compiler is still running. Defaults to false.",
+                                "  --failfast:   The number of errors that stop the compiler before it finishes. Defaults to 0, which never stops the compiler.",
+                                "  --sourcepath: Whether or not to let javac find the unmodified source files that it needs in the project's source folders. Defaults to false.",
+                                "  --filehashes: Whether or not to record the size and content hash of each source file so that a source file whose last modified time changed is only compiled if its contents changed. Defaults to true.",
+                                "  --abi:        Whether or not to only compile the dependents of a compiled source file when the API of its class files changed. Defaults to false.",
+                                "  --statefile:  Whether or not to keep the build state in a compact binary build.state file instead of in a build.json file. Defaults to false.",
+                                "  --prettyjson: Whether or not to pretty print the build.json file. Defaults to true.",
+                                "  --journal:    Whether or not to append the changes that each build makes to a build.journal file instead of rewriting the whole build state. Defaults to false.",
+                                "  --refindex:   Whether or not to record the identifiers that each source file refers to so that the unmodified source files that refer to an added type are found without reading them. Defaults to false.",
                                 "  --verbose(v): Whether or not to show verbose logs.",
                                 "  --profiler:   Whether or not this application should pause before it is run to allow a profiler to be attached.",
                                 "  --help(?):    Show the help message for this application."),
@@ -173,6 +189,60 @@ public interface QubBuildTests
                 });
             });
 
+            runner.testGroup("isJavaSourceFile(Folder,ProjectJSONJava,File)", () ->
+            {
+                final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                fileSystem.createRoot("/").await();
+                final Folder projectFolder = fileSystem.getFolder("/project/folder/").await();
+
+                final Action3<ProjectJSONJava,String,Boolean> isJavaSourceFileTest = (ProjectJSONJava projectJsonJava, String filePath, Boolean expected) ->
+                {
+                    runner.test("with " + projectJsonJava + " and " + Strings.escapeAndQuote(filePath), (Test test) ->
+                    {
+                        final File file = projectFolder.getFile(filePath).await();
+                        test.assertEqual(expected, QubBuild.isJavaSourceFile(projectFolder, projectJsonJava, file));
+                    });
+                };
+
+                isJavaSourceFileTest.run(ProjectJSONJava.create(), "sources/A.java", true);
+                isJavaSourceFileTest.run(ProjectJSONJava.create(), "sources/A.txt", false);
+                isJavaSourceFileTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("**/A*.java")), "sources/A.java", true);
+                isJavaSourceFileTest.run(ProjectJSONJava.create().setSourceFiles(PathPattern.parse("**/A*.java")), "sources/B.java", false);
+            });
+
+            runner.testGroup("getSourceFolderPaths(Iterable<File>,Folder)", () ->
+            {
+                runner.test("with null javaSourceFiles", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/folder/").await();
+                    test.assertThrows(() -> QubBuild.getSourceFolderPaths(null, projectFolder),
+                        new PreConditionFailure("javaSourceFiles cannot be null."));
+                });
+
+                runner.test("with null projectFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> QubBuild.getSourceFolderPaths(Iterable.create(), null),
+                        new PreConditionFailure("projectFolder cannot be null."));
+                });
+
+                runner.test("with source files in multiple folders", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder projectFolder = fileSystem.getFolder("/project/folder/").await();
+                    final Iterable<File> javaSourceFiles = Iterable.create(
+                        projectFolder.getFile("sources/A.java").await(),
+                        projectFolder.getFile("sources/b/B.java").await(),
+                        projectFolder.getFile("tests/ATests.java").await(),
+                        projectFolder.getFile("C.java").await());
+                    test.assertEqual(
+                        Iterable.create("sources", "tests"),
+                        QubBuild.getSourceFolderPaths(javaSourceFiles, projectFolder));
+                });
+            });
+
             runner.testGroup("getJavaOutputsFolder(Folder,ProjectJSONJava)", () ->
             {
                 runner.test("with null projectFolder", (Test test) ->